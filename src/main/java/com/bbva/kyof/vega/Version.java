@@ -7,8 +7,13 @@ import org.zeromq.ZMQ;
  */
 public final class Version
 {
-    /** Current version of the framework */
-    private static final String FRAMEWORK_VERSION_NUMBER = "3.0.0";
+    /**
+     * Current version of the framework, it is sent in the header of every message.
+     *
+     * Since 3.1.0 the header contains the sequence number of the message, the instances of previous versions can't read
+     * the messages of 3.1.0 or later, all the instances of a cluster should be upgraded together.
+     */
+    private static final String FRAMEWORK_VERSION_NUMBER = "3.1.0";
 
     /** Hided constructor since it is an utility class */
     private Version()
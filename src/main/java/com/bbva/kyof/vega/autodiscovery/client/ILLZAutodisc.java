@@ -1,6 +1,8 @@
 package com.bbva.kyof.vega.autodiscovery.client;
 
 
+import java.util.Collection;
+
 import com.bbva.kyof.vega.exception.LLZException;
 
 /**
@@ -28,6 +30,15 @@ public interface ILLZAutodisc
      */
     long createUniqueId() throws LLZException;
 
+    /**
+     * Returns a block of unique ids across all the nodes in the "cluster"
+     *
+     * @param count number of ids to create
+     * @return the created ids
+     * @throws LLZException
+     */
+    long[] createUniqueIds(final int count) throws LLZException;
+
     /**
      * Register a topic end-point in auto-discovery
      * 
@@ -36,6 +47,15 @@ public interface ILLZAutodisc
      * @throws LLZException
      */
     void registerTopicEndPoint(final LLZAutodiscEndPointType endPointType, final LLZAutoDiscTopicEndPoint endPointInfo) throws LLZException;
+
+    /**
+     * Register several topic end-points of the same type in auto-discovery in a single operation
+     *
+     * @param endPointType type of the endpoints to register
+     * @param endPointsInfo information of the endpoints
+     * @throws LLZException
+     */
+    void registerTopicEndPoints(final LLZAutodiscEndPointType endPointType, final Collection<LLZAutoDiscTopicEndPoint> endPointsInfo) throws LLZException;
  
     /**
      * Unregister a topic end-point in auto-discovery
@@ -65,4 +85,24 @@ public interface ILLZAutodisc
      * @throws LLZException if timeout is reached and no topic appears with that name
      */
     void unsubscribeFromTopicEndPoints(final String topicName, final LLZAutodiscEndPointType endPointType) throws LLZException;
+
+    /**
+     * Subscribes to events related to all the topic names that match a regular expression. It has to call for each
+     * existing end point of the matching topics and for the ones of the matching topics created later.
+     *
+     * @param topicRegexp regular expression to match against the topic names
+     * @param endPointType type of the endpoint to subscribe
+     * @param listener listener that will receive the events for the matching topic names and type
+     * @throws LLZException
+     */
+    void subscribeToTopicPattern(final String topicRegexp, final LLZAutodiscEndPointType endPointType, final ILLZAutodiscTopicEndPointChangeListener listener) throws LLZException;
+
+    /**
+     * Unsubscribes from events related to a topic name regular expression
+     *
+     * @param topicRegexp regular expression used in the subscription
+     * @param endPointType type of the endpoint to unsubscribe from
+     * @throws LLZException if not subscribed to the regular expression
+     */
+    void unsubscribeFromTopicPattern(final String topicRegexp, final LLZAutodiscEndPointType endPointType) throws LLZException;
 }
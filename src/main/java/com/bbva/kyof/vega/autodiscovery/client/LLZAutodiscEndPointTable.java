@@ -0,0 +1,539 @@
+package com.bbva.kyof.vega.autodiscovery.client;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.bbva.kyof.vega.exception.LLZException;
+
+/**
+ * Local table with the end points known by an auto-discovery implementation that has no distributed storage.
+ *
+ * Each end point has an expiration time that is extended every time it is refreshed. The changes in the
+ * table are notified to the listeners subscribed to the topic name and end point type of the end point, and to the
+ * listeners subscribed to a topic pattern that matches the topic name.
+ *
+ * The listeners are always called outside the table lock. The events of each subscription are queued under the table
+ * lock and delivered in that order by a single thread at a time, the thread that queues an event delivers the pending
+ * ones unless another thread is already doing it. The existing end points of a new subscription are queued first and
+ * delivered by the subscribing thread before returning, like the Hazelcast implementation does.
+ *
+ * The class is thread-safe
+ */
+public class LLZAutodiscEndPointTable
+{
+    /** Logger */
+    private static final Logger LOGGER = LoggerFactory.getLogger(LLZAutodiscEndPointTable.class);
+
+    /** Known end points by topic id */
+    private final Map<Long, TableEntry> entriesByTopicId = new HashMap<>();
+
+    /** Subscriptions by end point type and topic name */
+    private final Map<LLZAutodiscEndPointType, Map<String, Subscription>> subscriptionsByType = new HashMap<>();
+
+    /** Subscriptions to topic patterns by end point type and regular expression */
+    private final Map<LLZAutodiscEndPointType, Map<String, Subscription>> patternSubscriptionsByType = new HashMap<>();
+
+    /** Lock for the table and the subscriptions */
+    private final Object lock = new Object();
+
+    /**
+     * Add an end point or extend its expiration time if already known
+     *
+     * @param endPoint the alive end point
+     * @param expirationTime time in milliseconds when the end point will expire if not refreshed
+     */
+    public void onEndPointAlive(final ILLZAutodiscTopicEndPoint endPoint, final long expirationTime)
+    {
+        final List<Subscription> pendingDelivery = new ArrayList<>(1);
+
+        synchronized (this.lock)
+        {
+            final TableEntry entry = this.entriesByTopicId.get(endPoint.getTopicId());
+
+            if (entry != null)
+            {
+                entry.expirationTime = expirationTime;
+                return;
+            }
+
+            this.entriesByTopicId.put(endPoint.getTopicId(), new TableEntry(endPoint, expirationTime));
+            this.addEvent(pendingDelivery, endPoint, true);
+        }
+
+        this.deliverEvents(pendingDelivery);
+    }
+
+    /**
+     * Remove an end point
+     *
+     * @param topicId the topic id of the end point
+     */
+    public void onEndPointRemoved(final long topicId)
+    {
+        final List<Subscription> pendingDelivery = new ArrayList<>(1);
+
+        synchronized (this.lock)
+        {
+            final TableEntry entry = this.entriesByTopicId.remove(topicId);
+
+            if (entry == null)
+            {
+                return;
+            }
+
+            this.addEvent(pendingDelivery, entry.endPoint, false);
+        }
+
+        this.deliverEvents(pendingDelivery);
+    }
+
+    /**
+     * Remove the end points that have not been refreshed in time
+     *
+     * @param currentTime the current time in milliseconds
+     */
+    public void expireEndPoints(final long currentTime)
+    {
+        final List<Subscription> pendingDelivery = new ArrayList<>();
+
+        synchronized (this.lock)
+        {
+            final Iterator<TableEntry> iterator = this.entriesByTopicId.values().iterator();
+
+            while (iterator.hasNext())
+            {
+                final TableEntry entry = iterator.next();
+
+                if (entry.expirationTime < currentTime)
+                {
+                    LOGGER.info("Auto-discovery end point expired [{}]", entry.endPoint);
+
+                    iterator.remove();
+                    this.addEvent(pendingDelivery, entry.endPoint, false);
+                }
+            }
+        }
+
+        this.deliverEvents(pendingDelivery);
+    }
+
+    /**
+     * Subscribe to the changes of the end points of a topic name and type, the listener is called for the existing end
+     * points before returning
+     *
+     * @param topicName the topic name
+     * @param endPointType the end point type
+     * @param listener listener that will receive the events
+     */
+    public void subscribe(final String topicName, final LLZAutodiscEndPointType endPointType, final ILLZAutodiscTopicEndPointChangeListener listener)
+    {
+        final Subscription subscription = new Subscription(listener);
+
+        synchronized (this.lock)
+        {
+            final Map<String, Subscription> subscriptions = this.getSubscriptions(endPointType);
+
+            if (subscriptions.containsKey(topicName))
+            {
+                LOGGER.error("Already subscribed to changes on topic [{}]", topicName);
+                return;
+            }
+
+            subscriptions.put(topicName, subscription);
+
+            for (final TableEntry entry : this.entriesByTopicId.values())
+            {
+                if (entry.endPoint.getType() == endPointType && entry.endPoint.getTopicName().equals(topicName))
+                {
+                    subscription.addEvent(entry.endPoint, true);
+                }
+            }
+        }
+
+        // Notify the existing end points and the real time events queued meanwhile
+        subscription.deliverPendingEvents();
+    }
+
+    /**
+     * Unsubscribe from the changes of the end points of a topic name and type
+     *
+     * @param topicName the topic name
+     * @param endPointType the end point type
+     * @throws LLZException if not subscribed
+     */
+    public void unsubscribe(final String topicName, final LLZAutodiscEndPointType endPointType) throws LLZException
+    {
+        synchronized (this.lock)
+        {
+            final Subscription subscription = this.getSubscriptions(endPointType).remove(topicName);
+
+            if (subscription == null)
+            {
+                LOGGER.error("Trying to unsubscribe from a non subscribed topic [{}]", topicName);
+                throw new LLZException("Trying to unsubscribe from a non subscribed topic, topic name:" + topicName);
+            }
+
+            subscription.active = false;
+        }
+    }
+
+    /**
+     * Subscribe to the changes of the end points of the topic names that match a pattern and of a type, the listener
+     * is called for the existing end points before returning
+     *
+     * @param topicRegexp regular expression to match against the topic names
+     * @param endPointType the end point type
+     * @param listener listener that will receive the events
+     * @throws LLZException if the regular expression is not valid
+     */
+    public void subscribeToPattern(final String topicRegexp, final LLZAutodiscEndPointType endPointType, final ILLZAutodiscTopicEndPointChangeListener listener) throws LLZException
+    {
+        final Subscription subscription;
+
+        try
+        {
+            subscription = new Subscription(listener, Pattern.compile(topicRegexp));
+        }
+        catch (final PatternSyntaxException e)
+        {
+            LOGGER.error("Invalid topic pattern [{}]", topicRegexp, e);
+            throw new LLZException("Invalid topic pattern " + topicRegexp, e);
+        }
+
+        synchronized (this.lock)
+        {
+            final Map<String, Subscription> subscriptions = this.getSubscriptions(this.patternSubscriptionsByType, endPointType);
+
+            if (subscriptions.containsKey(topicRegexp))
+            {
+                LOGGER.error("Already subscribed to changes on topic pattern [{}]", topicRegexp);
+                return;
+            }
+
+            subscriptions.put(topicRegexp, subscription);
+
+            for (final TableEntry entry : this.entriesByTopicId.values())
+            {
+                if (entry.endPoint.getType() == endPointType && subscription.matches(entry.endPoint.getTopicName()))
+                {
+                    subscription.addEvent(entry.endPoint, true);
+                }
+            }
+        }
+
+        // Notify the existing end points and the real time events queued meanwhile
+        subscription.deliverPendingEvents();
+    }
+
+    /**
+     * Unsubscribe from the changes of the end points of a topic pattern and type
+     *
+     * @param topicRegexp the regular expression used in the subscription
+     * @param endPointType the end point type
+     * @throws LLZException if not subscribed
+     */
+    public void unsubscribeFromPattern(final String topicRegexp, final LLZAutodiscEndPointType endPointType) throws LLZException
+    {
+        synchronized (this.lock)
+        {
+            final Subscription subscription = this.getSubscriptions(this.patternSubscriptionsByType, endPointType).remove(topicRegexp);
+
+            if (subscription == null)
+            {
+                LOGGER.error("Trying to unsubscribe from a non subscribed topic pattern [{}]", topicRegexp);
+                throw new LLZException("Trying to unsubscribe from a non subscribed topic pattern:" + topicRegexp);
+            }
+
+            subscription.active = false;
+        }
+    }
+
+    /**
+     * Return the subscriptions of an end point type, call with the lock taken
+     *
+     * @param endPointType the end point type
+     * @return the subscriptions by topic name
+     */
+    private Map<String, Subscription> getSubscriptions(final LLZAutodiscEndPointType endPointType)
+    {
+        return this.getSubscriptions(this.subscriptionsByType, endPointType);
+    }
+
+    /**
+     * Return the subscriptions of an end point type from the given index, call with the lock taken
+     *
+     * @param index subscriptions by end point type
+     * @param endPointType the end point type
+     * @return the subscriptions of the type
+     */
+    private Map<String, Subscription> getSubscriptions(final Map<LLZAutodiscEndPointType, Map<String, Subscription>> index, final LLZAutodiscEndPointType endPointType)
+    {
+        Map<String, Subscription> result = index.get(endPointType);
+
+        if (result == null)
+        {
+            result = new HashMap<>();
+            index.put(endPointType, result);
+        }
+
+        return result;
+    }
+
+    /**
+     * Queue an event in the subscription of the end point and in the matching pattern subscriptions if any, call with
+     * the lock taken
+     *
+     * @param pendingDelivery list to add the subscriptions that have to be delivered by the current thread
+     * @param endPoint the end point that changed
+     * @param added true if added, false if removed
+     */
+    private void addEvent(final List<Subscription> pendingDelivery, final ILLZAutodiscTopicEndPoint endPoint, final boolean added)
+    {
+        final Subscription subscription = this.getSubscriptions(endPoint.getType()).get(endPoint.getTopicName());
+
+        if (subscription != null && subscription.addEvent(endPoint, added))
+        {
+            pendingDelivery.add(subscription);
+        }
+
+        final Map<String, Subscription> patternSubscriptions = this.patternSubscriptionsByType.get(endPoint.getType());
+
+        if (patternSubscriptions != null)
+        {
+            for (final Subscription patternSubscription : patternSubscriptions.values())
+            {
+                if (patternSubscription.matches(endPoint.getTopicName()) && patternSubscription.addEvent(endPoint, added))
+                {
+                    pendingDelivery.add(patternSubscription);
+                }
+            }
+        }
+    }
+
+    /**
+     * Deliver the queued events of the subscriptions, call without the lock taken
+     *
+     * @param pendingDelivery the subscriptions to deliver
+     */
+    private void deliverEvents(final List<Subscription> pendingDelivery)
+    {
+        for (final Subscription subscription : pendingDelivery)
+        {
+            subscription.deliverPendingEvents();
+        }
+    }
+
+    /**
+     * End point in the table with its expiration time
+     */
+    private static final class TableEntry
+    {
+        /** The end point */
+        private final ILLZAutodiscTopicEndPoint endPoint;
+
+        /** Time in milliseconds when the end point expires */
+        private long expirationTime;
+
+        /**
+         * Create a new entry
+         *
+         * @param endPoint the end point
+         * @param expirationTime time in milliseconds when the end point expires
+         */
+        private TableEntry(final ILLZAutodiscTopicEndPoint endPoint, final long expirationTime)
+        {
+            this.endPoint = endPoint;
+            this.expirationTime = expirationTime;
+        }
+    }
+
+    /**
+     * Subscription of a listener to a topic name or pattern and end point type
+     */
+    private static final class Subscription
+    {
+        /** Listener of the subscription */
+        private final ILLZAutodiscTopicEndPointChangeListener listener;
+
+        /** Pattern of the topic names of the subscription, null if subscribed to a single topic name */
+        private final Pattern pattern;
+
+        /** Events pending to be delivered in the order they happened, access with the events lock taken */
+        private final ArrayDeque<Event> pendingEvents = new ArrayDeque<>();
+
+        /** Lock for the pending events */
+        private final Object eventsLock = new Object();
+
+        /** True while a thread is delivering the pending events, the subscribing thread delivers the first ones */
+        private boolean delivering = true;
+
+        /** False once unsubscribed */
+        private volatile boolean active = true;
+
+        /**
+         * Create a new subscription
+         *
+         * @param listener listener of the subscription
+         */
+        private Subscription(final ILLZAutodiscTopicEndPointChangeListener listener)
+        {
+            this(listener, null);
+        }
+
+        /**
+         * Create a new subscription
+         *
+         * @param listener listener of the subscription
+         * @param pattern pattern of the topic names of the subscription, null if subscribed to a single topic name
+         */
+        private Subscription(final ILLZAutodiscTopicEndPointChangeListener listener, final Pattern pattern)
+        {
+            this.listener = listener;
+            this.pattern = pattern;
+        }
+
+        /**
+         * Check if a topic name matches the pattern of the subscription
+         *
+         * @param topicName the topic name
+         * @return true if it matches
+         */
+        private boolean matches(final String topicName)
+        {
+            return this.pattern.matcher(topicName).matches();
+        }
+
+        /**
+         * Queue an event to be delivered, call with the table lock taken to keep the order of the table changes
+         *
+         * @param endPoint the end point that changed
+         * @param added true if added, false if removed
+         * @return true if the calling thread has to deliver the events, false if another thread is delivering them
+         */
+        private boolean addEvent(final ILLZAutodiscTopicEndPoint endPoint, final boolean added)
+        {
+            synchronized (this.eventsLock)
+            {
+                this.pendingEvents.add(new Event(endPoint, added));
+
+                if (this.delivering)
+                {
+                    return false;
+                }
+
+                this.delivering = true;
+                return true;
+            }
+        }
+
+        /**
+         * Deliver the pending events until there are no more, only called by the thread that owns the delivery
+         */
+        private void deliverPendingEvents()
+        {
+            boolean finished = false;
+
+            try
+            {
+                Event event = this.nextEvent();
+
+                while (event != null)
+                {
+                    this.notifyListener(event);
+                    event = this.nextEvent();
+                }
+
+                finished = true;
+            }
+            finally
+            {
+                // Release the delivery if leaving on an error, the next event will deliver the pending ones
+                if (!finished)
+                {
+                    synchronized (this.eventsLock)
+                    {
+                        this.delivering = false;
+                    }
+                }
+            }
+        }
+
+        /** @return the next pending event, null if there are no more, in that case the delivery is released */
+        private Event nextEvent()
+        {
+            synchronized (this.eventsLock)
+            {
+                final Event result = this.pendingEvents.poll();
+
+                if (result == null)
+                {
+                    this.delivering = false;
+                }
+
+                return result;
+            }
+        }
+
+        /**
+         * Notify an event to the listener if still subscribed
+         *
+         * @param event the event to notify
+         */
+        private void notifyListener(final Event event)
+        {
+            if (!this.active)
+            {
+                return;
+            }
+
+            try
+            {
+                if (event.added)
+                {
+                    this.listener.onEndPointAdded(event.endPoint);
+                }
+                else
+                {
+                    this.listener.onEndPointRemoved(event.endPoint);
+                }
+            }
+            catch (final RuntimeException e)
+            {
+                LOGGER.error("Unexpected exception notifying auto-discovery event for end point [{}]", event.endPoint, e);
+            }
+        }
+    }
+
+    /**
+     * Change on an end point pending to be notified
+     */
+    private static final class Event
+    {
+        /** The end point that changed */
+        private final ILLZAutodiscTopicEndPoint endPoint;
+
+        /** True if added, false if removed */
+        private final boolean added;
+
+        /**
+         * Create a new event
+         *
+         * @param endPoint the end point that changed
+         * @param added true if added, false if removed
+         */
+        private Event(final ILLZAutodiscTopicEndPoint endPoint, final boolean added)
+        {
+            this.endPoint = endPoint;
+            this.added = added;
+        }
+    }
+}
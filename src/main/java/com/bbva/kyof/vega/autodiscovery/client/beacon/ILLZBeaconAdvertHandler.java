@@ -0,0 +1,25 @@
+package com.bbva.kyof.vega.autodiscovery.client.beacon;
+
+import com.bbva.kyof.vega.autodiscovery.client.ILLZAutodiscTopicEndPoint;
+import com.bbva.kyof.vega.autodiscovery.client.LLZAutodiscEndPointType;
+
+/**
+ * Interface to receive the records of a decoded beacon advert
+ */
+public interface ILLZBeaconAdvertHandler
+{
+    /**
+     * Called for each alive end point in the advert
+     *
+     * @param endPoint the alive end point
+     */
+    void onEndPointAlive(final ILLZAutodiscTopicEndPoint endPoint);
+
+    /**
+     * Called for each removed end point in the advert
+     *
+     * @param endPointType the type of the removed end point
+     * @param topicId the topic id of the removed end point
+     */
+    void onEndPointRemoved(final LLZAutodiscEndPointType endPointType, final long topicId);
+}
@@ -0,0 +1,192 @@
+package com.bbva.kyof.vega.autodiscovery.client.beacon;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+import com.bbva.kyof.vega.autodiscovery.client.ILLZAutodiscTopicEndPoint;
+import com.bbva.kyof.vega.autodiscovery.client.LLZAutoDiscTopicEndPoint;
+import com.bbva.kyof.vega.autodiscovery.client.LLZAutodiscEndPointType;
+import com.bbva.kyof.vega.exception.LLZException;
+
+/**
+ * Binary format of the beacon auto-discovery adverts.
+ *
+ * An advert is a header followed by as many records as fit in the datagram:
+ * <pre>
+ * Header: magic (int), version (byte), sender id (long)
+ * Alive record: action (byte), end point type (byte), topic id (long), socket id (long), instance id (long),
+ *               topic name (short length + UTF-8), bind address (short length + UTF-8)
+ * Removed record: action (byte), end point type (byte), topic id (long)
+ * </pre>
+ *
+ * The class is thread-safe, it has no state
+ */
+public final class LLZBeaconAdvertCodec
+{
+    /** Maximum size of an advert, it should fit in a single ethernet frame */
+    public static final int MAX_ADVERT_SIZE = 1400;
+
+    /** Magic number that identifies the adverts ("LLZB") */
+    private static final int MAGIC = 0x4C4C5A42;
+
+    /** Version of the advert format */
+    private static final byte VERSION = 1;
+
+    /** Action of a record that announces an alive end point */
+    private static final byte ACTION_ALIVE = 1;
+
+    /** Action of a record that announces a removed end point */
+    private static final byte ACTION_REMOVED = 2;
+
+    /** Charset of the strings */
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    /** Private constructor to avoid instantiation */
+    private LLZBeaconAdvertCodec()
+    {
+        // Nothing to do
+    }
+
+    /**
+     * Write the advert header, the buffer should be clear
+     *
+     * @param buffer the buffer to write into
+     * @param senderId unique id of the sender of the advert
+     */
+    public static void writeHeader(final ByteBuffer buffer, final long senderId)
+    {
+        buffer.putInt(MAGIC);
+        buffer.put(VERSION);
+        buffer.putLong(senderId);
+    }
+
+    /**
+     * Write a record announcing an alive end point
+     *
+     * @param buffer the buffer to write into
+     * @param endPoint the end point to announce
+     * @return false if there is no space left in the buffer, the buffer is not modified in that case
+     */
+    public static boolean writeAlive(final ByteBuffer buffer, final ILLZAutodiscTopicEndPoint endPoint)
+    {
+        final byte[] topicName = endPoint.getTopicName().getBytes(UTF8);
+        final byte[] bindAddress = endPoint.getBindAddress().getBytes(UTF8);
+
+        if (buffer.remaining() < 2 + 8 * 3 + 2 + topicName.length + 2 + bindAddress.length)
+        {
+            return false;
+        }
+
+        buffer.put(ACTION_ALIVE);
+        buffer.put((byte) endPoint.getType().getIntValue());
+        buffer.putLong(endPoint.getTopicId());
+        buffer.putLong(endPoint.getSocketId());
+        buffer.putLong(endPoint.getInstanceId());
+        buffer.putShort((short) topicName.length);
+        buffer.put(topicName);
+        buffer.putShort((short) bindAddress.length);
+        buffer.put(bindAddress);
+        return true;
+    }
+
+    /**
+     * Write a record announcing a removed end point
+     *
+     * @param buffer the buffer to write into
+     * @param endPointType the type of the removed end point
+     * @param topicId the topic id of the removed end point
+     * @return false if there is no space left in the buffer, the buffer is not modified in that case
+     */
+    public static boolean writeRemoved(final ByteBuffer buffer, final LLZAutodiscEndPointType endPointType, final long topicId)
+    {
+        if (buffer.remaining() < 2 + 8)
+        {
+            return false;
+        }
+
+        buffer.put(ACTION_REMOVED);
+        buffer.put((byte) endPointType.getIntValue());
+        buffer.putLong(topicId);
+        return true;
+    }
+
+    /**
+     * Read the header of an advert
+     *
+     * @param buffer the buffer with the advert
+     * @return the sender id of the advert
+     * @throws LLZException if the advert is not valid
+     */
+    public static long readHeader(final ByteBuffer buffer) throws LLZException
+    {
+        try
+        {
+            if (buffer.getInt() != MAGIC || buffer.get() != VERSION)
+            {
+                throw new LLZException("Unknown beacon advert format");
+            }
+
+            return buffer.getLong();
+        }
+        catch (final BufferUnderflowException e)
+        {
+            throw new LLZException("Truncated beacon advert header", e);
+        }
+    }
+
+    /**
+     * Read all the records of an advert, the header should have been read already
+     *
+     * @param buffer the buffer with the advert
+     * @param handler handler that will receive the records
+     * @throws LLZException if the advert is not valid, the records before the invalid one are already delivered
+     */
+    public static void readRecords(final ByteBuffer buffer, final ILLZBeaconAdvertHandler handler) throws LLZException
+    {
+        try
+        {
+            while (buffer.hasRemaining())
+            {
+                final byte action = buffer.get();
+                final LLZAutodiscEndPointType type = LLZAutodiscEndPointType.fromIntValue(buffer.get());
+                final long topicId = buffer.getLong();
+
+                if (action == ACTION_ALIVE)
+                {
+                    final long socketId = buffer.getLong();
+                    final long instanceId = buffer.getLong();
+                    final String topicName = readString(buffer);
+                    final String bindAddress = readString(buffer);
+
+                    handler.onEndPointAlive(new LLZAutoDiscTopicEndPoint(type, topicName, socketId, topicId, instanceId, bindAddress));
+                }
+                else if (action == ACTION_REMOVED)
+                {
+                    handler.onEndPointRemoved(type, topicId);
+                }
+                else
+                {
+                    throw new LLZException("Unknown beacon advert record action " + action);
+                }
+            }
+        }
+        catch (final BufferUnderflowException e)
+        {
+            throw new LLZException("Truncated beacon advert record", e);
+        }
+    }
+
+    /**
+     * Read a string written as length and UTF-8 bytes
+     *
+     * @param buffer the buffer to read from
+     * @return the read string
+     */
+    private static String readString(final ByteBuffer buffer)
+    {
+        final byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(bytes);
+        return new String(bytes, UTF8);
+    }
+}
@@ -0,0 +1,564 @@
+package com.bbva.kyof.vega.autodiscovery.client.beacon;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.MulticastSocket;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.bbva.kyof.vega.autodiscovery.client.ILLZAutodisc;
+import com.bbva.kyof.vega.autodiscovery.client.ILLZAutodiscTopicEndPoint;
+import com.bbva.kyof.vega.autodiscovery.client.ILLZAutodiscTopicEndPointChangeListener;
+import com.bbva.kyof.vega.autodiscovery.client.LLZAutodiscEndPointTable;
+import com.bbva.kyof.vega.autodiscovery.client.LLZAutoDiscTopicEndPoint;
+import com.bbva.kyof.vega.autodiscovery.client.LLZAutodiscEndPointType;
+import com.bbva.kyof.vega.config.LLZInstanceConfigWrapper;
+import com.bbva.kyof.vega.config.general.AutoDiscoveryConfig;
+import com.bbva.kyof.vega.config.general.TransportMediaType;
+import com.bbva.kyof.vega.exception.LLZException;
+import com.bbva.kyof.vega.util.threads.ILLZThreadFactory;
+import com.bbva.kyof.vega.util.threads.LLZThreadRole;
+
+/**
+ * Lightweight auto-discovery implementation based on UDP beacons.
+ *
+ * Every instance periodically sends adverts with its own end points, either to a multicast group or to a list of
+ * unicast addresses, and keeps a local table with the end points of the rest of instances. The end points of an
+ * instance that stops advertising expire after the configured time to live. Unregistered end points are announced
+ * immediately so they don't have to wait for the expiration.
+ *
+ * The unique ids are generated locally combining a random 32 bits prefix with a counter, no coordination is needed. If
+ * an advert of another instance contains an id with the same prefix the collision is logged and a new prefix is taken
+ * for the next ids.
+ *
+ * With unicast adverts the socket is bound with address reuse, so several instances of the same host can start with the
+ * same beacon port, but only one of them receives the adverts sent to that port. The instances of the same host should
+ * use different beacon ports and list them in the addresses of the rest of instances.
+ *
+ * The class is thread-safe
+ */
+public class LLZBeaconManager implements ILLZAutodisc, Runnable
+{
+    /** Logger */
+    private static final Logger LOGGER = LoggerFactory.getLogger(LLZBeaconManager.class);
+
+    /** Maximum time to block in the socket reception, in milliseconds */
+    private static final int MAX_RECEIVE_TIMEOUT = 100;
+
+    /** Random generator for the node id and the prefixes of the unique ids */
+    private final SecureRandom random = new SecureRandom();
+
+    /** Random node id of the instance, used as sender id of the adverts */
+    private final long nodeId;
+
+    /** Lock for the prefix and the counter of the unique ids */
+    private final Object idLock = new Object();
+
+    /** Random prefix of the unique ids, it is replaced if another instance is found using it */
+    private long idPrefix;
+
+    /** Counter for the unique ids */
+    private long idCounter = 0;
+
+    /** Interval between adverts in milliseconds */
+    private final long refreshInterval;
+
+    /** Time in milliseconds before a not refreshed remote end point expires */
+    private final long timeToLive;
+
+    /** Socket used to send and receive the adverts */
+    private final DatagramSocket socket;
+
+    /** Destinations of the adverts */
+    private final List<InetSocketAddress> destinations;
+
+    /** End points registered by this instance by topic id */
+    private final Map<Long, ILLZAutodiscTopicEndPoint> localEndPointsByTopicId = new ConcurrentHashMap<>();
+
+    /** Table with all the known end points, local and remote */
+    private final LLZAutodiscEndPointTable endPointTable = new LLZAutodiscEndPointTable();
+
+    /** Buffer to encode the adverts, only used with the send lock taken */
+    private final ByteBuffer sendBuffer = ByteBuffer.allocate(LLZBeaconAdvertCodec.MAX_ADVERT_SIZE);
+
+    /** Lock for the sending of adverts */
+    private final Object sendLock = new Object();
+
+    /** Handler for the records of the received adverts, only used by the beacon thread */
+    private final ReceivedAdvertHandler receivedAdvertHandler = new ReceivedAdvertHandler();
+
+    /** True if the beacon thread should stop */
+    private volatile boolean shouldStop = false;
+
+    /** True once the beacon thread is stopped */
+    private volatile boolean stopped = false;
+
+    /**
+     * Create the beacon auto-discovery, open the socket and start the beacon thread
+     *
+     * @param instanceConfig the configuration of the manager instance
+     * @param threadFactory factory for the beacon thread
+     * @throws LLZException if the socket cannot be created
+     */
+    public LLZBeaconManager(final LLZInstanceConfigWrapper instanceConfig, final ILLZThreadFactory threadFactory) throws LLZException
+    {
+        final AutoDiscoveryConfig autodiscoConfig = instanceConfig.getAutodiscoConfig();
+
+        this.nodeId = this.random.nextLong();
+        this.idPrefix = this.random.nextInt() & 0xFFFFFFFFL;
+        this.refreshInterval = autodiscoConfig.getRefreshInterval();
+        this.timeToLive = autodiscoConfig.getTimeToLive() * 1000L;
+
+        try
+        {
+            if (autodiscoConfig.getTransportMedia() == TransportMediaType.MULTICAST)
+            {
+                final InetAddress group = InetAddress.getByName(autodiscoConfig.getAddresses().split(",")[0].trim());
+                final MulticastSocket multicastSocket = new MulticastSocket(autodiscoConfig.getBeaconPort());
+                multicastSocket.setLoopbackMode(false);
+                multicastSocket.joinGroup(group);
+
+                this.socket = multicastSocket;
+                this.destinations = new ArrayList<>(1);
+                this.destinations.add(new InetSocketAddress(group, autodiscoConfig.getBeaconPort()));
+            }
+            else
+            {
+                // Reuse the address so another instance of the host using the same port doesn't prevent the start
+                final DatagramSocket unicastSocket = new DatagramSocket(null);
+                unicastSocket.setReuseAddress(true);
+                unicastSocket.bind(new InetSocketAddress(autodiscoConfig.getBeaconPort()));
+
+                this.socket = unicastSocket;
+                this.destinations = parseUnicastAddresses(autodiscoConfig.getAddresses(), autodiscoConfig.getBeaconPort());
+            }
+        }
+        catch (final IOException e)
+        {
+            LOGGER.error("Error creating the beacon auto-discovery socket on port [{}]", autodiscoConfig.getBeaconPort(), e);
+            throw new LLZException("Error creating the beacon auto-discovery socket", e);
+        }
+
+        LOGGER.info("Beacon auto-discovery started with node id [{}], sending adverts to {}", this.nodeId, this.destinations);
+
+        final Thread beaconThread = threadFactory.newThread(LLZThreadRole.AUTODISC_BACKGROUND, "LLZ BEACON AUTODISC", this);
+        beaconThread.start();
+    }
+
+    /**
+     * Parse the comma separated list of unicast destinations, each one in host[:port] format
+     *
+     * @param addresses the list of addresses
+     * @param defaultPort port for the addresses without port
+     * @return the parsed destinations
+     */
+    private static List<InetSocketAddress> parseUnicastAddresses(final String addresses, final int defaultPort)
+    {
+        final List<InetSocketAddress> result = new ArrayList<>();
+
+        for (final String address : addresses.split(","))
+        {
+            final String trimmedAddress = address.trim();
+            final int portSeparator = trimmedAddress.lastIndexOf(':');
+
+            if (portSeparator < 0)
+            {
+                result.add(new InetSocketAddress(trimmedAddress, defaultPort));
+            }
+            else
+            {
+                final int port = Integer.parseInt(trimmedAddress.substring(portSeparator + 1));
+                result.add(new InetSocketAddress(trimmedAddress.substring(0, portSeparator), port));
+            }
+        }
+
+        return result;
+    }
+
+    @Override
+    public long createUniqueId() throws LLZException
+    {
+        synchronized (this.idLock)
+        {
+            return this.nextUniqueId();
+        }
+    }
+
+    @Override
+    public long[] createUniqueIds(final int count) throws LLZException
+    {
+        final long[] result = new long[count];
+
+        synchronized (this.idLock)
+        {
+            for (int i = 0; i < count; i++)
+            {
+                result[i] = this.nextUniqueId();
+            }
+        }
+
+        return result;
+    }
+
+    /** @return the next unique id, call with the id lock taken */
+    private long nextUniqueId()
+    {
+        this.idCounter++;
+
+        // Take a new prefix once the counter of the current one is exhausted
+        if (this.idCounter > 0xFFFFFFFFL)
+        {
+            this.idPrefix = this.newIdPrefix(this.idPrefix);
+            this.idCounter = 1;
+        }
+
+        return (this.idPrefix << 32) | this.idCounter;
+    }
+
+    /**
+     * Draw a random prefix for the unique ids, call with the id lock taken
+     *
+     * @param currentPrefix the prefix in use, the new one will be different
+     * @return the new prefix
+     */
+    private long newIdPrefix(final long currentPrefix)
+    {
+        long result = this.random.nextInt() & 0xFFFFFFFFL;
+
+        while (result == currentPrefix)
+        {
+            result = this.random.nextInt() & 0xFFFFFFFFL;
+        }
+
+        return result;
+    }
+
+    /**
+     * Check if the id of a remote end point uses the prefix of the local ids, in that case take a new prefix for the next
+     * ids. The ids already created with the old prefix may collide with the ones of the other instance.
+     *
+     * @param endPoint the remote end point
+     */
+    private void checkIdPrefixCollision(final ILLZAutodiscTopicEndPoint endPoint)
+    {
+        final long remotePrefix = endPoint.getTopicId() >>> 32;
+
+        synchronized (this.idLock)
+        {
+            if (remotePrefix != this.idPrefix)
+            {
+                return;
+            }
+
+            this.idPrefix = this.newIdPrefix(this.idPrefix);
+            this.idCounter = 0;
+        }
+
+        LOGGER.error("Unique id prefix [{}] also used by a remote instance, found in end point [{}]. The next ids will use a new prefix",
+                remotePrefix, endPoint);
+    }
+
+    @Override
+    public void registerTopicEndPoint(final LLZAutodiscEndPointType endPointType, final LLZAutoDiscTopicEndPoint endPointInfo) throws LLZException
+    {
+        LOGGER.debug("Adding new end point information to beacon autodiscovery for topicId [{}], new socket is [{}]",
+                endPointInfo.getTopicId(), endPointInfo.getBindAddress());
+
+        this.localEndPointsByTopicId.put(endPointInfo.getTopicId(), endPointInfo);
+
+        // The local end points never expire, they are removed when unregistered
+        this.endPointTable.onEndPointAlive(endPointInfo, Long.MAX_VALUE);
+
+        // Advertise it right away instead of waiting for the next refresh
+        synchronized (this.sendLock)
+        {
+            this.startAdvert();
+            LLZBeaconAdvertCodec.writeAlive(this.sendBuffer, endPointInfo);
+            this.sendAdvert();
+        }
+    }
+
+    @Override
+    public void registerTopicEndPoints(final LLZAutodiscEndPointType endPointType, final Collection<LLZAutoDiscTopicEndPoint> endPointsInfo) throws LLZException
+    {
+        LOGGER.debug("Adding [{}] new end points information to beacon autodiscovery", endPointsInfo.size());
+
+        for (final LLZAutoDiscTopicEndPoint endPointInfo : endPointsInfo)
+        {
+            this.localEndPointsByTopicId.put(endPointInfo.getTopicId(), endPointInfo);
+            this.endPointTable.onEndPointAlive(endPointInfo, Long.MAX_VALUE);
+        }
+
+        // Advertise all of them right away, packed in as few datagrams as possible
+        synchronized (this.sendLock)
+        {
+            this.startAdvert();
+
+            for (final LLZAutoDiscTopicEndPoint endPointInfo : endPointsInfo)
+            {
+                this.writeAliveRecord(endPointInfo);
+            }
+
+            this.sendAdvert();
+        }
+    }
+
+    @Override
+    public void unregisterTopicEndPoint(final LLZAutodiscEndPointType endPointType, final long topicUniqueId) throws LLZException
+    {
+        LOGGER.debug("Removing information from beacon autodiscovery for topic id [{}]", topicUniqueId);
+
+        if (this.localEndPointsByTopicId.remove(topicUniqueId) == null)
+        {
+            return;
+        }
+
+        this.endPointTable.onEndPointRemoved(topicUniqueId);
+
+        synchronized (this.sendLock)
+        {
+            this.startAdvert();
+            LLZBeaconAdvertCodec.writeRemoved(this.sendBuffer, endPointType, topicUniqueId);
+            this.sendAdvert();
+        }
+    }
+
+    @Override
+    public void subscribeToTopicEndPoints(final String topicName, final LLZAutodiscEndPointType endPointType, final ILLZAutodiscTopicEndPointChangeListener listener) throws LLZException
+    {
+        this.endPointTable.subscribe(topicName, endPointType, listener);
+    }
+
+    @Override
+    public void unsubscribeFromTopicEndPoints(final String topicName, final LLZAutodiscEndPointType endPointType) throws LLZException
+    {
+        this.endPointTable.unsubscribe(topicName, endPointType);
+    }
+
+    @Override
+    public void subscribeToTopicPattern(final String topicRegexp, final LLZAutodiscEndPointType endPointType, final ILLZAutodiscTopicEndPointChangeListener listener) throws LLZException
+    {
+        this.endPointTable.subscribeToPattern(topicRegexp, endPointType, listener);
+    }
+
+    @Override
+    public void unsubscribeFromTopicPattern(final String topicRegexp, final LLZAutodiscEndPointType endPointType) throws LLZException
+    {
+        this.endPointTable.unsubscribeFromPattern(topicRegexp, endPointType);
+    }
+
+    @Override
+    public void stop() throws LLZException
+    {
+        LOGGER.debug("Stopping beacon auto-discovery...");
+
+        this.shouldStop = true;
+
+        // Announce the removal of the local end points so the rest of instances don't wait for the expiration
+        synchronized (this.sendLock)
+        {
+            this.startAdvert();
+
+            for (final ILLZAutodiscTopicEndPoint endPoint : this.localEndPointsByTopicId.values())
+            {
+                if (!LLZBeaconAdvertCodec.writeRemoved(this.sendBuffer, endPoint.getType(), endPoint.getTopicId()))
+                {
+                    this.sendAdvert();
+                    this.startAdvert();
+                    LLZBeaconAdvertCodec.writeRemoved(this.sendBuffer, endPoint.getType(), endPoint.getTopicId());
+                }
+            }
+
+            if (!this.localEndPointsByTopicId.isEmpty())
+            {
+                this.sendAdvert();
+                this.localEndPointsByTopicId.clear();
+            }
+        }
+
+        // Closing the socket unblocks the beacon thread
+        this.socket.close();
+
+        try
+        {
+            while (!this.stopped)
+            {
+                Thread.sleep(10);
+            }
+        }
+        catch (final InterruptedException e)
+        {
+            LOGGER.error("An internal error occurred during stopping beacon auto-discovery thread [{}]", e);
+            throw new LLZException(e);
+        }
+    }
+
+    @Override
+    public void run()
+    {
+        final byte[] receiveBytes = new byte[LLZBeaconAdvertCodec.MAX_ADVERT_SIZE];
+        final DatagramPacket receivedPacket = new DatagramPacket(receiveBytes, receiveBytes.length);
+        long nextRefreshTime = 0;
+
+        while (!this.shouldStop)
+        {
+            try
+            {
+                final long currentTime = System.currentTimeMillis();
+
+                if (currentTime >= nextRefreshTime)
+                {
+                    this.advertiseLocalEndPoints();
+                    this.endPointTable.expireEndPoints(currentTime);
+                    nextRefreshTime = currentTime + this.refreshInterval;
+                }
+
+                this.socket.setSoTimeout((int) Math.max(1, Math.min(MAX_RECEIVE_TIMEOUT, nextRefreshTime - currentTime)));
+
+                receivedPacket.setLength(receiveBytes.length);
+                this.socket.receive(receivedPacket);
+
+                this.processAdvert(ByteBuffer.wrap(receiveBytes, 0, receivedPacket.getLength()));
+            }
+            catch (final SocketTimeoutException e)
+            {
+                // Nothing received, go for the next iteration
+            }
+            catch (final IOException e)
+            {
+                if (!this.shouldStop)
+                {
+                    LOGGER.warn("Beacon auto-discovery socket exception", e);
+                }
+            }
+            catch (final RuntimeException e)
+            {
+                LOGGER.warn("Beacon auto-discovery thread exception", e);
+            }
+        }
+
+        this.stopped = true;
+    }
+
+    /**
+     * Process a received advert
+     *
+     * @param advert buffer with the advert contents
+     */
+    private void processAdvert(final ByteBuffer advert)
+    {
+        try
+        {
+            // Our own adverts may come back through the multicast loopback
+            if (LLZBeaconAdvertCodec.readHeader(advert) == this.nodeId)
+            {
+                return;
+            }
+
+            this.receivedAdvertHandler.expirationTime = System.currentTimeMillis() + this.timeToLive;
+            LLZBeaconAdvertCodec.readRecords(advert, this.receivedAdvertHandler);
+        }
+        catch (final LLZException e)
+        {
+            LOGGER.warn("Invalid beacon auto-discovery advert received", e);
+        }
+    }
+
+    /** Send adverts with all the local end points, as many datagrams as required */
+    private void advertiseLocalEndPoints()
+    {
+        if (this.localEndPointsByTopicId.isEmpty())
+        {
+            return;
+        }
+
+        synchronized (this.sendLock)
+        {
+            this.startAdvert();
+
+            for (final ILLZAutodiscTopicEndPoint endPoint : this.localEndPointsByTopicId.values())
+            {
+                this.writeAliveRecord(endPoint);
+            }
+
+            this.sendAdvert();
+        }
+    }
+
+    /**
+     * Write an alive record in the send buffer, sending the current advert first if there is no space left. Call with
+     * the send lock taken.
+     *
+     * @param endPoint the end point to write
+     */
+    private void writeAliveRecord(final ILLZAutodiscTopicEndPoint endPoint)
+    {
+        if (!LLZBeaconAdvertCodec.writeAlive(this.sendBuffer, endPoint))
+        {
+            this.sendAdvert();
+            this.startAdvert();
+
+            if (!LLZBeaconAdvertCodec.writeAlive(this.sendBuffer, endPoint))
+            {
+                LOGGER.error("End point too big to fit in a beacon advert [{}]", endPoint);
+            }
+        }
+    }
+
+    /** Clear the send buffer and write the advert header, call with the send lock taken */
+    private void startAdvert()
+    {
+        this.sendBuffer.clear();
+        LLZBeaconAdvertCodec.writeHeader(this.sendBuffer, this.nodeId);
+    }
+
+    /** Send the advert in the send buffer to all the destinations, call with the send lock taken */
+    private void sendAdvert()
+    {
+        for (final InetSocketAddress destination : this.destinations)
+        {
+            try
+            {
+                this.socket.send(new DatagramPacket(this.sendBuffer.array(), this.sendBuffer.position(), destination));
+            }
+            catch (final IOException e)
+            {
+                LOGGER.warn("Error sending beacon auto-discovery advert to [{}]", destination, e);
+            }
+        }
+    }
+
+    /**
+     * Handler for the records of the received adverts
+     */
+    private final class ReceivedAdvertHandler implements ILLZBeaconAdvertHandler
+    {
+        /** Expiration time for the end points of the advert being processed */
+        private long expirationTime;
+
+        @Override
+        public void onEndPointAlive(final ILLZAutodiscTopicEndPoint endPoint)
+        {
+            LLZBeaconManager.this.checkIdPrefixCollision(endPoint);
+            LLZBeaconManager.this.endPointTable.onEndPointAlive(endPoint, this.expirationTime);
+        }
+
+        @Override
+        public void onEndPointRemoved(final LLZAutodiscEndPointType endPointType, final long topicId)
+        {
+            LLZBeaconManager.this.endPointTable.onEndPointRemoved(topicId);
+        }
+    }
+}
@@ -0,0 +1,497 @@
+package com.bbva.kyof.vega.autodiscovery.client.coalescing;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.bbva.kyof.vega.autodiscovery.client.ILLZAutodisc;
+import com.bbva.kyof.vega.autodiscovery.client.ILLZAutodiscTopicEndPoint;
+import com.bbva.kyof.vega.autodiscovery.client.ILLZAutodiscTopicEndPointChangeListener;
+import com.bbva.kyof.vega.autodiscovery.client.LLZAutoDiscTopicEndPoint;
+import com.bbva.kyof.vega.autodiscovery.client.LLZAutodiscEndPointType;
+import com.bbva.kyof.vega.exception.LLZException;
+import com.bbva.kyof.vega.util.threads.ILLZThreadFactory;
+import com.bbva.kyof.vega.util.threads.LLZThreadRole;
+
+/**
+ * Auto-discovery decorator that merges the end point changes of each topic id during a coalescing window.
+ *
+ * The first change of a topic id opens its window; the following changes only update the last known state. When the
+ * window expires the listener receives the net change against what was already delivered to it: an add/remove/add
+ * sequence of the same end point is not notified at all, and a change of bind address is notified as a removal
+ * followed by an addition. Flapping end points don't cause socket connections and disconnections.
+ *
+ * The listeners are always called outside the internal lock from the coalescing thread. The class is thread-safe
+ */
+public final class LLZCoalescingAutodisc implements ILLZAutodisc, Runnable
+{
+    /** Logger */
+    private static final Logger LOGGER = LoggerFactory.getLogger(LLZCoalescingAutodisc.class);
+
+    /** The decorated auto-discovery */
+    private final ILLZAutodisc delegate;
+
+    /** Time in milliseconds the changes of a topic id are merged before being notified */
+    private final long coalescingWindow;
+
+    /** Listeners of the active subscriptions, by end point type and topic name */
+    private final Map<LLZAutodiscEndPointType, Map<String, CoalescingListener>> listenersByType = new EnumMap<>(LLZAutodiscEndPointType.class);
+
+    /** Listeners of the active pattern subscriptions, by end point type and regular expression */
+    private final Map<LLZAutodiscEndPointType, Map<String, CoalescingListener>> patternListenersByType = new EnumMap<>(LLZAutodiscEndPointType.class);
+
+    /** Pending changes of all the listeners, ordered by the time they are due */
+    private final Queue<PendingChange> pendingQueue = new ArrayDeque<>();
+
+    /** Lock for the internal state */
+    private final Object lock = new Object();
+
+    /** True if the coalescing thread should stop */
+    private volatile boolean shouldStop = false;
+
+    /** True once the coalescing thread is stopped */
+    private volatile boolean stopped = false;
+
+    /**
+     * Create the decorator and start the coalescing thread
+     *
+     * @param delegate the decorated auto-discovery
+     * @param coalescingWindow time in milliseconds the changes of a topic id are merged before being notified
+     * @param threadFactory factory for the coalescing thread
+     */
+    public LLZCoalescingAutodisc(final ILLZAutodisc delegate, final long coalescingWindow, final ILLZThreadFactory threadFactory)
+    {
+        this.delegate = delegate;
+        this.coalescingWindow = coalescingWindow;
+
+        for (final LLZAutodiscEndPointType endPointType : LLZAutodiscEndPointType.values())
+        {
+            this.listenersByType.put(endPointType, new HashMap<String, CoalescingListener>());
+            this.patternListenersByType.put(endPointType, new HashMap<String, CoalescingListener>());
+        }
+
+        final Thread coalescingThread = threadFactory.newThread(LLZThreadRole.AUTODISC_BACKGROUND, "LLZ AUTODISC COALESCE", this);
+        coalescingThread.start();
+    }
+
+    @Override
+    public void stop() throws LLZException
+    {
+        this.delegate.stop();
+
+        synchronized (this.lock)
+        {
+            this.shouldStop = true;
+            this.lock.notifyAll();
+        }
+
+        try
+        {
+            while (!this.stopped)
+            {
+                Thread.sleep(10);
+            }
+        }
+        catch (final InterruptedException e)
+        {
+            LOGGER.error("An internal error occurred during stopping the coalescing thread [{}]", e);
+            throw new LLZException(e);
+        }
+    }
+
+    @Override
+    public long createUniqueId() throws LLZException
+    {
+        return this.delegate.createUniqueId();
+    }
+
+    @Override
+    public long[] createUniqueIds(final int count) throws LLZException
+    {
+        return this.delegate.createUniqueIds(count);
+    }
+
+    @Override
+    public void registerTopicEndPoint(final LLZAutodiscEndPointType endPointType, final LLZAutoDiscTopicEndPoint endPointInfo) throws LLZException
+    {
+        this.delegate.registerTopicEndPoint(endPointType, endPointInfo);
+    }
+
+    @Override
+    public void registerTopicEndPoints(final LLZAutodiscEndPointType endPointType, final Collection<LLZAutoDiscTopicEndPoint> endPointsInfo) throws LLZException
+    {
+        this.delegate.registerTopicEndPoints(endPointType, endPointsInfo);
+    }
+
+    @Override
+    public void unregisterTopicEndPoint(final LLZAutodiscEndPointType endPointType, final long topicUniqueId) throws LLZException
+    {
+        this.delegate.unregisterTopicEndPoint(endPointType, topicUniqueId);
+    }
+
+    @Override
+    public void subscribeToTopicEndPoints(final String topicName, final LLZAutodiscEndPointType endPointType, final ILLZAutodiscTopicEndPointChangeListener listener) throws LLZException
+    {
+        final CoalescingListener coalescingListener = this.addSubscription(this.listenersByType.get(endPointType), topicName, listener);
+
+        this.delegate.subscribeToTopicEndPoints(topicName, endPointType, coalescingListener);
+    }
+
+    @Override
+    public void unsubscribeFromTopicEndPoints(final String topicName, final LLZAutodiscEndPointType endPointType) throws LLZException
+    {
+        this.delegate.unsubscribeFromTopicEndPoints(topicName, endPointType);
+
+        this.removeSubscription(this.listenersByType.get(endPointType), topicName);
+    }
+
+    @Override
+    public void subscribeToTopicPattern(final String topicRegexp, final LLZAutodiscEndPointType endPointType, final ILLZAutodiscTopicEndPointChangeListener listener) throws LLZException
+    {
+        final CoalescingListener coalescingListener = this.addSubscription(this.patternListenersByType.get(endPointType), topicRegexp, listener);
+
+        try
+        {
+            this.delegate.subscribeToTopicPattern(topicRegexp, endPointType, coalescingListener);
+        }
+        catch (final LLZException e)
+        {
+            this.removeSubscription(this.patternListenersByType.get(endPointType), topicRegexp);
+            throw e;
+        }
+    }
+
+    @Override
+    public void unsubscribeFromTopicPattern(final String topicRegexp, final LLZAutodiscEndPointType endPointType) throws LLZException
+    {
+        this.delegate.unsubscribeFromTopicPattern(topicRegexp, endPointType);
+
+        this.removeSubscription(this.patternListenersByType.get(endPointType), topicRegexp);
+    }
+
+    /**
+     * Register the listener of a subscription
+     *
+     * @param listeners listeners of the active subscriptions of the end point type
+     * @param subscriptionKey topic name or regular expression of the subscription
+     * @param listener the listener of the subscription
+     * @return the listener to register in the decorated auto-discovery
+     */
+    private CoalescingListener addSubscription(final Map<String, CoalescingListener> listeners,
+                                               final String subscriptionKey,
+                                               final ILLZAutodiscTopicEndPointChangeListener listener)
+    {
+        final CoalescingListener coalescingListener = new CoalescingListener(listener);
+
+        synchronized (this.lock)
+        {
+            final CoalescingListener previous = listeners.put(subscriptionKey, coalescingListener);
+
+            if (previous != null)
+            {
+                previous.active = false;
+            }
+        }
+
+        return coalescingListener;
+    }
+
+    /**
+     * Remove the listener of a subscription, its pending changes are discarded
+     *
+     * @param listeners listeners of the active subscriptions of the end point type
+     * @param subscriptionKey topic name or regular expression of the subscription
+     */
+    private void removeSubscription(final Map<String, CoalescingListener> listeners, final String subscriptionKey)
+    {
+        synchronized (this.lock)
+        {
+            final CoalescingListener coalescingListener = listeners.remove(subscriptionKey);
+
+            if (coalescingListener != null)
+            {
+                coalescingListener.active = false;
+            }
+        }
+    }
+
+    @Override
+    public void run()
+    {
+        while (!this.shouldStop)
+        {
+            final List<Notification> notifications = new ArrayList<>();
+
+            synchronized (this.lock)
+            {
+                this.collectDueChanges(System.currentTimeMillis(), notifications);
+
+                if (notifications.isEmpty())
+                {
+                    try
+                    {
+                        this.waitForChanges();
+                    }
+                    catch (final InterruptedException e)
+                    {
+                        LOGGER.error("Coalescing thread interrupted", e);
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                }
+            }
+
+            for (final Notification notification : notifications)
+            {
+                notification.deliver();
+            }
+        }
+
+        this.stopped = true;
+    }
+
+    /**
+     * Wait until the next pending change is due or a new change arrives. Call with the lock taken.
+     *
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    private void waitForChanges() throws InterruptedException
+    {
+        if (this.shouldStop)
+        {
+            return;
+        }
+
+        final PendingChange nextChange = this.pendingQueue.peek();
+
+        if (nextChange == null)
+        {
+            this.lock.wait();
+        }
+        else
+        {
+            final long waitTime = nextChange.dueTime - System.currentTimeMillis();
+
+            if (waitTime > 0)
+            {
+                this.lock.wait(waitTime);
+            }
+        }
+    }
+
+    /**
+     * Take the pending changes that are due and convert them into the net notifications. Call with the lock taken.
+     *
+     * @param now current time in milliseconds
+     * @param notifications list where the notifications are added
+     */
+    private void collectDueChanges(final long now, final List<Notification> notifications)
+    {
+        while (!this.pendingQueue.isEmpty() && this.pendingQueue.peek().dueTime <= now)
+        {
+            final PendingChange change = this.pendingQueue.poll();
+            final CoalescingListener coalescingListener = change.coalescingListener;
+
+            coalescingListener.pendingByTopicId.remove(change.topicId);
+
+            if (!coalescingListener.active)
+            {
+                continue;
+            }
+
+            final ILLZAutodiscTopicEndPoint delivered = coalescingListener.deliveredByTopicId.get(change.topicId);
+
+            if (change.alive)
+            {
+                if (delivered == null)
+                {
+                    notifications.add(new Notification(coalescingListener, change.endPoint, true));
+                }
+                else if (!delivered.getBindAddress().equals(change.endPoint.getBindAddress()))
+                {
+                    notifications.add(new Notification(coalescingListener, delivered, false));
+                    notifications.add(new Notification(coalescingListener, change.endPoint, true));
+                }
+
+                coalescingListener.deliveredByTopicId.put(change.topicId, change.endPoint);
+            }
+            else if (delivered != null)
+            {
+                notifications.add(new Notification(coalescingListener, delivered, false));
+                coalescingListener.deliveredByTopicId.remove(change.topicId);
+            }
+        }
+    }
+
+    /**
+     * Last known state of the end point of a topic id while its coalescing window is open
+     */
+    private static final class PendingChange
+    {
+        /** Listener the change belongs to */
+        private final CoalescingListener coalescingListener;
+
+        /** Unique id of the topic end point */
+        private final long topicId;
+
+        /** Time in milliseconds at which the change is notified */
+        private final long dueTime;
+
+        /** Last received information of the end point */
+        private ILLZAutodiscTopicEndPoint endPoint;
+
+        /** True if the last received event was an addition */
+        private boolean alive;
+
+        /**
+         * Create a new pending change
+         *
+         * @param coalescingListener listener the change belongs to
+         * @param topicId unique id of the topic end point
+         * @param dueTime time in milliseconds at which the change is notified
+         */
+        private PendingChange(final CoalescingListener coalescingListener, final long topicId, final long dueTime)
+        {
+            this.coalescingListener = coalescingListener;
+            this.topicId = topicId;
+            this.dueTime = dueTime;
+        }
+    }
+
+    /**
+     * Net change to notify to the listener of a subscription
+     */
+    private static final class Notification
+    {
+        /** Listener to notify */
+        private final CoalescingListener coalescingListener;
+
+        /** The end point added or removed */
+        private final ILLZAutodiscTopicEndPoint endPoint;
+
+        /** True if the end point is added, false if removed */
+        private final boolean added;
+
+        /**
+         * Create a new notification
+         *
+         * @param coalescingListener listener to notify
+         * @param endPoint the end point added or removed
+         * @param added true if the end point is added, false if removed
+         */
+        private Notification(final CoalescingListener coalescingListener, final ILLZAutodiscTopicEndPoint endPoint, final boolean added)
+        {
+            this.coalescingListener = coalescingListener;
+            this.endPoint = endPoint;
+            this.added = added;
+        }
+
+        /** Notify the listener unless its subscription has been removed meanwhile */
+        private void deliver()
+        {
+            if (!this.coalescingListener.active)
+            {
+                return;
+            }
+
+            try
+            {
+                if (this.added)
+                {
+                    this.coalescingListener.listener.onEndPointAdded(this.endPoint);
+                }
+                else
+                {
+                    this.coalescingListener.listener.onEndPointRemoved(this.endPoint);
+                }
+            }
+            catch (final RuntimeException e)
+            {
+                LOGGER.error("Unexpected error notifying the change of end point [{}]", this.endPoint, e);
+            }
+        }
+    }
+
+    /**
+     * Listener that queues the live events of a subscription to be merged during the coalescing window
+     */
+    private final class CoalescingListener implements ILLZAutodiscTopicEndPointChangeListener
+    {
+        /** The listener of the subscription */
+        private final ILLZAutodiscTopicEndPointChangeListener listener;
+
+        /** End points already notified to the listener, by topic id */
+        private final Map<Long, ILLZAutodiscTopicEndPoint> deliveredByTopicId = new HashMap<>();
+
+        /** Changes waiting for their coalescing window to expire, by topic id */
+        private final Map<Long, PendingChange> pendingByTopicId = new HashMap<>();
+
+        /** False once the subscription is removed */
+        private volatile boolean active = true;
+
+        /**
+         * Create the listener
+         *
+         * @param listener the listener of the subscription
+         */
+        private CoalescingListener(final ILLZAutodiscTopicEndPointChangeListener listener)
+        {
+            this.listener = listener;
+        }
+
+        @Override
+        public void onEndPointAdded(final ILLZAutodiscTopicEndPoint autodiscoveryInfo)
+        {
+            this.onChange(autodiscoveryInfo, true);
+        }
+
+        @Override
+        public void onEndPointRemoved(final ILLZAutodiscTopicEndPoint autodiscoveryInfo)
+        {
+            this.onChange(autodiscoveryInfo, false);
+        }
+
+        /**
+         * Record the last state of the end point, opening its coalescing window if there is no change pending
+         *
+         * @param autodiscoveryInfo the end point information
+         * @param alive true if the end point has been added, false if removed
+         */
+        private void onChange(final ILLZAutodiscTopicEndPoint autodiscoveryInfo, final boolean alive)
+        {
+            synchronized (LLZCoalescingAutodisc.this.lock)
+            {
+                if (!this.active)
+                {
+                    return;
+                }
+
+                PendingChange change = this.pendingByTopicId.get(autodiscoveryInfo.getTopicId());
+
+                if (change == null)
+                {
+                    change = new PendingChange(this, autodiscoveryInfo.getTopicId(), System.currentTimeMillis() + LLZCoalescingAutodisc.this.coalescingWindow);
+                    this.pendingByTopicId.put(autodiscoveryInfo.getTopicId(), change);
+
+                    if (LLZCoalescingAutodisc.this.pendingQueue.isEmpty())
+                    {
+                        LLZCoalescingAutodisc.this.lock.notifyAll();
+                    }
+
+                    LLZCoalescingAutodisc.this.pendingQueue.add(change);
+                }
+
+                change.endPoint = autodiscoveryInfo;
+                change.alive = alive;
+            }
+        }
+    }
+}
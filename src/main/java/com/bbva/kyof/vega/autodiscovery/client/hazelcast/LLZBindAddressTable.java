@@ -0,0 +1,217 @@
+package com.bbva.kyof.vega.autodiscovery.client.hazelcast;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+
+/**
+ * Compact encoding of the bind addresses of the end points with an interned table keyed by socket id.
+ *
+ * All the topics of a socket share the same bind address. The TCP IPv4 addresses are encoded as the address and port
+ * numbers instead of a string, and the decoded addresses are kept in a bounded table by socket id so all the end points
+ * of a socket share the same string instance instead of creating one per deserialized end point.
+ *
+ * The class is thread-safe
+ */
+final class LLZBindAddressTable
+{
+    /** Format of an address encoded as a string */
+    private static final byte STRING_FORMAT = 0;
+
+    /** Format of a TCP IPv4 address encoded as the address and port numbers */
+    private static final byte TCP_IPV4_FORMAT = 1;
+
+    /** Prefix of the TCP addresses */
+    private static final String TCP_PREFIX = "tcp://";
+
+    /** Maximum number of sockets kept in the table, the least recently used are discarded */
+    private static final int MAX_SOCKETS = 65536;
+
+    /** Decoded addresses by socket id, in access order */
+    private final Map<Long, Entry> entriesBySocketId = new LinkedHashMap<Long, Entry>(1024, 0.75f, true)
+    {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<Long, Entry> eldest)
+        {
+            return this.size() > MAX_SOCKETS;
+        }
+    };
+
+    /**
+     * Write a bind address in the compact format
+     *
+     * @param out the output to write to
+     * @param bindAddress the bind address
+     * @throws IOException if there is a problem writing
+     */
+    void write(final ObjectDataOutput out, final String bindAddress) throws IOException
+    {
+        final long tcpAddress = parseTcpIpv4(bindAddress);
+
+        if (tcpAddress < 0)
+        {
+            out.writeByte(STRING_FORMAT);
+            out.writeUTF(bindAddress);
+        }
+        else
+        {
+            out.writeByte(TCP_IPV4_FORMAT);
+            out.writeInt((int) (tcpAddress >>> 16));
+            out.writeShort((int) (tcpAddress & 0xFFFF));
+        }
+    }
+
+    /**
+     * Read a bind address written in the compact format, returning the interned instance of the socket if any
+     *
+     * @param in the input to read from
+     * @param socketId the socket id of the end point
+     * @return the bind address
+     * @throws IOException if there is a problem reading
+     */
+    String read(final ObjectDataInput in, final long socketId) throws IOException
+    {
+        final byte format = in.readByte();
+
+        if (format == STRING_FORMAT)
+        {
+            return this.intern(socketId, -1, in.readUTF());
+        }
+
+        final long ip = in.readInt() & 0xFFFFFFFFL;
+        final long port = in.readShort() & 0xFFFF;
+        return this.intern(socketId, (ip << 16) | port, null);
+    }
+
+    /**
+     * Return the interned address of the socket, it is stored if not there or if it has changed
+     *
+     * @param socketId the socket id
+     * @param tcpAddress the TCP IPv4 address and port numbers, -1 if encoded as a string
+     * @param bindAddress the address as a string, null if encoded as numbers
+     * @return the interned address
+     */
+    private String intern(final long socketId, final long tcpAddress, final String bindAddress)
+    {
+        synchronized (this.entriesBySocketId)
+        {
+            final Entry entry = this.entriesBySocketId.get(socketId);
+
+            if (entry != null && entry.tcpAddress == tcpAddress && (bindAddress == null || bindAddress.equals(entry.bindAddress)))
+            {
+                return entry.bindAddress;
+            }
+
+            final String result = bindAddress == null ? formatTcpIpv4(tcpAddress) : bindAddress;
+            this.entriesBySocketId.put(socketId, new Entry(tcpAddress, result));
+            return result;
+        }
+    }
+
+    /**
+     * Parse a TCP IPv4 address of the form tcp://a.b.c.d:port
+     *
+     * @param bindAddress the address
+     * @return the IPv4 address in the upper bits and the port in the lower 16 bits, -1 if it has not that form
+     */
+    static long parseTcpIpv4(final String bindAddress)
+    {
+        if (!bindAddress.startsWith(TCP_PREFIX))
+        {
+            return -1;
+        }
+
+        final int portSeparator = bindAddress.lastIndexOf(':');
+
+        if (portSeparator < TCP_PREFIX.length())
+        {
+            return -1;
+        }
+
+        final String[] octets = bindAddress.substring(TCP_PREFIX.length(), portSeparator).split("\\.", -1);
+
+        if (octets.length != 4)
+        {
+            return -1;
+        }
+
+        try
+        {
+            long ip = 0;
+
+            for (final String octet : octets)
+            {
+                final int value = Integer.parseInt(octet);
+
+                // Keep the canonical text, "010" would not be formatted back the same way
+                if (value < 0 || value > 255 || !octet.equals(Integer.toString(value)))
+                {
+                    return -1;
+                }
+
+                ip = (ip << 8) | value;
+            }
+
+            final String portText = bindAddress.substring(portSeparator + 1);
+            final int port = Integer.parseInt(portText);
+
+            if (port < 0 || port > 0xFFFF || !portText.equals(Integer.toString(port)))
+            {
+                return -1;
+            }
+
+            return (ip << 16) | port;
+        }
+        catch (final NumberFormatException e)
+        {
+            return -1;
+        }
+    }
+
+    /**
+     * Format a TCP IPv4 address
+     *
+     * @param tcpAddress the IPv4 address in the upper bits and the port in the lower 16 bits
+     * @return the address of the form tcp://a.b.c.d:port
+     */
+    static String formatTcpIpv4(final long tcpAddress)
+    {
+        final long ip = tcpAddress >>> 16;
+
+        return TCP_PREFIX +
+                ((ip >>> 24) & 0xFF) + '.' +
+                ((ip >>> 16) & 0xFF) + '.' +
+                ((ip >>> 8) & 0xFF) + '.' +
+                (ip & 0xFF) + ':' +
+                (tcpAddress & 0xFFFF);
+    }
+
+    /**
+     * Interned address of a socket
+     */
+    private static final class Entry
+    {
+        /** The TCP IPv4 address and port numbers, -1 if not a TCP IPv4 address */
+        private final long tcpAddress;
+
+        /** The address as a string */
+        private final String bindAddress;
+
+        /**
+         * Create a new entry
+         *
+         * @param tcpAddress the TCP IPv4 address and port numbers, -1 if not a TCP IPv4 address
+         * @param bindAddress the address as a string
+         */
+        private Entry(final long tcpAddress, final String bindAddress)
+        {
+            this.tcpAddress = tcpAddress;
+            this.bindAddress = bindAddress;
+        }
+    }
+}
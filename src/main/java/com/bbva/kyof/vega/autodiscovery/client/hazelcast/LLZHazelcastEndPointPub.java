@@ -1,9 +1,15 @@
 package com.bbva.kyof.vega.autodiscovery.client.hazelcast;
 
-import java.util.Queue;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.bbva.kyof.vega.autodiscovery.client.LLZAutoDiscTopicEndPoint;
+import com.bbva.kyof.vega.autodiscovery.client.hazelcast.processors.TouchEndPointProcessor;
 import com.bbva.kyof.vega.exception.LLZException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -21,11 +27,17 @@ public class LLZHazelcastEndPointPub
     /** Logger */
     private static final Logger LOGGER = LoggerFactory.getLogger(LLZHazelcastEndPointPub.class);
 
+    /** Maximum number of end points refreshed with a single call to the cluster */
+    public static final int REFRESH_BATCH_SIZE = 1000;
+
+    /** Processor that resets the idle time of the entries, it has no state so it is shared */
+    private static final TouchEndPointProcessor TOUCH_PROCESSOR = new TouchEndPointProcessor();
+
     /** Hazelcast map which distributes info across all ZMQ instances */
     private IMap<Long, ILLZAutodiscTopicEndPoint> distributedPublisherIdsMap;
 
-    /** Local queue to store which publishers we own and we have to refresh in Hazelcast */
-    private Queue<Long> localTopicPublisherIds = new ConcurrentLinkedQueue<>();
+    /** Local set to store which publishers we own and we have to refresh in Hazelcast */
+    private Set<Long> localTopicPublisherIds = Collections.newSetFromMap(new ConcurrentHashMap<Long, Boolean>());
 
     /** True if the object should stop, it is used to stop the refresh of endpoints as soon as possible */
     private volatile boolean shouldStop = false;
@@ -59,6 +71,30 @@ public class LLZHazelcastEndPointPub
         this.localTopicPublisherIds.add(hazelcastEndPoint.getTopicId());
     }
 
+    /**
+     * Register several end points with a single putAll on the distributed map
+     *
+     * @param endPointsInfo the end points to register
+     * @throws LLZException
+     */
+    public void registerTopicEndPoints(final Collection<LLZAutoDiscTopicEndPoint> endPointsInfo) throws LLZException
+    {
+        LOGGER.debug("Adding [{}] new end points information to autodiscovery", endPointsInfo.size());
+
+        // Create the hazelcast objects
+        final Map<Long, ILLZAutodiscTopicEndPoint> hazelcastEndPoints = new HashMap<>();
+        for (final LLZAutoDiscTopicEndPoint endPointInfo : endPointsInfo)
+        {
+            hazelcastEndPoints.put(endPointInfo.getTopicId(), new LLZTopicEndPointDAO(endPointInfo));
+        }
+
+        // Add all of them to hazelcast cache at once
+        this.distributedPublisherIdsMap.putAll(hazelcastEndPoints);
+
+        // Add the topics to the local IDs so we know what to refresh
+        this.localTopicPublisherIds.addAll(hazelcastEndPoints.keySet());
+    }
+
     /**
      * 
      * @param socketId
@@ -76,11 +112,18 @@ public class LLZHazelcastEndPointPub
     }
 
     /**
-     * Keeps alive the end points 
+     * Keeps alive the end points.
+     *
+     * The entries are touched in batches with a single call per batch instead of a call per end point, the access
+     * resets the idle time of the entries in the distributed map. A {@link TouchEndPointProcessor} is used instead of a
+     * getAll so the access always reaches the cluster even if the entries are in the client near cache, and the values
+     * are not sent back.
      */
     public void refreshActiveEndpoints()
     {
-        for (final long topicPubId : this.localTopicPublisherIds)
+        final Set<Long> batch = new HashSet<>();
+
+        for (final Long topicPubId : this.localTopicPublisherIds)
         {
             // If marked to stop, return as soon as possible
             if (this.shouldStop)
@@ -88,7 +131,18 @@ public class LLZHazelcastEndPointPub
                 return;
             }
 
-            this.distributedPublisherIdsMap.containsKey(topicPubId);
+            batch.add(topicPubId);
+
+            if (batch.size() == REFRESH_BATCH_SIZE)
+            {
+                this.distributedPublisherIdsMap.executeOnKeys(batch, TOUCH_PROCESSOR);
+                batch.clear();
+            }
+        }
+
+        if (!batch.isEmpty() && !this.shouldStop)
+        {
+            this.distributedPublisherIdsMap.executeOnKeys(batch, TOUCH_PROCESSOR);
         }
     }
 
@@ -1,27 +1,43 @@
 package com.bbva.kyof.vega.autodiscovery.client.hazelcast;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.regex.PatternSyntaxException;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.bbva.kyof.vega.autodiscovery.client.ILLZAutodiscTopicEndPoint;
 import com.bbva.kyof.vega.autodiscovery.client.ILLZAutodiscTopicEndPointChangeListener;
-import com.bbva.kyof.vega.autodiscovery.client.hazelcast.processors.TopicNameEndPointPredicate;
+import com.bbva.kyof.vega.autodiscovery.client.hazelcast.processors.TopicRegexpEndPointPredicate;
 import com.bbva.kyof.vega.exception.LLZException;
 import com.hazelcast.core.EntryEvent;
 import com.hazelcast.core.IMap;
 import com.hazelcast.map.listener.EntryAddedListener;
+import com.hazelcast.map.listener.EntryEvictedListener;
 import com.hazelcast.map.listener.EntryRemovedListener;
 
 /**
  * Hazelcast Implementation for auto-discovery
  *
- * THIS CLASS IS NOT THREAD SAFE! THREADING SHOULD BE HANDLED EXTERNALLY
+ * A single entry listener is registered in the map on the first subscription and the whole map is loaded with a single
+ * query. From then on the local copy is kept updated by the listener and the events are dispatched to the subscribed
+ * topics through a local index by topic name, no cluster calls are done on subscription.
+ *
+ * The subscriptions to a topic pattern are resolved with a {@link TopicRegexpEndPointPredicate} against the topic names
+ * of the local copy, so a wildcard subscription costs one match per known topic name instead of a scan of the end points.
+ *
+ * The subscriptions are not thread safe and should be handled externally, the map events can arrive from any
+ * Hazelcast thread
  */
-public class LLZHazelcastEndPointSub
+public class LLZHazelcastEndPointSub implements
+        EntryAddedListener<Long, ILLZAutodiscTopicEndPoint>,
+        EntryRemovedListener<Long, ILLZAutodiscTopicEndPoint>,
+        EntryEvictedListener<Long, ILLZAutodiscTopicEndPoint>
 {
     /** Logger */
     private static final Logger LOGGER = LoggerFactory.getLogger(LLZHazelcastEndPointSub.class);
@@ -29,12 +45,30 @@ public class LLZHazelcastEndPointSub
     /** Map with all the event handlers registered by topic name */
     private final Map<String, TopicEndPointEventHandler> eventHandlersByTopicName = new HashMap<>();
 
+    /** Subscriptions to topic patterns by regular expression */
+    private final Map<String, PatternSubscription> patternSubscriptionsByRegexp = new HashMap<>();
+
+    /** Local copy of the end points in the distributed map, by topic name and topic id */
+    private final Map<String, Map<Long, ILLZAutodiscTopicEndPoint>> endPointsByTopicName = new HashMap<>();
+
+    /** Topic name of each end point in the local copy, by topic id */
+    private final Map<Long, String> topicNamesByTopicId = new HashMap<>();
+
     /** Hazelcast map which distributes info across all ZMQ instances */
     private final IMap<Long, ILLZAutodiscTopicEndPoint> distributedEndPointsByTopicId;
 
+    /** Lock for the event handlers and the local copy of the end points */
+    private final Object lock = new Object();
+
+    /** Released once the local copy has been loaded or the listener removed, the map events wait for it */
+    private volatile CountDownLatch initialLoadLatch = new CountDownLatch(1);
+
+    /** Id of the single Hazelcast entry listener, null until the first subscription or if the listener is removed */
+    private volatile String hazelcastListenerId = null;
+
     /**
      * Constructor which initializes Hazelcast instances
-     * 
+     *
      * @param distributedEndPointsByTopicId
      */
     public LLZHazelcastEndPointSub(final IMap<Long, ILLZAutodiscTopicEndPoint> distributedEndPointsByTopicId)
@@ -44,7 +78,7 @@ public class LLZHazelcastEndPointSub
 
     /**
      * Subscribes to a topic
-     * 
+     *
      * @param topicName Topic name
      * @param listener  Listener for changes related with topic endpoints
      */
@@ -52,138 +86,470 @@ public class LLZHazelcastEndPointSub
     {
         LOGGER.debug("Adding new listener information to autodiscovery for topic [{}]", topicName);
 
-        if (this.eventHandlersByTopicName.containsKey(topicName))
+        // Create the event handler
+        final TopicEndPointEventHandler eventHandler = new TopicEndPointEventHandler(listener);
+        final List<ILLZAutodiscTopicEndPoint> currentEndPoints;
+
+        synchronized (this.lock)
+        {
+            if (this.eventHandlersByTopicName.containsKey(topicName))
+            {
+                LOGGER.error("Already subscribed to changes on topic [{}]", topicName);
+                return;
+            }
+
+            // Subscribe to the map changes and load the current end points the first time
+            this.loadInitialState();
+
+            // Store it in the index
+            this.eventHandlersByTopicName.put(topicName, eventHandler);
+
+            // Get the current end points for the topic from the local copy
+            final Map<Long, ILLZAutodiscTopicEndPoint> topicEndPoints = this.endPointsByTopicName.get(topicName);
+            currentEndPoints = topicEndPoints == null ?
+                    Collections.<ILLZAutodiscTopicEndPoint>emptyList() : new ArrayList<>(topicEndPoints.values());
+        }
+
+        try
+        {
+            // Notify about the current end points in the listener
+            for (final ILLZAutodiscTopicEndPoint endPoint : currentEndPoints)
+            {
+                eventHandler.newQueryResult(endPoint);
+            }
+        }
+        finally
+        {
+            // Unblock the real time events
+            eventHandler.unblockEvents();
+        }
+    }
+
+    /**
+     * Register the single entry listener and load the whole map with one query, only the first time. Call with the lock
+     * taken.
+     *
+     * If the load fails the listener is removed, the events already received are discarded and the error is propagated,
+     * the next subscription will try again.
+     */
+    private void loadInitialState()
+    {
+        if (this.hazelcastListenerId != null)
         {
-            LOGGER.error("Already subscribed to changes on topic [{}]", topicName);
             return;
         }
 
-        // Create the event handler
-        final TopicEndPointEventHandler eventHandler = new TopicEndPointEventHandler(listener);
+        // Register the listener first, the events will wait until the load is done so no change is lost
+        this.initialLoadLatch = new CountDownLatch(1);
+        this.hazelcastListenerId = this.distributedEndPointsByTopicId.addEntryListener(this, true);
 
-        // Store it in the map
-        this.eventHandlersByTopicName.put(topicName, eventHandler);
+        boolean loaded = false;
+        try
+        {
+            for (final ILLZAutodiscTopicEndPoint endPoint : this.distributedEndPointsByTopicId.values())
+            {
+                this.addToLocalCopy(endPoint);
+            }
 
-        // Subscribe to notifications on the topic publisher
-        this.subscribeToEndPointChanges(topicName, eventHandler);
+            loaded = true;
+            LOGGER.debug("Loaded [{}] end points from autodiscovery", this.topicNamesByTopicId.size());
+        }
+        finally
+        {
+            if (!loaded)
+            {
+                LOGGER.error("Error loading the end points from autodiscovery, removing the entry listener");
+                this.removeListenerAndResetLocalCopy();
+            }
+        }
+
+        this.initialLoadLatch.countDown();
+    }
+
+    /**
+     * Remove the entry listener and clean the local copy, the events waiting for the initial load are released and
+     * discarded. Call with the lock taken.
+     */
+    private void removeListenerAndResetLocalCopy()
+    {
+        if (this.hazelcastListenerId == null)
+        {
+            return;
+        }
+
+        try
+        {
+            this.distributedEndPointsByTopicId.removeEntryListener(this.hazelcastListenerId);
+        }
+        catch (final RuntimeException e)
+        {
+            LOGGER.warn("Error removing the autodiscovery entry listener [{}]", this.hazelcastListenerId, e);
+        }
 
-        // Get the current end points for the topic and notify about them in the listener
-        this.findEndPointsForTopic(topicName, eventHandler);
+        this.hazelcastListenerId = null;
+        this.endPointsByTopicName.clear();
+        this.topicNamesByTopicId.clear();
 
-        // Unblock the real time events
-        eventHandler.unblockEvents();
+        // Release the waiting events, they will be discarded since there is no listener
+        this.initialLoadLatch.countDown();
     }
 
     /**
-     * 
-     * @param topicName
-     * @param eventHandler
+     * Stop receiving the map events, the subscriptions are kept but won't get any other event
      */
-    private void subscribeToEndPointChanges(final String topicName, final TopicEndPointEventHandler eventHandler)
+    public void stop()
     {
-        final TopicNameEndPointPredicate listenerFilter = new TopicNameEndPointPredicate(topicName);
-        final String entryListenerID = this.distributedEndPointsByTopicId.addEntryListener(eventHandler, listenerFilter, true);
-        eventHandler.setHazelcastListenerId(entryListenerID);
+        synchronized (this.lock)
+        {
+            this.removeListenerAndResetLocalCopy();
+        }
     }
 
     /**
-     * 
-     * @param topicName
-     * @param eventHandler
+     * Subscribes to all the topics whose name matches a regular expression
+     *
+     * @param topicRegexp regular expression to match against the topic names
+     * @param listener Listener for changes related with the endpoints of the matching topics
+     * @throws LLZException if the regular expression is not valid
      */
-    private void findEndPointsForTopic(final String topicName, final TopicEndPointEventHandler eventHandler)
+    public void subscribeToPattern(final String topicRegexp, final ILLZAutodiscTopicEndPointChangeListener listener) throws LLZException
     {
-        // Fire a query to the cache to find all the topic name and end point type
-        final Set<Map.Entry<Long, ILLZAutodiscTopicEndPoint>> infoList = this.distributedEndPointsByTopicId.entrySet(new TopicNameEndPointPredicate(topicName));
+        LOGGER.debug("Adding new listener information to autodiscovery for topic pattern [{}]", topicRegexp);
+
+        final PatternSubscription subscription;
+        final List<ILLZAutodiscTopicEndPoint> currentEndPoints = new ArrayList<>();
+
+        try
+        {
+            subscription = new PatternSubscription(new TopicRegexpEndPointPredicate(topicRegexp), new TopicEndPointEventHandler(listener));
+        }
+        catch (final PatternSyntaxException e)
+        {
+            LOGGER.error("Invalid topic pattern [{}]", topicRegexp, e);
+            throw new LLZException("Invalid topic pattern " + topicRegexp, e);
+        }
+
+        synchronized (this.lock)
+        {
+            if (this.patternSubscriptionsByRegexp.containsKey(topicRegexp))
+            {
+                LOGGER.error("Already subscribed to changes on topic pattern [{}]", topicRegexp);
+                return;
+            }
+
+            this.loadInitialState();
+
+            this.patternSubscriptionsByRegexp.put(topicRegexp, subscription);
+
+            // Match the topic names of the local copy, not every end point
+            for (final Map.Entry<String, Map<Long, ILLZAutodiscTopicEndPoint>> topicEntry : this.endPointsByTopicName.entrySet())
+            {
+                if (subscription.predicate.matches(topicEntry.getKey()))
+                {
+                    currentEndPoints.addAll(topicEntry.getValue().values());
+                }
+            }
+        }
+
+        try
+        {
+            for (final ILLZAutodiscTopicEndPoint endPoint : currentEndPoints)
+            {
+                subscription.eventHandler.newQueryResult(endPoint);
+            }
+        }
+        finally
+        {
+            subscription.eventHandler.unblockEvents();
+        }
+    }
 
-        // For each result in the query store an action in queue
-        for (final Map.Entry<Long, ILLZAutodiscTopicEndPoint> entry : infoList)
+    /**
+     * Unsubscribes from a topic pattern
+     *
+     * @param topicRegexp the regular expression used in the subscription
+     * @throws LLZException if not subscribed to the pattern
+     */
+    public void unsubscribeFromPattern(final String topicRegexp) throws LLZException
+    {
+        synchronized (this.lock)
         {
-            eventHandler.newQueryResult(entry.getValue());
+            if (this.patternSubscriptionsByRegexp.remove(topicRegexp) == null)
+            {
+                LOGGER.error("Trying to unsubscribe from a non subscribed topic pattern [{}]", topicRegexp);
+                throw new LLZException("Trying to unsubscribe from a non subscribed topic pattern:" + topicRegexp);
+            }
         }
     }
 
     /**
-     * 
+     *
      * @param topicName
      * @throws LLZException
      */
     public void unsubscribeFromTopic(final String topicName) throws LLZException
     {
-        // Find entry listener for the topic name
-        final TopicEndPointEventHandler eventHandler = this.eventHandlersByTopicName.remove(topicName);
-        if (eventHandler == null)
+        synchronized (this.lock)
         {
-            LOGGER.error("Trying to unsubscribe from a non subscribed topic [{}]", topicName);
-            throw new LLZException("Trying to unsubscribe from a non subscribed topic, topic name:" + topicName);
+            // Find event handler for the topic name
+            final TopicEndPointEventHandler eventHandler = this.eventHandlersByTopicName.remove(topicName);
+            if (eventHandler == null)
+            {
+                LOGGER.error("Trying to unsubscribe from a non subscribed topic [{}]", topicName);
+                throw new LLZException("Trying to unsubscribe from a non subscribed topic, topic name:" + topicName);
+            }
         }
+    }
+
+    @Override
+    public void entryAdded(final EntryEvent<Long, ILLZAutodiscTopicEndPoint> entryEvent)
+    {
+        if (!this.waitForInitialLoad())
+        {
+            return;
+        }
+
+        final ILLZAutodiscTopicEndPoint endPoint = entryEvent.getValue();
+        final List<TopicEndPointEventHandler> eventHandlers;
+
+        synchronized (this.lock)
+        {
+            // It may be already in the local copy if it was added during the initial load
+            if (!this.addToLocalCopy(endPoint))
+            {
+                return;
+            }
 
-        // Remove the notifications listener from hazelcast
-        this.distributedEndPointsByTopicId.removeEntryListener(eventHandler.getHazelcastListenerId());
+            eventHandlers = this.getEventHandlers(endPoint.getTopicName());
+        }
+
+        for (final TopicEndPointEventHandler eventHandler : eventHandlers)
+        {
+            eventHandler.onEndPointAdded(endPoint);
+        }
+    }
+
+    @Override
+    public void entryRemoved(final EntryEvent<Long, ILLZAutodiscTopicEndPoint> entryEvent)
+    {
+        this.onEntryGone(entryEvent.getKey());
+    }
+
+    @Override
+    public void entryEvicted(final EntryEvent<Long, ILLZAutodiscTopicEndPoint> entryEvent)
+    {
+        this.onEntryGone(entryEvent.getKey());
+    }
+
+    /**
+     * Remove an end point from the local copy and notify the subscribed topic if any
+     *
+     * @param topicId the topic id of the removed end point
+     */
+    private void onEntryGone(final Long topicId)
+    {
+        if (!this.waitForInitialLoad())
+        {
+            return;
+        }
+
+        final ILLZAutodiscTopicEndPoint endPoint;
+        final List<TopicEndPointEventHandler> eventHandlers;
+
+        synchronized (this.lock)
+        {
+            endPoint = this.removeFromLocalCopy(topicId);
+            if (endPoint == null)
+            {
+                return;
+            }
+
+            eventHandlers = this.getEventHandlers(endPoint.getTopicName());
+        }
+
+        for (final TopicEndPointEventHandler eventHandler : eventHandlers)
+        {
+            eventHandler.onEndPointRemoved(endPoint);
+        }
     }
 
     /**
-     * 
+     * Return the event handlers of the topic subscription and of the matching pattern subscriptions, call with the lock
+     * taken
+     *
+     * @param topicName the topic name of the end point
+     * @return the event handlers to notify, empty if none
+     */
+    private List<TopicEndPointEventHandler> getEventHandlers(final String topicName)
+    {
+        final TopicEndPointEventHandler topicEventHandler = this.eventHandlersByTopicName.get(topicName);
+
+        if (this.patternSubscriptionsByRegexp.isEmpty())
+        {
+            return topicEventHandler == null ?
+                    Collections.<TopicEndPointEventHandler>emptyList() : Collections.singletonList(topicEventHandler);
+        }
+
+        final List<TopicEndPointEventHandler> result = new ArrayList<>(2);
+
+        if (topicEventHandler != null)
+        {
+            result.add(topicEventHandler);
+        }
+
+        for (final PatternSubscription subscription : this.patternSubscriptionsByRegexp.values())
+        {
+            if (subscription.predicate.matches(topicName))
+            {
+                result.add(subscription.eventHandler);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Add an end point to the local copy, call with the lock taken
+     *
+     * @param endPoint the end point to add
+     * @return false if it was already in the local copy
+     */
+    private boolean addToLocalCopy(final ILLZAutodiscTopicEndPoint endPoint)
+    {
+        if (this.topicNamesByTopicId.containsKey(endPoint.getTopicId()))
+        {
+            return false;
+        }
+
+        Map<Long, ILLZAutodiscTopicEndPoint> topicEndPoints = this.endPointsByTopicName.get(endPoint.getTopicName());
+        if (topicEndPoints == null)
+        {
+            topicEndPoints = new HashMap<>();
+            this.endPointsByTopicName.put(endPoint.getTopicName(), topicEndPoints);
+        }
+
+        topicEndPoints.put(endPoint.getTopicId(), endPoint);
+        this.topicNamesByTopicId.put(endPoint.getTopicId(), endPoint.getTopicName());
+        return true;
+    }
+
+    /**
+     * Remove an end point from the local copy, call with the lock taken
+     *
+     * @param topicId the topic id of the end point
+     * @return the removed end point, null if it was not in the local copy
+     */
+    private ILLZAutodiscTopicEndPoint removeFromLocalCopy(final Long topicId)
+    {
+        final String topicName = this.topicNamesByTopicId.remove(topicId);
+        if (topicName == null)
+        {
+            return null;
+        }
+
+        final Map<Long, ILLZAutodiscTopicEndPoint> topicEndPoints = this.endPointsByTopicName.get(topicName);
+        final ILLZAutodiscTopicEndPoint result = topicEndPoints.remove(topicId);
+
+        if (topicEndPoints.isEmpty())
+        {
+            this.endPointsByTopicName.remove(topicName);
+        }
+
+        return result;
+    }
+
+    /**
+     * Wait until the local copy has been loaded
+     *
+     * @return false if the load failed or the listener was removed, the event has to be discarded
+     */
+    private boolean waitForInitialLoad()
+    {
+        try
+        {
+            this.initialLoadLatch.await();
+        }
+        catch (final InterruptedException e)
+        {
+            LOGGER.error("Interrupted exception while waiting for the initial load of the end points", e);
+            Thread.currentThread().interrupt();
+            return false;
+        }
+
+        return this.hazelcastListenerId != null;
+    }
+
+    /**
+     * Subscription to the topics that match a pattern
+     */
+    private static final class PatternSubscription
+    {
+        /** Predicate with the pattern of the subscription */
+        private final TopicRegexpEndPointPredicate predicate;
+
+        /** Event handler of the subscription */
+        private final TopicEndPointEventHandler eventHandler;
+
+        /**
+         * Create a new pattern subscription
+         *
+         * @param predicate predicate with the pattern of the subscription
+         * @param eventHandler event handler of the subscription
+         */
+        private PatternSubscription(final TopicRegexpEndPointPredicate predicate, final TopicEndPointEventHandler eventHandler)
+        {
+            this.predicate = predicate;
+            this.eventHandler = eventHandler;
+        }
+    }
+
+    /**
+     *
      * @author XE52727
      *
      */
-    public class TopicEndPointEventHandler implements
-            EntryAddedListener<Long, ILLZAutodiscTopicEndPoint>,
-            EntryRemovedListener<Long, ILLZAutodiscTopicEndPoint>
+    public class TopicEndPointEventHandler
     {
         /** Receives notifications about creation/removal of publishers */
         private final ILLZAutodiscTopicEndPointChangeListener eventListener;
 
-        /**  Unique Hazelcast listener identificator  */
-        private String hazelcastListenerId;
-
         /** True if the events from hazelcast should wait */
         private volatile boolean blockEvents = true;
 
         private Object lock = new Object();
-              
+
         /**
          *  Constructor
-         *  
+         *
          * @param eventListener
          */
         public TopicEndPointEventHandler(final ILLZAutodiscTopicEndPointChangeListener eventListener)
         {
             this.eventListener = eventListener;
         }
-        
-        /**
-         * 
-         * @param listenerId
-         */
-        public void setHazelcastListenerId(final String listenerId)
-        {
-            this.hazelcastListenerId = listenerId;
-        }
 
         /**
-         * 
-         * @return
+         * Called when a new end point is added to the map
+         *
+         * @param endPoint the added end point
          */
-        public String getHazelcastListenerId()
-        {
-            return this.hazelcastListenerId;
-        }
-
-        @Override
-        public void entryAdded(final EntryEvent<Long, ILLZAutodiscTopicEndPoint> entryEvent)
+        public void onEndPointAdded(final ILLZAutodiscTopicEndPoint endPoint)
         {
             this.waitUntilEventsUnblock();
 
-            this.eventListener.onEndPointAdded(entryEvent.getValue());
+            this.eventListener.onEndPointAdded(endPoint);
         }
 
-        @Override
-        public void entryRemoved(final EntryEvent<Long, ILLZAutodiscTopicEndPoint> entryEvent)
+        /**
+         * Called when an end point is removed from the map
+         *
+         * @param endPoint the removed end point
+         */
+        public void onEndPointRemoved(final ILLZAutodiscTopicEndPoint endPoint)
         {
             this.waitUntilEventsUnblock();
 
-            this.eventListener.onEndPointRemoved(entryEvent.getOldValue());
+            this.eventListener.onEndPointRemoved(endPoint);
         }
 
         private void waitUntilEventsUnblock()
@@ -222,4 +588,4 @@ public class LLZHazelcastEndPointSub
             }
         }
     }
-}
\ No newline at end of file
+}
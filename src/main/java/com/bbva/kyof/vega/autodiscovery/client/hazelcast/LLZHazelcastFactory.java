@@ -2,6 +2,7 @@ package com.bbva.kyof.vega.autodiscovery.client.hazelcast;
 
 import com.bbva.kyof.vega.autodiscovery.client.hazelcast.processors.TopicNameEndPointPredicate;
 import com.bbva.kyof.vega.autodiscovery.client.hazelcast.processors.TopicRegexpEndPointPredicate;
+import com.bbva.kyof.vega.autodiscovery.client.hazelcast.processors.TouchEndPointProcessor;
 import com.hazelcast.nio.serialization.DataSerializableFactory;
 import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
 
@@ -18,6 +19,7 @@ public class LLZHazelcastFactory implements DataSerializableFactory
     public static final int TOPIC_NAME_END_POINT_PREDICATE = 1;
     public static final int PUBLISHER_END_POINT_DAO = 2;
     public static final int RESPONDER_END_POINT_DAO = 3;
+    public static final int TOUCH_END_POINT_PROCESSOR = 4;
 
     @Override
     public IdentifiedDataSerializable create(final int typeId)
@@ -32,6 +34,8 @@ public class LLZHazelcastFactory implements DataSerializableFactory
                 return new LLZTopicEndPointDAO();
             case RESPONDER_END_POINT_DAO:
                 return new LLZTopicEndPointDAO();
+            case TOUCH_END_POINT_PROCESSOR:
+                return new TouchEndPointProcessor();
             default:
                 return null;
         }
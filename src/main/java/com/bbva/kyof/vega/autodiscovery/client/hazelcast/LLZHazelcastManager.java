@@ -1,5 +1,7 @@
 package com.bbva.kyof.vega.autodiscovery.client.hazelcast;
 
+import java.util.Collection;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -10,20 +12,24 @@ import com.bbva.kyof.vega.autodiscovery.client.LLZAutoDiscTopicEndPoint;
 import com.bbva.kyof.vega.autodiscovery.client.LLZAutodiscEndPointType;
 import com.bbva.kyof.vega.config.LLZInstanceConfigWrapper;
 import com.bbva.kyof.vega.exception.LLZException;
+import com.bbva.kyof.vega.util.threads.ILLZThreadFactory;
+import com.bbva.kyof.vega.util.threads.LLZThreadFactory;
+import com.bbva.kyof.vega.util.threads.LLZThreadRole;
 import com.hazelcast.client.HazelcastClient;
 import com.hazelcast.client.config.ClientConfig;
 import com.hazelcast.config.Config;
 import com.hazelcast.config.InMemoryFormat;
 import com.hazelcast.config.JoinConfig;
 import com.hazelcast.config.MapConfig;
+import com.hazelcast.config.MapIndexConfig;
 import com.hazelcast.config.MulticastConfig;
+import com.hazelcast.config.NearCacheConfig;
 import com.hazelcast.config.NetworkConfig;
 import com.hazelcast.config.SerializationConfig;
 import com.hazelcast.config.TcpIpConfig;
 import com.hazelcast.core.Hazelcast;
 import com.hazelcast.core.HazelcastInstance;
 import com.hazelcast.core.IMap;
-import com.hazelcast.core.IdGenerator;
 
 /**
  * Hazelcast Implementation for autodiscovery
@@ -41,6 +47,9 @@ public class LLZHazelcastManager implements ILLZAutodisc
     /** Name of HZ cache used to communicate Publisher ZMQ */
     public static final String RESP_ENDPOINT_CACHE_NAME = "RESP_ENDPOINT_ZEROMQ_AUTODISCOVERY_CACHE";
 
+    /** Attribute of the end points indexed in the maps, queried by the topic name predicates */
+    public static final String TOPIC_NAME_ATTRIBUTE = "topicName";
+
     /** Name of Id generator used to get hazelcast pool ids */
     public static final String ZERO_MQIDGENERATOR = "ZeroMQIDgenerator";
     
@@ -50,8 +59,8 @@ public class LLZHazelcastManager implements ILLZAutodisc
     /** Hazelcast instance */
     private  HazelcastInstance hazelcastInstance;
 
-    /** Unique IDs generator */
-    private IdGenerator idGenerator;
+    /** Unique IDs allocator, ids are taken from locally cached blocks of the cluster id generator */
+    private LLZIdBlockAllocator idAllocator;
 
     /** Autodiscovery publisher for publisher end point types */
     private final LLZHazelcastEndPointPub pubEndPointsPublisher;
@@ -79,11 +88,21 @@ public class LLZHazelcastManager implements ILLZAutodisc
      * @param instanceConfig 
      */
     public LLZHazelcastManager(final LLZInstanceConfigWrapper instanceConfig)
+    {
+        this(instanceConfig, new LLZThreadFactory.Builder().build());
+    }
+
+    /**
+     * Constructor which initializes Hazelcast instances
+     * @param instanceConfig the configuration of the instance
+     * @param threadFactory factory for the keepalive and id prefetch threads
+     */
+    public LLZHazelcastManager(final LLZInstanceConfigWrapper instanceConfig, final ILLZThreadFactory threadFactory)
     {
         
         this.instanceConfig = instanceConfig;
         
-        this.setHazelcastInstance();
+        this.setHazelcastInstance(threadFactory);
 
         // Maps of end-points distributed in hazelcast for both pub and resp endpoint types
         this.distributedPubEndPointsByTopicId = this.hazelcastInstance.getMap(PUB_ENDPOINTS_CACHE_NAME);
@@ -99,23 +118,23 @@ public class LLZHazelcastManager implements ILLZAutodisc
 
         // Create and start the keepalive task to refresh the created end-points
         this.keepAliveTask = new EndPointsKeepAliveTask();
-        final Thread keepaliveThread = new Thread(this.keepAliveTask, "EndPointsKeepAliveTask");
+        final Thread keepaliveThread = threadFactory.newThread(LLZThreadRole.AUTODISC_KEEPALIVE, "EndPointsKeepAliveTask", this.keepAliveTask);
         keepaliveThread.start();
     }
 
-    private void setHazelcastInstance()
+    private void setHazelcastInstance(final ILLZThreadFactory threadFactory)
     {
         switch (this.instanceConfig.getAutodiscoConfig().getNodeType())
         {
             case CLIENT:
                 this.hazelcastInstance = this.initializeHazelcastClient();
-                // Id generator for unique ids in auto-discovery
-                this.idGenerator = this.hazelcastInstance.getIdGenerator(ZERO_MQIDGENERATOR);
+                // Id allocator for unique ids in auto-discovery
+                this.idAllocator = new LLZIdBlockAllocator(this.hazelcastInstance.getIdGenerator(ZERO_MQIDGENERATOR), threadFactory);
                 break;
             case STORAGE_DISTRIBUTED:
                 this.hazelcastInstance = this.initializeHazelcast();
-                // Id generator for unique ids in auto-discovery
-                this.idGenerator =  this.hazelcastInstance.getIdGenerator(ZERO_MQIDGENERATOR);
+                // Id allocator for unique ids in auto-discovery
+                this.idAllocator = new LLZIdBlockAllocator(this.hazelcastInstance.getIdGenerator(ZERO_MQIDGENERATOR), threadFactory);
 
                 break;
             default:
@@ -178,11 +197,39 @@ public class LLZHazelcastManager implements ILLZAutodisc
         clientConfig.getNetworkConfig().setConnectionAttemptPeriod(24 * 60);
         clientConfig.getNetworkConfig().setConnectionTimeout(this.instanceConfig.getAutodiscoConfig().getTimeToLive());
         clientConfig.getNetworkConfig().addAddress(this.instanceConfig.getAutodiscoConfig().getAddresses());
+
+        // Keep the most used end points in a near cache to avoid the remote lookups
+        final int nearCacheSize = this.instanceConfig.getAutodiscoConfig().getNearCacheSize();
+        if (nearCacheSize > 0)
+        {
+            clientConfig.addNearCacheConfig(this.createNearCacheConfig(PUB_ENDPOINTS_CACHE_NAME, nearCacheSize));
+            clientConfig.addNearCacheConfig(this.createNearCacheConfig(RESP_ENDPOINT_CACHE_NAME, nearCacheSize));
+        }
         
         // Return the created instance
         return  HazelcastClient.newHazelcastClient(clientConfig);
     }
 
+    /**
+     * Creates the near cache configuration of an end point map for the client.
+     *
+     * The near cache is invalidated on every change in the cluster. The keep alive of the end points doesn't read
+     * through it, see {@link LLZHazelcastEndPointPub#refreshActiveEndpoints()}.
+     *
+     * @param mapName Map Name
+     * @param maxSize maximum number of end points in the near cache
+     * @return the near cache configuration
+     */
+    private NearCacheConfig createNearCacheConfig(final String mapName, final int maxSize)
+    {
+        final NearCacheConfig nearCacheConfig = new NearCacheConfig(mapName);
+        nearCacheConfig.setMaxSize(maxSize);
+        nearCacheConfig.setEvictionPolicy("LRU");
+        nearCacheConfig.setInvalidateOnChange(true);
+        nearCacheConfig.setInMemoryFormat(InMemoryFormat.OBJECT);
+        return nearCacheConfig;
+    }
+
     /**
      * Configures transport media and address/es
      * 
@@ -254,16 +301,32 @@ public class LLZHazelcastManager implements ILLZAutodisc
       
 // TODO        myMapConfig.setTimeToLiveSeconds(300);
         
-        // Set in-memory format in object so we save deserialization time
-        myMapConfig.setInMemoryFormat(InMemoryFormat.OBJECT);
+        // Set in-memory format in object so we save deserialization time, binary saves member memory instead
+        if (this.instanceConfig.getAutodiscoConfig().isBinaryFormat())
+        {
+            myMapConfig.setInMemoryFormat(InMemoryFormat.BINARY);
+        }
+        else
+        {
+            myMapConfig.setInMemoryFormat(InMemoryFormat.OBJECT);
+        }
+
+        // Index the topic name so the queries by topic don't scan the whole map
+        myMapConfig.addMapIndexConfig(new MapIndexConfig(TOPIC_NAME_ATTRIBUTE, false));
         cfg.addMapConfig(myMapConfig);       
     }
 
     @Override
     public long createUniqueId() throws LLZException
     {
-        // Id generator is already thread safe
-        return this.idGenerator.newId();
+        // Id allocator is already thread safe
+        return this.idAllocator.newId();
+    }
+
+    @Override
+    public long[] createUniqueIds(final int count) throws LLZException
+    {
+        return this.idAllocator.newIds(count);
     }
 
     @Override
@@ -279,6 +342,19 @@ public class LLZHazelcastManager implements ILLZAutodisc
         }
     }
 
+    @Override
+    public void registerTopicEndPoints(final LLZAutodiscEndPointType endPointType, final Collection<LLZAutoDiscTopicEndPoint> endPointsInfo) throws LLZException
+    {
+        if (endPointType == LLZAutodiscEndPointType.PUBLISHER)
+        {
+            this.pubEndPointsPublisher.registerTopicEndPoints(endPointsInfo);
+        }
+        else if (endPointType == LLZAutodiscEndPointType.RESPONDER)
+        {
+            this.respEndPointsPublisher.registerTopicEndPoints(endPointsInfo);
+        }
+    }
+
     @Override
     public void unregisterTopicEndPoint(final LLZAutodiscEndPointType endPointType, final long topicUniqueId) throws LLZException
     {
@@ -318,6 +394,32 @@ public class LLZHazelcastManager implements ILLZAutodisc
         }
     }
 
+    @Override
+    public void subscribeToTopicPattern(final String topicRegexp, final LLZAutodiscEndPointType endPointType, final ILLZAutodiscTopicEndPointChangeListener listener) throws LLZException
+    {
+        if (endPointType == LLZAutodiscEndPointType.PUBLISHER)
+        {
+            this.pubTypeEndPointsSubscriber.subscribeToPattern(topicRegexp, listener);
+        }
+        else if (endPointType == LLZAutodiscEndPointType.RESPONDER)
+        {
+            this.respTypeEndPointsSubscriber.subscribeToPattern(topicRegexp, listener);
+        }
+    }
+
+    @Override
+    public void unsubscribeFromTopicPattern(final String topicRegexp, final LLZAutodiscEndPointType endPointType) throws LLZException
+    {
+        if (endPointType == LLZAutodiscEndPointType.PUBLISHER)
+        {
+            this.pubTypeEndPointsSubscriber.unsubscribeFromPattern(topicRegexp);
+        }
+        else if (endPointType == LLZAutodiscEndPointType.RESPONDER)
+        {
+            this.respTypeEndPointsSubscriber.unsubscribeFromPattern(topicRegexp);
+        }
+    }
+
     @Override
     public void stop() throws LLZException
     {
@@ -328,6 +430,13 @@ public class LLZHazelcastManager implements ILLZAutodisc
         // Stop the refresh thread
         this.keepAliveTask.stop();
 
+        // Stop the prefetch of id blocks
+        this.idAllocator.stop();
+
+        // Remove the entry listeners of the end point subscribers
+        this.pubTypeEndPointsSubscriber.stop();
+        this.respTypeEndPointsSubscriber.stop();
+
         // Shutdown the hazelcast instance
         this.hazelcastInstance.shutdown();
     }
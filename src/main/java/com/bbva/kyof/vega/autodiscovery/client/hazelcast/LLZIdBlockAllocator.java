@@ -0,0 +1,278 @@
+package com.bbva.kyof.vega.autodiscovery.client.hazelcast;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.bbva.kyof.vega.exception.LLZException;
+import com.bbva.kyof.vega.util.threads.ILLZThreadFactory;
+import com.bbva.kyof.vega.util.threads.LLZThreadRole;
+import com.hazelcast.core.IdGenerator;
+
+/**
+ * Allocator of unique ids from locally cached blocks.
+ *
+ * Each block is identified by a prefix taken from the cluster id generator, the ids of the block are the prefix followed
+ * by a local counter. The next prefix is fetched in a background thread when the current block is running out, so the
+ * creation of ids never waits for the cluster unless the prefetch is failing.
+ *
+ * The class is thread-safe
+ */
+public final class LLZIdBlockAllocator implements Runnable
+{
+    /** Logger */
+    private static final Logger LOGGER = LoggerFactory.getLogger(LLZIdBlockAllocator.class);
+
+    /** Default number of bits of the local counter, 65536 ids per block */
+    public static final int DEFAULT_BLOCK_BITS = 16;
+
+    /** Time to wait in milliseconds before retrying a failed prefetch */
+    private static final long PREFETCH_RETRY_INTERVAL = 100;
+
+    /** Value of the prefetched prefix when there is none available */
+    private static final long NO_PREFIX = -1;
+
+    /** Cluster id generator that provides the block prefixes */
+    private final IdGenerator idGenerator;
+
+    /** Number of bits of the local counter */
+    private final int blockBits;
+
+    /** Number of ids in a block */
+    private final long blockSize;
+
+    /** Remaining ids in the current block that trigger the prefetch of the next one */
+    private final long lowWaterMark;
+
+    /** Lock for the current and the prefetched blocks */
+    private final Object lock = new Object();
+
+    /** Prefix of the current block */
+    private long currentPrefix;
+
+    /** Next counter to use in the current block */
+    private long nextCounter = 0;
+
+    /** Prefix of the next block, NO_PREFIX if not prefetched yet */
+    private long prefetchedPrefix = NO_PREFIX;
+
+    /** True if the prefetch thread should fetch the next block */
+    private boolean prefetchRequested = false;
+
+    /** True if the prefetch thread should stop */
+    private volatile boolean shouldStop = false;
+
+    /** True once the prefetch thread is stopped */
+    private volatile boolean stopped = false;
+
+    /**
+     * Create the allocator with the default block size, the first block is fetched in the calling thread
+     *
+     * @param idGenerator the cluster id generator that provides the block prefixes
+     * @param threadFactory factory for the prefetch thread
+     */
+    public LLZIdBlockAllocator(final IdGenerator idGenerator, final ILLZThreadFactory threadFactory)
+    {
+        this(idGenerator, DEFAULT_BLOCK_BITS, threadFactory);
+    }
+
+    /**
+     * Create the allocator, the first block is fetched in the calling thread
+     *
+     * @param idGenerator the cluster id generator that provides the block prefixes
+     * @param blockBits number of bits of the local counter
+     * @param threadFactory factory for the prefetch thread
+     */
+    public LLZIdBlockAllocator(final IdGenerator idGenerator, final int blockBits, final ILLZThreadFactory threadFactory)
+    {
+        this.idGenerator = idGenerator;
+        this.blockBits = blockBits;
+        this.blockSize = 1L << blockBits;
+        this.lowWaterMark = this.blockSize / 4;
+        this.currentPrefix = idGenerator.newId();
+
+        final Thread prefetchThread = threadFactory.newThread(LLZThreadRole.AUTODISC_BACKGROUND, "LLZ ID BLOCK PREFETCH", this);
+        prefetchThread.start();
+    }
+
+    /**
+     * @return a new unique id
+     * @throws LLZException if the current block is exhausted and the next one cannot be fetched
+     */
+    public long newId() throws LLZException
+    {
+        synchronized (this.lock)
+        {
+            return this.nextIdFromBlock();
+        }
+    }
+
+    /**
+     * Create a group of unique ids under a single acquisition of the lock
+     *
+     * @param count number of ids to create
+     * @return the created ids
+     * @throws LLZException if a block is exhausted and the next one cannot be fetched
+     */
+    public long[] newIds(final int count) throws LLZException
+    {
+        final long[] result = new long[count];
+
+        synchronized (this.lock)
+        {
+            for (int i = 0; i < count; i++)
+            {
+                result[i] = this.nextIdFromBlock();
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Get the next id of the current block, moving to the next block if exhausted. Call with the lock taken.
+     *
+     * @return the next id
+     * @throws LLZException if the next block cannot be fetched
+     */
+    private long nextIdFromBlock() throws LLZException
+    {
+        if (this.nextCounter == this.blockSize)
+        {
+            this.moveToNextBlock();
+        }
+
+        final long result = (this.currentPrefix << this.blockBits) | this.nextCounter;
+        this.nextCounter++;
+
+        // Ask for the next block before running out of ids
+        if (this.blockSize - this.nextCounter == this.lowWaterMark && !this.prefetchRequested && this.prefetchedPrefix == NO_PREFIX)
+        {
+            this.prefetchRequested = true;
+            this.lock.notifyAll();
+        }
+
+        return result;
+    }
+
+    /**
+     * Move to the prefetched block, or fetch it in the calling thread if the prefetch is not ready. Call with the lock
+     * taken.
+     *
+     * @throws LLZException if the block cannot be fetched
+     */
+    private void moveToNextBlock() throws LLZException
+    {
+        if (this.prefetchedPrefix == NO_PREFIX)
+        {
+            LOGGER.warn("Id block exhausted before the prefetch of the next one, fetching it from the cluster");
+
+            try
+            {
+                this.currentPrefix = this.idGenerator.newId();
+            }
+            catch (final RuntimeException e)
+            {
+                LOGGER.error("Error fetching a new id block from the cluster", e);
+                throw new LLZException("Error fetching a new id block from the cluster", e);
+            }
+        }
+        else
+        {
+            this.currentPrefix = this.prefetchedPrefix;
+            this.prefetchedPrefix = NO_PREFIX;
+        }
+
+        this.nextCounter = 0;
+    }
+
+    @Override
+    public void run()
+    {
+        while (!this.shouldStop)
+        {
+            try
+            {
+                synchronized (this.lock)
+                {
+                    while (!this.shouldStop && (!this.prefetchRequested || this.prefetchedPrefix != NO_PREFIX))
+                    {
+                        this.lock.wait();
+                    }
+                }
+
+                if (this.shouldStop)
+                {
+                    break;
+                }
+
+                // Fetch outside of the lock so the creation of ids is never blocked by the cluster
+                final long prefix = this.idGenerator.newId();
+
+                synchronized (this.lock)
+                {
+                    this.prefetchedPrefix = prefix;
+                    this.prefetchRequested = false;
+                }
+            }
+            catch (final InterruptedException e)
+            {
+                LOGGER.warn("Id block prefetch thread interrupted", e);
+                Thread.currentThread().interrupt();
+                break;
+            }
+            catch (final Exception e)
+            {
+                LOGGER.warn("Id block prefetch thread exception [{}]", e);
+                this.waitBeforeRetry();
+            }
+        }
+
+        this.stopped = true;
+    }
+
+    /** Wait before retrying a failed prefetch, returns earlier if stopped */
+    private void waitBeforeRetry()
+    {
+        synchronized (this.lock)
+        {
+            try
+            {
+                if (!this.shouldStop)
+                {
+                    this.lock.wait(PREFETCH_RETRY_INTERVAL);
+                }
+            }
+            catch (final InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Stop the prefetch thread
+     *
+     * @throws LLZException if interrupted while waiting for the thread to stop
+     */
+    public void stop() throws LLZException
+    {
+        synchronized (this.lock)
+        {
+            this.shouldStop = true;
+            this.lock.notifyAll();
+        }
+
+        try
+        {
+            while (!this.stopped)
+            {
+                Thread.sleep(10);
+            }
+        }
+        catch (final InterruptedException e)
+        {
+            LOGGER.error("An internal error occurred during stopping id block prefetch thread [{}]", e);
+            throw new LLZException(e);
+        }
+    }
+}
@@ -12,9 +12,15 @@ import java.io.IOException;
 /**
  * Class which contains autodiscovery information which travels on the network
  * Represents a socket-topic pair 
+ *
+ * The serialized form is compact: the type is a single byte and the bind address is encoded by {@link LLZBindAddressTable},
+ * the deserialized end points of the same socket share the bind address instance.
  */
 public class LLZTopicEndPointDAO implements IdentifiedDataSerializable, ILLZAutodiscTopicEndPoint
 {
+    /** Interned bind addresses by socket id, shared by all the deserialized end points */
+    private static final LLZBindAddressTable BIND_ADDRESSES = new LLZBindAddressTable();
+
     /** End point type (Publisher/Responder) */
     private LLZAutodiscEndPointType type;
 
@@ -152,23 +158,23 @@ public class LLZTopicEndPointDAO implements IdentifiedDataSerializable, ILLZAuto
     @Override
     public void writeData(ObjectDataOutput out) throws IOException
     {
-        out.writeInt(this.type.getIntValue());
+        out.writeByte(this.type.getIntValue());
         out.writeUTF(this.topicName);
         out.writeLong(this.socketId);
         out.writeLong(this.topicId);
         out.writeLong(this.instanceId);
-        out.writeUTF(this.bindAddress);
+        BIND_ADDRESSES.write(out, this.bindAddress);
     }
 
     @Override
     public void readData(ObjectDataInput in) throws IOException
     {
-        this.type = LLZAutodiscEndPointType.fromIntValue(in.readInt());
+        this.type = LLZAutodiscEndPointType.fromIntValue(in.readByte());
         this.topicName = in.readUTF();
         this.socketId = in.readLong();
         this.topicId = in.readLong();
         this.instanceId = in.readLong();
-        this.bindAddress = in.readUTF();
+        this.bindAddress = BIND_ADDRESSES.read(in, this.socketId);
     }
 
     @Override
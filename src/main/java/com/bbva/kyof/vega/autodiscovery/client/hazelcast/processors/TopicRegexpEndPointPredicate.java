@@ -43,7 +43,24 @@ public class TopicRegexpEndPointPredicate implements Predicate<Long, ILLZAutodis
     @Override
     public boolean apply(final Map.Entry<Long, ILLZAutodiscTopicEndPoint> entry)
     {
-        return (this.pattern.matcher(entry.getValue().getTopicName()).matches());
+        return this.matches(entry.getValue().getTopicName());
+    }
+
+    /**
+     * Check a topic name against the pattern, used to filter the local copy of the end points without cluster calls
+     *
+     * @param topicName the topic name to check
+     * @return true if the topic name matches the pattern
+     */
+    public boolean matches(final String topicName)
+    {
+        return this.pattern.matcher(topicName).matches();
+    }
+
+    /** @return the regular expression of the predicate */
+    public String getTopicRegexp()
+    {
+        return this.topicRegexp;
     }
 
     @Override
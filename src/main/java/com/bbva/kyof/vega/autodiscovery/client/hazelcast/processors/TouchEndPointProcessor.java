@@ -0,0 +1,65 @@
+package com.bbva.kyof.vega.autodiscovery.client.hazelcast.processors;
+
+import java.io.IOException;
+import java.util.Map;
+
+import com.bbva.kyof.vega.autodiscovery.client.ILLZAutodiscTopicEndPoint;
+import com.bbva.kyof.vega.autodiscovery.client.hazelcast.LLZHazelcastFactory;
+import com.hazelcast.map.EntryBackupProcessor;
+import com.hazelcast.map.EntryProcessor;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+
+/**
+ * Read-only processor executed on the owner of each entry to reset its idle time.
+ *
+ * Unlike a get it is always executed in the cluster, even if the entry is in the near cache of a client, and it
+ * doesn't send the value back. The entry is not modified so no events or near cache invalidations are generated.
+ */
+public class TouchEndPointProcessor implements EntryProcessor<Long, ILLZAutodiscTopicEndPoint>, IdentifiedDataSerializable
+{
+    /** Empty constructor for hazelcast serializer */
+    public TouchEndPointProcessor()
+    {
+        // Nothing to do
+    }
+
+    @Override
+    public Object process(final Map.Entry<Long, ILLZAutodiscTopicEndPoint> entry)
+    {
+        // Reading the entry on the owner is enough to reset the idle time
+        return null;
+    }
+
+    @Override
+    public EntryBackupProcessor<Long, ILLZAutodiscTopicEndPoint> getBackupProcessor()
+    {
+        // Nothing to do on the backups
+        return null;
+    }
+
+    @Override
+    public int getFactoryId()
+    {
+        return LLZHazelcastFactory.FACTORY_ID;
+    }
+
+    @Override
+    public int getId()
+    {
+        return LLZHazelcastFactory.TOUCH_END_POINT_PROCESSOR;
+    }
+
+    @Override
+    public void writeData(final ObjectDataOutput objectDataOutput) throws IOException
+    {
+        // No state
+    }
+
+    @Override
+    public void readData(final ObjectDataInput objectDataInput) throws IOException
+    {
+        // No state
+    }
+}
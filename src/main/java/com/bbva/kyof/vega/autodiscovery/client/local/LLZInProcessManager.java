@@ -0,0 +1,269 @@
+package com.bbva.kyof.vega.autodiscovery.client.local;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.bbva.kyof.vega.autodiscovery.client.ILLZAutodisc;
+import com.bbva.kyof.vega.autodiscovery.client.ILLZAutodiscTopicEndPoint;
+import com.bbva.kyof.vega.autodiscovery.client.ILLZAutodiscTopicEndPointChangeListener;
+import com.bbva.kyof.vega.autodiscovery.client.LLZAutoDiscTopicEndPoint;
+import com.bbva.kyof.vega.autodiscovery.client.LLZAutodiscEndPointTable;
+import com.bbva.kyof.vega.autodiscovery.client.LLZAutodiscEndPointType;
+import com.bbva.kyof.vega.autodiscovery.client.beacon.ILLZBeaconAdvertHandler;
+import com.bbva.kyof.vega.config.LLZInstanceConfigWrapper;
+import com.bbva.kyof.vega.config.general.AutoDiscoveryConfig;
+import com.bbva.kyof.vega.exception.LLZException;
+import com.bbva.kyof.vega.util.threads.ILLZThreadFactory;
+import com.bbva.kyof.vega.util.threads.LLZThreadRole;
+
+/**
+ * In-process auto-discovery implementation for single host deployments and tests.
+ *
+ * The end points are shared through the JVM-wide {@link LLZInProcessRegistry}, the events are delivered directly from
+ * the registering thread. If a registry file is configured the end points are also shared with the rest of processes
+ * of the host through a {@link LLZSharedFileRegistry} that is polled every refresh interval.
+ *
+ * The class is thread-safe
+ */
+public class LLZInProcessManager implements ILLZAutodisc, Runnable
+{
+    /** Logger */
+    private static final Logger LOGGER = LoggerFactory.getLogger(LLZInProcessManager.class);
+
+    /** The JVM-wide registry */
+    private final LLZInProcessRegistry registry = LLZInProcessRegistry.getInstance();
+
+    /** Table with the end points known by this instance */
+    private final LLZAutodiscEndPointTable endPointTable = new LLZAutodiscEndPointTable();
+
+    /** End points registered by this instance, by topic id */
+    private final Map<Long, ILLZAutodiscTopicEndPoint> localEndPointsByTopicId = new ConcurrentHashMap<>();
+
+    /** Registry shared with the rest of processes of the host, null if not configured */
+    private final LLZSharedFileRegistry sharedFileRegistry;
+
+    /** Interval between polls of the shared registry in milliseconds */
+    private final long refreshInterval;
+
+    /** Time in milliseconds before a not refreshed end point of the shared registry expires */
+    private final long timeToLive;
+
+    /** True if the poller thread should stop */
+    private volatile boolean shouldStop = false;
+
+    /** True once the poller thread is stopped, or if there is no poller thread */
+    private volatile boolean stopped;
+
+    /**
+     * Create the in-process auto-discovery and join the JVM-wide registry
+     *
+     * @param instanceConfig the configuration of the manager instance
+     * @param threadFactory factory for the shared registry poller thread
+     * @throws LLZException if the registry file cannot be opened
+     */
+    public LLZInProcessManager(final LLZInstanceConfigWrapper instanceConfig, final ILLZThreadFactory threadFactory) throws LLZException
+    {
+        final AutoDiscoveryConfig autodiscoConfig = instanceConfig.getAutodiscoConfig();
+
+        this.refreshInterval = autodiscoConfig.getRefreshInterval();
+        this.timeToLive = autodiscoConfig.getTimeToLive() * 1000L;
+
+        this.registry.join(this.endPointTable);
+
+        if (autodiscoConfig.getRegistryFile() == null)
+        {
+            this.sharedFileRegistry = null;
+            this.stopped = true;
+        }
+        else
+        {
+            this.sharedFileRegistry = new LLZSharedFileRegistry(autodiscoConfig.getRegistryFile(), this.registry.getJvmId(), autodiscoConfig.getRegistrySlots());
+            this.stopped = false;
+
+            final Thread pollerThread = threadFactory.newThread(LLZThreadRole.AUTODISC_BACKGROUND, "LLZ SHARED REGISTRY POLLER", this);
+            pollerThread.start();
+        }
+    }
+
+    @Override
+    public long createUniqueId() throws LLZException
+    {
+        return this.registry.createUniqueId();
+    }
+
+    @Override
+    public long[] createUniqueIds(final int count) throws LLZException
+    {
+        return this.registry.createUniqueIds(count);
+    }
+
+    @Override
+    public void registerTopicEndPoint(final LLZAutodiscEndPointType endPointType, final LLZAutoDiscTopicEndPoint endPointInfo) throws LLZException
+    {
+        LOGGER.debug("Adding new end point information to in-process autodiscovery for topicId [{}], new socket is [{}]",
+                endPointInfo.getTopicId(), endPointInfo.getBindAddress());
+
+        if (this.sharedFileRegistry != null)
+        {
+            this.sharedFileRegistry.publish(endPointInfo, System.currentTimeMillis());
+        }
+
+        this.localEndPointsByTopicId.put(endPointInfo.getTopicId(), endPointInfo);
+        this.registry.register(endPointInfo);
+    }
+
+    @Override
+    public void registerTopicEndPoints(final LLZAutodiscEndPointType endPointType, final Collection<LLZAutoDiscTopicEndPoint> endPointsInfo) throws LLZException
+    {
+        for (final LLZAutoDiscTopicEndPoint endPointInfo : endPointsInfo)
+        {
+            this.registerTopicEndPoint(endPointType, endPointInfo);
+        }
+    }
+
+    @Override
+    public void unregisterTopicEndPoint(final LLZAutodiscEndPointType endPointType, final long topicUniqueId) throws LLZException
+    {
+        LOGGER.debug("Removing information from in-process autodiscovery for topic id [{}]", topicUniqueId);
+
+        if (this.localEndPointsByTopicId.remove(topicUniqueId) == null)
+        {
+            return;
+        }
+
+        if (this.sharedFileRegistry != null)
+        {
+            this.sharedFileRegistry.remove(topicUniqueId);
+        }
+
+        this.registry.unregister(topicUniqueId);
+    }
+
+    @Override
+    public void subscribeToTopicEndPoints(final String topicName, final LLZAutodiscEndPointType endPointType, final ILLZAutodiscTopicEndPointChangeListener listener) throws LLZException
+    {
+        this.endPointTable.subscribe(topicName, endPointType, listener);
+    }
+
+    @Override
+    public void unsubscribeFromTopicEndPoints(final String topicName, final LLZAutodiscEndPointType endPointType) throws LLZException
+    {
+        this.endPointTable.unsubscribe(topicName, endPointType);
+    }
+
+    @Override
+    public void subscribeToTopicPattern(final String topicRegexp, final LLZAutodiscEndPointType endPointType, final ILLZAutodiscTopicEndPointChangeListener listener) throws LLZException
+    {
+        this.endPointTable.subscribeToPattern(topicRegexp, endPointType, listener);
+    }
+
+    @Override
+    public void unsubscribeFromTopicPattern(final String topicRegexp, final LLZAutodiscEndPointType endPointType) throws LLZException
+    {
+        this.endPointTable.unsubscribeFromPattern(topicRegexp, endPointType);
+    }
+
+    @Override
+    public void stop() throws LLZException
+    {
+        LOGGER.debug("Stopping in-process auto-discovery...");
+
+        this.shouldStop = true;
+
+        synchronized (this)
+        {
+            this.notifyAll();
+        }
+
+        try
+        {
+            while (!this.stopped)
+            {
+                Thread.sleep(10);
+            }
+        }
+        catch (final InterruptedException e)
+        {
+            LOGGER.error("An internal error occurred during stopping shared registry poller thread [{}]", e);
+            throw new LLZException(e);
+        }
+
+        // Remove the end points of this instance from the registries
+        for (final Long topicId : this.localEndPointsByTopicId.keySet())
+        {
+            this.registry.unregister(topicId);
+        }
+
+        this.localEndPointsByTopicId.clear();
+        this.registry.leave(this.endPointTable);
+
+        if (this.sharedFileRegistry != null)
+        {
+            this.sharedFileRegistry.close();
+        }
+    }
+
+    @Override
+    public void run()
+    {
+        final SharedFileHandler sharedFileHandler = new SharedFileHandler();
+
+        while (!this.shouldStop)
+        {
+            try
+            {
+                final long currentTime = System.currentTimeMillis();
+
+                // The end points removed from the file stop being refreshed and expire after two polls
+                sharedFileHandler.expirationTime = currentTime + this.refreshInterval * 2;
+                this.sharedFileRegistry.refreshAndRead(currentTime, this.timeToLive, sharedFileHandler);
+                this.endPointTable.expireEndPoints(currentTime);
+
+                synchronized (this)
+                {
+                    if (!this.shouldStop)
+                    {
+                        this.wait(this.refreshInterval);
+                    }
+                }
+            }
+            catch (final InterruptedException e)
+            {
+                LOGGER.warn("Shared registry poller thread interrupted", e);
+                Thread.currentThread().interrupt();
+                break;
+            }
+            catch (final Exception e)
+            {
+                LOGGER.warn("Shared registry poller thread exception [{}]", e);
+            }
+        }
+
+        this.stopped = true;
+    }
+
+    /**
+     * Handler for the end points of other processes read from the shared registry file
+     */
+    private final class SharedFileHandler implements ILLZBeaconAdvertHandler
+    {
+        /** Expiration time for the end points of the current poll */
+        private long expirationTime;
+
+        @Override
+        public void onEndPointAlive(final ILLZAutodiscTopicEndPoint endPoint)
+        {
+            LLZInProcessManager.this.endPointTable.onEndPointAlive(endPoint, this.expirationTime);
+        }
+
+        @Override
+        public void onEndPointRemoved(final LLZAutodiscEndPointType endPointType, final long topicId)
+        {
+            LLZInProcessManager.this.endPointTable.onEndPointRemoved(topicId);
+        }
+    }
+}
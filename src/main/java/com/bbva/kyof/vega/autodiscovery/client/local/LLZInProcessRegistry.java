@@ -0,0 +1,161 @@
+package com.bbva.kyof.vega.autodiscovery.client.local;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.bbva.kyof.vega.autodiscovery.client.ILLZAutodiscTopicEndPoint;
+import com.bbva.kyof.vega.autodiscovery.client.LLZAutodiscEndPointTable;
+
+/**
+ * JVM-wide registry of end points shared by all the in-process auto-discovery instances.
+ *
+ * Every instance joins the registry with its own end point table. The registered end points are added to the tables of
+ * all the joined instances from the registering thread, so the events are delivered without any thread hop.
+ *
+ * The class is thread-safe
+ */
+public final class LLZInProcessRegistry
+{
+    /** Single instance of the registry */
+    private static final LLZInProcessRegistry INSTANCE = new LLZInProcessRegistry();
+
+    /** Random id of the JVM, used as prefix of the unique ids and as owner of the end points in the shared file */
+    private final long jvmId = new Random().nextInt() & Integer.MAX_VALUE;
+
+    /** Counter for the unique ids */
+    private final AtomicLong idCounter = new AtomicLong();
+
+    /** Registered end points by topic id */
+    private final Map<Long, ILLZAutodiscTopicEndPoint> endPointsByTopicId = new HashMap<>();
+
+    /** Tables of the joined instances */
+    private final List<LLZAutodiscEndPointTable> joinedTables = new ArrayList<>();
+
+    /** Lock for the end points and the joined tables */
+    private final Object lock = new Object();
+
+    /** Private constructor, use {@link #getInstance()} */
+    private LLZInProcessRegistry()
+    {
+        // Nothing to do
+    }
+
+    /** @return the JVM-wide registry */
+    public static LLZInProcessRegistry getInstance()
+    {
+        return INSTANCE;
+    }
+
+    /** @return the random id of the JVM */
+    public long getJvmId()
+    {
+        return this.jvmId;
+    }
+
+    /** @return a new id, unique in the JVM and very unlikely to collide with the ids of other JVMs */
+    public long createUniqueId()
+    {
+        return (this.jvmId << 32) | (this.idCounter.incrementAndGet() & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Create a block of consecutive unique ids
+     *
+     * @param count number of ids to create
+     * @return the created ids
+     */
+    public long[] createUniqueIds(final int count)
+    {
+        final long lastCounter = this.idCounter.addAndGet(count);
+        final long[] result = new long[count];
+
+        for (int i = 0; i < count; i++)
+        {
+            result[i] = (this.jvmId << 32) | ((lastCounter - count + 1 + i) & 0xFFFFFFFFL);
+        }
+
+        return result;
+    }
+
+    /**
+     * Join the registry, the table receives the current end points and all the future changes
+     *
+     * @param table the end point table of the instance
+     */
+    public void join(final LLZAutodiscEndPointTable table)
+    {
+        synchronized (this.lock)
+        {
+            this.joinedTables.add(table);
+
+            for (final ILLZAutodiscTopicEndPoint endPoint : this.endPointsByTopicId.values())
+            {
+                table.onEndPointAlive(endPoint, Long.MAX_VALUE);
+            }
+        }
+    }
+
+    /**
+     * Leave the registry
+     *
+     * @param table the end point table of the instance
+     */
+    public void leave(final LLZAutodiscEndPointTable table)
+    {
+        synchronized (this.lock)
+        {
+            this.joinedTables.remove(table);
+        }
+    }
+
+    /**
+     * Register an end point and add it to the tables of all the joined instances
+     *
+     * @param endPoint the end point to register
+     */
+    public void register(final ILLZAutodiscTopicEndPoint endPoint)
+    {
+        final List<LLZAutodiscEndPointTable> tables;
+
+        synchronized (this.lock)
+        {
+            this.endPointsByTopicId.put(endPoint.getTopicId(), endPoint);
+            tables = new ArrayList<>(this.joinedTables);
+        }
+
+        // Notify outside the lock, the listeners may call back the auto-discovery
+        for (final LLZAutodiscEndPointTable table : tables)
+        {
+            table.onEndPointAlive(endPoint, Long.MAX_VALUE);
+        }
+    }
+
+    /**
+     * Unregister an end point and remove it from the tables of all the joined instances
+     *
+     * @param topicId the topic id of the end point
+     */
+    public void unregister(final long topicId)
+    {
+        final List<LLZAutodiscEndPointTable> tables;
+
+        synchronized (this.lock)
+        {
+            if (this.endPointsByTopicId.remove(topicId) == null)
+            {
+                return;
+            }
+
+            tables = new ArrayList<>(this.joinedTables);
+        }
+
+        for (final LLZAutodiscEndPointTable table : tables)
+        {
+            table.onEndPointRemoved(topicId);
+        }
+    }
+}
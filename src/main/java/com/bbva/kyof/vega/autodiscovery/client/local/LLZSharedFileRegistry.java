@@ -0,0 +1,420 @@
+package com.bbva.kyof.vega.autodiscovery.client.local;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.bbva.kyof.vega.autodiscovery.client.ILLZAutodiscTopicEndPoint;
+import com.bbva.kyof.vega.autodiscovery.client.beacon.ILLZBeaconAdvertHandler;
+import com.bbva.kyof.vega.autodiscovery.client.beacon.LLZBeaconAdvertCodec;
+import com.bbva.kyof.vega.exception.LLZException;
+
+/**
+ * Registry of end points in a memory mapped file shared by the processes of the same host.
+ *
+ * The file is a header followed by a fixed number of slots, each slot holds one end point with the id of the owner JVM
+ * and the time of the last refresh. The end points are encoded with the beacon advert record format. All the accesses
+ * to the file are done with an exclusive file lock.
+ *
+ * The number of slots is given by the process that creates the file, the processes that open an existing file use the
+ * number of slots stored in its header. When all the slots are used the new end points can't be published.
+ *
+ * The owners refresh their slots periodically, the slots that are not refreshed in time are released by any reader.
+ *
+ * The class is thread-safe
+ */
+public final class LLZSharedFileRegistry
+{
+    /** Logger */
+    private static final Logger LOGGER = LoggerFactory.getLogger(LLZSharedFileRegistry.class);
+
+    /** Magic number that identifies the file ("LLZR") */
+    private static final int MAGIC = 0x4C4C5A52;
+
+    /** Size of a slot */
+    private static final int SLOT_SIZE = 512;
+
+    /** Size of the file header: magic, slot count and slot size */
+    private static final int HEADER_SIZE = 12;
+
+    /** Offset in the slot of the used flag */
+    private static final int USED_OFFSET = 0;
+
+    /** Offset in the slot of the owner JVM id */
+    private static final int OWNER_OFFSET = 1;
+
+    /** Offset in the slot of the last refresh time */
+    private static final int REFRESH_OFFSET = 9;
+
+    /** Offset in the slot of the record length */
+    private static final int LENGTH_OFFSET = 17;
+
+    /** Offset in the slot of the record */
+    private static final int RECORD_OFFSET = 19;
+
+    /** Lock to avoid overlapping file locks from different instances of the same JVM */
+    private static final Object JVM_LOCK = new Object();
+
+    /** Id of the owner JVM of the end points published through this instance */
+    private final long ownerId;
+
+    /** Path of the registry file */
+    private final String fileName;
+
+    /** Number of slots in the file */
+    private final int slotCount;
+
+    /** The opened file */
+    private final RandomAccessFile file;
+
+    /** The mapped contents of the file */
+    private final MappedByteBuffer buffer;
+
+    /** Slot of each end point published through this instance, by topic id */
+    private final Map<Long, Integer> ownSlotsByTopicId = new HashMap<>();
+
+    /** Slot to start looking for a free slot on the next publication, the slots before are usually used */
+    private int nextFreeSlotHint = 0;
+
+    /**
+     * Open the registry file, creating it if it doesn't exist
+     *
+     * @param fileName path of the registry file
+     * @param ownerId id of the owner JVM of the end points published through this instance
+     * @param requestedSlotCount number of slots if the file is created, an existing file keeps its number of slots
+     * @throws LLZException if the file cannot be opened or is not a valid registry file
+     */
+    public LLZSharedFileRegistry(final String fileName, final long ownerId, final int requestedSlotCount) throws LLZException
+    {
+        if (requestedSlotCount < 1)
+        {
+            throw new LLZException("Invalid number of slots for the auto-discovery registry file " + requestedSlotCount);
+        }
+
+        this.ownerId = ownerId;
+        this.fileName = fileName;
+
+        try
+        {
+            this.file = new RandomAccessFile(fileName, "rw");
+            final FileChannel channel = this.file.getChannel();
+
+            synchronized (JVM_LOCK)
+            {
+                final FileLock fileLock = channel.lock();
+
+                try
+                {
+                    final boolean isNewFile = this.file.length() == 0;
+
+                    if (isNewFile)
+                    {
+                        this.slotCount = requestedSlotCount;
+                    }
+                    else
+                    {
+                        this.slotCount = readSlotCount(channel, fileName);
+
+                        if (this.slotCount != requestedSlotCount)
+                        {
+                            LOGGER.warn("The auto-discovery registry file [{}] already exists with [{}] slots, the requested [{}] slots are ignored",
+                                    fileName, this.slotCount, requestedSlotCount);
+                        }
+                    }
+
+                    this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) this.slotCount * SLOT_SIZE);
+
+                    if (isNewFile)
+                    {
+                        this.buffer.putInt(0, MAGIC);
+                        this.buffer.putInt(4, this.slotCount);
+                        this.buffer.putInt(8, SLOT_SIZE);
+                    }
+                }
+                finally
+                {
+                    fileLock.release();
+                }
+            }
+        }
+        catch (final IOException e)
+        {
+            LOGGER.error("Error opening the auto-discovery registry file [{}]", fileName, e);
+            throw new LLZException("Error opening the auto-discovery registry file " + fileName, e);
+        }
+    }
+
+    /**
+     * Publish an end point in a free slot
+     *
+     * @param endPoint the end point to publish
+     * @param currentTime the current time in milliseconds
+     * @throws LLZException if there are no free slots or the end point doesn't fit in a slot
+     */
+    public void publish(final ILLZAutodiscTopicEndPoint endPoint, final long currentTime) throws LLZException
+    {
+        synchronized (JVM_LOCK)
+        {
+            try
+            {
+                final FileLock fileLock = this.file.getChannel().lock();
+
+                try
+                {
+                    this.publishInFreeSlot(endPoint, currentTime);
+                }
+                finally
+                {
+                    fileLock.release();
+                }
+            }
+            catch (final IOException e)
+            {
+                throw new LLZException("Error locking the auto-discovery registry file", e);
+            }
+        }
+    }
+
+    /**
+     * Remove an end point published through this instance
+     *
+     * @param topicId the topic id of the end point
+     * @throws LLZException if the file cannot be locked
+     */
+    public void remove(final long topicId) throws LLZException
+    {
+        synchronized (JVM_LOCK)
+        {
+            final Integer slot = this.ownSlotsByTopicId.remove(topicId);
+
+            if (slot == null)
+            {
+                return;
+            }
+
+            try
+            {
+                final FileLock fileLock = this.file.getChannel().lock();
+
+                try
+                {
+                    this.buffer.put(slotOffset(slot) + USED_OFFSET, (byte) 0);
+                }
+                finally
+                {
+                    fileLock.release();
+                }
+            }
+            catch (final IOException e)
+            {
+                throw new LLZException("Error locking the auto-discovery registry file", e);
+            }
+        }
+    }
+
+    /**
+     * Refresh the end points published through this instance and read the end points of other JVMs. The slots that have
+     * not been refreshed in time are released.
+     *
+     * @param currentTime the current time in milliseconds
+     * @param timeToLive time in milliseconds before a not refreshed slot is released
+     * @param handler handler that receives the end points of other JVMs
+     * @throws LLZException if the file cannot be locked
+     */
+    public void refreshAndRead(final long currentTime, final long timeToLive, final ILLZBeaconAdvertHandler handler) throws LLZException
+    {
+        synchronized (JVM_LOCK)
+        {
+            try
+            {
+                final FileLock fileLock = this.file.getChannel().lock();
+
+                try
+                {
+                    this.refreshAndReadSlots(currentTime, timeToLive, handler);
+                }
+                finally
+                {
+                    fileLock.release();
+                }
+            }
+            catch (final IOException e)
+            {
+                throw new LLZException("Error locking the auto-discovery registry file", e);
+            }
+        }
+    }
+
+    /**
+     * Remove all the end points published through this instance and close the file
+     *
+     * @throws LLZException if the file cannot be locked or closed
+     */
+    public void close() throws LLZException
+    {
+        synchronized (JVM_LOCK)
+        {
+            try
+            {
+                final FileLock fileLock = this.file.getChannel().lock();
+
+                try
+                {
+                    for (final Integer slot : this.ownSlotsByTopicId.values())
+                    {
+                        this.buffer.put(slotOffset(slot) + USED_OFFSET, (byte) 0);
+                    }
+                }
+                finally
+                {
+                    fileLock.release();
+                }
+
+                this.ownSlotsByTopicId.clear();
+                this.file.close();
+            }
+            catch (final IOException e)
+            {
+                throw new LLZException("Error closing the auto-discovery registry file", e);
+            }
+        }
+    }
+
+    /** @return the number of slots of the file */
+    public int getSlotCount()
+    {
+        return this.slotCount;
+    }
+
+    /**
+     * Write the end point in the first free slot from the last used one, call with the file lock taken
+     *
+     * @param endPoint the end point to publish
+     * @param currentTime the current time in milliseconds
+     * @throws LLZException if there are no free slots or the end point doesn't fit in a slot
+     */
+    private void publishInFreeSlot(final ILLZAutodiscTopicEndPoint endPoint, final long currentTime) throws LLZException
+    {
+        for (int i = 0; i < this.slotCount; i++)
+        {
+            final int slot = (this.nextFreeSlotHint + i) % this.slotCount;
+            final int slotOffset = slotOffset(slot);
+
+            if (this.buffer.get(slotOffset + USED_OFFSET) == 0)
+            {
+                final ByteBuffer record = this.buffer.duplicate();
+                record.limit(slotOffset + SLOT_SIZE);
+                record.position(slotOffset + RECORD_OFFSET);
+
+                if (!LLZBeaconAdvertCodec.writeAlive(record, endPoint))
+                {
+                    throw new LLZException("End point too big to fit in the auto-discovery registry file " + endPoint);
+                }
+
+                this.buffer.putShort(slotOffset + LENGTH_OFFSET, (short) (record.position() - slotOffset - RECORD_OFFSET));
+                this.buffer.putLong(slotOffset + OWNER_OFFSET, this.ownerId);
+                this.buffer.putLong(slotOffset + REFRESH_OFFSET, currentTime);
+                this.buffer.put(slotOffset + USED_OFFSET, (byte) 1);
+
+                this.ownSlotsByTopicId.put(endPoint.getTopicId(), slot);
+                this.nextFreeSlotHint = (slot + 1) % this.slotCount;
+                return;
+            }
+        }
+
+        LOGGER.error("The auto-discovery registry file [{}] is full, all its [{}] slots are used. The end point [{}] can't be published, " +
+                "remove the file and increase registry_slots to allow more end points in the host", this.fileName, this.slotCount, endPoint);
+
+        throw new LLZException("No free slots in the auto-discovery registry file " + this.fileName + ", slots " + this.slotCount);
+    }
+
+    /**
+     * Refresh the own slots and read the slots of other JVMs, call with the file lock taken
+     *
+     * @param currentTime the current time in milliseconds
+     * @param timeToLive time in milliseconds before a not refreshed slot is released
+     * @param handler handler that receives the end points of other JVMs
+     */
+    private void refreshAndReadSlots(final long currentTime, final long timeToLive, final ILLZBeaconAdvertHandler handler)
+    {
+        for (final Integer slot : this.ownSlotsByTopicId.values())
+        {
+            this.buffer.putLong(slotOffset(slot) + REFRESH_OFFSET, currentTime);
+        }
+
+        for (int slot = 0; slot < this.slotCount; slot++)
+        {
+            final int slotOffset = slotOffset(slot);
+
+            if (this.buffer.get(slotOffset + USED_OFFSET) == 0 || this.buffer.getLong(slotOffset + OWNER_OFFSET) == this.ownerId)
+            {
+                continue;
+            }
+
+            if (this.buffer.getLong(slotOffset + REFRESH_OFFSET) + timeToLive < currentTime)
+            {
+                // The owner is gone without removing its end points
+                this.buffer.put(slotOffset + USED_OFFSET, (byte) 0);
+                continue;
+            }
+
+            final ByteBuffer record = this.buffer.duplicate();
+            record.position(slotOffset + RECORD_OFFSET);
+            record.limit(slotOffset + RECORD_OFFSET + this.buffer.getShort(slotOffset + LENGTH_OFFSET));
+
+            try
+            {
+                LLZBeaconAdvertCodec.readRecords(record, handler);
+            }
+            catch (final LLZException e)
+            {
+                LOGGER.warn("Invalid end point in slot [{}] of the auto-discovery registry file", slot, e);
+            }
+        }
+    }
+
+    /**
+     * Read and validate the header of an existing registry file, call with the file lock taken
+     *
+     * @param channel channel of the file
+     * @param fileName path of the file
+     * @return the number of slots of the file
+     * @throws IOException if the header cannot be read
+     * @throws LLZException if the file is not a valid registry file
+     */
+    private static int readSlotCount(final FileChannel channel, final String fileName) throws IOException, LLZException
+    {
+        final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+
+        while (header.hasRemaining() && channel.read(header, header.position()) >= 0)
+        {
+            // Keep reading until the header is complete or the end of the file
+        }
+
+        if (header.hasRemaining() || header.getInt(0) != MAGIC || header.getInt(4) < 1 || header.getInt(8) != SLOT_SIZE)
+        {
+            throw new LLZException("The file is not a valid auto-discovery registry file: " + fileName);
+        }
+
+        return header.getInt(4);
+    }
+
+    /**
+     * Calculate the offset of a slot in the file
+     *
+     * @param slot the slot index
+     * @return the offset of the slot
+     */
+    private static int slotOffset(final int slot)
+    {
+        return HEADER_SIZE + slot * SLOT_SIZE;
+    }
+}
@@ -0,0 +1,409 @@
+package com.bbva.kyof.vega.autodiscovery.client.shared;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.bbva.kyof.vega.autodiscovery.client.ILLZAutodisc;
+import com.bbva.kyof.vega.autodiscovery.client.ILLZAutodiscTopicEndPoint;
+import com.bbva.kyof.vega.autodiscovery.client.ILLZAutodiscTopicEndPointChangeListener;
+import com.bbva.kyof.vega.autodiscovery.client.LLZAutoDiscTopicEndPoint;
+import com.bbva.kyof.vega.autodiscovery.client.LLZAutodiscEndPointType;
+import com.bbva.kyof.vega.exception.LLZException;
+
+/**
+ * Shares a single auto-discovery among several manager instances of the same JVM.
+ *
+ * Each instance works with its own client created by {@link #createClient()}. The subscriptions of all the clients to
+ * the same topic name or pattern are merged into a single subscription in the shared auto-discovery, whose events
+ * are fanned out to the listeners of the clients. A client subscribing late receives first the end points already
+ * known. The shared auto-discovery is stopped when the last client is stopped.
+ *
+ * The events of a subscription are delivered in order under the lock of the subscription, the listeners should not
+ * block. The class is thread-safe
+ */
+public final class LLZSharedAutodisc
+{
+    /** Logger */
+    private static final Logger LOGGER = LoggerFactory.getLogger(LLZSharedAutodisc.class);
+
+    /** The shared auto-discovery */
+    private final ILLZAutodisc delegate;
+
+    /** Merged subscriptions to topic names, by end point type and topic name */
+    private final Map<LLZAutodiscEndPointType, Map<String, FanOutListener>> topicSubscriptionsByType = new EnumMap<>(LLZAutodiscEndPointType.class);
+
+    /** Merged subscriptions to topic patterns, by end point type and regular expression */
+    private final Map<LLZAutodiscEndPointType, Map<String, FanOutListener>> patternSubscriptionsByType = new EnumMap<>(LLZAutodiscEndPointType.class);
+
+    /** Number of clients not stopped yet */
+    private int activeClients = 0;
+
+    /** True once the shared auto-discovery has been stopped */
+    private boolean stopped = false;
+
+    /** Lock for the internal state and the calls to the shared auto-discovery */
+    private final Object lock = new Object();
+
+    /**
+     * Create a new shared auto-discovery
+     *
+     * @param delegate the auto-discovery to share, it is stopped with the last client
+     */
+    public LLZSharedAutodisc(final ILLZAutodisc delegate)
+    {
+        this.delegate = delegate;
+
+        for (final LLZAutodiscEndPointType endPointType : LLZAutodiscEndPointType.values())
+        {
+            this.topicSubscriptionsByType.put(endPointType, new HashMap<String, FanOutListener>());
+            this.patternSubscriptionsByType.put(endPointType, new HashMap<String, FanOutListener>());
+        }
+    }
+
+    /**
+     * Create a new client of the shared auto-discovery for a manager instance
+     *
+     * @return the client, null if the shared auto-discovery is already stopped
+     */
+    public ILLZAutodisc createClient()
+    {
+        synchronized (this.lock)
+        {
+            if (this.stopped)
+            {
+                return null;
+            }
+
+            this.activeClients++;
+            return new SharedAutodiscClient();
+        }
+    }
+
+    /**
+     * Add the listener of a client to the merged subscription, subscribing to the shared auto-discovery if it is the
+     * first one. Call with the lock taken.
+     *
+     * @param subscriptions merged subscriptions of the end point type
+     * @param subscriptionKey topic name or regular expression
+     * @param endPointType the end point type
+     * @param pattern true if subscribed to a topic pattern
+     * @param listener the listener of the client
+     * @throws LLZException exception thrown if the shared auto-discovery cannot subscribe
+     */
+    private void addListener(final Map<String, FanOutListener> subscriptions,
+                             final String subscriptionKey,
+                             final LLZAutodiscEndPointType endPointType,
+                             final boolean pattern,
+                             final ILLZAutodiscTopicEndPointChangeListener listener) throws LLZException
+    {
+        FanOutListener fanOutListener = subscriptions.get(subscriptionKey);
+
+        if (fanOutListener == null)
+        {
+            fanOutListener = new FanOutListener();
+
+            if (pattern)
+            {
+                this.delegate.subscribeToTopicPattern(subscriptionKey, endPointType, fanOutListener);
+            }
+            else
+            {
+                this.delegate.subscribeToTopicEndPoints(subscriptionKey, endPointType, fanOutListener);
+            }
+
+            subscriptions.put(subscriptionKey, fanOutListener);
+        }
+
+        fanOutListener.addListener(listener);
+    }
+
+    /**
+     * Remove the listener of a client from the merged subscription, unsubscribing from the shared auto-discovery if
+     * it was the last one. Call with the lock taken.
+     *
+     * @param subscriptions merged subscriptions of the end point type
+     * @param subscriptionKey topic name or regular expression
+     * @param endPointType the end point type
+     * @param pattern true if subscribed to a topic pattern
+     * @param listener the listener of the client
+     * @throws LLZException exception thrown if the shared auto-discovery cannot unsubscribe
+     */
+    private void removeListener(final Map<String, FanOutListener> subscriptions,
+                                final String subscriptionKey,
+                                final LLZAutodiscEndPointType endPointType,
+                                final boolean pattern,
+                                final ILLZAutodiscTopicEndPointChangeListener listener) throws LLZException
+    {
+        final FanOutListener fanOutListener = subscriptions.get(subscriptionKey);
+
+        if (fanOutListener == null || !fanOutListener.removeListener(listener))
+        {
+            return;
+        }
+
+        subscriptions.remove(subscriptionKey);
+
+        if (pattern)
+        {
+            this.delegate.unsubscribeFromTopicPattern(subscriptionKey, endPointType);
+        }
+        else
+        {
+            this.delegate.unsubscribeFromTopicEndPoints(subscriptionKey, endPointType);
+        }
+    }
+
+    /**
+     * Listener of a merged subscription that keeps the known end points and forwards the events to the listeners of
+     * the clients
+     */
+    private static final class FanOutListener implements ILLZAutodiscTopicEndPointChangeListener
+    {
+        /** Listeners of the clients subscribed */
+        private final List<ILLZAutodiscTopicEndPointChangeListener> listeners = new ArrayList<>();
+
+        /** End points known by the subscription, by topic id */
+        private final Map<Long, ILLZAutodiscTopicEndPoint> knownEndPoints = new HashMap<>();
+
+        /**
+         * Add the listener of a client and deliver to it the end points already known
+         *
+         * @param listener the listener of the client
+         */
+        private synchronized void addListener(final ILLZAutodiscTopicEndPointChangeListener listener)
+        {
+            this.listeners.add(listener);
+
+            for (final ILLZAutodiscTopicEndPoint endPoint : this.knownEndPoints.values())
+            {
+                listener.onEndPointAdded(endPoint);
+            }
+        }
+
+        /**
+         * Remove the listener of a client
+         *
+         * @param listener the listener of the client
+         * @return true if there are no more listeners
+         */
+        private synchronized boolean removeListener(final ILLZAutodiscTopicEndPointChangeListener listener)
+        {
+            this.listeners.remove(listener);
+            return this.listeners.isEmpty();
+        }
+
+        @Override
+        public synchronized void onEndPointAdded(final ILLZAutodiscTopicEndPoint autodiscoveryInfo)
+        {
+            this.knownEndPoints.put(autodiscoveryInfo.getTopicId(), autodiscoveryInfo);
+
+            for (final ILLZAutodiscTopicEndPointChangeListener listener : this.listeners)
+            {
+                listener.onEndPointAdded(autodiscoveryInfo);
+            }
+        }
+
+        @Override
+        public synchronized void onEndPointRemoved(final ILLZAutodiscTopicEndPoint autodiscoveryInfo)
+        {
+            this.knownEndPoints.remove(autodiscoveryInfo.getTopicId());
+
+            for (final ILLZAutodiscTopicEndPointChangeListener listener : this.listeners)
+            {
+                listener.onEndPointRemoved(autodiscoveryInfo);
+            }
+        }
+    }
+
+    /**
+     * Client of the shared auto-discovery used by a single manager instance, stopping it only removes its own
+     * subscriptions
+     */
+    private final class SharedAutodiscClient implements ILLZAutodisc
+    {
+        /** Subscriptions of the client to topic names, by end point type and topic name */
+        private final Map<LLZAutodiscEndPointType, Map<String, ILLZAutodiscTopicEndPointChangeListener>> topicListenersByType = new EnumMap<>(LLZAutodiscEndPointType.class);
+
+        /** Subscriptions of the client to topic patterns, by end point type and regular expression */
+        private final Map<LLZAutodiscEndPointType, Map<String, ILLZAutodiscTopicEndPointChangeListener>> patternListenersByType = new EnumMap<>(LLZAutodiscEndPointType.class);
+
+        /** True once the client is stopped */
+        private boolean clientStopped = false;
+
+        /** Create a new client */
+        private SharedAutodiscClient()
+        {
+            for (final LLZAutodiscEndPointType endPointType : LLZAutodiscEndPointType.values())
+            {
+                this.topicListenersByType.put(endPointType, new HashMap<String, ILLZAutodiscTopicEndPointChangeListener>());
+                this.patternListenersByType.put(endPointType, new HashMap<String, ILLZAutodiscTopicEndPointChangeListener>());
+            }
+        }
+
+        @Override
+        public void stop() throws LLZException
+        {
+            synchronized (LLZSharedAutodisc.this.lock)
+            {
+                if (this.clientStopped)
+                {
+                    return;
+                }
+
+                this.clientStopped = true;
+
+                for (final LLZAutodiscEndPointType endPointType : LLZAutodiscEndPointType.values())
+                {
+                    for (final Map.Entry<String, ILLZAutodiscTopicEndPointChangeListener> entry : this.topicListenersByType.get(endPointType).entrySet())
+                    {
+                        LLZSharedAutodisc.this.removeListener(LLZSharedAutodisc.this.topicSubscriptionsByType.get(endPointType), entry.getKey(), endPointType, false, entry.getValue());
+                    }
+
+                    for (final Map.Entry<String, ILLZAutodiscTopicEndPointChangeListener> entry : this.patternListenersByType.get(endPointType).entrySet())
+                    {
+                        LLZSharedAutodisc.this.removeListener(LLZSharedAutodisc.this.patternSubscriptionsByType.get(endPointType), entry.getKey(), endPointType, true, entry.getValue());
+                    }
+
+                    this.topicListenersByType.get(endPointType).clear();
+                    this.patternListenersByType.get(endPointType).clear();
+                }
+
+                LLZSharedAutodisc.this.activeClients--;
+
+                if (LLZSharedAutodisc.this.activeClients > 0)
+                {
+                    return;
+                }
+
+                LOGGER.info("Last client of the shared auto-discovery stopped, stopping the shared auto-discovery");
+                LLZSharedAutodisc.this.stopped = true;
+                LLZSharedAutodisc.this.delegate.stop();
+            }
+        }
+
+        @Override
+        public long createUniqueId() throws LLZException
+        {
+            return LLZSharedAutodisc.this.delegate.createUniqueId();
+        }
+
+        @Override
+        public long[] createUniqueIds(final int count) throws LLZException
+        {
+            return LLZSharedAutodisc.this.delegate.createUniqueIds(count);
+        }
+
+        @Override
+        public void registerTopicEndPoint(final LLZAutodiscEndPointType endPointType, final LLZAutoDiscTopicEndPoint endPointInfo) throws LLZException
+        {
+            LLZSharedAutodisc.this.delegate.registerTopicEndPoint(endPointType, endPointInfo);
+        }
+
+        @Override
+        public void registerTopicEndPoints(final LLZAutodiscEndPointType endPointType, final Collection<LLZAutoDiscTopicEndPoint> endPointsInfo) throws LLZException
+        {
+            LLZSharedAutodisc.this.delegate.registerTopicEndPoints(endPointType, endPointsInfo);
+        }
+
+        @Override
+        public void unregisterTopicEndPoint(final LLZAutodiscEndPointType endPointType, final long topicUniqueId) throws LLZException
+        {
+            LLZSharedAutodisc.this.delegate.unregisterTopicEndPoint(endPointType, topicUniqueId);
+        }
+
+        @Override
+        public void subscribeToTopicEndPoints(final String topicName, final LLZAutodiscEndPointType endPointType, final ILLZAutodiscTopicEndPointChangeListener listener) throws LLZException
+        {
+            this.subscribe(this.topicListenersByType.get(endPointType), LLZSharedAutodisc.this.topicSubscriptionsByType.get(endPointType), topicName, endPointType, false, listener);
+        }
+
+        @Override
+        public void unsubscribeFromTopicEndPoints(final String topicName, final LLZAutodiscEndPointType endPointType) throws LLZException
+        {
+            this.unsubscribe(this.topicListenersByType.get(endPointType), LLZSharedAutodisc.this.topicSubscriptionsByType.get(endPointType), topicName, endPointType, false);
+        }
+
+        @Override
+        public void subscribeToTopicPattern(final String topicRegexp, final LLZAutodiscEndPointType endPointType, final ILLZAutodiscTopicEndPointChangeListener listener) throws LLZException
+        {
+            this.subscribe(this.patternListenersByType.get(endPointType), LLZSharedAutodisc.this.patternSubscriptionsByType.get(endPointType), topicRegexp, endPointType, true, listener);
+        }
+
+        @Override
+        public void unsubscribeFromTopicPattern(final String topicRegexp, final LLZAutodiscEndPointType endPointType) throws LLZException
+        {
+            this.unsubscribe(this.patternListenersByType.get(endPointType), LLZSharedAutodisc.this.patternSubscriptionsByType.get(endPointType), topicRegexp, endPointType, true);
+        }
+
+        /**
+         * Subscribe the client, replacing any previous subscription of the client with the same key
+         *
+         * @param clientListeners subscriptions of the client of the end point type
+         * @param subscriptions merged subscriptions of the end point type
+         * @param subscriptionKey topic name or regular expression
+         * @param endPointType the end point type
+         * @param pattern true if subscribing to a topic pattern
+         * @param listener the listener of the client
+         * @throws LLZException exception thrown if the client is stopped or the shared auto-discovery cannot subscribe
+         */
+        private void subscribe(final Map<String, ILLZAutodiscTopicEndPointChangeListener> clientListeners,
+                               final Map<String, FanOutListener> subscriptions,
+                               final String subscriptionKey,
+                               final LLZAutodiscEndPointType endPointType,
+                               final boolean pattern,
+                               final ILLZAutodiscTopicEndPointChangeListener listener) throws LLZException
+        {
+            synchronized (LLZSharedAutodisc.this.lock)
+            {
+                if (this.clientStopped)
+                {
+                    throw new LLZException("The shared auto-discovery client is stopped");
+                }
+
+                final ILLZAutodiscTopicEndPointChangeListener previousListener = clientListeners.remove(subscriptionKey);
+
+                if (previousListener != null)
+                {
+                    LLZSharedAutodisc.this.removeListener(subscriptions, subscriptionKey, endPointType, pattern, previousListener);
+                }
+
+                LLZSharedAutodisc.this.addListener(subscriptions, subscriptionKey, endPointType, pattern, listener);
+                clientListeners.put(subscriptionKey, listener);
+            }
+        }
+
+        /**
+         * Unsubscribe the client
+         *
+         * @param clientListeners subscriptions of the client of the end point type
+         * @param subscriptions merged subscriptions of the end point type
+         * @param subscriptionKey topic name or regular expression
+         * @param endPointType the end point type
+         * @param pattern true if unsubscribing from a topic pattern
+         * @throws LLZException exception thrown if the shared auto-discovery cannot unsubscribe
+         */
+        private void unsubscribe(final Map<String, ILLZAutodiscTopicEndPointChangeListener> clientListeners,
+                                 final Map<String, FanOutListener> subscriptions,
+                                 final String subscriptionKey,
+                                 final LLZAutodiscEndPointType endPointType,
+                                 final boolean pattern) throws LLZException
+        {
+            synchronized (LLZSharedAutodisc.this.lock)
+            {
+                final ILLZAutodiscTopicEndPointChangeListener listener = clientListeners.remove(subscriptionKey);
+
+                if (listener != null)
+                {
+                    LLZSharedAutodisc.this.removeListener(subscriptions, subscriptionKey, endPointType, pattern, listener);
+                }
+            }
+        }
+    }
+}
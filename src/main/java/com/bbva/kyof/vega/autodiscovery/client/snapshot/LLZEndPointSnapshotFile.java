@@ -0,0 +1,365 @@
+package com.bbva.kyof.vega.autodiscovery.client.snapshot;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.bbva.kyof.vega.autodiscovery.client.ILLZAutodiscTopicEndPoint;
+import com.bbva.kyof.vega.autodiscovery.client.LLZAutodiscEndPointType;
+import com.bbva.kyof.vega.autodiscovery.client.beacon.ILLZBeaconAdvertHandler;
+import com.bbva.kyof.vega.autodiscovery.client.beacon.LLZBeaconAdvertCodec;
+import com.bbva.kyof.vega.exception.LLZException;
+
+/**
+ * Snapshot of the last known end points in a memory mapped file, it survives the restarts of the process.
+ *
+ * The file is a header followed by a number of slots, each slot holds one end point encoded with the beacon advert
+ * record format. The changes are written directly in the mapped memory, so they reach the file even if the process is
+ * killed. Each file should be used by a single manager instance.
+ *
+ * The file is created with the requested number of slots and doubles its size when all the slots are used, an existing
+ * file keeps the number of slots stored in its header.
+ *
+ * The class is thread-safe
+ */
+public final class LLZEndPointSnapshotFile
+{
+    /** Logger */
+    private static final Logger LOGGER = LoggerFactory.getLogger(LLZEndPointSnapshotFile.class);
+
+    /** Magic number that identifies the file ("LLZS") */
+    private static final int MAGIC = 0x4C4C5A53;
+
+    /** Size of a slot */
+    private static final int SLOT_SIZE = 512;
+
+    /** Size of the file header: magic, slot count and slot size */
+    private static final int HEADER_SIZE = 12;
+
+    /** Maximum number of slots, the mapped buffer is limited to 2GB */
+    private static final int MAX_SLOT_COUNT = (Integer.MAX_VALUE - HEADER_SIZE) / SLOT_SIZE;
+
+    /** Offset in the slot of the used flag */
+    private static final int USED_OFFSET = 0;
+
+    /** Offset in the slot of the record length */
+    private static final int LENGTH_OFFSET = 1;
+
+    /** Offset in the slot of the record */
+    private static final int RECORD_OFFSET = 3;
+
+    /** The opened file */
+    private final RandomAccessFile file;
+
+    /** Path of the snapshot file */
+    private final String fileName;
+
+    /** The mapped contents of the file, replaced when the file grows */
+    private MappedByteBuffer buffer;
+
+    /** Number of slots in the file */
+    private int slotCount;
+
+    /** True if the file is full at the maximum size, to warn only once until a slot is released */
+    private boolean fullWarned = false;
+
+    /** Slot of each stored end point, by topic id */
+    private final Map<Long, Integer> slotsByTopicId = new HashMap<>();
+
+    /** Free slots */
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+
+    /**
+     * Open the snapshot file, creating it if it doesn't exist. If the file is not a valid snapshot it is reset.
+     *
+     * @param fileName path of the snapshot file
+     * @param initialSlotCount number of slots if the file is created or reset, an existing file keeps its number of slots
+     * @throws LLZException if the file cannot be opened
+     */
+    public LLZEndPointSnapshotFile(final String fileName, final int initialSlotCount) throws LLZException
+    {
+        if (initialSlotCount < 1 || initialSlotCount > MAX_SLOT_COUNT)
+        {
+            throw new LLZException("Invalid number of slots for the end point snapshot file " + initialSlotCount);
+        }
+
+        this.fileName = fileName;
+
+        try
+        {
+            this.file = new RandomAccessFile(fileName, "rw");
+            this.slotCount = this.readSlotCount();
+
+            final boolean isValidFile = this.slotCount > 0;
+            if (!isValidFile)
+            {
+                this.slotCount = initialSlotCount;
+            }
+
+            this.buffer = this.map(this.slotCount);
+
+            if (!isValidFile)
+            {
+                LOGGER.info("Initializing the end point snapshot file [{}] with [{}] slots", fileName, this.slotCount);
+
+                for (int slot = 0; slot < this.slotCount; slot++)
+                {
+                    this.buffer.put(slotOffset(slot) + USED_OFFSET, (byte) 0);
+                }
+
+                this.buffer.putInt(0, MAGIC);
+                this.buffer.putInt(4, this.slotCount);
+                this.buffer.putInt(8, SLOT_SIZE);
+            }
+        }
+        catch (final IOException e)
+        {
+            LOGGER.error("Error opening the end point snapshot file [{}]", fileName, e);
+            throw new LLZException("Error opening the end point snapshot file " + fileName, e);
+        }
+
+        for (int slot = 0; slot < this.slotCount; slot++)
+        {
+            if (this.buffer.get(slotOffset(slot) + USED_OFFSET) == 0)
+            {
+                this.freeSlots.add(slot);
+            }
+        }
+    }
+
+    /**
+     * Read all the end points stored in the snapshot, the invalid ones are released
+     *
+     * @param handler handler that receives the stored end points
+     */
+    public synchronized void readAll(final ILLZBeaconAdvertHandler handler)
+    {
+        for (int slot = 0; slot < this.slotCount; slot++)
+        {
+            final int slotOffset = slotOffset(slot);
+
+            if (this.buffer.get(slotOffset + USED_OFFSET) == 0)
+            {
+                continue;
+            }
+
+            final ByteBuffer record = this.buffer.duplicate();
+            record.position(slotOffset + RECORD_OFFSET);
+            record.limit(slotOffset + RECORD_OFFSET + this.buffer.getShort(slotOffset + LENGTH_OFFSET));
+
+            final int currentSlot = slot;
+
+            try
+            {
+                LLZBeaconAdvertCodec.readRecords(record, new ILLZBeaconAdvertHandler()
+                {
+                    @Override
+                    public void onEndPointAlive(final ILLZAutodiscTopicEndPoint endPoint)
+                    {
+                        LLZEndPointSnapshotFile.this.slotsByTopicId.put(endPoint.getTopicId(), currentSlot);
+                        handler.onEndPointAlive(endPoint);
+                    }
+
+                    @Override
+                    public void onEndPointRemoved(final LLZAutodiscEndPointType endPointType, final long topicId)
+                    {
+                        // Never stored in the snapshot
+                    }
+                });
+            }
+            catch (final LLZException e)
+            {
+                LOGGER.warn("Invalid end point in slot [{}] of the end point snapshot file, releasing it", slot, e);
+                this.releaseSlot(slot);
+            }
+        }
+    }
+
+    /**
+     * Store an end point in a free slot, nothing is done if it is already stored
+     *
+     * @param endPoint the end point to store
+     */
+    public synchronized void store(final ILLZAutodiscTopicEndPoint endPoint)
+    {
+        if (this.slotsByTopicId.containsKey(endPoint.getTopicId()))
+        {
+            return;
+        }
+
+        if (this.freeSlots.isEmpty() && !this.grow())
+        {
+            return;
+        }
+
+        final Integer slot = this.freeSlots.poll();
+
+        final int slotOffset = slotOffset(slot);
+        final ByteBuffer record = this.buffer.duplicate();
+        record.limit(slotOffset + SLOT_SIZE);
+        record.position(slotOffset + RECORD_OFFSET);
+
+        if (!LLZBeaconAdvertCodec.writeAlive(record, endPoint))
+        {
+            LOGGER.warn("End point too big to fit in the end point snapshot file [{}]", endPoint);
+            this.freeSlots.addFirst(slot);
+            return;
+        }
+
+        this.buffer.putShort(slotOffset + LENGTH_OFFSET, (short) (record.position() - slotOffset - RECORD_OFFSET));
+        this.buffer.put(slotOffset + USED_OFFSET, (byte) 1);
+        this.slotsByTopicId.put(endPoint.getTopicId(), slot);
+    }
+
+    /**
+     * Remove an end point from the snapshot
+     *
+     * @param topicId the topic id of the end point
+     */
+    public synchronized void remove(final long topicId)
+    {
+        final Integer slot = this.slotsByTopicId.remove(topicId);
+
+        if (slot != null)
+        {
+            this.releaseSlot(slot);
+        }
+    }
+
+    /**
+     * Close the file, the stored end points are kept for the next start
+     *
+     * @throws LLZException if the file cannot be closed
+     */
+    public synchronized void close() throws LLZException
+    {
+        try
+        {
+            this.buffer.force();
+            this.file.close();
+        }
+        catch (final IOException e)
+        {
+            throw new LLZException("Error closing the end point snapshot file", e);
+        }
+    }
+
+    /**
+     * Mark a slot as free, call with the lock taken
+     *
+     * @param slot the slot index
+     */
+    private void releaseSlot(final int slot)
+    {
+        this.buffer.put(slotOffset(slot) + USED_OFFSET, (byte) 0);
+        this.freeSlots.add(slot);
+        this.fullWarned = false;
+    }
+
+    /**
+     * Double the number of slots of the file, call with the lock taken
+     *
+     * @return true if the file has grown, false if it is already at the maximum size or cannot be extended
+     */
+    private boolean grow()
+    {
+        final int newSlotCount = (int) Math.min((long) this.slotCount * 2, MAX_SLOT_COUNT);
+
+        if (newSlotCount == this.slotCount)
+        {
+            if (!this.fullWarned)
+            {
+                LOGGER.warn("The end point snapshot file [{}] is full with [{}] slots, the new end points won't be stored", this.fileName, this.slotCount);
+                this.fullWarned = true;
+            }
+
+            return false;
+        }
+
+        try
+        {
+            this.buffer = this.map(newSlotCount);
+        }
+        catch (final IOException e)
+        {
+            if (!this.fullWarned)
+            {
+                LOGGER.warn("Error extending the end point snapshot file [{}], the new end points won't be stored", this.fileName, e);
+                this.fullWarned = true;
+            }
+
+            return false;
+        }
+
+        for (int slot = this.slotCount; slot < newSlotCount; slot++)
+        {
+            this.buffer.put(slotOffset(slot) + USED_OFFSET, (byte) 0);
+            this.freeSlots.add(slot);
+        }
+
+        LOGGER.info("End point snapshot file [{}] extended from [{}] to [{}] slots", this.fileName, this.slotCount, newSlotCount);
+
+        this.slotCount = newSlotCount;
+        this.buffer.putInt(4, newSlotCount);
+        return true;
+    }
+
+    /**
+     * Map the file with the given number of slots, the file is extended if required
+     *
+     * @param numSlots number of slots to map
+     * @return the mapped contents
+     * @throws IOException if the file cannot be mapped
+     */
+    private MappedByteBuffer map(final int numSlots) throws IOException
+    {
+        return this.file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) numSlots * SLOT_SIZE);
+    }
+
+    /**
+     * Read the number of slots from the header of the file
+     *
+     * @return the number of slots, 0 if the file is new or not a valid snapshot file
+     * @throws IOException if the file cannot be read
+     */
+    private int readSlotCount() throws IOException
+    {
+        if (this.file.length() < HEADER_SIZE)
+        {
+            return 0;
+        }
+
+        this.file.seek(0);
+        final int magic = this.file.readInt();
+        final int fileSlotCount = this.file.readInt();
+        final int slotSize = this.file.readInt();
+
+        if (magic != MAGIC || slotSize != SLOT_SIZE || fileSlotCount < 1 || fileSlotCount > MAX_SLOT_COUNT ||
+                this.file.length() < HEADER_SIZE + (long) fileSlotCount * SLOT_SIZE)
+        {
+            return 0;
+        }
+
+        return fileSlotCount;
+    }
+
+    /**
+     * Calculate the offset of a slot in the file
+     *
+     * @param slot the slot index
+     * @return the offset of the slot
+     */
+    private static int slotOffset(final int slot)
+    {
+        return HEADER_SIZE + slot * SLOT_SIZE;
+    }
+}
@@ -0,0 +1,437 @@
+package com.bbva.kyof.vega.autodiscovery.client.snapshot;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.bbva.kyof.vega.autodiscovery.client.ILLZAutodisc;
+import com.bbva.kyof.vega.autodiscovery.client.ILLZAutodiscTopicEndPoint;
+import com.bbva.kyof.vega.autodiscovery.client.ILLZAutodiscTopicEndPointChangeListener;
+import com.bbva.kyof.vega.autodiscovery.client.LLZAutoDiscTopicEndPoint;
+import com.bbva.kyof.vega.autodiscovery.client.LLZAutodiscEndPointType;
+import com.bbva.kyof.vega.autodiscovery.client.beacon.ILLZBeaconAdvertHandler;
+import com.bbva.kyof.vega.exception.LLZException;
+import com.bbva.kyof.vega.util.threads.ILLZThreadFactory;
+import com.bbva.kyof.vega.util.threads.LLZThreadRole;
+
+/**
+ * Auto-discovery decorator that keeps the known end points in a {@link LLZEndPointSnapshotFile} for warm restarts.
+ *
+ * On start the end points of the previous run are loaded from the snapshot. Until the reconcile time expires, any
+ * subscription receives first the stored end points of the topic, so the sockets are connected before the live
+ * discovery answers. The live events confirm the speculative end points; once the reconcile time expires the
+ * speculative end points not confirmed are notified as removed and deleted from the snapshot.
+ *
+ * The listeners are always called outside the internal lock. The class is thread-safe
+ */
+public final class LLZSnapshotAutodisc implements ILLZAutodisc, Runnable
+{
+    /** Logger */
+    private static final Logger LOGGER = LoggerFactory.getLogger(LLZSnapshotAutodisc.class);
+
+    /** The decorated auto-discovery */
+    private final ILLZAutodisc delegate;
+
+    /** The snapshot file */
+    private final LLZEndPointSnapshotFile snapshotFile;
+
+    /** Time in milliseconds at which the speculative end points not confirmed are removed */
+    private final long reconcileDeadline;
+
+    /** End points loaded from the snapshot and not confirmed yet by the live discovery, by topic id */
+    private final Map<Long, ILLZAutodiscTopicEndPoint> unconfirmedEndPoints = new HashMap<>();
+
+    /** Listeners of the active subscriptions, by end point type and topic name */
+    private final Map<LLZAutodiscEndPointType, Map<String, ReconcilingListener>> listenersByType = new EnumMap<>(LLZAutodiscEndPointType.class);
+
+    /** Listeners of the active pattern subscriptions, by end point type and regular expression */
+    private final Map<LLZAutodiscEndPointType, Map<String, ReconcilingListener>> patternListenersByType = new EnumMap<>(LLZAutodiscEndPointType.class);
+
+    /** True once the speculative end points are reconciled */
+    private boolean reconciled = false;
+
+    /** Lock for the internal state */
+    private final Object lock = new Object();
+
+    /** True if the reconcile thread should stop */
+    private volatile boolean shouldStop = false;
+
+    /** True once the reconcile thread is stopped */
+    private volatile boolean stopped = false;
+
+    /**
+     * Create the decorator, load the stored end points and start the reconcile thread
+     *
+     * @param delegate the decorated auto-discovery
+     * @param snapshotFile the snapshot file, it is closed on stop
+     * @param reconcileTime time in milliseconds the speculative end points wait for the live discovery
+     * @param threadFactory factory for the reconcile thread
+     */
+    public LLZSnapshotAutodisc(final ILLZAutodisc delegate, final LLZEndPointSnapshotFile snapshotFile, final long reconcileTime, final ILLZThreadFactory threadFactory)
+    {
+        this.delegate = delegate;
+        this.snapshotFile = snapshotFile;
+        this.reconcileDeadline = System.currentTimeMillis() + reconcileTime;
+
+        for (final LLZAutodiscEndPointType endPointType : LLZAutodiscEndPointType.values())
+        {
+            this.listenersByType.put(endPointType, new HashMap<String, ReconcilingListener>());
+            this.patternListenersByType.put(endPointType, new HashMap<String, ReconcilingListener>());
+        }
+
+        this.snapshotFile.readAll(new ILLZBeaconAdvertHandler()
+        {
+            @Override
+            public void onEndPointAlive(final ILLZAutodiscTopicEndPoint endPoint)
+            {
+                LLZSnapshotAutodisc.this.unconfirmedEndPoints.put(endPoint.getTopicId(), endPoint);
+            }
+
+            @Override
+            public void onEndPointRemoved(final LLZAutodiscEndPointType endPointType, final long topicId)
+            {
+                // Never stored in the snapshot
+            }
+        });
+
+        LOGGER.info("Loaded [{}] end points from the end point snapshot", this.unconfirmedEndPoints.size());
+
+        final Thread reconcileThread = threadFactory.newThread(LLZThreadRole.AUTODISC_BACKGROUND, "LLZ SNAPSHOT RECONCILE", this);
+        reconcileThread.start();
+    }
+
+    @Override
+    public void stop() throws LLZException
+    {
+        this.delegate.stop();
+
+        this.shouldStop = true;
+
+        try
+        {
+            while (!this.stopped)
+            {
+                Thread.sleep(10);
+            }
+        }
+        catch (final InterruptedException e)
+        {
+            LOGGER.error("An internal error occurred during stopping snapshot reconcile thread [{}]", e);
+            throw new LLZException(e);
+        }
+
+        this.snapshotFile.close();
+    }
+
+    @Override
+    public long createUniqueId() throws LLZException
+    {
+        return this.delegate.createUniqueId();
+    }
+
+    @Override
+    public long[] createUniqueIds(final int count) throws LLZException
+    {
+        return this.delegate.createUniqueIds(count);
+    }
+
+    @Override
+    public void registerTopicEndPoint(final LLZAutodiscEndPointType endPointType, final LLZAutoDiscTopicEndPoint endPointInfo) throws LLZException
+    {
+        this.delegate.registerTopicEndPoint(endPointType, endPointInfo);
+    }
+
+    @Override
+    public void registerTopicEndPoints(final LLZAutodiscEndPointType endPointType, final Collection<LLZAutoDiscTopicEndPoint> endPointsInfo) throws LLZException
+    {
+        this.delegate.registerTopicEndPoints(endPointType, endPointsInfo);
+    }
+
+    @Override
+    public void unregisterTopicEndPoint(final LLZAutodiscEndPointType endPointType, final long topicUniqueId) throws LLZException
+    {
+        this.delegate.unregisterTopicEndPoint(endPointType, topicUniqueId);
+    }
+
+    @Override
+    public void subscribeToTopicEndPoints(final String topicName, final LLZAutodiscEndPointType endPointType, final ILLZAutodiscTopicEndPointChangeListener listener) throws LLZException
+    {
+        final ReconcilingListener reconcilingListener = this.addSubscription(this.listenersByType.get(endPointType), topicName, null, endPointType, listener);
+
+        this.delegate.subscribeToTopicEndPoints(topicName, endPointType, reconcilingListener);
+    }
+
+    @Override
+    public void unsubscribeFromTopicEndPoints(final String topicName, final LLZAutodiscEndPointType endPointType) throws LLZException
+    {
+        this.delegate.unsubscribeFromTopicEndPoints(topicName, endPointType);
+
+        this.removeSubscription(this.listenersByType.get(endPointType), topicName);
+    }
+
+    @Override
+    public void subscribeToTopicPattern(final String topicRegexp, final LLZAutodiscEndPointType endPointType, final ILLZAutodiscTopicEndPointChangeListener listener) throws LLZException
+    {
+        final Pattern pattern;
+
+        try
+        {
+            pattern = Pattern.compile(topicRegexp);
+        }
+        catch (final PatternSyntaxException e)
+        {
+            LOGGER.error("Invalid topic pattern [{}]", topicRegexp, e);
+            throw new LLZException("Invalid topic pattern " + topicRegexp, e);
+        }
+
+        final ReconcilingListener reconcilingListener = this.addSubscription(this.patternListenersByType.get(endPointType), topicRegexp, pattern, endPointType, listener);
+
+        this.delegate.subscribeToTopicPattern(topicRegexp, endPointType, reconcilingListener);
+    }
+
+    @Override
+    public void unsubscribeFromTopicPattern(final String topicRegexp, final LLZAutodiscEndPointType endPointType) throws LLZException
+    {
+        this.delegate.unsubscribeFromTopicPattern(topicRegexp, endPointType);
+
+        this.removeSubscription(this.patternListenersByType.get(endPointType), topicRegexp);
+    }
+
+    /**
+     * Register the listener of a subscription and deliver to it the speculative end points that match it
+     *
+     * @param listeners listeners of the active subscriptions of the end point type
+     * @param subscriptionKey topic name or regular expression of the subscription
+     * @param pattern pattern of the topic names of the subscription, null if subscribed to a single topic name
+     * @param endPointType the end point type
+     * @param listener the listener of the subscription
+     * @return the listener to register in the decorated auto-discovery
+     */
+    private ReconcilingListener addSubscription(final Map<String, ReconcilingListener> listeners,
+                                                final String subscriptionKey,
+                                                final Pattern pattern,
+                                                final LLZAutodiscEndPointType endPointType,
+                                                final ILLZAutodiscTopicEndPointChangeListener listener)
+    {
+        final ReconcilingListener reconcilingListener = new ReconcilingListener(listener);
+        final List<ILLZAutodiscTopicEndPoint> speculativeEndPoints = new ArrayList<>();
+
+        synchronized (this.lock)
+        {
+            listeners.put(subscriptionKey, reconcilingListener);
+
+            if (!this.reconciled)
+            {
+                for (final ILLZAutodiscTopicEndPoint endPoint : this.unconfirmedEndPoints.values())
+                {
+                    final boolean matches = pattern == null ?
+                            endPoint.getTopicName().equals(subscriptionKey) : pattern.matcher(endPoint.getTopicName()).matches();
+
+                    if (endPoint.getType() == endPointType && matches)
+                    {
+                        reconcilingListener.speculativeTopicIds.add(endPoint.getTopicId());
+                        speculativeEndPoints.add(endPoint);
+                    }
+                }
+            }
+        }
+
+        if (!speculativeEndPoints.isEmpty())
+        {
+            LOGGER.info("Connecting [{}] speculative end points of type [{}] for [{}] from the snapshot", speculativeEndPoints.size(), endPointType, subscriptionKey);
+        }
+
+        for (final ILLZAutodiscTopicEndPoint endPoint : speculativeEndPoints)
+        {
+            listener.onEndPointAdded(endPoint);
+        }
+
+        return reconcilingListener;
+    }
+
+    /**
+     * Remove the listener of a subscription and delete its end points from the snapshot
+     *
+     * @param listeners listeners of the active subscriptions of the end point type
+     * @param subscriptionKey topic name or regular expression of the subscription
+     */
+    private void removeSubscription(final Map<String, ReconcilingListener> listeners, final String subscriptionKey)
+    {
+        final List<Long> knownTopicIds;
+
+        synchronized (this.lock)
+        {
+            final ReconcilingListener reconcilingListener = listeners.remove(subscriptionKey);
+
+            if (reconcilingListener == null)
+            {
+                return;
+            }
+
+            reconcilingListener.speculativeTopicIds.clear();
+            knownTopicIds = new ArrayList<>(reconcilingListener.knownTopicIds);
+        }
+
+        // The subscription is no longer followed, its end points would not be confirmed in the next start
+        for (final Long topicId : knownTopicIds)
+        {
+            this.snapshotFile.remove(topicId);
+        }
+    }
+
+    @Override
+    public void run()
+    {
+        try
+        {
+            while (!this.shouldStop && System.currentTimeMillis() < this.reconcileDeadline)
+            {
+                Thread.sleep(10);
+            }
+
+            if (!this.shouldStop)
+            {
+                this.reconcile();
+            }
+        }
+        catch (final InterruptedException e)
+        {
+            LOGGER.error("Snapshot reconcile thread interrupted", e);
+            Thread.currentThread().interrupt();
+        }
+
+        this.stopped = true;
+    }
+
+    /**
+     * Notify as removed the speculative end points not confirmed by the live discovery and delete them from the snapshot
+     */
+    private void reconcile()
+    {
+        final Map<ILLZAutodiscTopicEndPointChangeListener, List<ILLZAutodiscTopicEndPoint>> removedByListener = new HashMap<>();
+        final Collection<ILLZAutodiscTopicEndPoint> expiredEndPoints;
+
+        synchronized (this.lock)
+        {
+            this.reconciled = true;
+
+            final List<ReconcilingListener> allListeners = new ArrayList<>();
+
+            for (final Map<String, ReconcilingListener> listeners : this.listenersByType.values())
+            {
+                allListeners.addAll(listeners.values());
+            }
+
+            for (final Map<String, ReconcilingListener> listeners : this.patternListenersByType.values())
+            {
+                allListeners.addAll(listeners.values());
+            }
+
+            for (final ReconcilingListener reconcilingListener : allListeners)
+            {
+                final List<ILLZAutodiscTopicEndPoint> removedEndPoints = new ArrayList<>();
+
+                for (final Long topicId : reconcilingListener.speculativeTopicIds)
+                {
+                    removedEndPoints.add(this.unconfirmedEndPoints.get(topicId));
+                }
+
+                reconcilingListener.speculativeTopicIds.clear();
+
+                if (!removedEndPoints.isEmpty())
+                {
+                    removedByListener.put(reconcilingListener.listener, removedEndPoints);
+                }
+            }
+
+            expiredEndPoints = new ArrayList<>(this.unconfirmedEndPoints.values());
+            this.unconfirmedEndPoints.clear();
+        }
+
+        LOGGER.info("Reconciled the end point snapshot, [{}] stored end points not confirmed by auto-discovery", expiredEndPoints.size());
+
+        for (final ILLZAutodiscTopicEndPoint endPoint : expiredEndPoints)
+        {
+            this.snapshotFile.remove(endPoint.getTopicId());
+        }
+
+        for (final Map.Entry<ILLZAutodiscTopicEndPointChangeListener, List<ILLZAutodiscTopicEndPoint>> entry : removedByListener.entrySet())
+        {
+            for (final ILLZAutodiscTopicEndPoint endPoint : entry.getValue())
+            {
+                entry.getKey().onEndPointRemoved(endPoint);
+            }
+        }
+    }
+
+    /**
+     * Listener that stores the live events in the snapshot and confirms the speculative end points of a subscription
+     */
+    private final class ReconcilingListener implements ILLZAutodiscTopicEndPointChangeListener
+    {
+        /** The listener of the subscription */
+        private final ILLZAutodiscTopicEndPointChangeListener listener;
+
+        /** Topic ids of the speculative end points delivered to the listener and not confirmed yet */
+        private final Set<Long> speculativeTopicIds = new HashSet<>();
+
+        /** Topic ids of the live end points of the subscription */
+        private final Set<Long> knownTopicIds = new HashSet<>();
+
+        /**
+         * Create the listener
+         *
+         * @param listener the listener of the subscription
+         */
+        private ReconcilingListener(final ILLZAutodiscTopicEndPointChangeListener listener)
+        {
+            this.listener = listener;
+        }
+
+        @Override
+        public void onEndPointAdded(final ILLZAutodiscTopicEndPoint autodiscoveryInfo)
+        {
+            final boolean alreadyDelivered;
+
+            synchronized (LLZSnapshotAutodisc.this.lock)
+            {
+                LLZSnapshotAutodisc.this.unconfirmedEndPoints.remove(autodiscoveryInfo.getTopicId());
+                alreadyDelivered = this.speculativeTopicIds.remove(autodiscoveryInfo.getTopicId());
+                this.knownTopicIds.add(autodiscoveryInfo.getTopicId());
+            }
+
+            LLZSnapshotAutodisc.this.snapshotFile.store(autodiscoveryInfo);
+
+            // The speculative end point is confirmed, the listener already has it
+            if (!alreadyDelivered)
+            {
+                this.listener.onEndPointAdded(autodiscoveryInfo);
+            }
+        }
+
+        @Override
+        public void onEndPointRemoved(final ILLZAutodiscTopicEndPoint autodiscoveryInfo)
+        {
+            synchronized (LLZSnapshotAutodisc.this.lock)
+            {
+                LLZSnapshotAutodisc.this.unconfirmedEndPoints.remove(autodiscoveryInfo.getTopicId());
+                this.speculativeTopicIds.remove(autodiscoveryInfo.getTopicId());
+                this.knownTopicIds.remove(autodiscoveryInfo.getTopicId());
+            }
+
+            LLZSnapshotAutodisc.this.snapshotFile.remove(autodiscoveryInfo.getTopicId());
+
+            this.listener.onEndPointRemoved(autodiscoveryInfo);
+        }
+    }
+}
@@ -1,9 +1,11 @@
 package com.bbva.kyof.vega.autodiscovery.server.hazelcast;
 
 import com.bbva.kyof.vega.autodiscovery.client.hazelcast.LLZHazelcastFactory;
+import com.bbva.kyof.vega.autodiscovery.client.hazelcast.LLZHazelcastManager;
 import com.hazelcast.config.Config;
 import com.hazelcast.config.InMemoryFormat;
 import com.hazelcast.config.MapConfig;
+import com.hazelcast.config.MapIndexConfig;
 import com.hazelcast.config.SerializationConfig;
 import com.hazelcast.core.Hazelcast;
 import com.hazelcast.core.HazelcastInstance;
@@ -49,6 +51,8 @@ public class LLZHazelcastServer
         myMapConfig.setMaxIdleSeconds(1200); 
         // Set in-memory format in object so we save deserialization time
         myMapConfig.setInMemoryFormat(InMemoryFormat.OBJECT);
+        // Index the topic name so the queries by topic don't scan the whole map
+        myMapConfig.addMapIndexConfig(new MapIndexConfig(LLZHazelcastManager.TOPIC_NAME_ATTRIBUTE, false));
        
         cfg.addMapConfig(myMapConfig);       
     }
@@ -0,0 +1,66 @@
+package com.bbva.kyof.vega.config;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Result of reloading the configuration of a running instance, see {@link LLZInstanceConfigReloader}.
+ *
+ * It contains the changes applied to the running instance and the changes that need a restart to be applied.
+ */
+public final class LLZConfigReloadResult
+{
+    /** Description of the changes applied to the running instance */
+    private final List<String> appliedChanges = new ArrayList<>();
+
+    /** Description of the changes that need a restart to be applied */
+    private final List<String> restartRequiredChanges = new ArrayList<>();
+
+    /**
+     * Add a change applied to the running instance
+     *
+     * @param description description of the change
+     */
+    void addAppliedChange(final String description)
+    {
+        this.appliedChanges.add(description);
+    }
+
+    /**
+     * Add a change that needs a restart to be applied
+     *
+     * @param description description of the change
+     */
+    void addRestartRequiredChange(final String description)
+    {
+        this.restartRequiredChanges.add(description);
+    }
+
+    /** @return the description of the changes applied to the running instance */
+    public List<String> getAppliedChanges()
+    {
+        return Collections.unmodifiableList(this.appliedChanges);
+    }
+
+    /** @return the description of the changes that need a restart to be applied */
+    public List<String> getRestartRequiredChanges()
+    {
+        return Collections.unmodifiableList(this.restartRequiredChanges);
+    }
+
+    /** @return true if any change needs a restart to be applied */
+    public boolean isRestartRequired()
+    {
+        return !this.restartRequiredChanges.isEmpty();
+    }
+
+    @Override
+    public String toString()
+    {
+        return "LLZConfigReloadResult{" +
+                "appliedChanges=" + this.appliedChanges +
+                ", restartRequiredChanges=" + this.restartRequiredChanges +
+                '}';
+    }
+}
@@ -0,0 +1,324 @@
+package com.bbva.kyof.vega.config;
+
+import com.bbva.kyof.vega.config.general.AutoDiscoveryConfig;
+import com.bbva.kyof.vega.config.general.AutoDiscoveryType;
+import com.bbva.kyof.vega.config.general.InstanceConfig;
+import com.bbva.kyof.vega.config.general.PubSocketSchema;
+import com.bbva.kyof.vega.config.general.PubTopicConfig;
+import com.bbva.kyof.vega.config.general.ReqSocketSchema;
+import com.bbva.kyof.vega.config.general.ReqTopicConfig;
+import com.bbva.kyof.vega.config.general.RespSocketSchema;
+import com.bbva.kyof.vega.config.general.RespTopicConfig;
+import com.bbva.kyof.vega.config.general.SubSocketSchema;
+import com.bbva.kyof.vega.config.general.SubTopicConfig;
+import com.bbva.kyof.vega.config.general.ZmqContextConfig;
+import com.bbva.kyof.vega.exception.LLZException;
+
+/**
+ * Fluent builder to create the configuration of an instance programmatically, without an XML configuration file.
+ *
+ * The configuration is validated with the same rules as the XML one when built. The schemas and topics are kept in
+ * the order they are added, so the most specific topic patterns have to be added first. Example:
+ * <pre>
+ *    new LLZInstanceConfigBuilder("INSTANCE")
+ *        .autoDiscoveryType(AutoDiscoveryType.IN_PROCESS)
+ *        .pubSchema("PUB", 35000, 35010)
+ *        .subSchema("SUB")
+ *        .pubTopic("MD\\..*", "PUB")
+ *        .subTopic("MD\\..*", "SUB")
+ *        .build();
+ * </pre>
+ */
+public final class LLZInstanceConfigBuilder
+{
+    /** Default transport media of the publisher and responder schemas */
+    private static final String DEFAULT_TRANSPORT_MEDIA = "tcp";
+
+    /** Default transport interface of the publisher and responder schemas */
+    private static final String DEFAULT_TRANSPORT_INTERFACE = "*";
+
+    /** The configuration being built */
+    private final InstanceConfig instanceConfig = new InstanceConfig();
+
+    /**
+     * Create a new builder
+     *
+     * @param instanceName name of the instance
+     */
+    public LLZInstanceConfigBuilder(final String instanceName)
+    {
+        this.instanceConfig.setName(instanceName);
+    }
+
+    /**
+     * Set the auto-discovery configuration, the values not settled take the default ones
+     *
+     * @param autoDiscoveryConfig the auto-discovery configuration
+     * @return the builder
+     */
+    public LLZInstanceConfigBuilder autoDiscovery(final AutoDiscoveryConfig autoDiscoveryConfig)
+    {
+        this.instanceConfig.setAutoDiscovery(autoDiscoveryConfig);
+        return this;
+    }
+
+    /**
+     * Set the auto-discovery type, the other auto-discovery values take the default ones
+     *
+     * @param autoDiscoveryType the auto-discovery type
+     * @return the builder
+     */
+    public LLZInstanceConfigBuilder autoDiscoveryType(final AutoDiscoveryType autoDiscoveryType)
+    {
+        final AutoDiscoveryConfig autoDiscoveryConfig = new AutoDiscoveryConfig();
+        autoDiscoveryConfig.setAutodiscType(autoDiscoveryType);
+        return this.autoDiscovery(autoDiscoveryConfig);
+    }
+
+    /**
+     * Enable or disable the native ZeroMQ filtering
+     *
+     * @param useNativeZeromqFiltering true to enable it
+     * @return the builder
+     */
+    public LLZInstanceConfigBuilder useNativeZeromqFiltering(final boolean useNativeZeromqFiltering)
+    {
+        this.instanceConfig.setUseNativeZeromqFiltering(useNativeZeromqFiltering);
+        return this;
+    }
+
+    /**
+     * Add a publisher socket schema
+     *
+     * @param schema the schema
+     * @return the builder
+     */
+    public LLZInstanceConfigBuilder pubSchema(final PubSocketSchema schema)
+    {
+        this.instanceConfig.getPubSocketSchema().add(schema);
+        return this;
+    }
+
+    /**
+     * Add a publisher socket schema with a single tcp socket on all the interfaces
+     *
+     * @param name name of the schema
+     * @param minPort minimum port of the range
+     * @param maxPort maximum port of the range
+     * @return the builder
+     */
+    public LLZInstanceConfigBuilder pubSchema(final String name, final int minPort, final int maxPort)
+    {
+        final PubSocketSchema schema = new PubSocketSchema();
+        schema.setName(name);
+        schema.setMinPort(minPort);
+        schema.setMaxPort(maxPort);
+        schema.setMaxNumPorts(1);
+        schema.setTransportMedia(DEFAULT_TRANSPORT_MEDIA);
+        schema.setTransportInterface(DEFAULT_TRANSPORT_INTERFACE);
+        return this.pubSchema(schema);
+    }
+
+    /**
+     * Add a subscriber socket schema
+     *
+     * @param schema the schema
+     * @return the builder
+     */
+    public LLZInstanceConfigBuilder subSchema(final SubSocketSchema schema)
+    {
+        this.instanceConfig.getSubSocketSchema().add(schema);
+        return this;
+    }
+
+    /**
+     * Add a subscriber socket schema with the default values
+     *
+     * @param name name of the schema
+     * @return the builder
+     */
+    public LLZInstanceConfigBuilder subSchema(final String name)
+    {
+        final SubSocketSchema schema = new SubSocketSchema();
+        schema.setName(name);
+        return this.subSchema(schema);
+    }
+
+    /**
+     * Add a requester socket schema
+     *
+     * @param schema the schema
+     * @return the builder
+     */
+    public LLZInstanceConfigBuilder reqSchema(final ReqSocketSchema schema)
+    {
+        this.instanceConfig.getReqSocketSchema().add(schema);
+        return this;
+    }
+
+    /**
+     * Add a requester socket schema with the default values
+     *
+     * @param name name of the schema
+     * @return the builder
+     */
+    public LLZInstanceConfigBuilder reqSchema(final String name)
+    {
+        final ReqSocketSchema schema = new ReqSocketSchema();
+        schema.setName(name);
+        return this.reqSchema(schema);
+    }
+
+    /**
+     * Add a responder socket schema
+     *
+     * @param schema the schema
+     * @return the builder
+     */
+    public LLZInstanceConfigBuilder respSchema(final RespSocketSchema schema)
+    {
+        this.instanceConfig.getRespSocketSchema().add(schema);
+        return this;
+    }
+
+    /**
+     * Add a responder socket schema with a single tcp socket on all the interfaces
+     *
+     * @param name name of the schema
+     * @param minPort minimum port of the range
+     * @param maxPort maximum port of the range
+     * @return the builder
+     */
+    public LLZInstanceConfigBuilder respSchema(final String name, final int minPort, final int maxPort)
+    {
+        final RespSocketSchema schema = new RespSocketSchema();
+        schema.setName(name);
+        schema.setMinPort(minPort);
+        schema.setMaxPort(maxPort);
+        schema.setMaxNumPorts(1);
+        schema.setTransportMedia(DEFAULT_TRANSPORT_MEDIA);
+        schema.setTransportInterface(DEFAULT_TRANSPORT_INTERFACE);
+        return this.respSchema(schema);
+    }
+
+    /**
+     * Add a dedicated ZMQ context the schemas can use
+     *
+     * @param name name of the context
+     * @param ioThreads number of I/O threads of the context
+     * @return the builder
+     */
+    public LLZInstanceConfigBuilder zmqContext(final String name, final int ioThreads)
+    {
+        final ZmqContextConfig zmqContext = new ZmqContextConfig();
+        zmqContext.setName(name);
+        zmqContext.setIoThreads(ioThreads);
+        this.instanceConfig.getZmqContext().add(zmqContext);
+        return this;
+    }
+
+    /**
+     * Add a publisher topic pattern
+     *
+     * @param pattern regular expression for the topic names
+     * @param socketSchema name of the publisher socket schema of the topics
+     * @return the builder
+     */
+    public LLZInstanceConfigBuilder pubTopic(final String pattern, final String socketSchema)
+    {
+        return this.pubTopic(pattern, socketSchema, null);
+    }
+
+    /**
+     * Add a publisher topic pattern pinned to a socket of the schema pool
+     *
+     * @param pattern regular expression for the topic names
+     * @param socketSchema name of the publisher socket schema of the topics
+     * @param poolSocket position of the socket of the schema pool used by the topics, null to use the least loaded one
+     * @return the builder
+     */
+    public LLZInstanceConfigBuilder pubTopic(final String pattern, final String socketSchema, final Integer poolSocket)
+    {
+        final PubTopicConfig topicConfig = new PubTopicConfig();
+        topicConfig.setPattern(pattern);
+        topicConfig.setSocketSchema(socketSchema);
+        topicConfig.setPoolSocket(poolSocket);
+        this.instanceConfig.getPubTopic().add(topicConfig);
+        return this;
+    }
+
+    /**
+     * Add a subscriber topic pattern
+     *
+     * @param pattern regular expression for the topic names
+     * @param socketSchema name of the subscriber socket schema of the topics
+     * @return the builder
+     */
+    public LLZInstanceConfigBuilder subTopic(final String pattern, final String socketSchema)
+    {
+        final SubTopicConfig topicConfig = new SubTopicConfig();
+        topicConfig.setPattern(pattern);
+        topicConfig.setSocketSchema(socketSchema);
+        this.instanceConfig.getSubTopic().add(topicConfig);
+        return this;
+    }
+
+    /**
+     * Add a requester topic pattern
+     *
+     * @param pattern regular expression for the topic names
+     * @param socketSchema name of the requester socket schema of the topics
+     * @return the builder
+     */
+    public LLZInstanceConfigBuilder reqTopic(final String pattern, final String socketSchema)
+    {
+        final ReqTopicConfig topicConfig = new ReqTopicConfig();
+        topicConfig.setPattern(pattern);
+        topicConfig.setSocketSchema(socketSchema);
+        this.instanceConfig.getReqTopic().add(topicConfig);
+        return this;
+    }
+
+    /**
+     * Add a responder topic pattern
+     *
+     * @param pattern regular expression for the topic names
+     * @param socketSchema name of the responder socket schema of the topics
+     * @return the builder
+     */
+    public LLZInstanceConfigBuilder respTopic(final String pattern, final String socketSchema)
+    {
+        return this.respTopic(pattern, socketSchema, null);
+    }
+
+    /**
+     * Add a responder topic pattern pinned to a socket of the schema pool
+     *
+     * @param pattern regular expression for the topic names
+     * @param socketSchema name of the responder socket schema of the topics
+     * @param poolSocket position of the socket of the schema pool used by the topics, null to use the least loaded one
+     * @return the builder
+     */
+    public LLZInstanceConfigBuilder respTopic(final String pattern, final String socketSchema, final Integer poolSocket)
+    {
+        final RespTopicConfig topicConfig = new RespTopicConfig();
+        topicConfig.setPattern(pattern);
+        topicConfig.setSocketSchema(socketSchema);
+        topicConfig.setPoolSocket(poolSocket);
+        this.instanceConfig.getRespTopic().add(topicConfig);
+        return this;
+    }
+
+    /**
+     * Validate the configuration and create the wrapper used by the manager
+     *
+     * @return the validated configuration
+     * @throws LLZException exception thrown if the configuration is not valid
+     */
+    public LLZInstanceConfigWrapper build() throws LLZException
+    {
+        final LLZInstanceLocalConfigReader validator = new LLZInstanceLocalConfigReader(this.instanceConfig.getName(), null);
+        validator.validateConfig(this.instanceConfig);
+        return validator.getLoadedConfig();
+    }
+}
@@ -0,0 +1,350 @@
+package com.bbva.kyof.vega.config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.bbva.kyof.vega.config.general.AutoDiscoveryConfig;
+import com.bbva.kyof.vega.config.general.PubSocketSchema;
+import com.bbva.kyof.vega.config.general.PubTopicConfig;
+import com.bbva.kyof.vega.config.general.ReqSocketSchema;
+import com.bbva.kyof.vega.config.general.ReqTopicConfig;
+import com.bbva.kyof.vega.config.general.RespSocketSchema;
+import com.bbva.kyof.vega.config.general.RespTopicConfig;
+import com.bbva.kyof.vega.config.general.SocketOptions;
+import com.bbva.kyof.vega.config.general.SubSocketSchema;
+import com.bbva.kyof.vega.config.general.SubTopicConfig;
+import com.bbva.kyof.vega.config.general.ZmqContextConfig;
+
+/**
+ * Compares the configuration of a running instance with a reloaded and validated one.
+ *
+ * The limits that can change live are copied into the socket schemas of the running configuration: pub_rate_limit,
+ * sub_rate_limit and max_num_ports. The publishers, subscribers and responders created afterwards use the new values,
+ * the existing sockets have to be updated by the caller. Any other difference is reported as needing a restart and
+ * is not applied. A schema with a change that needs a restart is not changed at all, so the running schema is never a
+ * mix of the old and the new values.
+ *
+ * The schemas of each type are read by the manager of that type under its lock, a running instance has to apply the
+ * changes of each type with the lock of its manager taken, see {@link #applyPubSchemaChanges},
+ * {@link #applySubSchemaChanges} and {@link #applyRespSchemaChanges}.
+ */
+public final class LLZInstanceConfigReloader
+{
+    /** Logger of the class */
+    private static final Logger LOGGER = LoggerFactory.getLogger(LLZInstanceConfigReloader.class);
+
+    /**
+     * Private constructor to avoid instantiation
+     */
+    private LLZInstanceConfigReloader()
+    {
+        // Nothing to do
+    }
+
+    /**
+     * Apply all the live changes of the reloaded configuration to the running one, for configurations that are not used
+     * by running managers
+     *
+     * @param current the configuration of the running instance, the live changes are applied on it
+     * @param reloaded the reloaded and validated configuration
+     * @return the applied changes and the changes that need a restart
+     */
+    public static LLZConfigReloadResult applyLiveChanges(final LLZInstanceConfigWrapper current, final LLZInstanceConfigWrapper reloaded)
+    {
+        final LLZConfigReloadResult result = new LLZConfigReloadResult();
+
+        applyPubSchemaChanges(current, reloaded, result);
+        applySubSchemaChanges(current, reloaded, result);
+        applyRespSchemaChanges(current, reloaded, result);
+        compareOtherChanges(current, reloaded, result);
+
+        return result;
+    }
+
+    /**
+     * Compare the changes that are never applied live: requester schemas, topics, ZMQ contexts, auto-discovery and
+     * native filtering. It has to be called after the socket schema changes have been applied, it logs the result.
+     *
+     * @param current the configuration of the running instance
+     * @param reloaded the reloaded and validated configuration
+     * @param result the result to fill
+     */
+    public static void compareOtherChanges(final LLZInstanceConfigWrapper current, final LLZInstanceConfigWrapper reloaded, final LLZConfigReloadResult result)
+    {
+        compareReqSchemas(current, reloaded, result);
+
+        if (!topicsKey(current).equals(topicsKey(reloaded)))
+        {
+            result.addRestartRequiredChange("Topic configurations changed");
+        }
+
+        if (!zmqContextsKey(current.getZmqContext()).equals(zmqContextsKey(reloaded.getZmqContext())))
+        {
+            result.addRestartRequiredChange("ZMQ contexts changed");
+        }
+
+        if (!autodiscKey(current.getAutodiscoConfig()).equals(autodiscKey(reloaded.getAutodiscoConfig())))
+        {
+            result.addRestartRequiredChange("Auto-discovery configuration changed");
+        }
+
+        if (current.isUseNativeZeromqFiltering() != reloaded.isUseNativeZeromqFiltering())
+        {
+            result.addRestartRequiredChange("Native ZMQ filtering changed");
+        }
+
+        LOGGER.info("Configuration reloaded, applied changes {}, changes that need a restart {}",
+                result.getAppliedChanges(), result.getRestartRequiredChanges());
+    }
+
+    /**
+     * Apply the live changes of the publisher socket schemas, call it with the lock of the publishers manager taken
+     *
+     * @param current the configuration of the running instance, the live changes are applied on it
+     * @param reloaded the reloaded and validated configuration
+     * @param result the result to fill
+     * @return the names of the schemas whose pub_rate_limit changed
+     */
+    public static Set<String> applyPubSchemaChanges(final LLZInstanceConfigWrapper current, final LLZInstanceConfigWrapper reloaded, final LLZConfigReloadResult result)
+    {
+        final Set<String> rateLimitChanges = new HashSet<>();
+
+        for (final PubSocketSchema reloadedSchema : reloaded.getPubSocketSchema())
+        {
+            final PubSocketSchema schema = current.getPubSocketSchema(reloadedSchema.getName());
+
+            if (schema == null)
+            {
+                result.addRestartRequiredChange("Publisher socket schema [" + reloadedSchema.getName() + "] added");
+                continue;
+            }
+
+            if (schema.getMinPort() != reloadedSchema.getMinPort() ||
+                    !Objects.equals(schema.getMaxPort(), reloadedSchema.getMaxPort()) ||
+                    !Objects.equals(schema.getTransportMedia(), reloadedSchema.getTransportMedia()) ||
+                    !Objects.equals(schema.getTransportInterface(), reloadedSchema.getTransportInterface()) ||
+                    !Objects.equals(schema.getZmqContext(), reloadedSchema.getZmqContext()) ||
+                    !socketOptionsKey(schema.getSocketOptions()).equals(socketOptionsKey(reloadedSchema.getSocketOptions())))
+            {
+                result.addRestartRequiredChange("Publisher socket schema [" + schema.getName() + "] ports, transport, context or socket options changed, none of its changes is applied");
+                continue;
+            }
+
+            if (!Objects.equals(schema.getPubRateLimit(), reloadedSchema.getPubRateLimit()))
+            {
+                schema.setPubRateLimit(reloadedSchema.getPubRateLimit());
+                rateLimitChanges.add(schema.getName());
+                result.addAppliedChange("Publisher socket schema [" + schema.getName() + "] pub_rate_limit set to " + reloadedSchema.getPubRateLimit());
+            }
+
+            if (!Objects.equals(schema.getMaxNumPorts(), reloadedSchema.getMaxNumPorts()))
+            {
+                schema.setMaxNumPorts(reloadedSchema.getMaxNumPorts());
+                result.addAppliedChange("Publisher socket schema [" + schema.getName() + "] max_num_ports set to " + reloadedSchema.getMaxNumPorts());
+            }
+        }
+
+        for (final PubSocketSchema schema : current.getPubSocketSchema())
+        {
+            if (reloaded.getPubSocketSchema(schema.getName()) == null)
+            {
+                result.addRestartRequiredChange("Publisher socket schema [" + schema.getName() + "] removed");
+            }
+        }
+
+        return rateLimitChanges;
+    }
+
+    /**
+     * Apply the live changes of the subscriber socket schemas, call it with the lock of the subscribers manager taken
+     *
+     * @param current the configuration of the running instance, the live changes are applied on it
+     * @param reloaded the reloaded and validated configuration
+     * @param result the result to fill
+     * @return the names of the schemas whose sub_rate_limit changed
+     */
+    public static Set<String> applySubSchemaChanges(final LLZInstanceConfigWrapper current, final LLZInstanceConfigWrapper reloaded, final LLZConfigReloadResult result)
+    {
+        final Set<String> rateLimitChanges = new HashSet<>();
+
+        for (final SubSocketSchema reloadedSchema : reloaded.getSubSocketSchema())
+        {
+            final SubSocketSchema schema = current.getSubSocketSchema(reloadedSchema.getName());
+
+            if (schema == null)
+            {
+                result.addRestartRequiredChange("Subscriber socket schema [" + reloadedSchema.getName() + "] added");
+                continue;
+            }
+
+            if (!Objects.equals(schema.getZmqContext(), reloadedSchema.getZmqContext()) ||
+                    !socketOptionsKey(schema.getSocketOptions()).equals(socketOptionsKey(reloadedSchema.getSocketOptions())))
+            {
+                result.addRestartRequiredChange("Subscriber socket schema [" + schema.getName() + "] context or socket options changed, none of its changes is applied");
+                continue;
+            }
+
+            if (!Objects.equals(schema.getSubRateLimit(), reloadedSchema.getSubRateLimit()))
+            {
+                schema.setSubRateLimit(reloadedSchema.getSubRateLimit());
+                rateLimitChanges.add(schema.getName());
+                result.addAppliedChange("Subscriber socket schema [" + schema.getName() + "] sub_rate_limit set to " + reloadedSchema.getSubRateLimit());
+            }
+        }
+
+        for (final SubSocketSchema schema : current.getSubSocketSchema())
+        {
+            if (reloaded.getSubSocketSchema(schema.getName()) == null)
+            {
+                result.addRestartRequiredChange("Subscriber socket schema [" + schema.getName() + "] removed");
+            }
+        }
+
+        return rateLimitChanges;
+    }
+
+    private static void compareReqSchemas(final LLZInstanceConfigWrapper current, final LLZInstanceConfigWrapper reloaded, final LLZConfigReloadResult result)
+    {
+        for (final ReqSocketSchema reloadedSchema : reloaded.getReqSocketSchema())
+        {
+            final ReqSocketSchema schema = current.getReqSocketSchema(reloadedSchema.getName());
+
+            if (schema == null)
+            {
+                result.addRestartRequiredChange("Requester socket schema [" + reloadedSchema.getName() + "] added");
+                continue;
+            }
+
+            if (!Objects.equals(schema.getZmqContext(), reloadedSchema.getZmqContext()) ||
+                    !socketOptionsKey(schema.getSocketOptions()).equals(socketOptionsKey(reloadedSchema.getSocketOptions())))
+            {
+                result.addRestartRequiredChange("Requester socket schema [" + schema.getName() + "] context or socket options changed");
+            }
+        }
+
+        for (final ReqSocketSchema schema : current.getReqSocketSchema())
+        {
+            if (reloaded.getReqSocketSchema(schema.getName()) == null)
+            {
+                result.addRestartRequiredChange("Requester socket schema [" + schema.getName() + "] removed");
+            }
+        }
+    }
+
+    /**
+     * Apply the live changes of the responder socket schemas, call it with the lock of the responders manager taken
+     *
+     * @param current the configuration of the running instance, the live changes are applied on it
+     * @param reloaded the reloaded and validated configuration
+     * @param result the result to fill
+     */
+    public static void applyRespSchemaChanges(final LLZInstanceConfigWrapper current, final LLZInstanceConfigWrapper reloaded, final LLZConfigReloadResult result)
+    {
+        for (final RespSocketSchema reloadedSchema : reloaded.getRespSocketSchema())
+        {
+            final RespSocketSchema schema = current.getRespSocketSchema(reloadedSchema.getName());
+
+            if (schema == null)
+            {
+                result.addRestartRequiredChange("Responder socket schema [" + reloadedSchema.getName() + "] added");
+                continue;
+            }
+
+            if (schema.getMinPort() != reloadedSchema.getMinPort() ||
+                    !Objects.equals(schema.getMaxPort(), reloadedSchema.getMaxPort()) ||
+                    !Objects.equals(schema.getTransportMedia(), reloadedSchema.getTransportMedia()) ||
+                    !Objects.equals(schema.getTransportInterface(), reloadedSchema.getTransportInterface()) ||
+                    !Objects.equals(schema.getZmqContext(), reloadedSchema.getZmqContext()) ||
+                    !socketOptionsKey(schema.getSocketOptions()).equals(socketOptionsKey(reloadedSchema.getSocketOptions())))
+            {
+                result.addRestartRequiredChange("Responder socket schema [" + schema.getName() + "] ports, transport, context or socket options changed, none of its changes is applied");
+                continue;
+            }
+
+            if (!Objects.equals(schema.getMaxNumPorts(), reloadedSchema.getMaxNumPorts()))
+            {
+                schema.setMaxNumPorts(reloadedSchema.getMaxNumPorts());
+                result.addAppliedChange("Responder socket schema [" + schema.getName() + "] max_num_ports set to " + reloadedSchema.getMaxNumPorts());
+            }
+        }
+
+        for (final RespSocketSchema schema : current.getRespSocketSchema())
+        {
+            if (reloaded.getRespSocketSchema(schema.getName()) == null)
+            {
+                result.addRestartRequiredChange("Responder socket schema [" + schema.getName() + "] removed");
+            }
+        }
+    }
+
+    /** @return the values of the socket options to compare them, empty if there are no options */
+    private static List<Object> socketOptionsKey(final SocketOptions options)
+    {
+        if (options == null)
+        {
+            return new ArrayList<>();
+        }
+
+        return Arrays.<Object>asList(options.getSendHwm(), options.getReceiveHwm(), options.getSendBuffer(),
+                options.getReceiveBuffer(), options.isTcpKeepalive(), options.isImmediate(), options.getLinger(),
+                options.getReconnectInterval(), options.getReconnectIntervalMax(), options.getAffinity());
+    }
+
+    /** @return the values of the topic configurations in order to compare them */
+    private static List<Object> topicsKey(final LLZInstanceConfigWrapper config)
+    {
+        final List<Object> key = new ArrayList<>();
+
+        for (final PubTopicConfig topicConfig : config.getPubTopic())
+        {
+            key.add(Arrays.<Object>asList("PUB", topicConfig.getPattern(), topicConfig.getSocketSchema(), topicConfig.isConflate(), topicConfig.getPoolSocket()));
+        }
+
+        for (final SubTopicConfig topicConfig : config.getSubTopic())
+        {
+            key.add(Arrays.<Object>asList("SUB", topicConfig.getPattern(), topicConfig.getSocketSchema()));
+        }
+
+        for (final ReqTopicConfig topicConfig : config.getReqTopic())
+        {
+            key.add(Arrays.<Object>asList("REQ", topicConfig.getPattern(), topicConfig.getSocketSchema()));
+        }
+
+        for (final RespTopicConfig topicConfig : config.getRespTopic())
+        {
+            key.add(Arrays.<Object>asList("RESP", topicConfig.getPattern(), topicConfig.getSocketSchema(), topicConfig.getPoolSocket()));
+        }
+
+        return key;
+    }
+
+    /** @return the names and number of threads of the ZMQ contexts to compare them */
+    private static List<Object> zmqContextsKey(final List<ZmqContextConfig> zmqContexts)
+    {
+        final List<Object> key = new ArrayList<>();
+
+        for (final ZmqContextConfig zmqContext : zmqContexts)
+        {
+            key.add(Arrays.<Object>asList(zmqContext.getName(), zmqContext.getIoThreads()));
+        }
+
+        return key;
+    }
+
+    /** @return the values of the auto-discovery configuration to compare them */
+    private static List<Object> autodiscKey(final AutoDiscoveryConfig config)
+    {
+        return Arrays.<Object>asList(config.getTimeToLive(), config.getRefreshInterval(), config.getNodeType(),
+                config.getTransportMedia(), config.getAddresses(), config.getReconnectionInterval(),
+                config.getReconnectionTries(), config.getAutodiscType(), config.getBeaconPort(),
+                config.getRegistryFile(), config.getRegistrySlots(), config.getSnapshotFile(), config.getSnapshotSlots(),
+                config.getSnapshotReconcileTime(), config.getNearCacheSize(), config.isBinaryFormat(), config.getCoalescingWindow());
+    }
+}
@@ -3,13 +3,13 @@ package com.bbva.kyof.vega.config;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.regex.Pattern;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.bbva.kyof.vega.config.general.AutoDiscoveryConfig;
+import com.bbva.kyof.vega.config.general.AutoDiscoveryType;
 import com.bbva.kyof.vega.config.general.InstanceConfig;
 import com.bbva.kyof.vega.config.general.NodeType;
 import com.bbva.kyof.vega.config.general.PubSocketSchema;
@@ -21,6 +21,7 @@ import com.bbva.kyof.vega.config.general.RespTopicConfig;
 import com.bbva.kyof.vega.config.general.SubSocketSchema;
 import com.bbva.kyof.vega.config.general.SubTopicConfig;
 import com.bbva.kyof.vega.config.general.TransportMediaType;
+import com.bbva.kyof.vega.config.general.ZmqContextConfig;
 import com.bbva.kyof.vega.exception.LLZException;
 import com.bbva.kyof.vega.util.PatternEquals;
 
@@ -50,6 +51,9 @@ public class LLZInstanceConfigWrapper extends InstanceConfig
     /** Stores all the Responder Socket schemas */
     private final HashMap<String, RespSocketSchema> respSocketSchemas = new HashMap<>();
 
+    /** Stores all the dedicated ZMQ context configurations */
+    private final HashMap<String, ZmqContextConfig> zmqContextCfgs = new HashMap<>();
+
     /** Stores all the publisher topics */
     private final LinkedHashMap<PatternEquals, PubTopicConfig> pubTopicConfigs = new LinkedHashMap<>();
     
@@ -62,6 +66,18 @@ public class LLZInstanceConfigWrapper extends InstanceConfig
     /** Stores all the responder topics */
     private final LinkedHashMap<PatternEquals, RespTopicConfig> respTopicConfigs = new LinkedHashMap<>();
 
+    /** Resolves and caches the configuration of the publisher topic names */
+    private final LLZTopicConfigResolver<PubTopicConfig> pubTopicResolver = new LLZTopicConfigResolver<>();
+
+    /** Resolves and caches the configuration of the subscriber topic names */
+    private final LLZTopicConfigResolver<SubTopicConfig> subTopicResolver = new LLZTopicConfigResolver<>();
+
+    /** Resolves and caches the configuration of the requester topic names */
+    private final LLZTopicConfigResolver<ReqTopicConfig> reqTopicResolver = new LLZTopicConfigResolver<>();
+
+    /** Resolves and caches the configuration of the responder topic names */
+    private final LLZTopicConfigResolver<RespTopicConfig> respTopicResolver = new LLZTopicConfigResolver<>();
+
     
     /**
      * Builds a copy-wrapper around InstanceConfig which contains the same information
@@ -85,6 +101,14 @@ public class LLZInstanceConfigWrapper extends InstanceConfig
             autodiscoCfg.setAddresses("224.2.2.3");
             autodiscoCfg.setReconnectionInterval(2); 
             autodiscoCfg.setReconnectionTries(10);;      
+            autodiscoCfg.setAutodiscType(AutoDiscoveryType.HAZELCAST);
+            autodiscoCfg.setBeaconPort(35300);
+            autodiscoCfg.setRegistrySlots(16384);
+            autodiscoCfg.setSnapshotSlots(4096);
+            autodiscoCfg.setSnapshotReconcileTime(10000L);
+            autodiscoCfg.setNearCacheSize(0);
+            autodiscoCfg.setBinaryFormat(false);
+            autodiscoCfg.setCoalescingWindow(0L);
 
             this.setAutoDiscoConfig(autodiscoCfg);
         } 
@@ -116,6 +140,9 @@ public class LLZInstanceConfigWrapper extends InstanceConfig
         
         List<RespTopicConfig> respTopics = super.getRespTopic();
         respTopics.addAll(config.getRespTopic());
+
+        List<ZmqContextConfig> zmqContexts = super.getZmqContext();
+        zmqContexts.addAll(config.getZmqContext());
     }
 
     
@@ -220,6 +247,42 @@ public class LLZInstanceConfigWrapper extends InstanceConfig
         }
     }
     
+    /**
+     * Adds a dedicated ZMQ context configuration
+     *
+     * @param zmqContextCfg ZmqContextConfig to be added
+     * @throws LLZException exception thrown if there a duplicate or the number of I/O threads is not valid
+     */
+    public void addZmqContextCfg(final ZmqContextConfig zmqContextCfg) throws LLZException
+    {
+        if (this.zmqContextCfgs.containsKey(zmqContextCfg.getName()))
+        {
+            LOGGER.error("Duplicated ZMQ context name [{}] found in the xml configuration file.", zmqContextCfg.getName());
+            throw new LLZException("Duplicated ZMQ context name found in the xml configuration file:"
+                    + zmqContextCfg.getName());
+        }
+
+        if (zmqContextCfg.getIoThreads() < 1)
+        {
+            LOGGER.error("Invalid number of I/O threads for ZMQ context [{}] found in the xml configuration file.", zmqContextCfg.getName());
+            throw new LLZException("Invalid number of I/O threads for ZMQ context found in the xml configuration file:"
+                    + zmqContextCfg.getName());
+        }
+
+        this.zmqContextCfgs.put(zmqContextCfg.getName(), zmqContextCfg);
+    }
+
+    /**
+     * Returns a dedicated ZMQ context configuration
+     *
+     * @param name Name of the context (ZmqContextConfig.getName() )
+     * @return ZmqContextConfig or null if it does not exist
+     */
+    public ZmqContextConfig getZmqContextCfg(final String name)
+    {
+        return this.zmqContextCfgs.get(name);
+    }
+
     /**
      * Returns Publisher Socket schema
      *
@@ -287,6 +350,7 @@ public class LLZInstanceConfigWrapper extends InstanceConfig
         else
         {
             this.pubTopicConfigs.put(patternEquals, pubTopicCfg);
+            this.pubTopicResolver.add(patternEquals, pubTopicCfg);
         }
         
     }
@@ -311,6 +375,7 @@ public class LLZInstanceConfigWrapper extends InstanceConfig
         else
         {
             this.subTopicConfigs.put(patternEquals, subTopicCfg);
+            this.subTopicResolver.add(patternEquals, subTopicCfg);
         }
         
     }
@@ -335,6 +400,7 @@ public class LLZInstanceConfigWrapper extends InstanceConfig
         else
         {
             this.reqTopicConfigs.put(patternEquals, reqTopicCfg);
+            this.reqTopicResolver.add(patternEquals, reqTopicCfg);
         }
     }
 
@@ -358,6 +424,7 @@ public class LLZInstanceConfigWrapper extends InstanceConfig
         else
         {
             this.respTopicConfigs.put(patternEquals, respTopicCfg);
+            this.respTopicResolver.add(patternEquals, respTopicCfg);
         }
     }
 
@@ -371,12 +438,11 @@ public class LLZInstanceConfigWrapper extends InstanceConfig
      */
     public PubTopicConfig getPubTopicCfg(final String name) throws LLZException
     {
-        for (Map.Entry<PatternEquals, PubTopicConfig> pubTopicCfg : this.pubTopicConfigs.entrySet())
+        final PubTopicConfig pubTopicCfg = this.pubTopicResolver.resolve(name);
+
+        if (pubTopicCfg != null)
         {
-            if (pubTopicCfg.getKey().matches(name))
-            {
-                return pubTopicCfg.getValue();
-            }
+            return pubTopicCfg;
         }
 
         LOGGER.error("Tried to create topic/publisher with name [{}] which has no configuration. ", name);
@@ -394,15 +460,7 @@ public class LLZInstanceConfigWrapper extends InstanceConfig
      */
     public SubTopicConfig getSubTopicCfg(final String name)
     {
-        for (Map.Entry<PatternEquals, SubTopicConfig> subTopicCfg : this.subTopicConfigs.entrySet())
-        {
-            if (subTopicCfg.getKey().matches(name))
-            {
-                return subTopicCfg.getValue();
-            }
-        }
-
-        return null;
+        return this.subTopicResolver.resolve(name);
     }
 
     /**
@@ -413,14 +471,7 @@ public class LLZInstanceConfigWrapper extends InstanceConfig
      */
     public boolean isSubTopicConfigured(final String name)
     {
-        for (Map.Entry<PatternEquals, SubTopicConfig> subTopicCfg : this.subTopicConfigs.entrySet())
-        {
-            if (subTopicCfg.getKey().matches(name))
-            {
-                return true;
-            }
-        }
-        return false;
+        return this.subTopicResolver.resolve(name) != null;
     }
     
     /**
@@ -433,12 +484,11 @@ public class LLZInstanceConfigWrapper extends InstanceConfig
      */
     public ReqTopicConfig getReqTopicCfg(final String name) throws LLZException
     {
-        for (Map.Entry<PatternEquals, ReqTopicConfig> reqTopicCfg : this.reqTopicConfigs.entrySet())
+        final ReqTopicConfig reqTopicCfg = this.reqTopicResolver.resolve(name);
+
+        if (reqTopicCfg != null)
         {
-            if (reqTopicCfg.getKey().matches(name))
-            {
-                return reqTopicCfg.getValue();
-            }
+            return reqTopicCfg;
         }
         
         LOGGER.error("Tried to create topic/requester with name [{}] which has no configuration. ", name);
@@ -454,14 +504,7 @@ public class LLZInstanceConfigWrapper extends InstanceConfig
      */
     public boolean isReqTopicConfigured(final String name)
     {
-        for (Map.Entry<PatternEquals, ReqTopicConfig> reqTopicCfg : this.reqTopicConfigs.entrySet())
-        {
-            if (reqTopicCfg.getKey().matches(name))
-            {
-                return true;
-            }
-        }
-        return false;
+        return this.reqTopicResolver.resolve(name) != null;
     }
     
     /**
@@ -474,12 +517,11 @@ public class LLZInstanceConfigWrapper extends InstanceConfig
      */
     public RespTopicConfig getRespTopicCfg(final String name) throws LLZException
     {
-        for (Map.Entry<PatternEquals, RespTopicConfig> respTopicCfg : this.respTopicConfigs.entrySet())
+        final RespTopicConfig respTopicCfg = this.respTopicResolver.resolve(name);
+
+        if (respTopicCfg != null)
         {
-            if (respTopicCfg.getKey().matches(name))
-            {
-                return respTopicCfg.getValue();
-            }
+            return respTopicCfg;
         }
 
         LOGGER.error("Tried to create topic/responder with name [{}] which has no configuration. ", name);
@@ -15,6 +15,7 @@ import org.slf4j.LoggerFactory;
 import org.xml.sax.SAXException;
 
 import com.bbva.kyof.vega.config.general.AutoDiscoveryConfig;
+import com.bbva.kyof.vega.config.general.AutoDiscoveryType;
 import com.bbva.kyof.vega.config.general.GlobalConfiguration;
 import com.bbva.kyof.vega.config.general.InstanceConfig;
 import com.bbva.kyof.vega.config.general.NodeType;
@@ -27,6 +28,7 @@ import com.bbva.kyof.vega.config.general.RespTopicConfig;
 import com.bbva.kyof.vega.config.general.SubSocketSchema;
 import com.bbva.kyof.vega.config.general.SubTopicConfig;
 import com.bbva.kyof.vega.config.general.TransportMediaType;
+import com.bbva.kyof.vega.config.general.ZmqContextConfig;
 import com.bbva.kyof.vega.exception.LLZException;
 
 /**
@@ -41,7 +43,16 @@ public final class LLZInstanceLocalConfigReader
     public static final String XSD_CONFIG_FILE = "/xsd/zeromqConfig.xsd";
 
     /** Url with the package that contains the configuration general classes */
-    public static final String URL_BASE = "com.bbva.kyof.zmq.config.general";
+    public static final String URL_BASE = "com.bbva.kyof.vega.config.general";
+
+    /** Lock for the creation of the cached JAXB context and schema */
+    private static final Object JAXB_CACHE_LOCK = new Object();
+
+    /** JAXB context of the configuration classes, created once per JVM since it is expensive and thread-safe */
+    private static JAXBContext cachedJaxbContext = null;
+
+    /** Schema of the XML configuration file, created once per JVM since it is expensive and thread-safe */
+    private static Schema cachedSchema = null;
     
     /** Instance name */
     private final String instanceName;
@@ -76,8 +87,20 @@ public final class LLZInstanceLocalConfigReader
         // First unmarshall the configuration
         final GlobalConfiguration configuration = unmarshallConfiguration(configFile);
 
-        // Now find the instance configuration
-        this.loadedConfig = new LLZInstanceConfigWrapper(this.findInstance(configuration, this.instanceName));
+        // Now find the instance configuration and validate it
+        this.validateConfig(this.findInstance(configuration, this.instanceName));
+    }
+
+    /**
+     * This function validates an instance configuration created programmatically instead of loaded from the
+     * configuration file, see {@link LLZInstanceConfigBuilder}
+     *
+     * @param instanceConfig the instance configuration
+     * @throws LLZException exception thrown if the configuration is invalid
+     */
+    public void validateConfig(final InstanceConfig instanceConfig) throws LLZException
+    {
+        this.loadedConfig = new LLZInstanceConfigWrapper(instanceConfig);
 
         // Now clean the configuration. It will set proper values to null optional entries when not settled
         this.validateAndCleanConfiguration(this.loadedConfig);
@@ -104,14 +127,22 @@ public final class LLZInstanceLocalConfigReader
         try
         {
             final File file = new File(configFile);
-            final JAXBContext jaxbContext = JAXBContext.newInstance(URL_BASE);
-
-            final Unmarshaller jaxbUnmarshaller = jaxbContext.createUnmarshaller();
-            final SchemaFactory factory = SchemaFactory.newInstance(LLZConfigReaderConstants.W3_SCHEMA);
 
-            final Schema schema = factory.newSchema(new StreamSource(LLZInstanceLocalConfigReader.class.getResourceAsStream(XSD_CONFIG_FILE)));
+            // The unmarshaller is not thread-safe, a new one is created from the cached context and schema
+            final Unmarshaller jaxbUnmarshaller;
+            synchronized (JAXB_CACHE_LOCK)
+            {
+                if (cachedJaxbContext == null)
+                {
+                    final SchemaFactory factory = SchemaFactory.newInstance(LLZConfigReaderConstants.W3_SCHEMA);
+                    cachedSchema = factory.newSchema(new StreamSource(LLZInstanceLocalConfigReader.class.getResourceAsStream(XSD_CONFIG_FILE)));
+                    cachedJaxbContext = JAXBContext.newInstance(URL_BASE);
+                }
+
+                jaxbUnmarshaller = cachedJaxbContext.createUnmarshaller();
+            }
 
-            jaxbUnmarshaller.setSchema(schema);
+            jaxbUnmarshaller.setSchema(cachedSchema);
             return ((JAXBElement<GlobalConfiguration>) jaxbUnmarshaller.unmarshal(file)).getValue();
         }
         catch (final SAXException | JAXBException e)
@@ -215,6 +246,46 @@ public final class LLZInstanceLocalConfigReader
         {
             autodiscoCfg.setReconnectionTries(10);;
         }
+
+        if (autodiscoCfg.getAutodiscType() == null) 
+        {
+            autodiscoCfg.setAutodiscType(AutoDiscoveryType.HAZELCAST);
+        }
+
+        if (autodiscoCfg.getBeaconPort() == null) 
+        {
+            autodiscoCfg.setBeaconPort(35300);
+        }
+
+        if (autodiscoCfg.getRegistrySlots() == null) 
+        {
+            autodiscoCfg.setRegistrySlots(16384);
+        }
+
+        if (autodiscoCfg.getSnapshotSlots() == null) 
+        {
+            autodiscoCfg.setSnapshotSlots(4096);
+        }
+
+        if (autodiscoCfg.getSnapshotReconcileTime() == null) 
+        {
+            autodiscoCfg.setSnapshotReconcileTime(10000L);
+        }
+
+        if (autodiscoCfg.getNearCacheSize() == null) 
+        {
+            autodiscoCfg.setNearCacheSize(0);
+        }
+
+        if (autodiscoCfg.isBinaryFormat() == null) 
+        {
+            autodiscoCfg.setBinaryFormat(false);
+        }
+
+        if (autodiscoCfg.getCoalescingWindow() == null) 
+        {
+            autodiscoCfg.setCoalescingWindow(0L);
+        }
         
         loadedConfig.setAutoDiscovery(autodiscoCfg);  
     }
@@ -260,31 +331,59 @@ public final class LLZInstanceLocalConfigReader
      */
     private void addSocketSchemas(final LLZInstanceConfigWrapper loadedConfig) throws LLZException
     {
+        // Dedicated ZMQ contexts, the schemas reference them by name
+        for (final ZmqContextConfig zmqContextCfg : loadedConfig.getZmqContext())
+        {
+            loadedConfig.addZmqContextCfg(zmqContextCfg);
+        }
+
         // Pub Socket schemas
         for (final PubSocketSchema pubSocketSchema : loadedConfig.getPubSocketSchema())
         {
+            this.validateSchemaZmqContext(pubSocketSchema.getName(), pubSocketSchema.getZmqContext(), loadedConfig);
             loadedConfig.addPubSchema(pubSocketSchema);
         }
 
         // Sub Socket schemas
         for (final SubSocketSchema subSocketSchema : loadedConfig.getSubSocketSchema())
         {
+            this.validateSchemaZmqContext(subSocketSchema.getName(), subSocketSchema.getZmqContext(), loadedConfig);
             loadedConfig.addSubSchema(subSocketSchema);
         }
 
         // Req Socket schemas
         for (final ReqSocketSchema reqSocketSchema : loadedConfig.getReqSocketSchema())
         {
+            this.validateSchemaZmqContext(reqSocketSchema.getName(), reqSocketSchema.getZmqContext(), loadedConfig);
             loadedConfig.addReqSchema(reqSocketSchema);
         }
 
         // Resp Socket schemas
         for (final RespSocketSchema respSocketSchema : loadedConfig.getRespSocketSchema())
         {
+            this.validateSchemaZmqContext(respSocketSchema.getName(), respSocketSchema.getZmqContext(), loadedConfig);
             loadedConfig.addRespSchema(respSocketSchema);        
         }
     }
 
+    /**
+     * Validate that the dedicated ZMQ context of a socket schema, if any, is configured
+     *
+     * @param schemaName the name of the socket schema
+     * @param zmqContextName the name of the context of the schema, null if it uses the default one
+     * @param loadedConfig loadedConfig configuration wrapper with the contexts already added
+     *
+     * @throws LLZException exception thrown if the context is not configured
+     */
+    private void validateSchemaZmqContext(final String schemaName, final String zmqContextName, final LLZInstanceConfigWrapper loadedConfig) throws LLZException
+    {
+        if (zmqContextName != null && loadedConfig.getZmqContextCfg(zmqContextName) == null)
+        {
+            LOGGER.error("ZMQ context [{}] of socket schema [{}] was not found in the xml configuration file.", zmqContextName, schemaName);
+            throw new LLZException("ZMQ context of socket schema was not found in the xml configuration file. Schema: " + schemaName);
+        }
+    }
+
     /**
      * Validate the publisher configuration 
      *
@@ -307,6 +406,8 @@ public final class LLZInstanceLocalConfigReader
             throw new LLZException("Empty Pub topic found in the xml configuration file: " + pubTopicCfg.getPattern());
         }
 
+        this.validatePoolSocket(pubTopicCfg.getPoolSocket(), loadedConfig.getPubSocketSchema(pubTopicCfg.getSocketSchema()).getMaxNumPorts(), pubTopicCfg.getPattern());
+
         loadedConfig.addPubTopicCfg(pubTopicCfg); 
     }
     
@@ -381,6 +482,27 @@ public final class LLZInstanceLocalConfigReader
             LOGGER.error("Empty Resp topic [{}] found in the xml configuration file.", respTopicCfg.getPattern());
             throw new LLZException("Empty Resp topic found in the xml configuration file: " + respTopicCfg.getPattern());
         }
+
+        this.validatePoolSocket(respTopicCfg.getPoolSocket(), loadedConfig.getRespSocketSchema(respTopicCfg.getSocketSchema()).getMaxNumPorts(), respTopicCfg.getPattern());
+
         loadedConfig.addRespTopicCfg(respTopicCfg);
     }
+
+    /**
+     * Validate the pool socket a topic pattern is pinned to, it has to be one of the sockets the schema pool can create
+     *
+     * @param poolSocket the position of the socket in the pool, null if the topic is not pinned
+     * @param maxNumPorts maximum number of sockets of the schema pool
+     * @param pattern the topic pattern, for the error messages
+     *
+     * @throws LLZException exception thrown if the position is out of the pool
+     */
+    private void validatePoolSocket(final Integer poolSocket, final int maxNumPorts, final String pattern) throws LLZException
+    {
+        if (poolSocket != null && (poolSocket < 0 || poolSocket >= maxNumPorts))
+        {
+            LOGGER.error("Pool socket [{}] of topic [{}] is not in the range [0]-[{}] of the socket schema pool", poolSocket, pattern, maxNumPorts - 1);
+            throw new LLZException("Pool socket of topic " + pattern + " out of the socket schema pool: " + poolSocket);
+        }
+    }
 }
@@ -0,0 +1,178 @@
+package com.bbva.kyof.vega.config;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.bbva.kyof.vega.util.PatternEquals;
+
+/**
+ * Resolves the configuration of a topic name against an ordered list of topic name patterns, the first pattern that
+ * matches wins.
+ *
+ * The patterns whose literal prefix is not a prefix of the name are discarded without running the regular
+ * expression, and the resolved names are kept in a bounded cache so a name already seen is resolved in constant
+ * time without taking any lock. When the cache is full an arbitrary name is evicted. The cache is cleared when a
+ * pattern is added.
+ *
+ * The size of the cache can be changed with -Dzmqframework.topicConfigCacheSize=xxx, it should be above the number of
+ * topics of the instance.
+ *
+ * The class is thread-safe
+ *
+ * @param <T> type of the topic configuration
+ */
+final class LLZTopicConfigResolver<T>
+{
+    /** System property to change the maximum number of resolved names kept in the cache */
+    static final String CACHE_SIZE_PROP = "zmqframework.topicConfigCacheSize";
+
+    /** Default maximum number of resolved names kept in the cache */
+    static final int DEFAULT_CACHE_SIZE = 65536;
+
+    /** Position stored in the cache for the names that match no pattern */
+    private static final int NOT_CONFIGURED = -1;
+
+    /** Maximum number of resolved names kept in the cache */
+    private final int cacheSize;
+
+    /** Current patterns with their cache, replaced when a pattern is added */
+    private volatile Resolution<T> resolution = new Resolution<>(Collections.<PatternEquals>emptyList(), Collections.<T>emptyList());
+
+    /**
+     * Create a resolver with the cache size of the system property or the default one
+     */
+    LLZTopicConfigResolver()
+    {
+        this(Integer.getInteger(CACHE_SIZE_PROP, DEFAULT_CACHE_SIZE));
+    }
+
+    /**
+     * Create a resolver
+     *
+     * @param cacheSize maximum number of resolved names kept in the cache
+     */
+    LLZTopicConfigResolver(final int cacheSize)
+    {
+        this.cacheSize = Math.max(1, cacheSize);
+    }
+
+    /**
+     * Add a pattern after the existing ones
+     *
+     * @param pattern the topic name pattern
+     * @param config the configuration of the topics matching the pattern
+     */
+    synchronized void add(final PatternEquals pattern, final T config)
+    {
+        final List<PatternEquals> newPatterns = new ArrayList<>(this.resolution.patterns);
+        final List<T> newConfigs = new ArrayList<>(this.resolution.configs);
+        newPatterns.add(pattern);
+        newConfigs.add(config);
+
+        this.resolution = new Resolution<>(newPatterns, newConfigs);
+    }
+
+    /**
+     * Find the configuration of the first pattern that matches the topic name
+     *
+     * @param name the topic name
+     * @return the configuration, null if no pattern matches
+     */
+    T resolve(final String name)
+    {
+        final Resolution<T> current = this.resolution;
+
+        Integer position = current.resolvedNames.get(name);
+
+        if (position == null)
+        {
+            position = current.findFirstMatch(name);
+            current.cache(name, position, this.cacheSize);
+        }
+
+        return position == NOT_CONFIGURED ? null : current.configs.get(position);
+    }
+
+    /**
+     * Patterns and configurations in configuration order with the cache of the names resolved against them, never
+     * modified once published except for the cache
+     *
+     * @param <T> type of the topic configuration
+     */
+    private static final class Resolution<T>
+    {
+        /** The patterns in configuration order */
+        private final List<PatternEquals> patterns;
+
+        /** The configuration of each pattern, in the same order */
+        private final List<T> configs;
+
+        /** Position of the first matching pattern of the resolved names */
+        private final ConcurrentHashMap<String, Integer> resolvedNames = new ConcurrentHashMap<>();
+
+        /** Number of names in the cache, tracked apart because the size of the map is not constant time */
+        private final AtomicInteger numResolvedNames = new AtomicInteger();
+
+        /**
+         * Create a new resolution
+         *
+         * @param patterns the patterns in configuration order
+         * @param configs the configuration of each pattern
+         */
+        private Resolution(final List<PatternEquals> patterns, final List<T> configs)
+        {
+            this.patterns = patterns;
+            this.configs = configs;
+        }
+
+        /**
+         * Run the patterns that may match the name in configuration order
+         *
+         * @param name the topic name
+         * @return the position of the first matching pattern, {@link #NOT_CONFIGURED} if none matches
+         */
+        private int findFirstMatch(final String name)
+        {
+            for (int i = 0; i < this.patterns.size(); i++)
+            {
+                final PatternEquals pattern = this.patterns.get(i);
+
+                if (pattern.mayMatch(name) && pattern.matches(name))
+                {
+                    return i;
+                }
+            }
+
+            return NOT_CONFIGURED;
+        }
+
+        /**
+         * Add a resolved name to the cache, evicting an arbitrary name if the cache is full
+         *
+         * @param name the topic name
+         * @param position position of the first matching pattern
+         * @param maxSize maximum number of names in the cache
+         */
+        private void cache(final String name, final int position, final int maxSize)
+        {
+            if (this.resolvedNames.putIfAbsent(name, position) != null)
+            {
+                return;
+            }
+
+            if (this.numResolvedNames.incrementAndGet() > maxSize)
+            {
+                final Iterator<String> iterator = this.resolvedNames.keySet().iterator();
+
+                if (iterator.hasNext() && this.resolvedNames.remove(iterator.next()) != null)
+                {
+                    this.numResolvedNames.decrementAndGet();
+                }
+            }
+        }
+    }
+}
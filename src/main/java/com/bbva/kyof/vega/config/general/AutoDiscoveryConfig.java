@@ -31,6 +31,16 @@ import javax.xml.bind.annotation.XmlType;
  *         &lt;element name="addresses" type="{http://www.w3.org/2001/XMLSchema}string" minOccurs="0"/>
  *         &lt;element name="reconnection_interval" type="{http://www.w3.org/2001/XMLSchema}int" minOccurs="0"/>
  *         &lt;element name="reconnection_tries" type="{http://www.w3.org/2001/XMLSchema}int" minOccurs="0"/>
+ *         &lt;element name="autodisc_type" type="{http://www.bbva.com/zeromq/config}AutoDiscoveryType" minOccurs="0"/>
+ *         &lt;element name="beacon_port" type="{http://www.w3.org/2001/XMLSchema}int" minOccurs="0"/>
+ *         &lt;element name="registry_file" type="{http://www.w3.org/2001/XMLSchema}string" minOccurs="0"/>
+ *         &lt;element name="registry_slots" type="{http://www.w3.org/2001/XMLSchema}int" minOccurs="0"/>
+ *         &lt;element name="snapshot_file" type="{http://www.w3.org/2001/XMLSchema}string" minOccurs="0"/>
+ *         &lt;element name="snapshot_slots" type="{http://www.w3.org/2001/XMLSchema}int" minOccurs="0"/>
+ *         &lt;element name="snapshot_reconcile_time" type="{http://www.w3.org/2001/XMLSchema}long" minOccurs="0"/>
+ *         &lt;element name="near_cache_size" type="{http://www.w3.org/2001/XMLSchema}int" minOccurs="0"/>
+ *         &lt;element name="binary_format" type="{http://www.w3.org/2001/XMLSchema}boolean" minOccurs="0"/>
+ *         &lt;element name="coalescing_window" type="{http://www.w3.org/2001/XMLSchema}long" minOccurs="0"/>
  *       &lt;/sequence>
  *     &lt;/restriction>
  *   &lt;/complexContent>
@@ -47,7 +57,17 @@ import javax.xml.bind.annotation.XmlType;
     "transportMedia",
     "addresses",
     "reconnectionInterval",
-    "reconnectionTries"
+    "reconnectionTries",
+    "autodiscType",
+    "beaconPort",
+    "registryFile",
+    "registrySlots",
+    "snapshotFile",
+    "snapshotSlots",
+    "snapshotReconcileTime",
+    "nearCacheSize",
+    "binaryFormat",
+    "coalescingWindow"
 })
 public class AutoDiscoveryConfig {
 
@@ -64,6 +84,26 @@ public class AutoDiscoveryConfig {
     protected Integer reconnectionInterval;
     @XmlElement(name = "reconnection_tries")
     protected Integer reconnectionTries;
+    @XmlElement(name = "autodisc_type")
+    protected AutoDiscoveryType autodiscType;
+    @XmlElement(name = "beacon_port")
+    protected Integer beaconPort;
+    @XmlElement(name = "registry_file")
+    protected String registryFile;
+    @XmlElement(name = "registry_slots")
+    protected Integer registrySlots;
+    @XmlElement(name = "snapshot_file")
+    protected String snapshotFile;
+    @XmlElement(name = "snapshot_slots")
+    protected Integer snapshotSlots;
+    @XmlElement(name = "snapshot_reconcile_time")
+    protected Long snapshotReconcileTime;
+    @XmlElement(name = "near_cache_size")
+    protected Integer nearCacheSize;
+    @XmlElement(name = "binary_format")
+    protected Boolean binaryFormat;
+    @XmlElement(name = "coalescing_window")
+    protected Long coalescingWindow;
 
     /**
      * Gets the value of the timeToLive property.
@@ -233,4 +273,244 @@ public class AutoDiscoveryConfig {
         this.reconnectionTries = value;
     }
 
+    /**
+     * Gets the value of the autodiscType property.
+     * 
+     * @return
+     *     possible object is
+     *     {@link AutoDiscoveryType }
+     *     
+     */
+    public AutoDiscoveryType getAutodiscType() {
+        return autodiscType;
+    }
+
+    /**
+     * Sets the value of the autodiscType property.
+     * 
+     * @param value
+     *     allowed object is
+     *     {@link AutoDiscoveryType }
+     *     
+     */
+    public void setAutodiscType(AutoDiscoveryType value) {
+        this.autodiscType = value;
+    }
+
+    /**
+     * Gets the value of the beaconPort property.
+     * 
+     * @return
+     *     possible object is
+     *     {@link Integer }
+     *     
+     */
+    public Integer getBeaconPort() {
+        return beaconPort;
+    }
+
+    /**
+     * Sets the value of the beaconPort property.
+     * 
+     * @param value
+     *     allowed object is
+     *     {@link Integer }
+     *     
+     */
+    public void setBeaconPort(Integer value) {
+        this.beaconPort = value;
+    }
+
+    /**
+     * Gets the value of the registryFile property.
+     * 
+     * @return
+     *     possible object is
+     *     {@link String }
+     *     
+     */
+    public String getRegistryFile() {
+        return registryFile;
+    }
+
+    /**
+     * Sets the value of the registryFile property.
+     * 
+     * @param value
+     *     allowed object is
+     *     {@link String }
+     *     
+     */
+    public void setRegistryFile(String value) {
+        this.registryFile = value;
+    }
+
+    /**
+     * Gets the value of the registrySlots property.
+     * 
+     * @return
+     *     possible object is
+     *     {@link Integer }
+     *     
+     */
+    public Integer getRegistrySlots() {
+        return registrySlots;
+    }
+
+    /**
+     * Sets the value of the registrySlots property.
+     * 
+     * @param value
+     *     allowed object is
+     *     {@link Integer }
+     *     
+     */
+    public void setRegistrySlots(Integer value) {
+        this.registrySlots = value;
+    }
+
+    /**
+     * Gets the value of the snapshotFile property.
+     * 
+     * @return
+     *     possible object is
+     *     {@link String }
+     *     
+     */
+    public String getSnapshotFile() {
+        return snapshotFile;
+    }
+
+    /**
+     * Sets the value of the snapshotFile property.
+     * 
+     * @param value
+     *     allowed object is
+     *     {@link String }
+     *     
+     */
+    public void setSnapshotFile(String value) {
+        this.snapshotFile = value;
+    }
+
+    /**
+     * Gets the value of the snapshotSlots property.
+     * 
+     * @return
+     *     possible object is
+     *     {@link Integer }
+     *     
+     */
+    public Integer getSnapshotSlots() {
+        return snapshotSlots;
+    }
+
+    /**
+     * Sets the value of the snapshotSlots property.
+     * 
+     * @param value
+     *     allowed object is
+     *     {@link Integer }
+     *     
+     */
+    public void setSnapshotSlots(Integer value) {
+        this.snapshotSlots = value;
+    }
+
+    /**
+     * Gets the value of the snapshotReconcileTime property.
+     * 
+     * @return
+     *     possible object is
+     *     {@link Long }
+     *     
+     */
+    public Long getSnapshotReconcileTime() {
+        return snapshotReconcileTime;
+    }
+
+    /**
+     * Sets the value of the snapshotReconcileTime property.
+     * 
+     * @param value
+     *     allowed object is
+     *     {@link Long }
+     *     
+     */
+    public void setSnapshotReconcileTime(Long value) {
+        this.snapshotReconcileTime = value;
+    }
+
+    /**
+     * Gets the value of the nearCacheSize property.
+     * 
+     * @return
+     *     possible object is
+     *     {@link Integer }
+     *     
+     */
+    public Integer getNearCacheSize() {
+        return nearCacheSize;
+    }
+
+    /**
+     * Sets the value of the nearCacheSize property.
+     * 
+     * @param value
+     *     allowed object is
+     *     {@link Integer }
+     *     
+     */
+    public void setNearCacheSize(Integer value) {
+        this.nearCacheSize = value;
+    }
+
+    /**
+     * Gets the value of the binaryFormat property.
+     * 
+     * @return
+     *     possible object is
+     *     {@link Boolean }
+     *     
+     */
+    public Boolean isBinaryFormat() {
+        return binaryFormat;
+    }
+
+    /**
+     * Sets the value of the binaryFormat property.
+     * 
+     * @param value
+     *     allowed object is
+     *     {@link Boolean }
+     *     
+     */
+    public void setBinaryFormat(Boolean value) {
+        this.binaryFormat = value;
+    }
+
+    /**
+     * Gets the value of the coalescingWindow property.
+     * 
+     * @return
+     *     possible object is
+     *     {@link Long }
+     *     
+     */
+    public Long getCoalescingWindow() {
+        return coalescingWindow;
+    }
+
+    /**
+     * Sets the value of the coalescingWindow property.
+     * 
+     * @param value
+     *     allowed object is
+     *     {@link Long }
+     *     
+     */
+    public void setCoalescingWindow(Long value) {
+        this.coalescingWindow = value;
+    }
+
 }
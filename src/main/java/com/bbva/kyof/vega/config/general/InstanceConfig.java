@@ -36,6 +36,7 @@ import javax.xml.bind.annotation.XmlType;
  *         &lt;element name="sub_socket_schema" type="{http://www.bbva.com/zeromq/config}SubSocketSchema" maxOccurs="unbounded" minOccurs="0"/>
  *         &lt;element name="req_socket_schema" type="{http://www.bbva.com/zeromq/config}ReqSocketSchema" maxOccurs="unbounded" minOccurs="0"/>
  *         &lt;element name="resp_socket_schema" type="{http://www.bbva.com/zeromq/config}RespSocketSchema" maxOccurs="unbounded" minOccurs="0"/>
+ *         &lt;element name="zmq_context" type="{http://www.bbva.com/zeromq/config}ZmqContextConfig" maxOccurs="unbounded" minOccurs="0"/>
  *       &lt;/sequence>
  *       &lt;attribute name="name" use="required" type="{http://www.w3.org/2001/XMLSchema}string" />
  *       &lt;attribute name="use_native_zeromq_filtering" type="{http://www.w3.org/2001/XMLSchema}boolean" default="false" />
@@ -56,7 +57,8 @@ import javax.xml.bind.annotation.XmlType;
     "pubSocketSchema",
     "subSocketSchema",
     "reqSocketSchema",
-    "respSocketSchema"
+    "respSocketSchema",
+    "zmqContext"
 })
 public class InstanceConfig {
 
@@ -78,6 +80,8 @@ public class InstanceConfig {
     protected List<ReqSocketSchema> reqSocketSchema;
     @XmlElement(name = "resp_socket_schema")
     protected List<RespSocketSchema> respSocketSchema;
+    @XmlElement(name = "zmq_context")
+    protected List<ZmqContextConfig> zmqContext;
     @XmlAttribute(name = "name", required = true)
     protected String name;
     @XmlAttribute(name = "use_native_zeromq_filtering")
@@ -339,6 +343,35 @@ public class InstanceConfig {
         return this.respSocketSchema;
     }
 
+    /**
+     * Gets the value of the zmqContext property.
+     * 
+     * <p>
+     * This accessor method returns a reference to the live list,
+     * not a snapshot. Therefore any modification you make to the
+     * returned list will be present inside the JAXB object.
+     * This is why there is not a <CODE>set</CODE> method for the zmqContext property.
+     * 
+     * <p>
+     * For example, to add a new item, do as follows:
+     * <pre>
+     *    getZmqContext().add(newItem);
+     * </pre>
+     * 
+     * 
+     * <p>
+     * Objects of the following type(s) are allowed in the list
+     * {@link ZmqContextConfig }
+     * 
+     * 
+     */
+    public List<ZmqContextConfig> getZmqContext() {
+        if (zmqContext == null) {
+            zmqContext = new ArrayList<ZmqContextConfig>();
+        }
+        return this.zmqContext;
+    }
+
     /**
      * Gets the value of the name property.
      * 
@@ -56,6 +56,22 @@ public class ObjectFactory {
         return new PubTopicConfig();
     }
 
+    /**
+     * Create an instance of {@link ZmqContextConfig }
+     * 
+     */
+    public ZmqContextConfig createZmqContextConfig() {
+        return new ZmqContextConfig();
+    }
+
+    /**
+     * Create an instance of {@link SocketOptions }
+     * 
+     */
+    public SocketOptions createSocketOptions() {
+        return new SocketOptions();
+    }
+
     /**
      * Create an instance of {@link ReqSocketSchema }
      * 
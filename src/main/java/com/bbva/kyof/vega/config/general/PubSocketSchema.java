@@ -31,8 +31,10 @@ import javax.xml.bind.annotation.XmlType;
  *         &lt;element name="transport_media" type="{http://www.w3.org/2001/XMLSchema}string" minOccurs="0"/>
  *         &lt;element name="transport_interface" type="{http://www.w3.org/2001/XMLSchema}string" minOccurs="0"/>
  *         &lt;element name="pub_rate_limit" type="{http://www.w3.org/2001/XMLSchema}long" minOccurs="0"/>
+ *         &lt;element name="socket_options" type="{http://www.bbva.com/zeromq/config}SocketOptions" minOccurs="0"/>
  *       &lt;/sequence>
  *       &lt;attribute name="name" use="required" type="{http://www.w3.org/2001/XMLSchema}string" />
+ *       &lt;attribute name="zmq_context" type="{http://www.w3.org/2001/XMLSchema}string" />
  *     &lt;/restriction>
  *   &lt;/complexContent>
  * &lt;/complexType>
@@ -47,7 +49,8 @@ import javax.xml.bind.annotation.XmlType;
     "maxNumPorts",
     "transportMedia",
     "transportInterface",
-    "pubRateLimit"
+    "pubRateLimit",
+    "socketOptions"
 })
 public class PubSocketSchema {
 
@@ -63,8 +66,12 @@ public class PubSocketSchema {
     protected String transportInterface;
     @XmlElement(name = "pub_rate_limit")
     protected Long pubRateLimit;
+    @XmlElement(name = "socket_options")
+    protected SocketOptions socketOptions;
     @XmlAttribute(name = "name", required = true)
     protected String name;
+    @XmlAttribute(name = "zmq_context")
+    protected String zmqContext;
 
     /**
      * Gets the value of the minPort property.
@@ -226,4 +233,52 @@ public class PubSocketSchema {
         this.name = value;
     }
 
+    /**
+     * Gets the value of the socketOptions property.
+     * 
+     * @return
+     *     possible object is
+     *     {@link SocketOptions }
+     *     
+     */
+    public SocketOptions getSocketOptions() {
+        return socketOptions;
+    }
+
+    /**
+     * Sets the value of the socketOptions property.
+     * 
+     * @param value
+     *     allowed object is
+     *     {@link SocketOptions }
+     *     
+     */
+    public void setSocketOptions(SocketOptions value) {
+        this.socketOptions = value;
+    }
+
+    /**
+     * Gets the value of the zmqContext property.
+     * 
+     * @return
+     *     possible object is
+     *     {@link String }
+     *     
+     */
+    public String getZmqContext() {
+        return zmqContext;
+    }
+
+    /**
+     * Sets the value of the zmqContext property.
+     * 
+     * @param value
+     *     allowed object is
+     *     {@link String }
+     *     
+     */
+    public void setZmqContext(String value) {
+        this.zmqContext = value;
+    }
+
 }
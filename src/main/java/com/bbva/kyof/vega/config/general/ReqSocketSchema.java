@@ -11,6 +11,7 @@ package com.bbva.kyof.vega.config.general;
 import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
 import javax.xml.bind.annotation.XmlAttribute;
+import javax.xml.bind.annotation.XmlElement;
 import javax.xml.bind.annotation.XmlType;
 
 
@@ -24,8 +25,10 @@ import javax.xml.bind.annotation.XmlType;
  *   &lt;complexContent>
  *     &lt;restriction base="{http://www.w3.org/2001/XMLSchema}anyType">
  *       &lt;sequence>
+ *         &lt;element name="socket_options" type="{http://www.bbva.com/zeromq/config}SocketOptions" minOccurs="0"/>
  *       &lt;/sequence>
  *       &lt;attribute name="name" use="required" type="{http://www.w3.org/2001/XMLSchema}string" />
+ *       &lt;attribute name="zmq_context" type="{http://www.w3.org/2001/XMLSchema}string" />
  *     &lt;/restriction>
  *   &lt;/complexContent>
  * &lt;/complexType>
@@ -34,11 +37,17 @@ import javax.xml.bind.annotation.XmlType;
  * 
  */
 @XmlAccessorType(XmlAccessType.FIELD)
-@XmlType(name = "ReqSocketSchema")
+@XmlType(name = "ReqSocketSchema", propOrder = {
+    "socketOptions"
+})
 public class ReqSocketSchema {
 
+    @XmlElement(name = "socket_options")
+    protected SocketOptions socketOptions;
     @XmlAttribute(name = "name", required = true)
     protected String name;
+    @XmlAttribute(name = "zmq_context")
+    protected String zmqContext;
 
     /**
      * Gets the value of the name property.
@@ -64,4 +73,52 @@ public class ReqSocketSchema {
         this.name = value;
     }
 
+    /**
+     * Gets the value of the socketOptions property.
+     * 
+     * @return
+     *     possible object is
+     *     {@link SocketOptions }
+     *     
+     */
+    public SocketOptions getSocketOptions() {
+        return socketOptions;
+    }
+
+    /**
+     * Sets the value of the socketOptions property.
+     * 
+     * @param value
+     *     allowed object is
+     *     {@link SocketOptions }
+     *     
+     */
+    public void setSocketOptions(SocketOptions value) {
+        this.socketOptions = value;
+    }
+
+    /**
+     * Gets the value of the zmqContext property.
+     * 
+     * @return
+     *     possible object is
+     *     {@link String }
+     *     
+     */
+    public String getZmqContext() {
+        return zmqContext;
+    }
+
+    /**
+     * Sets the value of the zmqContext property.
+     * 
+     * @param value
+     *     allowed object is
+     *     {@link String }
+     *     
+     */
+    public void setZmqContext(String value) {
+        this.zmqContext = value;
+    }
+
 }
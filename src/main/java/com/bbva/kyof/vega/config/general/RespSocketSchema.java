@@ -30,8 +30,10 @@ import javax.xml.bind.annotation.XmlType;
  *         &lt;element name="max_num_ports" type="{http://www.w3.org/2001/XMLSchema}int" minOccurs="0"/>
  *         &lt;element name="transport_media" type="{http://www.w3.org/2001/XMLSchema}string" minOccurs="0"/>
  *         &lt;element name="transport_interface" type="{http://www.w3.org/2001/XMLSchema}string" minOccurs="0"/>
+ *         &lt;element name="socket_options" type="{http://www.bbva.com/zeromq/config}SocketOptions" minOccurs="0"/>
  *       &lt;/sequence>
  *       &lt;attribute name="name" use="required" type="{http://www.w3.org/2001/XMLSchema}string" />
+ *       &lt;attribute name="zmq_context" type="{http://www.w3.org/2001/XMLSchema}string" />
  *     &lt;/restriction>
  *   &lt;/complexContent>
  * &lt;/complexType>
@@ -45,7 +47,8 @@ import javax.xml.bind.annotation.XmlType;
     "maxPort",
     "maxNumPorts",
     "transportMedia",
-    "transportInterface"
+    "transportInterface",
+    "socketOptions"
 })
 public class RespSocketSchema {
 
@@ -59,8 +62,12 @@ public class RespSocketSchema {
     protected String transportMedia;
     @XmlElement(name = "transport_interface", defaultValue = "*")
     protected String transportInterface;
+    @XmlElement(name = "socket_options")
+    protected SocketOptions socketOptions;
     @XmlAttribute(name = "name", required = true)
     protected String name;
+    @XmlAttribute(name = "zmq_context")
+    protected String zmqContext;
 
     /**
      * Gets the value of the minPort property.
@@ -198,4 +205,52 @@ public class RespSocketSchema {
         this.name = value;
     }
 
+    /**
+     * Gets the value of the socketOptions property.
+     * 
+     * @return
+     *     possible object is
+     *     {@link SocketOptions }
+     *     
+     */
+    public SocketOptions getSocketOptions() {
+        return socketOptions;
+    }
+
+    /**
+     * Sets the value of the socketOptions property.
+     * 
+     * @param value
+     *     allowed object is
+     *     {@link SocketOptions }
+     *     
+     */
+    public void setSocketOptions(SocketOptions value) {
+        this.socketOptions = value;
+    }
+
+    /**
+     * Gets the value of the zmqContext property.
+     * 
+     * @return
+     *     possible object is
+     *     {@link String }
+     *     
+     */
+    public String getZmqContext() {
+        return zmqContext;
+    }
+
+    /**
+     * Sets the value of the zmqContext property.
+     * 
+     * @param value
+     *     allowed object is
+     *     {@link String }
+     *     
+     */
+    public void setZmqContext(String value) {
+        this.zmqContext = value;
+    }
+
 }
@@ -25,6 +25,7 @@ import javax.xml.bind.annotation.XmlType;
  *     &lt;restriction base="{http://www.w3.org/2001/XMLSchema}anyType">
  *       &lt;attribute name="pattern" type="{http://www.w3.org/2001/XMLSchema}string" />
  *       &lt;attribute name="socket_schema" type="{http://www.w3.org/2001/XMLSchema}string" />
+ *       &lt;attribute name="pool_socket" type="{http://www.w3.org/2001/XMLSchema}int" />
  *     &lt;/restriction>
  *   &lt;/complexContent>
  * &lt;/complexType>
@@ -40,6 +41,8 @@ public class RespTopicConfig {
     protected String pattern;
     @XmlAttribute(name = "socket_schema")
     protected String socketSchema;
+    @XmlAttribute(name = "pool_socket")
+    protected Integer poolSocket;
 
     /**
      * Gets the value of the pattern property.
@@ -89,4 +92,28 @@ public class RespTopicConfig {
         this.socketSchema = value;
     }
 
+    /**
+     * Gets the value of the poolSocket property.
+     * 
+     * @return
+     *     possible object is
+     *     {@link Integer }
+     *     
+     */
+    public Integer getPoolSocket() {
+        return poolSocket;
+    }
+
+    /**
+     * Sets the value of the poolSocket property.
+     * 
+     * @param value
+     *     allowed object is
+     *     {@link Integer }
+     *     
+     */
+    public void setPoolSocket(Integer value) {
+        this.poolSocket = value;
+    }
+
 }
@@ -26,8 +26,10 @@ import javax.xml.bind.annotation.XmlType;
  *     &lt;restriction base="{http://www.w3.org/2001/XMLSchema}anyType">
  *       &lt;sequence>
  *         &lt;element name="sub_rate_limit" type="{http://www.w3.org/2001/XMLSchema}long" minOccurs="0"/>
+ *         &lt;element name="socket_options" type="{http://www.bbva.com/zeromq/config}SocketOptions" minOccurs="0"/>
  *       &lt;/sequence>
  *       &lt;attribute name="name" use="required" type="{http://www.w3.org/2001/XMLSchema}string" />
+ *       &lt;attribute name="zmq_context" type="{http://www.w3.org/2001/XMLSchema}string" />
  *     &lt;/restriction>
  *   &lt;/complexContent>
  * &lt;/complexType>
@@ -37,14 +39,19 @@ import javax.xml.bind.annotation.XmlType;
  */
 @XmlAccessorType(XmlAccessType.FIELD)
 @XmlType(name = "SubSocketSchema", propOrder = {
-    "subRateLimit"
+    "subRateLimit",
+    "socketOptions"
 })
 public class SubSocketSchema {
 
     @XmlElement(name = "sub_rate_limit")
     protected Long subRateLimit;
+    @XmlElement(name = "socket_options")
+    protected SocketOptions socketOptions;
     @XmlAttribute(name = "name", required = true)
     protected String name;
+    @XmlAttribute(name = "zmq_context")
+    protected String zmqContext;
 
     /**
      * Gets the value of the subRateLimit property.
@@ -94,4 +101,52 @@ public class SubSocketSchema {
         this.name = value;
     }
 
+    /**
+     * Gets the value of the socketOptions property.
+     * 
+     * @return
+     *     possible object is
+     *     {@link SocketOptions }
+     *     
+     */
+    public SocketOptions getSocketOptions() {
+        return socketOptions;
+    }
+
+    /**
+     * Sets the value of the socketOptions property.
+     * 
+     * @param value
+     *     allowed object is
+     *     {@link SocketOptions }
+     *     
+     */
+    public void setSocketOptions(SocketOptions value) {
+        this.socketOptions = value;
+    }
+
+    /**
+     * Gets the value of the zmqContext property.
+     * 
+     * @return
+     *     possible object is
+     *     {@link String }
+     *     
+     */
+    public String getZmqContext() {
+        return zmqContext;
+    }
+
+    /**
+     * Sets the value of the zmqContext property.
+     * 
+     * @param value
+     *     allowed object is
+     *     {@link String }
+     *     
+     */
+    public void setZmqContext(String value) {
+        this.zmqContext = value;
+    }
+
 }
@@ -21,6 +21,9 @@ public class LLZMsgHeader
 
     /** Framework version of the application instance that created the message */
     private String version;
+
+    /** Sequence number of the message in the topic unique ID it was sent into, 0 if the message is not sequenced */
+    private long sequenceNumber;
    
     /** (Optional) Request ID of the message if it is a request or a response */
     private UUID requestId;
@@ -54,6 +57,25 @@ public class LLZMsgHeader
         this.version = version;
     }
 
+    /**
+     * Creates a new header provided the header contents and the sequence number of the message in the topic
+     *
+     * @param msgType internal framework message type
+     * @param topicUniqueId topic the message was sent into (internal ID)
+     * @param instanceId unique ID of the application that send the message
+     * @param version Framework version of the application that send the message
+     * @param sequenceNumber sequence number of the message in the topic unique ID
+     */
+    public LLZMsgHeader(final LLZMsgType msgType,
+                        final long topicUniqueId,
+                        final long instanceId,
+                        final String version,
+                        final long sequenceNumber)
+    {
+        this(msgType, topicUniqueId, instanceId, version);
+        this.sequenceNumber = sequenceNumber;
+    }
+
     
     /** @return the unique application ID of the application where the header was created */
     public long getInstanceId()
@@ -104,7 +126,7 @@ public class LLZMsgHeader
     }
 
     /** @return the topic the message was sent into (internal ID) */
-    public Long getTopicUniqueId()
+    public long getTopicUniqueId()
     {
         return this.topicUniqueId;
     }
@@ -114,7 +136,7 @@ public class LLZMsgHeader
      * 
      * @param topicUniqueId the new topic value
      */
-    public void setTopicUniqueId(final Long topicUniqueId)
+    public void setTopicUniqueId(final long topicUniqueId)
     {
         this.topicUniqueId = topicUniqueId;
     }
@@ -134,4 +156,20 @@ public class LLZMsgHeader
     {
         this.version = version;
     }
+
+    /** @return the sequence number of the message in the topic unique ID, 0 if the message is not sequenced */
+    public long getSequenceNumber()
+    {
+        return this.sequenceNumber;
+    }
+
+    /**
+     * Sets the sequence number of the message in the topic unique ID
+     *
+     * @param sequenceNumber the sequence number of the message
+     */
+    public void setSequenceNumber(final long sequenceNumber)
+    {
+        this.sequenceNumber = sequenceNumber;
+    }
 }
\ No newline at end of file
@@ -11,6 +11,9 @@ public enum LLZMsgType
     
     /** User response message */
     DATA_RESP((byte)2),
+
+    /** Heartbeat sent by publishers and exchanged between requesters and responders to detect dead peers */
+    HEARTBEAT((byte)3),
     
     /** Unknown message type */
     UNKNOWN((byte)127);
@@ -59,7 +62,10 @@ public enum LLZMsgType
                 break;
             case 2:
                 result = DATA_RESP;
-                break;           
+                break;
+            case 3:
+                result = HEARTBEAT;
+                break;
             default:
                 result = UNKNOWN;
                 break;
@@ -54,7 +54,7 @@ public class LLZRcvMessage implements ILLZRcvMessage
     }
     
     /** @return topic internal id (long) */
-    public Long getTopicId() {
+    public long getTopicId() {
         return this.header.getTopicUniqueId();
     }
 
@@ -0,0 +1,15 @@
+package com.bbva.kyof.vega.protocol;
+
+/**
+ * Interface to implement by the sockets that take part in the data-path heartbeats
+ */
+public interface ILLZHeartbeatPeer
+{
+    /**
+     * Method called by the {@link LLZHeartbeatManager} once every heartbeat interval, the peer sends its heartbeat
+     * and checks the heartbeats received from the remote socket
+     *
+     * @param now current time in milliseconds
+     */
+    void onHeartbeatTick(final long now);
+}
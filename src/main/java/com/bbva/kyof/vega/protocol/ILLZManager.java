@@ -1,6 +1,12 @@
 package com.bbva.kyof.vega.protocol;
 
+import java.util.Collection;
+import java.util.Map;
+
+import com.bbva.kyof.vega.config.LLZConfigReloadResult;
 import com.bbva.kyof.vega.exception.LLZException;
+import com.bbva.kyof.vega.topic.ILLZConflationKeyExtractor;
+import com.bbva.kyof.vega.topic.LLZDispatchParams;
 import com.bbva.kyof.vega.topic.ILLZTopicPublisher;
 import com.bbva.kyof.vega.topic.ILLZTopicReqListener;
 import com.bbva.kyof.vega.topic.ILLZTopicRequester;
@@ -26,6 +32,19 @@ public interface ILLZManager
      */
     ILLZTopicPublisher createPublisher(final String topic) throws LLZException;
 
+    /**
+     * Create the publishers for a group of topics.
+     *
+     * All the topics are validated before creating any publisher. The unique ids are reserved in a single block and
+     * all the publishers are registered in auto-discovery with a single operation, which is much faster than creating
+     * them one by one when there are many topics.
+     *
+     * @param topics The topics to publish into.
+     * @return the created publishers by topic, in the same order as the given topics
+     * @throws LLZException exception thrown if any topic is duplicated, already created or not configured
+     */
+    Map<String, ILLZTopicPublisher> createPublishers(final Collection<String> topics) throws LLZException;
+
     /**
      * Destroys the publisher for the given topic.
      *
@@ -47,6 +66,17 @@ public interface ILLZManager
      */
     ILLZTopicRequester createRequester(final String topic) throws LLZException;
 
+    /**
+     * Create the requesters for a group of topics.
+     *
+     * All the topics are validated before creating any requester.
+     *
+     * @param topics The topics to request to.
+     * @return the created requesters by topic, in the same order as the given topics
+     * @throws LLZException exception thrown if any topic is duplicated, already created or not configured
+     */
+    Map<String, ILLZTopicRequester> createRequesters(final Collection<String> topics) throws LLZException;
+
     /**
      * Destroys the requester for the given topic.
      *
@@ -71,6 +101,19 @@ public interface ILLZManager
      */
     ILLZTopicResponder createResponder(final String topic, final ILLZTopicReqListener requestListener) throws LLZException;
 
+    /**
+     * Create the responders for a group of topics, all of them delivering the requests to the same listener.
+     *
+     * All the topics are validated before creating any responder. The unique ids are reserved in a single block and
+     * all the responders are registered in auto-discovery with a single operation.
+     *
+     * @param topics The topics to listen for requests from.
+     * @param requestListener The listener that will receive the requests
+     * @return the created responders by topic, in the same order as the given topics
+     * @throws LLZException exception thrown if any topic is duplicated, already created or not configured
+     */
+    Map<String, ILLZTopicResponder> createResponders(final Collection<String> topics, final ILLZTopicReqListener requestListener) throws LLZException;
+
     /**
      * Destroys the responder for the given topic.
      *
@@ -91,6 +134,79 @@ public interface ILLZManager
      */
     ILLZTopicSubscriber subscribeToTopic(final String topicName, final ILLZTopicSubListener listener) throws LLZException;
 
+    /**
+     * Subscribes to a group of topics delivering all the messages to the same listener.
+     *
+     * All the topics are validated before subscribing to any of them.
+     *
+     * @param topicNames  Topic names to subscribe to.
+     * @param listener    The Listener where the user wants to receive the messages.
+     * @return            The topic subscribers by topic name, in the same order as the given topics
+     * @throws LLZException exception thrown if any topic is duplicated, already subscribed or not configured
+     */
+    Map<String, ILLZTopicSubscriber> subscribeToTopics(final Collection<String> topicNames, final ILLZTopicSubListener listener) throws LLZException;
+
+    /**
+     * Subscribes to the given topic delivering the messages through a conflating buffer.
+     *
+     * The messages are delivered to the listener from a separate consumer thread, only the most recent message for each
+     * conflation key is delivered. The reception thread never blocks on a slow listener and the memory is bounded by the
+     * number of keys.
+     *
+     * You cannot subscribe to a topic twice.
+     *
+     * @param topicName   Topic name to subscribe to.
+     * @param listener    The Listener where the user wants to receive the messages.
+     * @param keyExtractor (Optional) extractor of the conflation key, if null the messages are conflated by topic publisher
+     * @return            The topic subscriber to check status
+     * @throws LLZException
+     */
+    ILLZTopicSubscriber subscribeToTopic(final String topicName,
+                                         final ILLZTopicSubListener listener,
+                                         final ILLZConflationKeyExtractor keyExtractor) throws LLZException;
+
+    /**
+     * Subscribes to the given topic delivering the messages from a pool of worker threads.
+     *
+     * The messages are partitioned by topic publisher between the workers to keep the order of each one, a slow listener
+     * won't stall the reception of the other topics on the same connection. When a worker queue is full the overflow
+     * policy of the parameters is applied.
+     *
+     * The subscriptions of the instance with equal parameters share the same pool of workers, it is stopped with the
+     * instance.
+     *
+     * You cannot subscribe to a topic twice.
+     *
+     * @param topicName   Topic name to subscribe to.
+     * @param listener    The Listener where the user wants to receive the messages.
+     * @param dispatchParams parameters of the dispatch workers
+     * @return            The topic subscriber to check status
+     * @throws LLZException
+     */
+    ILLZTopicSubscriber subscribeToTopic(final String topicName,
+                                         final ILLZTopicSubListener listener,
+                                         final LLZDispatchParams dispatchParams) throws LLZException;
+
+    /**
+     * Subscribes to all the topics whose name matches a regular expression delivering all the messages to the same
+     * listener.
+     *
+     * The topics are subscribed as their publishers are discovered, only the topics configured in the instance are
+     * subscribed. A topic already subscribed explicitly or through another pattern is not subscribed again.
+     *
+     * @param topicPattern Regular expression to match against the topic names.
+     * @param listener     The Listener where the user wants to receive the messages.
+     * @throws LLZException exception thrown if already subscribed to the pattern or if the pattern is not valid
+     */
+    void subscribeToPattern(final String topicPattern, final ILLZTopicSubListener listener) throws LLZException;
+
+    /**
+     * Unsubscribe from a topic pattern and from all the topics subscribed through it.
+     *
+     * @param topicPattern Regular expression used in the subscription.
+     */
+    void unsubscribeFromPattern(final String topicPattern) throws LLZException;
+
     /**
      * Unsubscribe from a topicName.
      *
@@ -99,6 +215,18 @@ public interface ILLZManager
     void unsubscribeFromTopic(final String topicName) throws LLZException;
 
 
+    /**
+     * Reload the configuration file of the manager and apply the changes that don't need a restart.
+     *
+     * The file is validated again before applying anything. The pub_rate_limit, sub_rate_limit and max_num_ports of the
+     * socket schemas are applied live, the new rate limits are set on the existing sockets and apply to the
+     * connections established afterwards. Any other change is reported in the result as needing a restart.
+     *
+     * @return the applied changes and the changes that need a restart
+     * @throws LLZException exception thrown if the configuration cannot be loaded or is invalid, nothing is applied
+     */
+    LLZConfigReloadResult reloadConfiguration() throws LLZException;
+
     /**
      * Stop the manager and all subscribers, publishers, internal sockets and threads associated.
      *
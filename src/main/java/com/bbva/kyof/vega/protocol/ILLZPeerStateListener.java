@@ -0,0 +1,21 @@
+package com.bbva.kyof.vega.protocol;
+
+/**
+ * Interface to implement in order to know when a remote socket stops or resumes sending heartbeats
+ */
+public interface ILLZPeerStateListener
+{
+    /**
+     * Called when the remote socket has missed the maximum number of heartbeats
+     *
+     * @param socketId the unique id of the remote socket
+     */
+    void onPeerDown(final long socketId);
+
+    /**
+     * Called when a heartbeat is received again from a remote socket that was down
+     *
+     * @param socketId the unique id of the remote socket
+     */
+    void onPeerUp(final long socketId);
+}
@@ -0,0 +1,309 @@
+package com.bbva.kyof.vega.protocol;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.bbva.kyof.vega.exception.LLZException;
+import com.bbva.kyof.vega.topic.ILLZTopicMsgPublisher;
+import com.bbva.kyof.vega.util.threads.ILLZThreadFactory;
+import com.bbva.kyof.vega.util.threads.LLZThreadRole;
+
+/**
+ * Publisher for conflated topics. It keeps a "latest value slot" per topic unique ID and an internal sender thread that
+ * drains the slots into the real publisher.
+ *
+ * If new messages are published on a topic before the sender thread has sent the previous one, the slot contents are
+ * replaced and only the newest message is sent. Slow subscribers will always get fresh data and memory is bounded by the
+ * number of conflated topics instead of the burst size.
+ *
+ * The sequence numbers of the sent messages are assigned by this class, the conflated messages don't create gaps.
+ *
+ * The class is thread-safe
+ */
+public final class LLZConflatingPublisher implements ILLZTopicMsgPublisher, Runnable
+{
+    /** Logger of the class */
+    private static final Logger LOGGER = LoggerFactory.getLogger(LLZConflatingPublisher.class);
+
+    /** Time to sleep between checks while waiting for the sender thread to stop */
+    private static final long STOP_WAIT_TIME = 1;
+
+    /** Initial size of the slot buffers, they will grow if required */
+    private static final int INITIAL_BUFFER_SIZE = 1024;
+
+    /** Publisher that sends the messages into the real transport */
+    private final ILLZTopicMsgPublisher publisher;
+
+    /** Latest value slots by topic unique ID */
+    private final Map<Long, LatestValueSlot> slotsByTopicId = new HashMap<>();
+
+    /** Slots with a message pending to be sent, each slot is only added once */
+    private final Queue<LatestValueSlot> pendingSlots = new ArrayDeque<>();
+
+    /** Lock for access to the slots */
+    private final Object lock = new Object();
+
+    /** Buffer owned by the sender thread, it is swapped with the slot buffer to send without copying under the lock */
+    private ByteBuffer senderBuffer = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+
+    /** True if the sender thread should stop */
+    private volatile boolean shouldStop = false;
+
+    /** True if the sender thread is stopped */
+    private volatile boolean stopped = false;
+
+    /**
+     * Create a new conflating publisher and start the sender thread
+     *
+     * @param publisher the publisher that sends the messages into the real transport
+     * @param publisherName name of the publisher, used to name the sender thread
+     * @param threadFactory factory for the sender thread
+     */
+    public LLZConflatingPublisher(final ILLZTopicMsgPublisher publisher, final String publisherName, final ILLZThreadFactory threadFactory)
+    {
+        this.publisher = publisher;
+
+        final Thread senderThread = threadFactory.newThread(LLZThreadRole.CONFLATE_SENDER, "LLZ CONFLATE SENDER " + publisherName, this);
+        senderThread.start();
+    }
+
+    @Override
+    public void sendMessage(final String topic, final long topicPublisherUniqueId, final long sequenceNumber, final ByteBuffer message) throws LLZException
+    {
+        synchronized (this.lock)
+        {
+            if (this.shouldStop)
+            {
+                LOGGER.error("Trying to send a message on topic [{}] on a stopped conflating publisher", topic);
+                throw new LLZException("Trying to send a message on a stopped conflating publisher");
+            }
+
+            LatestValueSlot slot = this.slotsByTopicId.get(topicPublisherUniqueId);
+
+            if (slot == null)
+            {
+                slot = new LatestValueSlot(topic, topicPublisherUniqueId);
+                this.slotsByTopicId.put(topicPublisherUniqueId, slot);
+            }
+
+            // Replace the previous value if it was not sent yet
+            slot.setValue(message);
+
+            if (!slot.pending)
+            {
+                slot.pending = true;
+                this.pendingSlots.add(slot);
+                this.lock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Add the slot of a conflated topic unique ID before any message is sent on it
+     *
+     * @param topic topic name of the topic unique ID
+     * @param topicPublisherUniqueId the topic unique ID to add
+     */
+    public void addTopic(final String topic, final long topicPublisherUniqueId)
+    {
+        synchronized (this.lock)
+        {
+            if (!this.slotsByTopicId.containsKey(topicPublisherUniqueId))
+            {
+                this.slotsByTopicId.put(topicPublisherUniqueId, new LatestValueSlot(topic, topicPublisherUniqueId));
+            }
+        }
+    }
+
+    /**
+     * Remove the slot of a topic unique ID, any pending message on it will be discarded
+     *
+     * @param topicPublisherUniqueId the topic unique ID to remove
+     * @return true if there are no more slots and the conflating publisher can be stopped
+     */
+    public boolean removeTopic(final long topicPublisherUniqueId)
+    {
+        synchronized (this.lock)
+        {
+            final LatestValueSlot slot = this.slotsByTopicId.remove(topicPublisherUniqueId);
+
+            if (slot != null && slot.pending)
+            {
+                this.pendingSlots.remove(slot);
+            }
+
+            return this.slotsByTopicId.isEmpty();
+        }
+    }
+
+    /** Stop the sender thread and wait for it to finish, pending messages are discarded */
+    public void stop()
+    {
+        LOGGER.debug("Stopping conflating publisher sender thread...");
+
+        synchronized (this.lock)
+        {
+            this.shouldStop = true;
+            this.lock.notifyAll();
+        }
+
+        // Make sure we wait for the thread to stop
+        while (!this.stopped)
+        {
+            try
+            {
+                Thread.sleep(STOP_WAIT_TIME);
+            }
+            catch (final InterruptedException e)
+            {
+                LOGGER.error("Unexpected interruption while waiting for the conflating sender thread to finish", e);
+            }
+        }
+
+        synchronized (this.lock)
+        {
+            this.pendingSlots.clear();
+            this.slotsByTopicId.clear();
+        }
+    }
+
+    @Override
+    public void run()
+    {
+        LOGGER.debug("Conflating publisher sender thread started");
+
+        try
+        {
+            while (!this.shouldStop)
+            {
+                this.sendNextPendingSlot();
+            }
+        }
+        catch (final InterruptedException e)
+        {
+            LOGGER.error("Unexpected interruption in the conflating sender thread", e);
+        }
+        finally
+        {
+            this.stopped = true;
+        }
+
+        LOGGER.debug("Conflating publisher sender thread stopped");
+    }
+
+    /**
+     * Wait for a pending slot and send its latest value. The thread waits without timeout, it is notified when a slot
+     * becomes pending or when the publisher is stopped.
+     *
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    private void sendNextPendingSlot() throws InterruptedException
+    {
+        final String topic;
+        final long topicId;
+        final long sequenceNumber;
+
+        synchronized (this.lock)
+        {
+            final LatestValueSlot slot = this.pendingSlots.poll();
+
+            if (slot == null)
+            {
+                // The stop flag is set under the lock, check it before waiting to not miss the notification
+                if (!this.shouldStop)
+                {
+                    this.lock.wait();
+                }
+
+                return;
+            }
+
+            // Take the value swapping the buffers, the slot keeps the previous sender buffer for the next value
+            topic = slot.topic;
+            topicId = slot.topicId;
+            sequenceNumber = ++slot.lastSentSequence;
+            this.senderBuffer = slot.swapBuffer(this.senderBuffer);
+            slot.pending = false;
+        }
+
+        try
+        {
+            this.publisher.sendMessage(topic, topicId, sequenceNumber, this.senderBuffer);
+        }
+        catch (final LLZException e)
+        {
+            LOGGER.error("Unexpected error sending conflated message on topic " + topic, e);
+        }
+    }
+
+    /**
+     * Latest value of a conflated topic unique ID
+     */
+    private static final class LatestValueSlot
+    {
+        /** Topic name of the slot */
+        private final String topic;
+
+        /** Topic unique ID of the slot */
+        private final long topicId;
+
+        /** Buffer with the latest value, ready to be read */
+        private ByteBuffer buffer = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+
+        /** Sequence number of the last message sent for the slot */
+        private long lastSentSequence = 0;
+
+        /** True if the slot is in the queue of pending slots */
+        private boolean pending = false;
+
+        /**
+         * Create a new slot
+         *
+         * @param topic topic name of the slot
+         * @param topicId topic unique ID of the slot
+         */
+        private LatestValueSlot(final String topic, final long topicId)
+        {
+            this.topic = topic;
+            this.topicId = topicId;
+        }
+
+        /**
+         * Copy the message into the slot replacing the previous value. The position and limit of the message are kept.
+         *
+         * @param message the message to copy from position to limit
+         */
+        private void setValue(final ByteBuffer message)
+        {
+            final int msgSize = message.remaining();
+
+            if (this.buffer.capacity() < msgSize)
+            {
+                this.buffer = ByteBuffer.allocate(msgSize);
+            }
+
+            this.buffer.clear();
+            this.buffer.put(message.duplicate());
+            this.buffer.flip();
+        }
+
+        /**
+         * Swap the buffer of the slot with the given one
+         *
+         * @param newBuffer the buffer that will be used by the slot
+         * @return the buffer with the latest value
+         */
+        private ByteBuffer swapBuffer(final ByteBuffer newBuffer)
+        {
+            final ByteBuffer result = this.buffer;
+            this.buffer = newBuffer;
+            return result;
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package com.bbva.kyof.vega.protocol;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.bbva.kyof.vega.exception.LLZException;
+import com.bbva.kyof.vega.util.threads.ILLZThreadFactory;
+import com.bbva.kyof.vega.util.threads.LLZThreadRole;
+
+/**
+ * Executor for the creation and connection of the sockets of the end points found by auto-discovery.
+ *
+ * The tasks are keyed by the id of the end point socket. Tasks of different socket ids run in parallel in the pool of
+ * threads, tasks of the same socket id run one after another in submission order, so an end point removal is never
+ * processed before its addition.
+ *
+ * The class is thread-safe
+ */
+public final class LLZConnectionExecutor
+{
+    /** Logger */
+    private static final Logger LOGGER = LoggerFactory.getLogger(LLZConnectionExecutor.class);
+
+    /** Maximum time to wait in seconds for the running tasks on stop */
+    private static final long STOP_TIMEOUT = 10;
+
+    /** Pool of threads that run the tasks */
+    private final ExecutorService executor;
+
+    /** Timer that submits the delayed tasks once their delay expires */
+    private final ScheduledExecutorService timer;
+
+    /** Tasks waiting for a running task of the same socket id, by socket id. There is an entry while a task runs */
+    private final Map<Long, Queue<FutureTask<?>>> pendingTasksBySocketId = new HashMap<>();
+
+    /** Lock for the pending tasks */
+    private final Object lock = new Object();
+
+    /**
+     * Create the executor and the pool of threads
+     *
+     * @param numThreads number of threads of the pool
+     * @param threadFactory factory for the threads of the pool and the timer
+     */
+    public LLZConnectionExecutor(final int numThreads, final ILLZThreadFactory threadFactory)
+    {
+        this.executor = Executors.newFixedThreadPool(numThreads, new ThreadFactory()
+        {
+            /** Number of created threads, used for the thread name */
+            private final AtomicInteger threadCount = new AtomicInteger();
+
+            @Override
+            public Thread newThread(final Runnable runnable)
+            {
+                return threadFactory.newThread(LLZThreadRole.CONNECTION, "LLZ CONNECTION SETUP " + this.threadCount.incrementAndGet(), runnable);
+            }
+        });
+
+        this.timer = Executors.newSingleThreadScheduledExecutor(new ThreadFactory()
+        {
+            @Override
+            public Thread newThread(final Runnable runnable)
+            {
+                return threadFactory.newThread(LLZThreadRole.CONNECTION, "LLZ CONNECTION TIMER", runnable);
+            }
+        });
+    }
+
+    /**
+     * Execute a task for the given socket id once the delay expires, after any other task submitted for the same socket
+     * id before the delay expires. The delayed tasks not executed yet are discarded on stop.
+     *
+     * @param socketId the id of the end point socket the task works on
+     * @param delay the delay in milliseconds
+     * @param task the task to execute
+     */
+    public void executeDelayed(final long socketId, final long delay, final Runnable task)
+    {
+        try
+        {
+            this.timer.schedule(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    LLZConnectionExecutor.this.execute(socketId, task);
+                }
+            }, delay, TimeUnit.MILLISECONDS);
+        }
+        catch (final RejectedExecutionException e)
+        {
+            LOGGER.debug("Delayed connection task for socket id [{}] discarded, the executor is stopped", socketId);
+        }
+    }
+
+    /**
+     * Execute a task for the given socket id, after any other task submitted before for the same socket id
+     *
+     * @param socketId the id of the end point socket the task works on
+     * @param task the task to execute
+     * @return the future of the task, it is cancelled if the executor is already stopped
+     */
+    public Future<?> execute(final long socketId, final Runnable task)
+    {
+        final FutureTask<Void> futureTask = new SocketTask(socketId, task);
+
+        synchronized (this.lock)
+        {
+            final Queue<FutureTask<?>> pendingTasks = this.pendingTasksBySocketId.get(socketId);
+
+            // If there is a task running for the socket id, it will run this one once finished
+            if (pendingTasks != null)
+            {
+                pendingTasks.add(futureTask);
+                return futureTask;
+            }
+
+            this.pendingTasksBySocketId.put(socketId, new ArrayDeque<FutureTask<?>>());
+        }
+
+        try
+        {
+            this.executor.execute(new SocketTasksRunner(socketId, futureTask));
+        }
+        catch (final RejectedExecutionException e)
+        {
+            LOGGER.debug("Connection task for socket id [{}] discarded, the executor is stopped", socketId);
+
+            synchronized (this.lock)
+            {
+                this.pendingTasksBySocketId.remove(socketId);
+            }
+
+            futureTask.cancel(false);
+        }
+
+        return futureTask;
+    }
+
+    /**
+     * Stop the executor, it waits for the running and pending tasks to finish
+     *
+     * @throws LLZException exception thrown if interrupted while waiting
+     */
+    public void stop() throws LLZException
+    {
+        this.timer.shutdownNow();
+        this.executor.shutdown();
+
+        try
+        {
+            if (!this.executor.awaitTermination(STOP_TIMEOUT, TimeUnit.SECONDS))
+            {
+                LOGGER.warn("Connection tasks not finished after [{}] seconds", STOP_TIMEOUT);
+            }
+        }
+        catch (final InterruptedException e)
+        {
+            LOGGER.error("An internal error occurred during stopping the connection executor [{}]", e);
+            throw new LLZException(e);
+        }
+    }
+
+    /**
+     * Runs the first task of a socket id and all the tasks queued for the same socket id meanwhile
+     */
+    private final class SocketTasksRunner implements Runnable
+    {
+        /** Id of the end point socket */
+        private final long socketId;
+
+        /** First task to run */
+        private final FutureTask<?> firstTask;
+
+        /**
+         * Create the runner
+         *
+         * @param socketId id of the end point socket
+         * @param firstTask first task to run
+         */
+        private SocketTasksRunner(final long socketId, final FutureTask<?> firstTask)
+        {
+            this.socketId = socketId;
+            this.firstTask = firstTask;
+        }
+
+        @Override
+        public void run()
+        {
+            FutureTask<?> nextTask = this.firstTask;
+
+            while (nextTask != null)
+            {
+                // The future captures any exception of the task, it is logged when the task is done
+                nextTask.run();
+
+                synchronized (LLZConnectionExecutor.this.lock)
+                {
+                    nextTask = LLZConnectionExecutor.this.pendingTasksBySocketId.get(this.socketId).poll();
+
+                    if (nextTask == null)
+                    {
+                        LLZConnectionExecutor.this.pendingTasksBySocketId.remove(this.socketId);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Task of a socket id that logs the exception thrown by the task, the callers don't wait for the returned future
+     */
+    private static final class SocketTask extends FutureTask<Void>
+    {
+        /** Id of the end point socket */
+        private final long socketId;
+
+        /**
+         * Create the task
+         *
+         * @param socketId id of the end point socket
+         * @param task the task to run
+         */
+        private SocketTask(final long socketId, final Runnable task)
+        {
+            super(task, null);
+            this.socketId = socketId;
+        }
+
+        @Override
+        protected void done()
+        {
+            if (this.isCancelled())
+            {
+                return;
+            }
+
+            try
+            {
+                this.get();
+            }
+            catch (final ExecutionException e)
+            {
+                LOGGER.error("Unexpected error in connection task for socket id [" + this.socketId + "]", e.getCause());
+            }
+            catch (final InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
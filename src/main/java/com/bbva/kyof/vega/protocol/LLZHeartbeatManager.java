@@ -0,0 +1,155 @@
+package com.bbva.kyof.vega.protocol;
+
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.bbva.kyof.vega.exception.LLZException;
+import com.bbva.kyof.vega.util.threads.ILLZThreadFactory;
+import com.bbva.kyof.vega.util.threads.LLZThreadRole;
+
+/**
+ * Drives the data-path heartbeats of the instance.
+ *
+ * A single thread ticks all the registered peers once every heartbeat interval. Publishers send a heartbeat to their
+ * subscribers and requesters send a heartbeat that the responders answer; subscribers and requesters mark the
+ * remote socket as down once it misses the configured number of heartbeats.
+ *
+ * The class is thread-safe
+ */
+public final class LLZHeartbeatManager implements Runnable
+{
+    /** Logger of the class */
+    private static final Logger LOGGER = LoggerFactory.getLogger(LLZHeartbeatManager.class);
+
+    /** Interval between heartbeats in milliseconds */
+    private final long heartbeatInterval;
+
+    /** Number of heartbeats that a remote socket can miss before being considered down */
+    private final int missedHeartbeatsLimit;
+
+    /** Registered peers */
+    private final Set<ILLZHeartbeatPeer> peers = new CopyOnWriteArraySet<>();
+
+    /** Lock to wait between ticks */
+    private final Object lock = new Object();
+
+    /** True if the heartbeat thread should stop */
+    private volatile boolean shouldStop = false;
+
+    /** True once the heartbeat thread is stopped */
+    private volatile boolean stopped = false;
+
+    /**
+     * Create the manager and start the heartbeat thread
+     *
+     * @param heartbeatInterval interval between heartbeats in milliseconds
+     * @param missedHeartbeatsLimit number of heartbeats that a remote socket can miss before being considered down
+     * @param threadFactory factory for the heartbeat thread
+     */
+    public LLZHeartbeatManager(final long heartbeatInterval, final int missedHeartbeatsLimit, final ILLZThreadFactory threadFactory)
+    {
+        this.heartbeatInterval = heartbeatInterval;
+        this.missedHeartbeatsLimit = missedHeartbeatsLimit;
+
+        final Thread heartbeatThread = threadFactory.newThread(LLZThreadRole.HEARTBEAT, "LLZ HEARTBEAT", this);
+        heartbeatThread.start();
+    }
+
+    /**
+     * Register a peer to be ticked every heartbeat interval
+     *
+     * @param peer the peer to register
+     */
+    public void addPeer(final ILLZHeartbeatPeer peer)
+    {
+        this.peers.add(peer);
+    }
+
+    /**
+     * Unregister a peer
+     *
+     * @param peer the peer to unregister
+     */
+    public void removePeer(final ILLZHeartbeatPeer peer)
+    {
+        this.peers.remove(peer);
+    }
+
+    /** @return the time in milliseconds without heartbeats before a remote socket is considered down */
+    public long getPeerTimeout()
+    {
+        return this.heartbeatInterval * this.missedHeartbeatsLimit;
+    }
+
+    @Override
+    public void run()
+    {
+        while (!this.shouldStop)
+        {
+            final long now = System.currentTimeMillis();
+
+            for (final ILLZHeartbeatPeer peer : this.peers)
+            {
+                try
+                {
+                    peer.onHeartbeatTick(now);
+                }
+                catch (final RuntimeException e)
+                {
+                    LOGGER.error("Unexpected error processing the heartbeat of peer [{}]", peer, e);
+                }
+            }
+
+            synchronized (this.lock)
+            {
+                try
+                {
+                    if (!this.shouldStop)
+                    {
+                        this.lock.wait(this.heartbeatInterval);
+                    }
+                }
+                catch (final InterruptedException e)
+                {
+                    LOGGER.error("Heartbeat thread interrupted", e);
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+
+        this.stopped = true;
+    }
+
+    /**
+     * Stop the heartbeat thread
+     *
+     * @throws LLZException exception thrown if interrupted while waiting for the thread to stop
+     */
+    public void stop() throws LLZException
+    {
+        synchronized (this.lock)
+        {
+            this.shouldStop = true;
+            this.lock.notifyAll();
+        }
+
+        try
+        {
+            while (!this.stopped)
+            {
+                Thread.sleep(10);
+            }
+        }
+        catch (final InterruptedException e)
+        {
+            LOGGER.error("An internal error occurred during stopping the heartbeat thread [{}]", e);
+            throw new LLZException(e);
+        }
+
+        this.peers.clear();
+    }
+}
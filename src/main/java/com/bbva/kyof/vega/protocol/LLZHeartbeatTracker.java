@@ -0,0 +1,92 @@
+package com.bbva.kyof.vega.protocol;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Tracks the heartbeats received from a remote socket and reports when it goes down or comes back.
+ *
+ * The remote socket is only tracked once the first heartbeat arrives, so peers that don't send heartbeats (disabled
+ * or running an older version of the framework) are never reported as down.
+ *
+ * The heartbeats are received in the socket thread and checked in the heartbeat thread.
+ */
+public final class LLZHeartbeatTracker
+{
+    /** Logger of the class */
+    private static final Logger LOGGER = LoggerFactory.getLogger(LLZHeartbeatTracker.class);
+
+    /** Unique id of the remote socket */
+    private final long socketId;
+
+    /** Time in milliseconds without heartbeats before the remote socket is considered down */
+    private final long timeout;
+
+    /** Listener for the changes of state of the remote socket */
+    private final ILLZPeerStateListener listener;
+
+    /** Time in milliseconds of the last received heartbeat, 0 if none has been received yet */
+    private volatile long lastHeartbeatTime = 0;
+
+    /** True if the remote socket is down */
+    private volatile boolean down = false;
+
+    /**
+     * Create a new tracker
+     *
+     * @param socketId unique id of the remote socket
+     * @param timeout time in milliseconds without heartbeats before the remote socket is considered down
+     * @param listener listener for the changes of state of the remote socket
+     */
+    public LLZHeartbeatTracker(final long socketId, final long timeout, final ILLZPeerStateListener listener)
+    {
+        this.socketId = socketId;
+        this.timeout = timeout;
+        this.listener = listener;
+    }
+
+    /**
+     * Called when a heartbeat is received from the remote socket
+     */
+    public void onHeartbeatReceived()
+    {
+        this.lastHeartbeatTime = System.currentTimeMillis();
+    }
+
+    /**
+     * Check the received heartbeats and notify the listener if the state of the remote socket has changed.
+     * It is always called from the heartbeat thread.
+     *
+     * @param now current time in milliseconds
+     */
+    public void check(final long now)
+    {
+        final long lastHeartbeat = this.lastHeartbeatTime;
+
+        if (lastHeartbeat == 0)
+        {
+            return;
+        }
+
+        final boolean missedHeartbeats = now - lastHeartbeat > this.timeout;
+
+        if (missedHeartbeats && !this.down)
+        {
+            LOGGER.warn("No heartbeats received from socket [{}] in [{}] milliseconds, marking it as down", this.socketId, now - lastHeartbeat);
+            this.down = true;
+            this.listener.onPeerDown(this.socketId);
+        }
+        else if (!missedHeartbeats && this.down)
+        {
+            LOGGER.info("Heartbeats received again from socket [{}], marking it as up", this.socketId);
+            this.down = false;
+            this.listener.onPeerUp(this.socketId);
+        }
+    }
+
+    /** @return true if the remote socket is down */
+    public boolean isDown()
+    {
+        return this.down;
+    }
+}
@@ -1,24 +1,46 @@
 package com.bbva.kyof.vega.protocol;
 
+import java.util.HashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.zeromq.ZMQ;
 
 import com.bbva.kyof.vega.autodiscovery.client.ILLZAutodisc;
+import com.bbva.kyof.vega.autodiscovery.client.beacon.LLZBeaconManager;
+import com.bbva.kyof.vega.autodiscovery.client.coalescing.LLZCoalescingAutodisc;
 import com.bbva.kyof.vega.autodiscovery.client.hazelcast.LLZHazelcastManager;
+import com.bbva.kyof.vega.autodiscovery.client.local.LLZInProcessManager;
+import com.bbva.kyof.vega.autodiscovery.client.snapshot.LLZEndPointSnapshotFile;
+import com.bbva.kyof.vega.autodiscovery.client.snapshot.LLZSnapshotAutodisc;
+import com.bbva.kyof.vega.config.general.AutoDiscoveryConfig;
 import com.bbva.kyof.vega.config.LLZInstanceConfigWrapper;
+import com.bbva.kyof.vega.config.general.ZmqContextConfig;
 import com.bbva.kyof.vega.exception.LLZException;
 import com.bbva.kyof.vega.sockets.LLZAsyncSentRequestManager;
+import com.bbva.kyof.vega.util.threads.ILLZThreadFactory;
 
 /**
  * Stores the manager instance context with common information that is going to go through
  */
 public class LLZInstanceContext
 {
+    /** Logger of the class */
+    private static final Logger LOGGER = LoggerFactory.getLogger(LLZInstanceContext.class);
+
     /** The parameters used to initialize the manager */
     private final LLZManagerParams parameters;
 
     /** The manager to handle timeouts on asynchronous requests */
     private LLZAsyncSentRequestManager requestManager;
     
+    /** Executor to create and connect the sockets of the discovered end points */
+    private LLZConnectionExecutor connectionExecutor;
+
+    /** Manager of the data-path heartbeats, null if the heartbeats are disabled */
+    private LLZHeartbeatManager heartbeatManager = null;
+
     /** Instance unique identifier */
     private long instanceUniqueId;
 
@@ -28,6 +50,9 @@ public class LLZInstanceContext
     /** The ZMQ context */
     private ZMQ.Context zmqContext = null;
 
+    /** The dedicated ZMQ contexts of the instance by name */
+    private final Map<String, ZMQ.Context> namedZmqContexts = new HashMap<>();
+
     /** Autodiscovery manager*/
     private ILLZAutodisc autodiscoveryManager = null;
 
@@ -45,7 +70,7 @@ public class LLZInstanceContext
     /** Start the internal request manager */
     public void startRequestManager()
     {
-        this.requestManager  = new LLZAsyncSentRequestManager();
+        this.requestManager  = new LLZAsyncSentRequestManager(this.parameters.getThreadFactory());
     }
 
     /** Stop the internal request manager */
@@ -54,11 +79,184 @@ public class LLZInstanceContext
         this.requestManager.stopAndWaitToFinish();
     }
 
+    /** Start the executor that creates and connects the sockets of the discovered end points */
+    public void startConnectionExecutor()
+    {
+        this.connectionExecutor = new LLZConnectionExecutor(this.parameters.getNumberOfConnectionThreads(), this.parameters.getThreadFactory());
+    }
+
+    /** Stop the connection executor, waiting for the running connection tasks
+     *  @throws LLZException */
+    public void stopConnectionExecutor() throws LLZException
+    {
+        this.connectionExecutor.stop();
+    }
+
+    /** Start the data-path heartbeats if enabled in the parameters */
+    public void startHeartbeats()
+    {
+        if (this.parameters.getHeartbeatInterval() > 0)
+        {
+            this.heartbeatManager = new LLZHeartbeatManager(
+                    this.parameters.getHeartbeatInterval(),
+                    this.parameters.getMissedHeartbeatsLimit(),
+                    this.parameters.getThreadFactory());
+        }
+    }
+
+    /** Stop the data-path heartbeats
+     *  @throws LLZException */
+    public void stopHeartbeats() throws LLZException
+    {
+        if (this.heartbeatManager != null)
+        {
+            this.heartbeatManager.stop();
+        }
+    }
+
+    /** Register a peer in the data-path heartbeats, nothing is done if they are disabled
+     *  @param peer the peer to register */
+    public void addHeartbeatPeer(final ILLZHeartbeatPeer peer)
+    {
+        if (this.heartbeatManager != null)
+        {
+            this.heartbeatManager.addPeer(peer);
+        }
+    }
+
+    /** Unregister a peer from the data-path heartbeats
+     *  @param peer the peer to unregister */
+    public void removeHeartbeatPeer(final ILLZHeartbeatPeer peer)
+    {
+        if (this.heartbeatManager != null)
+        {
+            this.heartbeatManager.removePeer(peer);
+        }
+    }
+
+    /**
+     * Create a tracker for the heartbeats of a remote socket
+     *
+     * @param socketId the unique id of the remote socket
+     * @param listener listener for the changes of state of the remote socket
+     * @return the tracker, null if the heartbeats are disabled
+     */
+    public LLZHeartbeatTracker createHeartbeatTracker(final long socketId, final ILLZPeerStateListener listener)
+    {
+        if (this.heartbeatManager == null)
+        {
+            return null;
+        }
+
+        return new LLZHeartbeatTracker(socketId, this.heartbeatManager.getPeerTimeout(), listener);
+    }
+
+    /**
+     * Create the ZMQ context of the instance, or take the shared one if the instance uses a shared runtime.
+     *
+     * The dedicated contexts of the configuration are always created for the instance, they are not shared.
+     */
+    public void startZmqContext()
+    {
+        final LLZSharedRuntime sharedRuntime = this.parameters.getSharedRuntime();
+
+        if (sharedRuntime == null)
+        {
+            this.zmqContext = ZMQ.context(this.parameters.getNumberOfThreads());
+        }
+        else
+        {
+            this.zmqContext = sharedRuntime.acquireZmqContext();
+        }
+
+        if (this.instanceConfig != null)
+        {
+            for (final ZmqContextConfig contextConfig : this.instanceConfig.getZmqContext())
+            {
+                LOGGER.info("Creating the dedicated ZMQ context [{}] with [{}] I/O threads", contextConfig.getName(), contextConfig.getIoThreads());
+                this.namedZmqContexts.put(contextConfig.getName(), ZMQ.context(contextConfig.getIoThreads()));
+            }
+        }
+    }
+
+    /** Close the ZMQ contexts of the instance, the shared one is only closed when released by all the instances */
+    public void stopZmqContext()
+    {
+        for (final ZMQ.Context namedContext : this.namedZmqContexts.values())
+        {
+            namedContext.close();
+        }
+        this.namedZmqContexts.clear();
+
+        final LLZSharedRuntime sharedRuntime = this.parameters.getSharedRuntime();
+
+        if (sharedRuntime == null)
+        {
+            this.zmqContext.close();
+        }
+        else
+        {
+            sharedRuntime.releaseZmqContext();
+        }
+    }
+
+    /**
+     * Create the auto-discovery implementation of the configured type
+     *
+     * @param instanceConfig the configuration of the instance
+     * @param threadFactory factory for the threads of the auto-discovery
+     * @return the created auto-discovery
+     * @throws LLZException exception thrown if the auto-discovery cannot be created
+     */
+    static ILLZAutodisc createAutodiscovery(final LLZInstanceConfigWrapper instanceConfig, final ILLZThreadFactory threadFactory) throws LLZException
+    {
+        switch (instanceConfig.getAutodiscoConfig().getAutodiscType())
+        {
+            case BEACON:
+                return new LLZBeaconManager(instanceConfig, threadFactory);
+            case IN_PROCESS:
+                return new LLZInProcessManager(instanceConfig, threadFactory);
+            case HAZELCAST:
+            default:
+                return new LLZHazelcastManager(instanceConfig, threadFactory);
+        }
+    }
+
     /** Start the autodiscoveryManager instance 
      * @throws LLZException */
     public void startAutodiscovery() throws LLZException
     {
-        this.autodiscoveryManager = new LLZHazelcastManager(this.instanceConfig);
+        // Use a client of the shared auto-discovery if the instance uses a shared runtime
+        final LLZSharedRuntime sharedRuntime = this.parameters.getSharedRuntime();
+        if (sharedRuntime == null)
+        {
+            this.autodiscoveryManager = createAutodiscovery(this.instanceConfig, this.parameters.getThreadFactory());
+        }
+        else
+        {
+            this.autodiscoveryManager = sharedRuntime.acquireAutodisc(this.instanceConfig, this.parameters.getThreadFactory());
+        }
+
+        // Keep a snapshot of the known end points for warm restarts if configured
+        final AutoDiscoveryConfig autodiscoConfig = this.instanceConfig.getAutodiscoConfig();
+        if (autodiscoConfig.getSnapshotFile() != null)
+        {
+            this.autodiscoveryManager = new LLZSnapshotAutodisc(
+                    this.autodiscoveryManager,
+                    new LLZEndPointSnapshotFile(autodiscoConfig.getSnapshotFile(), autodiscoConfig.getSnapshotSlots()),
+                    autodiscoConfig.getSnapshotReconcileTime(),
+                    this.parameters.getThreadFactory());
+        }
+
+        // Merge the end point changes of each topic before they reach the sockets if configured
+        if (autodiscoConfig.getCoalescingWindow() > 0)
+        {
+            this.autodiscoveryManager = new LLZCoalescingAutodisc(
+                    this.autodiscoveryManager,
+                    autodiscoConfig.getCoalescingWindow(),
+                    this.parameters.getThreadFactory());
+        }
+
         this.instanceUniqueId = this.autodiscoveryManager.createUniqueId();
 
     }
@@ -89,6 +287,24 @@ public class LLZInstanceContext
         return this.zmqContext;
     }
     
+    /**
+     * Get the ZMQ context for the sockets of a schema
+     *
+     * @param contextName name of the dedicated context configured in the schema, null for the default one
+     * @return the dedicated context, or the default one if the name is null or the context doesn't exist
+     */
+    public ZMQ.Context getZmqContext(final String contextName)
+    {
+        if (contextName == null)
+        {
+            return this.zmqContext;
+        }
+
+        final ZMQ.Context namedContext = this.namedZmqContexts.get(contextName);
+
+        return namedContext == null ? this.zmqContext : namedContext;
+    }
+
     /** Set the ZMQ context */
     public void setZmqContext(final ZMQ.Context zmqContext)
     {
@@ -107,6 +323,12 @@ public class LLZInstanceContext
         return this.parameters;
     }
 
+    /** @return the executor that creates and connects the sockets of the discovered end points */
+    public LLZConnectionExecutor getConnectionExecutor()
+    {
+        return this.connectionExecutor;
+    }
+
     /** @return the Asynchronous request manager */
     public LLZAsyncSentRequestManager getRequestManager()
     {
@@ -120,6 +342,15 @@ public class LLZInstanceContext
         return this.autodiscoveryManager.createUniqueId();
     }
 
+    /**
+     * @param count number of ids to create
+     * @return a block of unique ids across all the nodes in the "cluster"
+     * @throws LLZException */
+    public long[] createUniqueIds(final int count) throws LLZException
+    {
+        return this.autodiscoveryManager.createUniqueIds(count);
+    }
+
     /** @return the autodiscovery instance */
     public ILLZAutodisc getAutodiscovery()
     {
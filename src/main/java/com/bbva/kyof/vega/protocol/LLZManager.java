@@ -1,5 +1,7 @@
 package com.bbva.kyof.vega.protocol;
 
+import java.util.Collection;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import com.bbva.kyof.vega.Version;
@@ -7,15 +9,19 @@ import com.bbva.kyof.vega.topic.ILLZTopicReqListener;
 import com.bbva.kyof.vega.topic.ILLZTopicResponder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.zeromq.ZMQ;
 import org.zeromq.ZMQException;
 
+import com.bbva.kyof.vega.config.LLZConfigReloadResult;
+import com.bbva.kyof.vega.config.LLZInstanceConfigReloader;
+import com.bbva.kyof.vega.config.LLZInstanceConfigWrapper;
 import com.bbva.kyof.vega.config.LLZInstanceLocalConfigReader;
 import com.bbva.kyof.vega.exception.LLZException;
+import com.bbva.kyof.vega.topic.ILLZConflationKeyExtractor;
 import com.bbva.kyof.vega.topic.ILLZTopicPublisher;
 import com.bbva.kyof.vega.topic.ILLZTopicRequester;
 import com.bbva.kyof.vega.topic.ILLZTopicSubListener;
 import com.bbva.kyof.vega.topic.ILLZTopicSubscriber;
+import com.bbva.kyof.vega.topic.LLZDispatchParams;
 import com.bbva.kyof.vega.util.LibraryPathManager;
 
 /**
@@ -44,6 +50,9 @@ public final class LLZManager implements ILLZManager
     /** The manager to handle all responder logic */
     private final LLZRespondersManager respondersManager ;
 
+    /** Lock to avoid concurrent configuration reloads */
+    private final Object reloadLock = new Object();
+
     /**
      * Construct the manager class, it will also create and initialize the ZMQ context
      * 
@@ -57,11 +66,17 @@ public final class LLZManager implements ILLZManager
         
         try
         {
-            // Create and set the ZMQ context
-            this.instanceContext.setZmqContext(ZMQ.context(parameters.getNumberOfThreads()));
+            // Create the ZMQ context, or take the shared one
+            this.instanceContext.startZmqContext();
             
             // Start the internal request manager
             this.instanceContext.startRequestManager();
+
+            // Start the executor for the connections to the discovered end points
+            this.instanceContext.startConnectionExecutor();
+
+            // Start the data-path heartbeats if enabled
+            this.instanceContext.startHeartbeats();
             
             // Start the autodiscovery
             this.instanceContext.startAutodiscovery();
@@ -141,6 +156,13 @@ public final class LLZManager implements ILLZManager
      */
     private static void validateAndLoadConfiguration(final LLZManagerParams parameters, final LLZInstanceContext instanceContext) throws LLZException
     {
+        // Use the configuration created programmatically, it has been already validated
+        if (parameters.getInstanceConfig() != null)
+        {
+            instanceContext.setInstanceConfiguration(parameters.getInstanceConfig());
+            return;
+        }
+
         // Load and validate the global instance configuration
         final LLZInstanceLocalConfigReader instanceConfigReader = new LLZInstanceLocalConfigReader(parameters.getInstanceName(), parameters.getConfigurationFile());
         instanceConfigReader.loadAndValidateConfig();
@@ -157,6 +179,14 @@ public final class LLZManager implements ILLZManager
         return this.publishersManager.createTopicPublisher(topic);
     }
 
+    @Override
+    public Map<String, ILLZTopicPublisher> createPublishers(final Collection<String> topics) throws LLZException
+    {
+        LOGGER.info("Creating publishers for topics {}", topics);
+
+        return this.publishersManager.createTopicPublishers(topics);
+    }
+
     @Override
     public void destroyPublisher(final String topic) throws LLZException
     {
@@ -173,6 +203,14 @@ public final class LLZManager implements ILLZManager
         return this.respondersManager.createTopicResponder(topic, requestListener);
     }
 
+    @Override
+    public Map<String, ILLZTopicResponder> createResponders(final Collection<String> topics, final ILLZTopicReqListener requestListener) throws LLZException
+    {
+        LOGGER.info("Creating responders for topics {}", topics);
+
+        return this.respondersManager.createTopicResponders(topics, requestListener);
+    }
+
     @Override
     public void destroyResponder(final String topic) throws LLZException
     {
@@ -189,6 +227,14 @@ public final class LLZManager implements ILLZManager
         return this.requestersManager.createTopicRequester(topic);
     }
 
+    @Override
+    public Map<String, ILLZTopicRequester> createRequesters(final Collection<String> topics) throws LLZException
+    {
+        LOGGER.info("Creating requesters for topics {}", topics);
+
+        return this.requestersManager.createTopicRequesters(topics);
+    }
+
     @Override
     public void destroyRequester(String topic) throws LLZException
     {
@@ -205,6 +251,50 @@ public final class LLZManager implements ILLZManager
         return this.subscribersManager.subscribeToTopic(topicName, listener);
     }
 
+    @Override
+    public Map<String, ILLZTopicSubscriber> subscribeToTopics(final Collection<String> topicNames, final ILLZTopicSubListener listener) throws LLZException
+    {
+        LOGGER.info("Subscribing to topics {}", topicNames);
+
+        return this.subscribersManager.subscribeToTopics(topicNames, listener);
+    }
+
+    @Override
+    public ILLZTopicSubscriber subscribeToTopic(final String topicName,
+                                                final ILLZTopicSubListener listener,
+                                                final ILLZConflationKeyExtractor keyExtractor) throws LLZException
+    {
+        LOGGER.info("Subscribing to topic [{}] with conflation", topicName);
+
+        return this.subscribersManager.subscribeToTopicConflated(topicName, listener, keyExtractor);
+    }
+
+    @Override
+    public ILLZTopicSubscriber subscribeToTopic(final String topicName,
+                                                final ILLZTopicSubListener listener,
+                                                final LLZDispatchParams dispatchParams) throws LLZException
+    {
+        LOGGER.info("Subscribing to topic [{}] with dispatch parameters [{}]", topicName, dispatchParams);
+
+        return this.subscribersManager.subscribeToTopicDispatched(topicName, listener, dispatchParams);
+    }
+
+    @Override
+    public void subscribeToPattern(final String topicPattern, final ILLZTopicSubListener listener) throws LLZException
+    {
+        LOGGER.info("Subscribing to topic pattern [{}]", topicPattern);
+
+        this.subscribersManager.subscribeToPattern(topicPattern, listener);
+    }
+
+    @Override
+    public void unsubscribeFromPattern(final String topicPattern) throws LLZException
+    {
+        LOGGER.info("Unsubscribing from topic pattern [{}]", topicPattern);
+
+        this.subscribersManager.unsubscribeFromPattern(topicPattern);
+    }
+
     @Override
     public void unsubscribeFromTopic(final String topicName) throws LLZException
     {
@@ -213,6 +303,49 @@ public final class LLZManager implements ILLZManager
         this.subscribersManager.unsubscribeFromTopic(topicName);
     }
 
+    @Override
+    public LLZConfigReloadResult reloadConfiguration() throws LLZException
+    {
+        final LLZManagerParams parameters = this.instanceContext.getParameters();
+
+        LOGGER.info("Reloading the configuration file [{}]", parameters.getConfigurationFile());
+
+        synchronized (this.reloadLock)
+        {
+            if (this.shouldStop.get())
+            {
+                LOGGER.error("Trying to reload the configuration of a stopped manager");
+                throw new LLZException("The manager is stopped");
+            }
+
+            if (parameters.getConfigurationFile() == null)
+            {
+                LOGGER.error("Trying to reload the configuration of a manager created without configuration file");
+                throw new LLZException("The manager has no configuration file to reload");
+            }
+
+            // Load and validate the configuration again, nothing is applied if it is not valid
+            final LLZInstanceLocalConfigReader instanceConfigReader = new LLZInstanceLocalConfigReader(parameters.getInstanceName(), parameters.getConfigurationFile());
+            instanceConfigReader.loadAndValidateConfig();
+
+            // Update the socket schemas and the existing sockets, each type under the lock of its manager
+            final LLZInstanceConfigWrapper reloadedConfig = instanceConfigReader.getLoadedConfig();
+            final LLZConfigReloadResult result = new LLZConfigReloadResult();
+
+            this.publishersManager.applyLiveChanges(reloadedConfig, result);
+            this.subscribersManager.applyLiveChanges(reloadedConfig, result);
+            this.respondersManager.applyLiveChanges(reloadedConfig, result);
+            LLZInstanceConfigReloader.compareOtherChanges(this.instanceContext.getInstanceConfig(), reloadedConfig, result);
+
+            if (result.isRestartRequired())
+            {
+                LOGGER.warn("Configuration changes that need a restart found and not applied {}", result.getRestartRequiredChanges());
+            }
+
+            return result;
+        }
+    }
+
     @Override
     public void stop() throws LLZException
     {
@@ -227,17 +360,24 @@ public final class LLZManager implements ILLZManager
         // Close the request manager in the context
         this.instanceContext.stopRequestManager();
 
+        // Stop the heartbeats before closing the sockets they use
+        this.instanceContext.stopHeartbeats();
+
         // Close the managers
         this.publishersManager.stop();
         this.subscribersManager.stop();
         this.requestersManager.stop();
         this.respondersManager.stop();
 
+        // Wait for the running connection tasks, the sockets they create are closed before closing the ZMQ context
+        this.instanceContext.stopConnectionExecutor();
+
         // Stop the auto discovery mechanism
         this.instanceContext.stopAutodiscovery();
 
-        // Finally close the context, it will automatically term any subscription internal thread or socket
-        this.instanceContext.getZmqContext().close();
+        // Finally close the context, it will automatically term any subscription internal thread or socket. A shared
+        // context is only closed by the last instance using it
+        this.instanceContext.stopZmqContext();
 
         LOGGER.info("Managers stopped successfully");
     }
@@ -1,5 +1,9 @@
 package com.bbva.kyof.vega.protocol;
 
+import com.bbva.kyof.vega.autodiscovery.client.ILLZAutodiscTopicEndPointChangeListener;
+import com.bbva.kyof.vega.config.LLZInstanceConfigWrapper;
+import com.bbva.kyof.vega.util.threads.ILLZThreadFactory;
+import com.bbva.kyof.vega.util.threads.LLZThreadFactory;
 
 /**
  * Parameters for the ZeroMQ framework instance initialization
@@ -11,6 +15,9 @@ public final class LLZManagerParams
     
     /** path + name of the configuration xml file */
     private final String configurationFile;
+
+    /** Configuration created programmatically, null if loaded from the configuration file */
+    private final LLZInstanceConfigWrapper instanceConfig;
     
     /** (Optional) path with the ZMQ native libraries, it can contain several directories separated by ':' or ';' */
     private final String zmqLibraryPath;
@@ -18,6 +25,27 @@ public final class LLZManagerParams
     /** (Optional) number of thread that the 0MQ library will use to perform all the I/O operations */
     private final int numberOfThreads;
 
+    /** (Optional) number of threads used to create and connect the sockets of the discovered end points */
+    private final int numberOfConnectionThreads;
+
+    /** (Optional) interval between data-path heartbeats in milliseconds, 0 if disabled */
+    private final long heartbeatInterval;
+
+    /** (Optional) number of heartbeats a remote socket can miss before being considered down */
+    private final int missedHeartbeatsLimit;
+
+    /** (Optional) listener for the end points marked as down or up by the data-path heartbeats */
+    private final ILLZAutodiscTopicEndPointChangeListener peerStateListener;
+
+    /** (Optional) time in milliseconds a socket left without end points stays open before being closed, 0 to close it right away */
+    private final long endPointSocketLinger;
+
+    /** (Optional) runtime shared with other instances of the JVM, null if the instance has its own */
+    private final LLZSharedRuntime sharedRuntime;
+
+    /** (Optional) factory for the socket, request timeout and auto-discovery keepalive threads */
+    private final ILLZThreadFactory threadFactory;
+
     /**
      * Configuration builder, it follows the builder pattern to create unmodificable instances of the configuration
      */
@@ -29,12 +57,36 @@ public final class LLZManagerParams
         /** Configuration file containing the ZeroMQ framework configuration */
         private final String configurationFile;
 
+        /** Configuration created programmatically, null if loaded from the configuration file */
+        private final LLZInstanceConfigWrapper instanceConfig;
+
         /** (Optional) path with the ZMQ native libraries, , it can contain several directories separated by ':' or ';' */
         private String zmqLibraryPath = null;
         
         /** (Optional) number of thread that the 0MQ library will use to perfroms all the I/O operations */
         private int numberOfThreads = 1;
 
+        /** (Optional) number of threads used to create and connect the sockets of the discovered end points */
+        private int numberOfConnectionThreads = 4;
+
+        /** (Optional) interval between data-path heartbeats in milliseconds, 0 if disabled */
+        private long heartbeatInterval = 0;
+
+        /** (Optional) number of heartbeats a remote socket can miss before being considered down */
+        private int missedHeartbeatsLimit = 3;
+
+        /** (Optional) listener for the end points marked as down or up by the data-path heartbeats */
+        private ILLZAutodiscTopicEndPointChangeListener peerStateListener = null;
+
+        /** (Optional) time in milliseconds a socket left without end points stays open before being closed, 0 to close it right away */
+        private long endPointSocketLinger = 0;
+
+        /** (Optional) runtime shared with other instances of the JVM, null if the instance has its own */
+        private LLZSharedRuntime sharedRuntime = null;
+
+        /** (Optional) factory for the socket, request timeout and auto-discovery keepalive threads, null for the default one */
+        private ILLZThreadFactory threadFactory = null;
+
         /**
          * This function initializes the basic values which will be used by the framework to perform all the operations
          * 
@@ -45,6 +97,21 @@ public final class LLZManagerParams
         {
             this.instanceName = instanceName;
             this.configurationFile  = configurationFile;
+            this.instanceConfig = null;
+        }
+
+        /**
+         * This function initializes the basic values which will be used by the framework to perform all the operations
+         * Uses a configuration created programmatically instead of a configuration file, it avoids loading and
+         * validating the XML file on startup. The configuration cannot be reloaded.
+         *
+         * @param instanceConfig the validated configuration, see {@link com.bbva.kyof.vega.config.LLZInstanceConfigBuilder}
+         */
+        public Builder(final LLZInstanceConfigWrapper instanceConfig)
+        {
+            this.instanceName = instanceConfig.getName();
+            this.configurationFile = null;
+            this.instanceConfig = instanceConfig;
         }
 
         /**
@@ -55,6 +122,7 @@ public final class LLZManagerParams
         {
             this.configurationFile  = "xml/emptyConfiguration.xml";
             this.instanceName = "";
+            this.instanceConfig = null;
         }
 
         /**
@@ -91,6 +159,107 @@ public final class LLZManagerParams
             return this;
         }
 
+        /**
+         * Set the number of threads used to create and connect the sockets of the end points found by auto-discovery.
+         *
+         * The sockets of different end points are connected in parallel, the events of the same end point socket are
+         * always processed in order.
+         *
+         * @param numberOfConnectionThreads Number of threads to set.
+         * @return An instance of {@link LLZManagerParams.Builder}
+         */
+        public Builder numberOfConnectionThreads(final int numberOfConnectionThreads)
+        {
+            this.numberOfConnectionThreads = numberOfConnectionThreads;
+            return this;
+        }
+
+        /**
+         * Enable the data-path heartbeats. Publishers send a heartbeat to their subscribers and requesters exchange a
+         * heartbeat with their responders every interval, a remote socket that misses the configured number of
+         * heartbeats is marked as down without waiting for auto-discovery. Requests are not sent to responders that
+         * are down.
+         *
+         * @param heartbeatInterval interval between heartbeats in milliseconds, 0 to disable them
+         * @return An instance of {@link LLZManagerParams.Builder}
+         */
+        public Builder heartbeatInterval(final long heartbeatInterval)
+        {
+            this.heartbeatInterval = heartbeatInterval;
+            return this;
+        }
+
+        /**
+         * Set the number of heartbeats a remote socket can miss before being considered down
+         *
+         * @param missedHeartbeatsLimit Number of heartbeats to set.
+         * @return An instance of {@link LLZManagerParams.Builder}
+         */
+        public Builder missedHeartbeatsLimit(final int missedHeartbeatsLimit)
+        {
+            this.missedHeartbeatsLimit = missedHeartbeatsLimit;
+            return this;
+        }
+
+        /**
+         * Set the listener that will be notified of the end points of remote sockets marked as down by the heartbeats,
+         * as removed, and of the end points of the remote sockets that send heartbeats again, as added.
+         *
+         * @param peerStateListener the listener
+         * @return An instance of {@link LLZManagerParams.Builder}
+         */
+        public Builder peerStateListener(final ILLZAutodiscTopicEndPointChangeListener peerStateListener)
+        {
+            this.peerStateListener = peerStateListener;
+            return this;
+        }
+
+        /**
+         * Set the time a subscriber or requester socket left without end points stays open before being closed.
+         *
+         * If an end point of the same remote socket is discovered again meanwhile the open socket is reused instead of
+         * creating and connecting a new one.
+         *
+         * @param endPointSocketLinger time in milliseconds, 0 to close the sockets right away
+         * @return An instance of {@link LLZManagerParams.Builder}
+         */
+        public Builder endPointSocketLinger(final long endPointSocketLinger)
+        {
+            this.endPointSocketLinger = endPointSocketLinger;
+            return this;
+        }
+
+        /**
+         * Set a runtime shared with other instances of the JVM. The instances using the same runtime share the ZMQ
+         * context and the auto-discovery client instead of creating their own, the number of threads of the
+         * instance is ignored.
+         *
+         * @param sharedRuntime the shared runtime
+         * @return An instance of {@link LLZManagerParams.Builder}
+         */
+        public Builder sharedRuntime(final LLZSharedRuntime sharedRuntime)
+        {
+            this.sharedRuntime = sharedRuntime;
+            return this;
+        }
+
+        /**
+         * Set the factory for all the threads of the instance, see {@link com.bbva.kyof.vega.util.threads.LLZThreadRole}.
+         * It can be used to pin the receive threads to dedicated cores or to change their priority, daemon status and
+         * name.
+         *
+         * By default the threads are created as plain threads. If the instance uses a shared runtime the factory of
+         * the first instance that starts creates the threads of the shared auto-discovery.
+         *
+         * @param threadFactory the thread factory, for example a configured {@link LLZThreadFactory}
+         * @return An instance of {@link LLZManagerParams.Builder}
+         */
+        public Builder threadFactory(final ILLZThreadFactory threadFactory)
+        {
+            this.threadFactory = threadFactory;
+            return this;
+        }
+
     }    
    
     /**
@@ -103,8 +272,16 @@ public final class LLZManagerParams
         // Required parameters
         this.configurationFile  = builder.configurationFile;
         this.instanceName       = builder.instanceName;   
+        this.instanceConfig     = builder.instanceConfig;
         this.zmqLibraryPath     = builder.zmqLibraryPath;
         this.numberOfThreads    = builder.numberOfThreads;
+        this.numberOfConnectionThreads = builder.numberOfConnectionThreads;
+        this.heartbeatInterval = builder.heartbeatInterval;
+        this.missedHeartbeatsLimit = builder.missedHeartbeatsLimit;
+        this.peerStateListener = builder.peerStateListener;
+        this.endPointSocketLinger = builder.endPointSocketLinger;
+        this.sharedRuntime = builder.sharedRuntime;
+        this.threadFactory = builder.threadFactory == null ? new LLZThreadFactory.Builder().build() : builder.threadFactory;
     }
 
     /**
@@ -127,6 +304,16 @@ public final class LLZManagerParams
         return this.configurationFile;
     }
 
+    /**
+     * Returns the configuration created programmatically
+     *
+     * @return the configuration, null if it is loaded from the configuration file
+     */
+    public LLZInstanceConfigWrapper getInstanceConfig()
+    {
+        return this.instanceConfig;
+    }
+
     /**
      * Return the library path containing the ZMQ native libraries if it has been settled programatically
      * 
@@ -147,6 +334,76 @@ public final class LLZManagerParams
         return this.numberOfThreads;
     }
 
+    /**
+     * Returns the number of threads used to create and connect the sockets of the discovered end points
+     *
+     * @return Number of connection threads.
+     */
+    public int getNumberOfConnectionThreads()
+    {
+        return this.numberOfConnectionThreads;
+    }
+
+    /**
+     * Returns the interval between data-path heartbeats
+     *
+     * @return the interval in milliseconds, 0 if the heartbeats are disabled
+     */
+    public long getHeartbeatInterval()
+    {
+        return this.heartbeatInterval;
+    }
+
+    /**
+     * Returns the number of heartbeats a remote socket can miss before being considered down
+     *
+     * @return Number of heartbeats.
+     */
+    public int getMissedHeartbeatsLimit()
+    {
+        return this.missedHeartbeatsLimit;
+    }
+
+    /**
+     * Returns the listener for the end points marked as down or up by the data-path heartbeats
+     *
+     * @return the listener, null if not settled
+     */
+    public ILLZAutodiscTopicEndPointChangeListener getPeerStateListener()
+    {
+        return this.peerStateListener;
+    }
+
+    /**
+     * Returns the time a socket left without end points stays open before being closed
+     *
+     * @return the time in milliseconds, 0 if the sockets are closed right away
+     */
+    public long getEndPointSocketLinger()
+    {
+        return this.endPointSocketLinger;
+    }
+
+    /**
+     * Returns the runtime shared with other instances of the JVM
+     *
+     * @return the shared runtime, null if the instance has its own
+     */
+    public LLZSharedRuntime getSharedRuntime()
+    {
+        return this.sharedRuntime;
+    }
+
+    /**
+     * Returns the factory for the socket, request timeout and auto-discovery keepalive threads
+     *
+     * @return the thread factory
+     */
+    public ILLZThreadFactory getThreadFactory()
+    {
+        return this.threadFactory;
+    }
+
     
     @Override
     public String toString()
@@ -156,6 +413,12 @@ public final class LLZManagerParams
                 ", instanceName=" + this.instanceName +
                 ", zmqLibraryPath='" + this.zmqLibraryPath + '\'' +
                 ", numberOfThreads=" + this.numberOfThreads +
+                ", numberOfConnectionThreads=" + this.numberOfConnectionThreads +
+                ", heartbeatInterval=" + this.heartbeatInterval +
+                ", missedHeartbeatsLimit=" + this.missedHeartbeatsLimit +
+                ", endPointSocketLinger=" + this.endPointSocketLinger +
+                ", sharedRuntime=" + this.sharedRuntime +
+                ", threadFactory=" + this.threadFactory +
                 '}';
     }
 }
@@ -9,6 +9,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.bbva.kyof.vega.config.general.PubSocketSchema;
+import com.bbva.kyof.vega.config.general.SocketOptions;
 import com.bbva.kyof.vega.exception.LLZException;
 import com.bbva.kyof.vega.msg.LLZMsgHeader;
 import com.bbva.kyof.vega.msg.LLZMsgType;
@@ -19,7 +20,7 @@ import com.bbva.kyof.vega.topic.ILLZTopicMsgPublisher;
 /**
  * This class handlers a publisher transport with support to publish messages
  */
-public class LLZPublisher implements ILLZTopicMsgPublisher
+public class LLZPublisher implements ILLZTopicMsgPublisher, ILLZHeartbeatPeer
 {
     /** Logger of the class */
     private static final Logger LOGGER = LoggerFactory.getLogger(LLZPublisher.class);
@@ -45,6 +46,9 @@ public class LLZPublisher implements ILLZTopicMsgPublisher
     /** True if the socket has been stopped */
     private boolean stopped = false;
 
+    /** Load of the socket, only the data messages are recorded */
+    private final LLZSocketLoad load = new LLZSocketLoad(System.currentTimeMillis());
+
     
     /**
      * Constructor
@@ -71,17 +75,21 @@ public class LLZPublisher implements ILLZTopicMsgPublisher
         
         
         // Create the publisher, it will connect to a random port in the given range
-        this.publisherSocket = new LLZPubSocket(this.instanceContext.getZmqContext(),
+        this.publisherSocket = new LLZPubSocket(this.instanceContext.getZmqContext(this.publisherConfigSchema.getZmqContext()),
                                                 this.publisherConfigSchema.getName(),
                                                 publisherAddress,
                                                 this.publisherConfigSchema.getPubRateLimit(),
                                                 this.publisherConfigSchema.getMinPort(),
-                                                this.publisherConfigSchema.getMaxPort());
+                                                this.publisherConfigSchema.getMaxPort(),
+                                                this.publisherConfigSchema.getSocketOptions());
         
         this.publisherFullAddress = publisherAddress + this.publisherSocket.getCurrentPort();
         
         // Create the unique ID for the publisher
         this.publisherUniqueId = this.instanceContext.createUniqueId();
+
+        // Send heartbeats to the subscribers if enabled
+        this.instanceContext.addHeartbeatPeer(this);
     }
 
 
@@ -94,6 +102,8 @@ public class LLZPublisher implements ILLZTopicMsgPublisher
     {
         LOGGER.info("Stopping publisher manager");
 
+        this.instanceContext.removeHeartbeatPeer(this);
+
         synchronized (this.lock)
         {
             if (this.stopped)
@@ -108,8 +118,24 @@ public class LLZPublisher implements ILLZTopicMsgPublisher
         }
     }
 
+    /**
+     * Apply the current pub_rate_limit of the socket schema to the socket, unless the schema sets an explicit send_hwm
+     * in its socket options that takes precedence
+     */
+    public void applyRateLimit()
+    {
+        final SocketOptions socketOptions = this.publisherConfigSchema.getSocketOptions();
+
+        if (socketOptions != null && socketOptions.getSendHwm() != null)
+        {
+            return;
+        }
+
+        this.publisherSocket.setRateLimit(this.publisherConfigSchema.getPubRateLimit());
+    }
+
     @Override
-    public void sendMessage(final String topic, final long topicPublisherUniqueId, final ByteBuffer message) throws LLZException
+    public void sendMessage(final String topic, final long topicPublisherUniqueId, final long sequenceNumber, final ByteBuffer message) throws LLZException
     {
         synchronized (this.lock)
         {
@@ -131,14 +157,43 @@ public class LLZPublisher implements ILLZTopicMsgPublisher
             final LLZMsgHeader header = new LLZMsgHeader(LLZMsgType.DATA,
                                                          topicPublisherUniqueId,
                                                          this.instanceContext.getInstanceUniqueId(),
-                                                         Version.getFrameworkVersionNumber());
+                                                         Version.getFrameworkVersionNumber(),
+                                                         sequenceNumber);
             
             final ByteBuffer messageToPublish = LLZMsgHeaderSerializer.serializeHeaderAndMsgIntoReusableBuffer(header, message);
+            final int messageSize = messageToPublish.remaining();
             
             this.publisherSocket.send(messageToPublish);
+            this.load.recordMessage(messageSize);
         }
     }
     
+    @Override
+    public void onHeartbeatTick(final long now)
+    {
+        synchronized (this.lock)
+        {
+            if (this.stopped)
+            {
+                return;
+            }
+
+            final LLZMsgHeader header = new LLZMsgHeader(LLZMsgType.HEARTBEAT,
+                                                         this.publisherUniqueId,
+                                                         this.instanceContext.getInstanceUniqueId(),
+                                                         Version.getFrameworkVersionNumber());
+
+            try
+            {
+                this.publisherSocket.send(LLZMsgHeaderSerializer.serializeHeaderAndMsgIntoReusableBuffer(header, ByteBuffer.allocate(0)));
+            }
+            catch (final LLZException e)
+            {
+                LOGGER.error("Error sending heartbeat on publisher [{}]", this.publisherConfigSchema.getName(), e);
+            }
+        }
+    }
+
     /** @return socket publisher address */
     public String getPublisherFullAddress()
     {
@@ -150,4 +205,10 @@ public class LLZPublisher implements ILLZTopicMsgPublisher
     {
         return this.publisherUniqueId;
     }
+
+    /** @return load of the publisher socket */
+    public LLZSocketLoad getLoad()
+    {
+        return this.load;
+    }
 }
@@ -1,6 +1,13 @@
 package com.bbva.kyof.vega.protocol;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 import com.bbva.kyof.vega.autodiscovery.client.LLZAutoDiscTopicEndPoint;
@@ -8,9 +15,13 @@ import com.bbva.kyof.vega.autodiscovery.client.LLZAutodiscEndPointType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.bbva.kyof.vega.config.LLZConfigReloadResult;
+import com.bbva.kyof.vega.config.LLZInstanceConfigReloader;
+import com.bbva.kyof.vega.config.LLZInstanceConfigWrapper;
 import com.bbva.kyof.vega.config.general.PubSocketSchema;
 import com.bbva.kyof.vega.config.general.PubTopicConfig;
 import com.bbva.kyof.vega.exception.LLZException;
+import com.bbva.kyof.vega.topic.ILLZTopicMsgPublisher;
 import com.bbva.kyof.vega.topic.ILLZTopicPublisher;
 import com.bbva.kyof.vega.topic.LLZTopicPublisher;
 
@@ -28,6 +39,12 @@ public final class LLZPublishersManager
  	/** Publishers pools manager */
     private final LLZPublishersPools publishersPools;
 
+    /** Publisher socket of each topic publisher by topic name, to release the topic from the socket load on destroy */
+    private final Map<String, LLZPublisher> publishersByTopicName = new HashMap<>();
+
+    /** Conflating publishers by the publisher they send the messages through, created on the first conflated topic */
+    private final Map<LLZPublisher, LLZConflatingPublisher> conflatingPublishersByPublisher = new HashMap<>();
+
     /** Lock for concurrent access to the class */
     private final Object lock = new Object();
 
@@ -75,25 +92,142 @@ public final class LLZPublishersManager
                 throw new LLZException("Already subscribed to topic " + topic);
             }
 
+            // Unique ID for the topic publisher, reserved before the topic counts in the load of a publisher
+            final long topicUniqueId = this.instanceContext.createUniqueId();
+
             // Create a new Publisher (or get one from the pool)
-            final LLZPublisher publisher = this.getOrCreatePublisherForTopic(topic);
+            final PubTopicConfig pubTopicCfg = this.instanceContext.getInstanceConfig().getPubTopicCfg(topic);
+            final LLZPublisher publisher = this.getOrCreatePublisherForTopic(pubTopicCfg);
 
-            // Unique ID for the topic publisher
-            long topicUniqueId = this.instanceContext.createUniqueId();
+            // Create and store the topic publisher
+            final LLZTopicPublisher topicPublisher = this.createAndStoreTopicPublisher(topic, topicUniqueId, pubTopicCfg, publisher);
 
-            // Create the topic publisher
-            final LLZTopicPublisher topicPublisher = new LLZTopicPublisher(topic, topicUniqueId, publisher);
+            // Finally register the new created topic publisher in auto-discovery, if it fails the topic publisher is removed
+            try
+            {
+                this.registerTopicPublisherInAutodiscovery(publisher, topicPublisher);
+            }
+            catch (final LLZException | RuntimeException e)
+            {
+                this.removeTopicPublisher(topic);
+                throw e;
+            }
 
-            // Store the topic publisher in a map
-            this.topicPublishersByTopicName.put(topic, topicPublisher);
+            return topicPublisher;
+        }
+    }
 
-            // Finally register the new created topic publisher in auto-discovery
-            this.registerTopicPublisherInAutodiscovery(publisher, topicPublisher);
 
-            return topicPublisher;
+    /**
+     * Creates the publishers for a group of topics.
+     *
+     * All the topics are validated before creating anything, the unique ids are reserved in a single block and the end
+     * points are registered in auto-discovery with a single operation.
+     *
+     * @param topics the topics to publish
+     * @return the created topic publishers by topic name, in the same order as the given topics
+     * @throws LLZException if any of the topics is already created, duplicated or not configured
+     */
+    public Map<String, ILLZTopicPublisher> createTopicPublishers(final Collection<String> topics) throws LLZException
+    {
+        synchronized (this.lock)
+        {
+            // If already stopped launch an error
+            if (this.stopped)
+            {
+                LOGGER.error("Trying to create publishers for topics {} on an stopped manager", topics);
+                throw new LLZException("Cannot create publishers on an stopped manager");
+            }
+
+            // Validate all the topics before creating anything
+            final Set<String> batchTopics = new HashSet<>();
+            final List<PubTopicConfig> pubTopicCfgs = new ArrayList<>(topics.size());
+
+            for (final String topic : topics)
+            {
+                if (this.topicPublishersByTopicName.containsKey(topic) || !batchTopics.add(topic))
+                {
+                    LOGGER.error("Already subscribed to topic [{}]", topic);
+                    throw new LLZException("Already subscribed to topic " + topic);
+                }
+
+                pubTopicCfgs.add(this.instanceContext.getInstanceConfig().getPubTopicCfg(topic));
+            }
+
+            // Reserve the unique IDs for all the topic publishers at once
+            final long[] topicUniqueIds = this.instanceContext.createUniqueIds(topics.size());
+
+            final Map<String, ILLZTopicPublisher> result = new LinkedHashMap<>();
+            final List<LLZAutoDiscTopicEndPoint> endPointsInfo = new ArrayList<>(topics.size());
+
+            try
+            {
+                int index = 0;
+                for (final String topic : topics)
+                {
+                    final PubTopicConfig pubTopicCfg = pubTopicCfgs.get(index);
+                    final LLZPublisher publisher = this.getOrCreatePublisherForTopic(pubTopicCfg);
+                    final LLZTopicPublisher topicPublisher = this.createAndStoreTopicPublisher(topic, topicUniqueIds[index], pubTopicCfg, publisher);
+
+                    result.put(topic, topicPublisher);
+                    endPointsInfo.add(this.createAutodiscEndPoint(publisher, topicPublisher));
+                    index++;
+                }
+
+                // Finally register all the new topic publishers in auto-discovery
+                this.instanceContext.getAutodiscovery().registerTopicEndPoints(LLZAutodiscEndPointType.PUBLISHER, endPointsInfo);
+            }
+            catch (final LLZException | RuntimeException e)
+            {
+                // Remove the topic publishers already created so the batch has no effect
+                for (final String createdTopic : result.keySet())
+                {
+                    this.removeTopicPublisher(createdTopic);
+                }
+
+                throw e;
+            }
+
+            LOGGER.trace("[{}] topic publishers registered for auto-discovery", endPointsInfo.size());
+
+            return result;
         }
     }
 
+    /**
+     * Create the topic publisher and store it, conflated topics send through the latest value slots of the publisher
+     *
+     * @param topic the topic to publish
+     * @param topicUniqueId the unique id of the topic publisher
+     * @param pubTopicCfg the configuration of the topic
+     * @param publisher the socket publisher
+     * @return the created topic publisher
+     */
+    private LLZTopicPublisher createAndStoreTopicPublisher(final String topic,
+                                                           final long topicUniqueId,
+                                                           final PubTopicConfig pubTopicCfg,
+                                                           final LLZPublisher publisher)
+    {
+        final ILLZTopicMsgPublisher msgPublisher;
+        if (pubTopicCfg.isConflate())
+        {
+            final LLZConflatingPublisher conflatingPublisher = this.getOrCreateConflatingPublisher(publisher);
+            conflatingPublisher.addTopic(topic, topicUniqueId);
+            msgPublisher = conflatingPublisher;
+        }
+        else
+        {
+            msgPublisher = publisher;
+        }
+
+        final LLZTopicPublisher topicPublisher = new LLZTopicPublisher(topic, topicUniqueId, msgPublisher);
+
+        // Store the topic publisher and its publisher in the maps
+        this.topicPublishersByTopicName.put(topic, topicPublisher);
+        this.publishersByTopicName.put(topic, publisher);
+
+        return topicPublisher;
+    }
 
     /**
      * Destroy the publisher for the given topic
@@ -112,8 +246,8 @@ public final class LLZPublishersManager
                 throw new LLZException("Cannot destroy publishers on an stopped manager");
             }
 
-            // Get and remove the topic publisher
-            final LLZTopicPublisher topicPublisher = this.topicPublishersByTopicName.remove(topic);
+            // Get, remove and stop the topic publisher
+            final LLZTopicPublisher topicPublisher = this.removeTopicPublisher(topic);
 
             // Make sure it is already subscribed
             if (topicPublisher == null)
@@ -121,14 +255,43 @@ public final class LLZPublishersManager
                 LOGGER.error("No publisher found for topic [{}]", topic);
                 throw new LLZException("There is no publisher for topic " + topic);
             }
-            
-            topicPublisher.stop();
 
             // Unregister the topic publisher from auto discovery
             this.unregisterTopicPublisherFromAutoDiscovery(topicPublisher);
         }
     }
 
+    /**
+     * Remove and stop a topic publisher, releasing the topic from the load of its publisher. Call with the lock taken.
+     *
+     * @param topic the topic the publisher belongs to
+     * @return the removed topic publisher, null if there is no publisher for the topic
+     */
+    private LLZTopicPublisher removeTopicPublisher(final String topic)
+    {
+        final LLZTopicPublisher topicPublisher = this.topicPublishersByTopicName.remove(topic);
+
+        if (topicPublisher == null)
+        {
+            return null;
+        }
+
+        topicPublisher.stop();
+
+        // Release the topic from the load of the publisher
+        final LLZPublisher publisher = this.publishersByTopicName.remove(topic);
+        publisher.getLoad().removeTopic();
+
+        // Discard any pending conflated message of the topic, the sender thread is stopped with the last conflated topic
+        final LLZConflatingPublisher conflatingPublisher = this.conflatingPublishersByPublisher.get(publisher);
+        if (conflatingPublisher != null && conflatingPublisher.removeTopic(topicPublisher.getTopicUniqueId()))
+        {
+            this.conflatingPublishersByPublisher.remove(publisher);
+            conflatingPublisher.stop();
+        }
+
+        return topicPublisher;
+    }
 
     /**
      * Add the topic publisher to the auto-discovery mechanism, it will join together the information of both publisher and topic publisher
@@ -139,17 +302,8 @@ public final class LLZPublishersManager
      */
     private void registerTopicPublisherInAutodiscovery(final LLZPublisher publisher, final LLZTopicPublisher topicPublisher) throws LLZException
     {
-        // Get the ID of the application
-        final long appId = this.instanceContext.getInstanceUniqueId();
-
         // Create the object to store in the auto-discovery
-        final LLZAutoDiscTopicEndPoint endPointInfo = new LLZAutoDiscTopicEndPoint(
-                LLZAutodiscEndPointType.PUBLISHER,
-                topicPublisher.getTopicName(),
-                publisher.getPublisherUniqueId(),
-                topicPublisher.getTopicUniqueId(),
-                appId,
-                publisher.getPublisherFullAddress());
+        final LLZAutoDiscTopicEndPoint endPointInfo = this.createAutodiscEndPoint(publisher, topicPublisher);
 
         this.instanceContext.getAutodiscovery().registerTopicEndPoint(endPointInfo.getType(), endPointInfo);
 
@@ -157,6 +311,24 @@ public final class LLZPublishersManager
         LOGGER.trace("Topic publisher register for auto-discovery [{}]", endPointInfo);
     }
 
+    /**
+     * Create the auto-discovery information of a topic publisher, it joins the information of both publisher and topic publisher
+     *
+     * @param publisher the socket publisher
+     * @param topicPublisher the topic publisher
+     * @return the end point information to store in the auto-discovery
+     */
+    private LLZAutoDiscTopicEndPoint createAutodiscEndPoint(final LLZPublisher publisher, final LLZTopicPublisher topicPublisher)
+    {
+        return new LLZAutoDiscTopicEndPoint(
+                LLZAutodiscEndPointType.PUBLISHER,
+                topicPublisher.getTopicName(),
+                publisher.getPublisherUniqueId(),
+                topicPublisher.getTopicUniqueId(),
+                this.instanceContext.getInstanceUniqueId(),
+                publisher.getPublisherFullAddress());
+    }
+
     /**
      * Remove the topic publisher from the auto-discovery mechanism
      *
@@ -170,6 +342,26 @@ public final class LLZPublishersManager
         LOGGER.trace("Topic publisher [{}] unregister from auto-discovery", topicPublisher.getTopicUniqueId());
     }
 
+    /**
+     * Apply the live changes of the publisher socket schemas of a reloaded configuration, the publishers of the
+     * schemas whose pub_rate_limit changed are updated
+     *
+     * @param reloaded the reloaded and validated configuration
+     * @param result the result of the reload to fill
+     */
+    public void applyLiveChanges(final LLZInstanceConfigWrapper reloaded, final LLZConfigReloadResult result)
+    {
+        synchronized (this.lock)
+        {
+            final Set<String> rateLimitChanges = LLZInstanceConfigReloader.applyPubSchemaChanges(this.instanceContext.getInstanceConfig(), reloaded, result);
+
+            if (!this.stopped && !rateLimitChanges.isEmpty())
+            {
+                this.publishersPools.applyRateLimits(rateLimitChanges);
+            }
+        }
+    }
+
     /**
      * Stop the manager, it will stop all the internal sockets and threads
      *
@@ -192,8 +384,17 @@ public final class LLZPublishersManager
                 this.destroyTopicPublisher(topicName);
             }
 
-            // Clean collection
+            // Clean collections
             this.topicPublishersByTopicName.clear();
+            this.publishersByTopicName.clear();
+
+            // Stop the conflating sender threads before the publishers they send through
+            for (final LLZConflatingPublisher conflatingPublisher : this.conflatingPublishersByPublisher.values())
+            {
+                conflatingPublisher.stop();
+            }
+
+            this.conflatingPublishersByPublisher.clear();
 
             // Stop and clean the pools of publishers
             this.publishersPools.stopAndCleanAll();
@@ -205,18 +406,40 @@ public final class LLZPublishersManager
     /**
      * Get or create a publisher for the given topic.
      *
-     * It will look for the transport configuration for the topic. If the configuration is a pool, it will return the next
-     * element of the pool or create a new one if the pool has not been filled yet.
+     * It will look for the transport configuration for the topic. If the configuration is a pool, it will create a new
+     * element if the pool has not been filled yet or return the least loaded one. If the topic is pinned to a socket of
+     * the pool that socket is returned.
      *
-     * @param topicName it will be used to look for the topic configuration
+     * @param pubTopicCfg the configuration of the topic
      * @return the created or existing publisher
      * @throws LLZException exception thrown if there is any issue
      */
-    private LLZPublisher getOrCreatePublisherForTopic(final String topicName) throws LLZException
+    private LLZPublisher getOrCreatePublisherForTopic(final PubTopicConfig pubTopicCfg) throws LLZException
     {
-        final PubTopicConfig pubTopicCfg = this.instanceContext.getInstanceConfig().getPubTopicCfg(topicName);
         final PubSocketSchema pubSocketSchema = this.instanceContext.getInstanceConfig().getPubSocketSchema(pubTopicCfg.getSocketSchema());
 
-        return this.publishersPools.getOrCreatePublisher(pubSocketSchema);
+        return this.publishersPools.getOrCreatePublisher(pubSocketSchema, pubTopicCfg.getPoolSocket());
+    }
+
+    /**
+     * Get or create the conflating publisher that sends the conflated topics through the given publisher
+     *
+     * @param publisher the publisher socket
+     * @return the created or existing conflating publisher
+     */
+    private LLZConflatingPublisher getOrCreateConflatingPublisher(final LLZPublisher publisher)
+    {
+        LLZConflatingPublisher result = this.conflatingPublishersByPublisher.get(publisher);
+
+        if (result == null)
+        {
+            result = new LLZConflatingPublisher(
+                    publisher,
+                    publisher.getPublisherFullAddress(),
+                    this.instanceContext.getParameters().getThreadFactory());
+            this.conflatingPublishersByPublisher.put(publisher, result);
+        }
+
+        return result;
     }
 }
@@ -1,8 +1,9 @@
 package com.bbva.kyof.vega.protocol;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -25,7 +26,7 @@ public class LLZPublishersPools
     private final Set<LLZPublisher> createdPublishers = new HashSet<>();
 
     /** Map with all the pools of publishers by configuration schema name */
-    private final Map<String, LinkedList<LLZPublisher>> poolBySchemaName = new HashMap<>();
+    private final Map<String, List<LLZPublisher>> poolBySchemaName = new HashMap<>();
 
     /** Context of the instance with all the common information */
     private final LLZInstanceContext instanceContext;
@@ -42,55 +43,59 @@ public class LLZPublishersPools
 
     /**
      * Gets or creates a publisher from the pool.
-     * 
+     *
+     * New sockets are created until the pool is full, then the topics are assigned to the least loaded socket of the
+     * pool. A topic pinned to a socket of the pool always gets that socket, creating the pool up to it if required.
+     *
+     * @param socketSchema the socket schema of the pool
+     * @param poolSocket position in the pool of the socket the topic is pinned to, null if not pinned
      * @return the created or returned publisher
      * @throws LLZException if no port available in range and no reusable sockets found
      */
-    public LLZPublisher getOrCreatePublisher(final PubSocketSchema socketSchema) throws LLZException
+    public LLZPublisher getOrCreatePublisher(final PubSocketSchema socketSchema, final Integer poolSocket) throws LLZException
     {
         // Get or create the pool to use based on the schema configuration
-        LinkedList<LLZPublisher> publishersPool = this.poolBySchemaName.get(socketSchema.getName());
+        List<LLZPublisher> publishersPool = this.poolBySchemaName.get(socketSchema.getName());
 
         if (publishersPool == null)
         {
-            publishersPool = new LinkedList<>();
+            publishersPool = new ArrayList<>();
             this.poolBySchemaName.put(socketSchema.getName(), publishersPool);
         }
 
-        // If the all the possible publishers for the pool have been created, return the head and move it to the end
-        if (publishersPool.size() == socketSchema.getMaxNumPorts())
+        final LLZPublisher result;
+        if (poolSocket == null)
         {
-            return this.getNextPublisherInPool(publishersPool);
+            result = this.getOrCreateLeastLoadedPublisher(publishersPool, socketSchema);
         }
-
-        try
+        else
         {
-            // Create a new publisher, add it to the pool and to the map of created publishers
-            final LLZPublisher newPublisher = new LLZPublisher(this.instanceContext, socketSchema);
-            publishersPool.add(newPublisher);
-            this.createdPublishers.add(newPublisher);
-            return newPublisher;
+            result = this.getOrCreatePinnedPublisher(publishersPool, socketSchema, poolSocket);
         }
-        catch (final LLZException e)
+
+        // The number of topics decides between the sockets with the same traffic
+        result.getLoad().addTopic();
+        return result;
+    }
+
+    /**
+     * Apply the current pub_rate_limit of their socket schemas to the publishers of the given schemas
+     *
+     * @param schemaNames names of the socket schemas whose pub_rate_limit changed
+     */
+    public void applyRateLimits(final Set<String> schemaNames)
+    {
+        for (final String schemaName : schemaNames)
         {
-            // If the problem is that there are no ports available try to use an existing publisher
-            if (e.getExceptionCode() == LLZExceptionCode.NO_AVAILABLE_PORTS)
+            final List<LLZPublisher> publishersPool = this.poolBySchemaName.get(schemaName);
+
+            if (publishersPool != null)
             {
-                if (!publishersPool.isEmpty())
+                for (final LLZPublisher publisher : publishersPool)
                 {
-                    return this.getNextPublisherInPool(publishersPool);
-                }
-                else
-                {
-                    LOGGER.error("There is no available port in range [{}]-[{}] and there are no reusable sockets found", socketSchema.getMinPort(), socketSchema.getMaxPort());
-                    throw new LLZException("No port available in range and no reusable sockets found", e);
+                    publisher.applyRateLimit();
                 }
             }
-            else
-            {
-                LOGGER.error("Unexpected error creating publisher", e);
-                throw e;
-            }
         }
     }
 
@@ -110,18 +115,101 @@ public class LLZPublishersPools
         this.poolBySchemaName.clear();
     }
 
-    /** @return the next publisher in the pool */
-    private LLZPublisher getNextPublisherInPool(final LinkedList<LLZPublisher> pool)
+    /**
+     * Create a new publisher if the pool is not full, otherwise return the least loaded one. The limit can be lowered by
+     * a configuration reload, the publishers already created are kept
+     */
+    private LLZPublisher getOrCreateLeastLoadedPublisher(final List<LLZPublisher> pool, final PubSocketSchema socketSchema) throws LLZException
     {
-        if (pool.isEmpty())
+        if (pool.size() >= socketSchema.getMaxNumPorts())
         {
-            return null;
+            return this.getLeastLoadedPublisher(pool);
+        }
+
+        try
+        {
+            return this.createPublisher(pool, socketSchema);
+        }
+        catch (final LLZException e)
+        {
+            return this.onPublisherCreationError(pool, socketSchema, e);
+        }
+    }
+
+    /**
+     * Return the publisher in the given position of the pool, the pool is filled up to it if required and the sockets
+     * created before are used by the other topics
+     */
+    private LLZPublisher getOrCreatePinnedPublisher(final List<LLZPublisher> pool, final PubSocketSchema socketSchema, final int poolSocket) throws LLZException
+    {
+        try
+        {
+            while (pool.size() <= poolSocket)
+            {
+                this.createPublisher(pool, socketSchema);
+            }
+
+            return pool.get(poolSocket);
+        }
+        catch (final LLZException e)
+        {
+            LOGGER.warn("Cannot create the socket [{}] of the pool of schema [{}] the topic is pinned to", poolSocket, socketSchema.getName());
+            return this.onPublisherCreationError(pool, socketSchema, e);
+        }
+    }
+
+    /**
+     * Create a new publisher and add it to the pool and to the created publishers
+     */
+    private LLZPublisher createPublisher(final List<LLZPublisher> pool, final PubSocketSchema socketSchema) throws LLZException
+    {
+        final LLZPublisher newPublisher = new LLZPublisher(this.instanceContext, socketSchema);
+        pool.add(newPublisher);
+        this.createdPublishers.add(newPublisher);
+        return newPublisher;
+    }
+
+    /**
+     * Handle an error creating a publisher, if the problem is that there are no ports available the least loaded
+     * existing publisher is returned
+     */
+    private LLZPublisher onPublisherCreationError(final List<LLZPublisher> pool, final PubSocketSchema socketSchema, final LLZException e) throws LLZException
+    {
+        if (e.getExceptionCode() == LLZExceptionCode.NO_AVAILABLE_PORTS)
+        {
+            if (!pool.isEmpty())
+            {
+                return this.getLeastLoadedPublisher(pool);
+            }
+            else
+            {
+                LOGGER.error("There is no available port in range [{}]-[{}] and there are no reusable sockets found", socketSchema.getMinPort(), socketSchema.getMaxPort());
+                throw new LLZException("No port available in range and no reusable sockets found", e);
+            }
         }
         else
         {
-            final LLZPublisher result = pool.removeFirst();
-            pool.addLast(result);
-            return result;
+            LOGGER.error("Unexpected error creating publisher", e);
+            throw e;
         }
     }
+
+    /** @return the publisher of the pool with the lowest load on the last samples, null if the pool is empty */
+    private LLZPublisher getLeastLoadedPublisher(final List<LLZPublisher> pool)
+    {
+        final long now = System.currentTimeMillis();
+
+        LLZPublisher result = null;
+        for (final LLZPublisher publisher : pool)
+        {
+            publisher.getLoad().sample(now);
+
+            if (result == null || publisher.getLoad().isLowerThan(result.getLoad()))
+            {
+                result = publisher;
+            }
+        }
+
+        return result;
+    }
 }
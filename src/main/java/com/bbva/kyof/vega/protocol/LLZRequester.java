@@ -22,7 +22,7 @@ import com.bbva.kyof.vega.topic.ILLZTopicRequestSender;
 /**
  * This class handlers a requester transport with support to send requests
  */
-public class LLZRequester implements ILLZReqSocketRespHandler, ILLZTopicRequestSender
+public class LLZRequester implements ILLZReqSocketRespHandler, ILLZTopicRequestSender, ILLZHeartbeatPeer
 {
     /** Logger of the class */
     private static final Logger LOGGER = LoggerFactory.getLogger(LLZRequester.class);
@@ -42,27 +42,44 @@ public class LLZRequester implements ILLZReqSocketRespHandler, ILLZTopicRequestS
     /** Set with all the topic ids of end-points associated with this requester */
     private final Set<Long> associatedTopicIds = new HashSet<>();
 
+    /** Tracker of the heartbeats answered by the responder socket, null if the heartbeats are disabled */
+    private final LLZHeartbeatTracker heartbeatTracker;
+
     /**
      * 
      * @param instanceContext Context of the instance
      * @param configSchema configuration squema
      * @param reqConnection req where to connect
+     * @param responderSocketId unique id of the responder socket
+     * @param peerStateListener listener for the changes of state of the responder socket detected by the heartbeats
      * @throws LLZException
      */
-    public LLZRequester(final LLZInstanceContext instanceContext, final ReqSocketSchema configSchema, final String reqConnection) throws LLZException
+    public LLZRequester(final LLZInstanceContext instanceContext,
+                        final ReqSocketSchema configSchema,
+                        final String reqConnection,
+                        final long responderSocketId,
+                        final ILLZPeerStateListener peerStateListener) throws LLZException
     {
         this.reqConnection= reqConnection;
         this.instanceContext = instanceContext;
         this.requesterConfig = configSchema;
+        this.heartbeatTracker = instanceContext.createHeartbeatTracker(responderSocketId, peerStateListener);
 
         LOGGER.debug("Creating requester manager for schema [{}]", this.requesterConfig.getName());
 
         // Connect and start the requester socket
         this.requestSocket = LLZReqSocket.createNewSocket(
-                instanceContext.getZmqContext(),
+                instanceContext.getZmqContext(this.requesterConfig.getZmqContext()),
                 this.reqConnection,
                 this.requesterConfig.getName(), 
-                this);
+                this,
+                this.requesterConfig.getSocketOptions(),
+                instanceContext.getParameters().getThreadFactory());
+
+        if (this.heartbeatTracker != null)
+        {
+            this.instanceContext.addHeartbeatPeer(this);
+        }
     }
     
  
@@ -75,6 +92,8 @@ public class LLZRequester implements ILLZReqSocketRespHandler, ILLZTopicRequestS
     {
         LOGGER.info("Stopping requester socket");
 
+        this.instanceContext.removeHeartbeatPeer(this);
+
         try
         {
             this.requestSocket.stop();
@@ -106,6 +125,12 @@ public class LLZRequester implements ILLZReqSocketRespHandler, ILLZTopicRequestS
                 case DATA_RESP:
                     this.processUserDataResponse(messageHeader, response);
                     break;
+                case HEARTBEAT:
+                    if (this.heartbeatTracker != null)
+                    {
+                        this.heartbeatTracker.onHeartbeatReceived();
+                    }
+                    break;
                 default:
                     LOGGER.warn("Response received of wrong type [{}], expected [{}]", messageHeader.getMsgType(), LLZMsgType.DATA_RESP);
                     break;
@@ -126,7 +151,7 @@ public class LLZRequester implements ILLZReqSocketRespHandler, ILLZTopicRequestS
  
    
     @Override
-    public void sendTopicRequest(final long topicId, final UUID reqId, final ByteBuffer messageContents) throws LLZException
+    public boolean sendTopicRequest(final long topicId, final UUID reqId, final ByteBuffer messageContents) throws LLZException
     {
         if (LOGGER.isTraceEnabled())
         {
@@ -135,6 +160,13 @@ public class LLZRequester implements ILLZReqSocketRespHandler, ILLZTopicRequestS
                     this.instanceContext.getInstanceUniqueId(), topicId, reqId);
         }
 
+        // Don't send requests into a responder that stopped answering the heartbeats
+        if (this.heartbeatTracker != null && this.heartbeatTracker.isDown())
+        {
+            LOGGER.debug("Request not sent on requester [{}], the responder is down", this.reqConnection);
+            return false;
+        }
+
         // Create the header
         final LLZMsgHeader header = new LLZMsgHeader(LLZMsgType.DATA_REQ, topicId, this.instanceContext.getInstanceUniqueId(), Version.getFrameworkVersionNumber());
         header.setRequestId(reqId);
@@ -144,6 +176,29 @@ public class LLZRequester implements ILLZReqSocketRespHandler, ILLZTopicRequestS
 
         // Send the request
         this.requestSocket.sendRequest(message);
+        return true;
+    }
+
+    @Override
+    public void onHeartbeatTick(final long now)
+    {
+        // The heartbeat is sent even if the responder is down, its answer brings the responder up again
+        final LLZMsgHeader header = new LLZMsgHeader(LLZMsgType.HEARTBEAT, 0, this.instanceContext.getInstanceUniqueId(), Version.getFrameworkVersionNumber());
+
+        // Never block the shared heartbeat thread, a heartbeat that cannot be sent is a missed beat
+        try
+        {
+            if (!this.requestSocket.trySendRequest(LLZMsgHeaderSerializer.serializeHeaderAndMsgIntoReusableBuffer(header, ByteBuffer.allocate(0))))
+            {
+                LOGGER.debug("Heartbeat not sent on requester [{}], the socket would block", this.reqConnection);
+            }
+        }
+        catch (final LLZException e)
+        {
+            LOGGER.debug("Error sending heartbeat on requester [{}]", this.reqConnection, e);
+        }
+
+        this.heartbeatTracker.check(now);
     }
 
     public void addTopicEndPoint(final long topicId)
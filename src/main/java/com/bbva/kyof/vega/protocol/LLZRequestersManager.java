@@ -1,7 +1,13 @@
 package com.bbva.kyof.vega.protocol;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import com.bbva.kyof.vega.autodiscovery.client.ILLZAutodiscTopicEndPoint;
 import com.bbva.kyof.vega.autodiscovery.client.ILLZAutodiscTopicEndPointChangeListener;
@@ -18,7 +24,7 @@ import com.bbva.kyof.vega.topic.ILLZTopicRequester;
 /**
  * The SenderManager encapsulate all the publisher sockets configured and their functionality
  */
-public final class LLZRequestersManager implements ILLZAutodiscTopicEndPointChangeListener
+public final class LLZRequestersManager implements ILLZAutodiscTopicEndPointChangeListener, ILLZPeerStateListener
 {
     /** LOGGER Instance   */
     private static final Logger LOGGER = LoggerFactory.getLogger(LLZRequestersManager.class);
@@ -29,6 +35,12 @@ public final class LLZRequestersManager implements ILLZAutodiscTopicEndPointChan
     /** Stores all the subscribers given the publisher ID they are connected to  */
     private final Map<Long, LLZRequester> requestersByResponderId = new HashMap<>();
 
+    /** Pending close of the requesters without end points that are lingering, by the responder ID they are connected to */
+    private final Map<Long, Runnable> lingeringCloseByResponderId = new HashMap<>();
+
+    /** Stores the information of the end points added to the requesters by topic id */
+    private final Map<Long, ILLZAutodiscTopicEndPoint> endPointsByTopicId = new HashMap<>();
+
     /** Global lock for requester subscriptions, it will be shared between the hazelcast auto-discovery and the manager to prevent deadlocks */
     private final Object globalLock = new Object();
 
@@ -63,31 +75,95 @@ public final class LLZRequestersManager implements ILLZAutodiscTopicEndPointChan
             // If already stopped launch an error
             this.checkStopped();
 
-            // Try to add it to the map, it will return null if it was added
-            if (this.topicRequestersByTopicName.containsKey(topicName))
+            // Check the topic has no requester yet and is configured
+            this.checkCanCreateRequester(topicName);
+
+            return this.createAndSubscribeTopicRequester(topicName);
+        }
+    }
+
+    /**
+     * Creates the requesters for a group of topics.
+     *
+     * All the topics are validated before creating any requester, then all of them are created under a single
+     * acquisition of the lock.
+     *
+     * @param topicNames the topic names to create requesters for
+     * @return the created topic requesters by topic name, in the same order as the given topics
+     * @throws LLZException exception thrown if any topic has a requester already, is duplicated or not configured
+     */
+    public Map<String, ILLZTopicRequester> createTopicRequesters(final Collection<String> topicNames) throws LLZException
+    {
+        // Lock on the global lock
+        synchronized (this.globalLock)
+        {
+            // If already stopped launch an error
+            this.checkStopped();
+
+            // Validate all the topics before creating any requester
+            final Set<String> batchTopics = new HashSet<>();
+            for (final String topicName : topicNames)
             {
-                LOGGER.error("There is already a requester created for topic [{}]", topicName);
-                throw new LLZException("Requester already created for topic " + topicName);
+                if (!batchTopics.add(topicName))
+                {
+                    LOGGER.error("Topic [{}] duplicated in the requesters creation", topicName);
+                    throw new LLZException("Duplicated topic in the requesters creation " + topicName);
+                }
+
+                this.checkCanCreateRequester(topicName);
             }
 
-            // Check if the topic is configured as a valid requester topic
-            if (!this.instanceContext.getInstanceConfig().isReqTopicConfigured(topicName))
+            final Map<String, ILLZTopicRequester> result = new LinkedHashMap<>();
+            for (final String topicName : topicNames)
             {
-                LOGGER.error("The subscriber topic [{}] don't correspond to any configured regular expression in the configuration file of the instance", topicName);
-                throw new LLZException("Subscriber topic not found in the instance configuration: " + topicName);
+                result.put(topicName, this.createAndSubscribeTopicRequester(topicName));
             }
 
-            // Create and add the new topic requester
-            final LLZTopicRequester newTopicRequester = new LLZTopicRequester(topicName, this.instanceContext.getRequestManager());
-            this.topicRequestersByTopicName.put(topicName, newTopicRequester);
+            return result;
+        }
+    }
 
-            // Subscribe to auto-discovery in order to get the current status of topics and events of change
-            this.instanceContext.getAutodiscovery().subscribeToTopicEndPoints(topicName, LLZAutodiscEndPointType.RESPONDER, this);
+    /**
+     * Check that there is no requester for the topic and that it is configured, call with the global lock taken
+     *
+     * @param topicName the topic name to check
+     * @throws LLZException exception thrown if the requester already exists or the topic is not configured
+     */
+    private void checkCanCreateRequester(final String topicName) throws LLZException
+    {
+        if (this.topicRequestersByTopicName.containsKey(topicName))
+        {
+            LOGGER.error("There is already a requester created for topic [{}]", topicName);
+            throw new LLZException("Requester already created for topic " + topicName);
+        }
 
-            return newTopicRequester;
+        // Check if the topic is configured as a valid requester topic
+        if (!this.instanceContext.getInstanceConfig().isReqTopicConfigured(topicName))
+        {
+            LOGGER.error("The subscriber topic [{}] don't correspond to any configured regular expression in the configuration file of the instance", topicName);
+            throw new LLZException("Subscriber topic not found in the instance configuration: " + topicName);
         }
     }
 
+    /**
+     * Create and store the topic requester and subscribe to the responders of the topic, call with the global lock taken
+     *
+     * @param topicName the topic name of the requester
+     * @return the created topic requester
+     * @throws LLZException exception thrown if there is a problem subscribing to auto-discovery
+     */
+    private LLZTopicRequester createAndSubscribeTopicRequester(final String topicName) throws LLZException
+    {
+        // Create and add the new topic requester
+        final LLZTopicRequester newTopicRequester = new LLZTopicRequester(topicName, this.instanceContext.getRequestManager());
+        this.topicRequestersByTopicName.put(topicName, newTopicRequester);
+
+        // Subscribe to auto-discovery in order to get the current status of topics and events of change
+        this.instanceContext.getAutodiscovery().subscribeToTopicEndPoints(topicName, LLZAutodiscEndPointType.RESPONDER, this);
+
+        return newTopicRequester;
+    }
+
     /**
      * Destroys a topic requester
      *
@@ -153,6 +229,15 @@ public final class LLZRequestersManager implements ILLZAutodiscTopicEndPointChan
 
             this.topicRequestersByTopicName.clear();
 
+            // Close the requesters that are lingering
+            for (final LLZRequester requester : this.requestersByResponderId.values())
+            {
+                requester.stop();
+            }
+
+            this.requestersByResponderId.clear();
+            this.lingeringCloseByResponderId.clear();
+
             // Set the instance as stopped
             this.stopped = true;
         }
@@ -161,53 +246,209 @@ public final class LLZRequestersManager implements ILLZAutodiscTopicEndPointChan
     @Override
     public void onEndPointAdded(final ILLZAutodiscTopicEndPoint autodiscoveryInfo)
     {
-        // Lock on the global lock
+        // Connect in the connection executor, the events of different responder sockets are processed in parallel
+        this.instanceContext.getConnectionExecutor().execute(autodiscoveryInfo.getSocketId(), new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                LLZRequestersManager.this.addEndPoint(autodiscoveryInfo);
+            }
+        });
+    }
+
+    @Override
+    public void onEndPointRemoved(final ILLZAutodiscTopicEndPoint autodiscoveryInfo)
+    {
+        // Queued after any pending addition for the same responder socket
+        this.instanceContext.getConnectionExecutor().execute(autodiscoveryInfo.getSocketId(), new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                LLZRequestersManager.this.removeEndPoint(autodiscoveryInfo);
+            }
+        });
+    }
+
+    @Override
+    public void onPeerDown(final long socketId)
+    {
+        this.notifyPeerState(socketId, false);
+    }
+
+    @Override
+    public void onPeerUp(final long socketId)
+    {
+        this.notifyPeerState(socketId, true);
+    }
+
+    /**
+     * Notify the user listener of the end points of a responder socket that has been marked as down or up by the heartbeats
+     *
+     * @param socketId the unique id of the responder socket
+     * @param up true if the responder socket is up again
+     */
+    private void notifyPeerState(final long socketId, final boolean up)
+    {
+        final ILLZAutodiscTopicEndPointChangeListener peerStateListener = this.instanceContext.getParameters().getPeerStateListener();
+        if (peerStateListener == null)
+        {
+            return;
+        }
+
+        final List<ILLZAutodiscTopicEndPoint> socketEndPoints = new ArrayList<>();
+
         synchronized (this.globalLock)
         {
-            if (this.stopped)
+            for (final ILLZAutodiscTopicEndPoint endPoint : this.endPointsByTopicId.values())
             {
-                return;
+                if (endPoint.getSocketId() == socketId)
+                {
+                    socketEndPoints.add(endPoint);
+                }
             }
+        }
 
-            // Check if subscribed to the topic and get the topic subscriber
-            final LLZTopicRequester topicRequester = this.topicRequestersByTopicName.get(autodiscoveryInfo.getTopicName());
-            if (topicRequester == null)
+        // Call the listener outside of the lock
+        for (final ILLZAutodiscTopicEndPoint endPoint : socketEndPoints)
+        {
+            if (up)
             {
-                LOGGER.info("New topic end-point notification received but the requester is not subscribed anymore. AutoDiscoveryInfo[{}]", autodiscoveryInfo);
-                return;
+                peerStateListener.onEndPointAdded(endPoint);
+            }
+            else
+            {
+                peerStateListener.onEndPointRemoved(endPoint);
             }
+        }
+    }
 
-            // Make sure the end-point is not already added, may happen if there are duplicated events from auto-discovery
-            if (topicRequester.containsRequester(autodiscoveryInfo.getTopicId()))
+    /**
+     * Add a new end point, creating and connecting the requester socket if there is none for the responder socket.
+     *
+     * The socket is created and connected without holding the global lock. It is safe because the tasks of the same
+     * responder socket id never run concurrently in the connection executor.
+     *
+     * @param autodiscoveryInfo the information of the new end point
+     */
+    private void addEndPoint(final ILLZAutodiscTopicEndPoint autodiscoveryInfo)
+    {
+        final LLZTopicRequester topicRequester;
+
+        // Lock on the global lock
+        synchronized (this.globalLock)
+        {
+            topicRequester = this.getTopicRequesterForNewEndPoint(autodiscoveryInfo);
+            if (topicRequester == null)
             {
-                LOGGER.info("New topic end-point notification received but the end-point is already registered. AutoDiscoveryInfo[{}]", autodiscoveryInfo);
                 return;
             }
 
-            try
+            // If there is a requester already connected to the responder socket just add the end point
+            final LLZRequester existingRequester = this.requestersByResponderId.get(autodiscoveryInfo.getSocketId());
+            if (existingRequester != null)
             {
-                // Get the requester if already exists for the end-point, create a new one in other case
-                final LLZRequester requester = this.getOrCreateRequester(autodiscoveryInfo);
+                this.lingeringCloseByResponderId.remove(autodiscoveryInfo.getSocketId());
+                this.addEndPointToRequester(existingRequester, topicRequester, autodiscoveryInfo);
+                return;
+            }
+        }
 
-                // Add the end-point to the requester
-                requester.addTopicEndPoint(autodiscoveryInfo.getTopicId());
+        // Create and connect the new requester outside of the lock
+        final LLZRequester newRequester;
+        try
+        {
+            newRequester = this.createRequester(autodiscoveryInfo);
+        }
+        catch (final LLZException e)
+        {
+            LOGGER.error(
+                    String.format("Unexpected error creating the requester for TopicId [%d], TopicName [%s], PubAddress [%s]. Subscription won't be done",
+                            autodiscoveryInfo.getTopicId(),
+                            autodiscoveryInfo.getTopicName(),
+                            autodiscoveryInfo.getBindAddress()), e);
+            return;
+        }
 
-                // Register the requester in the topic requester
-                topicRequester.addRequester(autodiscoveryInfo.getTopicId(), autodiscoveryInfo.getSocketId(), requester);
-            }
-            catch (final LLZException e)
+        synchronized (this.globalLock)
+        {
+            // Make sure nothing has changed while connecting
+            if (this.getTopicRequesterForNewEndPoint(autodiscoveryInfo) == topicRequester)
             {
-                LOGGER.error(
-                        String.format("Unexpected error subscribing to TopicId [%d], TopicName [%s], PubAddress [%s]. Subscription won't be done",
-                                autodiscoveryInfo.getTopicId(),
-                                autodiscoveryInfo.getTopicName(),
-                                autodiscoveryInfo.getBindAddress()), e);
+                this.requestersByResponderId.put(autodiscoveryInfo.getSocketId(), newRequester);
+                this.addEndPointToRequester(newRequester, topicRequester, autodiscoveryInfo);
+                return;
             }
         }
+
+        // Not needed anymore, the requester has been destroyed or the manager stopped meanwhile
+        try
+        {
+            newRequester.stop();
+        }
+        catch (final LLZException e)
+        {
+            LOGGER.error("Unexpected error stopping a not needed requester. " + autodiscoveryInfo, e);
+        }
     }
 
-    @Override
-    public void onEndPointRemoved(final ILLZAutodiscTopicEndPoint autodiscoveryInfo)
+    /**
+     * Get the topic requester a new end point belongs to, call with the global lock taken
+     *
+     * @param autodiscoveryInfo the information of the new end point
+     * @return the topic requester, null if stopped, not created or if the end point is already registered
+     */
+    private LLZTopicRequester getTopicRequesterForNewEndPoint(final ILLZAutodiscTopicEndPoint autodiscoveryInfo)
+    {
+        if (this.stopped)
+        {
+            return null;
+        }
+
+        // Check if subscribed to the topic and get the topic subscriber
+        final LLZTopicRequester topicRequester = this.topicRequestersByTopicName.get(autodiscoveryInfo.getTopicName());
+        if (topicRequester == null)
+        {
+            LOGGER.info("New topic end-point notification received but the requester is not subscribed anymore. AutoDiscoveryInfo[{}]", autodiscoveryInfo);
+            return null;
+        }
+
+        // Make sure the end-point is not already added, may happen if there are duplicated events from auto-discovery
+        if (topicRequester.containsRequester(autodiscoveryInfo.getTopicId()))
+        {
+            LOGGER.info("New topic end-point notification received but the end-point is already registered. AutoDiscoveryInfo[{}]", autodiscoveryInfo);
+            return null;
+        }
+
+        return topicRequester;
+    }
+
+    /**
+     * Add the end point to the requester and register the requester in the topic requester, call with the global lock taken
+     *
+     * @param requester the requester connected to the responder socket of the end point
+     * @param topicRequester the topic requester of the end point topic
+     * @param autodiscoveryInfo the information of the end point
+     */
+    private void addEndPointToRequester(final LLZRequester requester,
+                                        final LLZTopicRequester topicRequester,
+                                        final ILLZAutodiscTopicEndPoint autodiscoveryInfo)
+    {
+        // Add the end-point to the requester
+        requester.addTopicEndPoint(autodiscoveryInfo.getTopicId());
+        this.endPointsByTopicId.put(autodiscoveryInfo.getTopicId(), autodiscoveryInfo);
+
+        // Register the requester in the topic requester
+        topicRequester.addRequester(autodiscoveryInfo.getTopicId(), autodiscoveryInfo.getSocketId(), requester);
+    }
+
+    /**
+     * Remove an end point, stopping the requester socket if there are no more topics on it
+     *
+     * @param autodiscoveryInfo the information of the removed end point
+     */
+    private void removeEndPoint(final ILLZAutodiscTopicEndPoint autodiscoveryInfo)
     {
         // Lock on the global lock
         synchronized (this.globalLock)
@@ -247,6 +488,8 @@ public final class LLZRequestersManager implements ILLZAutodiscTopicEndPointChan
 
     private void removeEndPointFromRequester(final long topicId, final long responderSocketId) throws LLZException
     {
+        this.endPointsByTopicId.remove(topicId);
+
         // Find the subscriber(socket) that is connected to the given publisher Id (socket)
         final LLZRequester requester = this.requestersByResponderId.get(responderSocketId);
 
@@ -260,32 +503,84 @@ public final class LLZRequestersManager implements ILLZAutodiscTopicEndPointChan
         // Remove the end-point information
         final boolean requesterIsEmpty = requester.removeTopicEndPoint(topicId);
 
-        // If no more end-point associated stop and delete the requester
+        // If no more end-point associated stop and delete the requester, or let it linger to be reused
         if (requesterIsEmpty)
+        {
+            this.closeOrLingerRequester(responderSocketId, requester);
+        }
+    }
+
+    /**
+     * Close a requester without end points, if a linger time is configured it stays open for that time so a quick
+     * re-add of an end point of the responder socket reuses it. Call with the global lock taken.
+     *
+     * @param responderSocketId the responder socket id the requester is connected to
+     * @param requester the requester without end points
+     * @throws LLZException exception thrown if there is a problem stopping the requester
+     */
+    private void closeOrLingerRequester(final long responderSocketId, final LLZRequester requester) throws LLZException
+    {
+        final long linger = this.instanceContext.getParameters().getEndPointSocketLinger();
+
+        if (linger <= 0)
         {
             requester.stop();
             this.requestersByResponderId.remove(responderSocketId);
+            return;
         }
+
+        final Runnable lingeringClose = new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                LLZRequestersManager.this.closeLingeringRequester(responderSocketId, requester, this);
+            }
+        };
+
+        this.lingeringCloseByResponderId.put(responderSocketId, lingeringClose);
+        this.instanceContext.getConnectionExecutor().executeDelayed(responderSocketId, linger, lingeringClose);
     }
 
     /**
-     * Gets or creates a requester
+     * Close a lingering requester if it has not been reused meanwhile, a reuse cancels the pending close
      *
-     * @param autodiscoveryInfo
-     * @return the created or existing requester
-     * @throws LLZException
+     * @param responderSocketId the responder socket id the requester is connected to
+     * @param requester the lingering requester
+     * @param lingeringClose the pending close that is running
      */
-    private LLZRequester getOrCreateRequester(final ILLZAutodiscTopicEndPoint autodiscoveryInfo) throws LLZException
+    private void closeLingeringRequester(final long responderSocketId, final LLZRequester requester, final Runnable lingeringClose)
     {
-        // Check if there is already a subscriber(socket) for the event publisher id(socket)
-        final LLZRequester existingRequester = this.requestersByResponderId.get(autodiscoveryInfo.getSocketId());
-
-        // If it already exists, return it if not we need to create it
-        if (existingRequester != null)
+        synchronized (this.globalLock)
         {
-            return existingRequester;
+            if (this.lingeringCloseByResponderId.get(responderSocketId) != lingeringClose)
+            {
+                return;
+            }
+
+            this.lingeringCloseByResponderId.remove(responderSocketId);
+            this.requestersByResponderId.remove(responderSocketId);
+
+            try
+            {
+                requester.stop();
+            }
+            catch (final LLZException e)
+            {
+                LOGGER.error("Unexpected error stopping a lingering requester for responder socket [" + responderSocketId + "]", e);
+            }
         }
+    }
 
+    /**
+     * Creates and connects a new requester for the responder socket of the end point
+     *
+     * @param autodiscoveryInfo the information of the end point
+     * @return the new requester
+     * @throws LLZException
+     */
+    private LLZRequester createRequester(final ILLZAutodiscTopicEndPoint autodiscoveryInfo) throws LLZException
+    {
         // Check topic name against config.
         final ReqTopicConfig reqTopicCfg = this.instanceContext.getInstanceConfig().getReqTopicCfg(autodiscoveryInfo.getTopicName());
 
@@ -293,13 +588,7 @@ public final class LLZRequestersManager implements ILLZAutodiscTopicEndPointChan
         final ReqSocketSchema reqSocketSchema = this.instanceContext.getInstanceConfig().getReqSocketSchema(reqTopicCfg.getSocketSchema());
 
         // Create the requester and return it
-        final LLZRequester newRequester = new LLZRequester(this.instanceContext, reqSocketSchema, autodiscoveryInfo.getBindAddress());
-
-        // Add to the collection of requesters
-        this.requestersByResponderId.put(autodiscoveryInfo.getSocketId(), newRequester);
-
-        return newRequester;
-
+        return new LLZRequester(this.instanceContext, reqSocketSchema, autodiscoveryInfo.getBindAddress(), autodiscoveryInfo.getSocketId(), this);
     }
 
     /**
@@ -47,6 +47,9 @@ public final class LLZResponder implements ILLZRespSocketReqHandler, ILLZRcvReqR
 
     /** Publisher final full address once it has been bind to a port */
     private final String responderFullAddress;
+
+    /** Load of the socket, the user requests received and the responses sent are recorded */
+    private final LLZSocketLoad load = new LLZSocketLoad(System.currentTimeMillis());
     
    
     /**
@@ -72,12 +75,14 @@ public final class LLZResponder implements ILLZRespSocketReqHandler, ILLZRcvReqR
 
         // Create the responder, it will connect to a random port in the given range
         this.responseSocket = LLZRespSocket.createNewSocket(
-                this.instanceContext.getZmqContext(),
+                this.instanceContext.getZmqContext(this.responderConfigSchema.getZmqContext()),
                 this.responderConfigSchema.getName(),
                 responderAddress,
                 this,
                 this.responderConfigSchema.getMinPort(),
-                this.responderConfigSchema.getMaxPort());
+                this.responderConfigSchema.getMaxPort(),
+                this.responderConfigSchema.getSocketOptions(),
+                this.instanceContext.getParameters().getThreadFactory());
 
         // Add the finally used port by the socket to the address
         this.responderFullAddress = responderAddress + this.responseSocket.getCurrentPort();
@@ -114,10 +119,18 @@ public final class LLZResponder implements ILLZRespSocketReqHandler, ILLZRcvReqR
      */
     public void stop() throws LLZException
     {
-        LOGGER.info("Prepare responder to be stopped");
+        LOGGER.info("Stopping responder");
 
-        // Leave it ready to stop, it wont actually stopped it, that will be done when the context is closed
-        this.responseSocket.prepareToStop();
+        try
+        {
+            // Close the sockets without waiting for the context to be closed, it may be shared with other instances
+            this.responseSocket.stop();
+        }
+        catch (final InterruptedException e)
+        {
+            LOGGER.error("Thread interrupted while trying to stop the socket", e);
+            throw new LLZException("Thread interrupted while trying to stop the socket", e);
+        }
     }
 
         
@@ -140,8 +153,12 @@ public final class LLZResponder implements ILLZRespSocketReqHandler, ILLZRcvReqR
         switch (header.getMsgType())
         {
             case DATA_REQ:
+                this.load.recordMessage(request.limit());
                 this.processUserRequestReceived(header, request, responseAddress);
                 break;
+            case HEARTBEAT:
+                this.answerHeartbeat(header, responseAddress);
+                break;
             default:
                 LOGGER.warn("Message received of wrong type [{}], expected [{}]",
                         header.getMsgType(), LLZMsgType.DATA_REQ);
@@ -165,6 +182,27 @@ public final class LLZResponder implements ILLZRespSocketReqHandler, ILLZRcvReqR
         }
     }
 
+    /**
+     * Answer the heartbeat of a requester, the responder always answers even if its own heartbeats are disabled
+     */
+    private void answerHeartbeat(final LLZMsgHeader header, final ZFrame responseAddress)
+    {
+        final LLZMsgHeader responseHeader = new LLZMsgHeader(
+                LLZMsgType.HEARTBEAT,
+                header.getTopicUniqueId(),
+                this.instanceContext.getInstanceUniqueId(),
+                Version.getFrameworkVersionNumber());
+
+        try
+        {
+            this.responseSocket.sendSocketResponse(LLZMsgHeaderSerializer.serializeHeaderAndMsgIntoReusableBuffer(responseHeader, ByteBuffer.allocate(0)), responseAddress);
+        }
+        catch (final LLZException e)
+        {
+            LOGGER.debug("Error answering heartbeat on responder [{}]", this.responderConfigSchema.getName(), e);
+        }
+    }
+
    /**
      * Returns string/address of ZMQ socket
      * This is the unique ID for this manager (ip:port combination)
@@ -208,7 +246,16 @@ public final class LLZResponder implements ILLZRespSocketReqHandler, ILLZRcvReqR
         // Create the response message
         final ByteBuffer responseMessage = LLZMsgHeaderSerializer.serializeHeaderAndMsgIntoReusableBuffer(responseHeader, responseContent);
 
+        final int responseSize = responseMessage.remaining();
+
         // Send the response
         this.responseSocket.sendSocketResponse(responseMessage, responseAddress);
+        this.load.recordMessage(responseSize);
+    }
+
+    /** @return load of the responder socket */
+    public LLZSocketLoad getLoad()
+    {
+        return this.load;
     }
 }
\ No newline at end of file
@@ -1,10 +1,19 @@
 package com.bbva.kyof.vega.protocol;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import com.bbva.kyof.vega.autodiscovery.client.LLZAutoDiscTopicEndPoint;
 import com.bbva.kyof.vega.autodiscovery.client.LLZAutodiscEndPointType;
+import com.bbva.kyof.vega.config.LLZConfigReloadResult;
+import com.bbva.kyof.vega.config.LLZInstanceConfigReloader;
+import com.bbva.kyof.vega.config.LLZInstanceConfigWrapper;
 import com.bbva.kyof.vega.config.general.RespSocketSchema;
 import com.bbva.kyof.vega.config.general.RespTopicConfig;
 import com.bbva.kyof.vega.topic.ILLZTopicReqListener;
@@ -88,29 +97,141 @@ public final class LLZRespondersManager
                 throw new LLZException("There is a responder already created for topic " + topicName);
             }
 
+            // Create the unique ID for the topic responder, reserved before the topic counts in the load of a responder
+            final long topicUniqueId = this.instanceContext.createUniqueId();
+
             // Create a new Publisher (or get one from the pool)
-            final LLZResponder responder = this.getOrCreateResponderForTopic(topicName);
+            final LLZResponder responder = this.getOrCreateResponderForTopic(this.instanceContext.getInstanceConfig().getRespTopicCfg(topicName));
 
-            // Create the unique ID for the topic responder
-            long topicUniqueId = this.instanceContext.createUniqueId();
+            // Create and store the topic responder and register it in auto-discovery, if it fails the topic responder is removed
+            try
+            {
+                final LLZTopicResponder topicResponder = this.createAndStoreTopicResponder(topicName, topicUniqueId, requestListener, responder);
+                this.registerTopicResponderInAutodiscovery(responder, topicResponder);
+                return topicResponder;
+            }
+            catch (final LLZException | RuntimeException e)
+            {
+                this.removeTopicResponder(topicName, responder);
+                throw e;
+            }
+        }
+    }
 
-            // Create the topic responder
-            final LLZTopicResponder topicResponder = new LLZTopicResponder(topicName, topicUniqueId, requestListener);
 
-            // Store created topic responder and responder in the internal maps
-            this.topicRespondersByTopicName.put(topicName, topicResponder);
-            this.responderByTopicResponder.put(topicResponder, responder);
+    /**
+     * Creates the responders for a group of topics, all of them delivering the requests to the same listener.
+     *
+     * All the topics are validated before creating anything, the unique ids are reserved in a single block and the end
+     * points are registered in auto-discovery with a single operation.
+     *
+     * @param topicNames the topics to listen for requests from
+     * @param requestListener the listener that will receive the requests
+     * @return the created topic responders by topic name, in the same order as the given topics
+     * @throws LLZException if any of the topics is already created, duplicated or not configured
+     */
+    public Map<String, ILLZTopicResponder> createTopicResponders(final Collection<String> topicNames, final ILLZTopicReqListener requestListener) throws LLZException
+    {
+        // Check that there is at a listener
+        if (requestListener == null)
+        {
+            LOGGER.error("No listener has been provided creating responders for topics {}", topicNames);
+            throw new LLZException("At least a listener should be provided");
+        }
 
-            // Add the topic responder to the responder
-            responder.addTopicResponder(topicUniqueId, topicResponder);
+        synchronized (this.lock)
+        {
+            // If already stopped launch an error
+            if (this.stopped)
+            {
+                LOGGER.error("Trying to create responders for topics {} on an stopped manager", topicNames);
+                throw new LLZException("Cannot create responders on an stopped manager");
+            }
+
+            // Validate all the topics before creating anything
+            final Set<String> batchTopics = new HashSet<>();
+            final List<RespTopicConfig> respTopicCfgs = new ArrayList<>(topicNames.size());
 
-            // Finally register the new created topic responder in auto-discovery
-            this.registerTopicResponderInAutodiscovery(responder, topicResponder);
+            for (final String topicName : topicNames)
+            {
+                if (this.topicRespondersByTopicName.containsKey(topicName) || !batchTopics.add(topicName))
+                {
+                    LOGGER.error("There is a responder already created for topic [{}]", topicName);
+                    throw new LLZException("There is a responder already created for topic " + topicName);
+                }
+
+                respTopicCfgs.add(this.instanceContext.getInstanceConfig().getRespTopicCfg(topicName));
+            }
+
+            // Reserve the unique IDs for all the topic responders at once
+            final long[] topicUniqueIds = this.instanceContext.createUniqueIds(topicNames.size());
+
+            final Map<String, ILLZTopicResponder> result = new LinkedHashMap<>();
+            final List<LLZAutoDiscTopicEndPoint> endPointsInfo = new ArrayList<>(topicNames.size());
+
+            final Map<String, LLZResponder> respondersByTopicName = new HashMap<>();
+
+            try
+            {
+                int index = 0;
+                for (final String topicName : topicNames)
+                {
+                    final LLZResponder responder = this.getOrCreateResponderForTopic(respTopicCfgs.get(index));
+                    respondersByTopicName.put(topicName, responder);
 
-            return topicResponder;
+                    final LLZTopicResponder topicResponder = this.createAndStoreTopicResponder(topicName, topicUniqueIds[index], requestListener, responder);
+
+                    result.put(topicName, topicResponder);
+                    endPointsInfo.add(this.createAutodiscEndPoint(responder, topicResponder));
+                    index++;
+                }
+
+                // Finally register all the new topic responders in auto-discovery
+                this.instanceContext.getAutodiscovery().registerTopicEndPoints(LLZAutodiscEndPointType.RESPONDER, endPointsInfo);
+            }
+            catch (final LLZException | RuntimeException e)
+            {
+                // Remove the topic responders already created so the batch has no effect
+                for (final Map.Entry<String, LLZResponder> createdTopic : respondersByTopicName.entrySet())
+                {
+                    this.removeTopicResponder(createdTopic.getKey(), createdTopic.getValue());
+                }
+
+                throw e;
+            }
+
+            LOGGER.trace("[{}] topic responders registered for auto-discovery", endPointsInfo.size());
+
+            return result;
         }
     }
 
+    /**
+     * Create the topic responder, store it in the internal maps and add it to the responder
+     *
+     * @param topicName the topic of the responder
+     * @param topicUniqueId the unique id of the topic responder
+     * @param requestListener the listener that will receive the requests
+     * @param responder the socket responder
+     * @return the created topic responder
+     * @throws LLZException exception thrown if the topic responder cannot be added to the responder
+     */
+    private LLZTopicResponder createAndStoreTopicResponder(final String topicName,
+                                                           final long topicUniqueId,
+                                                           final ILLZTopicReqListener requestListener,
+                                                           final LLZResponder responder) throws LLZException
+    {
+        final LLZTopicResponder topicResponder = new LLZTopicResponder(topicName, topicUniqueId, requestListener);
+
+        // Store created topic responder and responder in the internal maps
+        this.topicRespondersByTopicName.put(topicName, topicResponder);
+        this.responderByTopicResponder.put(topicResponder, responder);
+
+        // Add the topic responder to the responder
+        responder.addTopicResponder(topicUniqueId, topicResponder);
+
+        return topicResponder;
+    }
 
     /**
      * Destroy the publisher for the given topic
@@ -151,11 +272,33 @@ public final class LLZRespondersManager
         // Remove the topic responder from the responder
         final LLZResponder responder = this.responderByTopicResponder.remove(topicResponder);
         responder.removeTopicResponder(topicResponder.getTopicUniqueId());
+        responder.getLoad().removeTopic();
 
         // Unregister the topic responder from auto discovery
         this.unregisterTopicResponderFromAutodiscovery(topicResponder);
     }
 
+    /**
+     * Undo the creation of a topic responder that failed, the topic is released from the load of the responder it was
+     * assigned to even if the topic responder was not stored yet. Call with the lock taken.
+     *
+     * @param topicName the topic of the responder
+     * @param responder the socket responder the topic was assigned to
+     */
+    private void removeTopicResponder(final String topicName, final LLZResponder responder)
+    {
+        final LLZTopicResponder topicResponder = this.topicRespondersByTopicName.remove(topicName);
+
+        if (topicResponder != null)
+        {
+            topicResponder.stop();
+            this.responderByTopicResponder.remove(topicResponder);
+            responder.removeTopicResponder(topicResponder.getTopicUniqueId());
+        }
+
+        responder.getLoad().removeTopic();
+    }
+
 
     /**
      * Add the topic publisher to the auto-discovery mechanism, it will join together the information of both publisher and topic publisher
@@ -166,21 +309,30 @@ public final class LLZRespondersManager
      */
     private void registerTopicResponderInAutodiscovery(final LLZResponder responder, final LLZTopicResponder topicResponder) throws LLZException
     {
-        // Get the ID of the application
-        final long appId = this.instanceContext.getInstanceUniqueId();
-
         // Create the object to store in the auto-discovery
-        final LLZAutoDiscTopicEndPoint endPointInfo = new LLZAutoDiscTopicEndPoint(
+        final LLZAutoDiscTopicEndPoint endPointInfo = this.createAutodiscEndPoint(responder, topicResponder);
+
+        this.instanceContext.getAutodiscovery().registerTopicEndPoint(endPointInfo.getType(), endPointInfo);
+
+        LOGGER.trace("Topic responder register for auto-discovery [{}]", endPointInfo);
+    }
+
+    /**
+     * Create the auto-discovery information of a topic responder, it joins the information of both responder and topic responder
+     *
+     * @param responder the socket responder
+     * @param topicResponder the topic responder
+     * @return the end point information to store in the auto-discovery
+     */
+    private LLZAutoDiscTopicEndPoint createAutodiscEndPoint(final LLZResponder responder, final LLZTopicResponder topicResponder)
+    {
+        return new LLZAutoDiscTopicEndPoint(
                 LLZAutodiscEndPointType.RESPONDER,
                 topicResponder.getTopicName(),
                 responder.getResponderUniqueId(),
                 topicResponder.getTopicUniqueId(),
-                appId,
+                this.instanceContext.getInstanceUniqueId(),
                 responder.getResponderFullAddress());
-
-        this.instanceContext.getAutodiscovery().registerTopicEndPoint(endPointInfo.getType(), endPointInfo);
-
-        LOGGER.trace("Topic responder register for auto-discovery [{}]", endPointInfo);
     }
 
     /**
@@ -229,20 +381,34 @@ public final class LLZRespondersManager
     }
 
     /**
-     * Get or create a publisher for the given topic.
+     * Apply the live changes of the responder socket schemas of a reloaded configuration
+     *
+     * @param reloaded the reloaded and validated configuration
+     * @param result the result of the reload to fill
+     */
+    public void applyLiveChanges(final LLZInstanceConfigWrapper reloaded, final LLZConfigReloadResult result)
+    {
+        synchronized (this.lock)
+        {
+            LLZInstanceConfigReloader.applyRespSchemaChanges(this.instanceContext.getInstanceConfig(), reloaded, result);
+        }
+    }
+
+    /**
+     * Get or create a responder for the given topic.
      *
-     * It will look for the transport configuration for the topic. If the configuration is a pool, it will return the next
-     * element of the pool or create a new one if the pool has not been filled yet.
+     * It will look for the transport configuration for the topic. If the configuration is a pool, it will create a new
+     * element if the pool has not been filled yet or return the least loaded one. If the topic is pinned to a socket of
+     * the pool that socket is returned.
      *
-     * @param topicName it will be used to look for the topic configuration
-     * @return the created or existing publisher
+     * @param respTopicCfg the configuration of the topic
+     * @return the created or existing responder
      * @throws LLZException exception thrown if there is any issue
      */
-    private LLZResponder getOrCreateResponderForTopic(final String topicName) throws LLZException
+    private LLZResponder getOrCreateResponderForTopic(final RespTopicConfig respTopicCfg) throws LLZException
     {
-        final RespTopicConfig respTopicCfg = this.instanceContext.getInstanceConfig().getRespTopicCfg(topicName);
         final RespSocketSchema respSocketSchema = this.instanceContext.getInstanceConfig().getRespSocketSchema(respTopicCfg.getSocketSchema());
 
-        return this.respondersPools.getOrCreateResponder(respSocketSchema);
+        return this.respondersPools.getOrCreateResponder(respSocketSchema, respTopicCfg.getPoolSocket());
     }
-}
\ No newline at end of file
+}
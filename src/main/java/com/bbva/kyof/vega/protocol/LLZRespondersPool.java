@@ -1,8 +1,9 @@
 package com.bbva.kyof.vega.protocol;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -25,7 +26,7 @@ public class LLZRespondersPool
     private final Set<LLZResponder> createdResponders = new HashSet<>();
 
     /** Map with all the pools of publishers by configuration schema name */
-    private final Map<String, LinkedList<LLZResponder>> poolBySchemaName = new HashMap<>();
+    private final Map<String, List<LLZResponder>> poolBySchemaName = new HashMap<>();
 
     /** Context of the instance with all the common information */
     private final LLZInstanceContext instanceContext;
@@ -43,55 +44,38 @@ public class LLZRespondersPool
     /**
      * Gets or creates a responder from the pool.
      *
-     * @return the created or returned publisher
+     * New sockets are created until the pool is full, then the topics are assigned to the least loaded socket of the
+     * pool. A topic pinned to a socket of the pool always gets that socket, creating the pool up to it if required.
+     *
+     * @param socketSchema the socket schema of the pool
+     * @param poolSocket position in the pool of the socket the topic is pinned to, null if not pinned
+     * @return the created or returned responder
      * @throws LLZException if no port available in range and no reusable sockets found
      */
-    public LLZResponder getOrCreateResponder(final RespSocketSchema socketSchema) throws LLZException
+    public LLZResponder getOrCreateResponder(final RespSocketSchema socketSchema, final Integer poolSocket) throws LLZException
     {
         // Get or create the pool to use based on the schema configuration
-        LinkedList<LLZResponder> respondersPool = this.poolBySchemaName.get(socketSchema.getName());
+        List<LLZResponder> respondersPool = this.poolBySchemaName.get(socketSchema.getName());
 
         if (respondersPool == null)
         {
-            respondersPool = new LinkedList<>();
+            respondersPool = new ArrayList<>();
             this.poolBySchemaName.put(socketSchema.getName(), respondersPool);
         }
 
-        // If the all the possible publishers for the pool have been created, return the head and move it to the end
-        if (respondersPool.size() == socketSchema.getMaxNumPorts())
-        {
-            return this.getNextResponderInPool(respondersPool);
-        }
-
-        try
+        final LLZResponder result;
+        if (poolSocket == null)
         {
-            // Create a new publisher, add it to the pool and to the map of created publishers
-            final LLZResponder newResponder = new LLZResponder(this.instanceContext, socketSchema);
-            respondersPool.add(newResponder);
-            this.createdResponders.add(newResponder);
-            return newResponder;
+            result = this.getOrCreateLeastLoadedResponder(respondersPool, socketSchema);
         }
-        catch (final LLZException e)
+        else
         {
-            // If the problem is that there are no ports available try to use an existing publisher
-            if (e.getExceptionCode() == LLZExceptionCode.NO_AVAILABLE_PORTS)
-            {
-                if (!respondersPool.isEmpty())
-                {
-                    return this.getNextResponderInPool(respondersPool);
-                }
-                else
-                {
-                    LOGGER.error("There is no available port in range [{}]-[{}] and there are no reusable sockets found", socketSchema.getMinPort(), socketSchema.getMaxPort());
-                    throw new LLZException("No port available in range and no reusable sockets found", e);
-                }
-            }
-            else
-            {
-                LOGGER.error("Unexpected error creating responder", e);
-                throw e;
-            }
+            result = this.getOrCreatePinnedResponder(respondersPool, socketSchema, poolSocket);
         }
+
+        // The number of topics decides between the sockets with the same traffic
+        result.getLoad().addTopic();
+        return result;
     }
 
     /**
@@ -110,18 +94,101 @@ public class LLZRespondersPool
         this.poolBySchemaName.clear();
     }
 
-    /** @return the next publisher in the pool */
-    private LLZResponder getNextResponderInPool(final LinkedList<LLZResponder> pool)
+    /**
+     * Create a new responder if the pool is not full, otherwise return the least loaded one. The limit can be lowered by
+     * a configuration reload, the responders already created are kept
+     */
+    private LLZResponder getOrCreateLeastLoadedResponder(final List<LLZResponder> pool, final RespSocketSchema socketSchema) throws LLZException
     {
-        if (pool.isEmpty())
+        if (pool.size() >= socketSchema.getMaxNumPorts())
+        {
+            return this.getLeastLoadedResponder(pool);
+        }
+
+        try
+        {
+            return this.createResponder(pool, socketSchema);
+        }
+        catch (final LLZException e)
         {
-            return null;
+            return this.onResponderCreationError(pool, socketSchema, e);
+        }
+    }
+
+    /**
+     * Return the responder in the given position of the pool, the pool is filled up to it if required and the sockets
+     * created before are used by the other topics
+     */
+    private LLZResponder getOrCreatePinnedResponder(final List<LLZResponder> pool, final RespSocketSchema socketSchema, final int poolSocket) throws LLZException
+    {
+        try
+        {
+            while (pool.size() <= poolSocket)
+            {
+                this.createResponder(pool, socketSchema);
+            }
+
+            return pool.get(poolSocket);
+        }
+        catch (final LLZException e)
+        {
+            LOGGER.warn("Cannot create the socket [{}] of the pool of schema [{}] the topic is pinned to", poolSocket, socketSchema.getName());
+            return this.onResponderCreationError(pool, socketSchema, e);
+        }
+    }
+
+    /**
+     * Create a new responder and add it to the pool and to the created responders
+     */
+    private LLZResponder createResponder(final List<LLZResponder> pool, final RespSocketSchema socketSchema) throws LLZException
+    {
+        final LLZResponder newResponder = new LLZResponder(this.instanceContext, socketSchema);
+        pool.add(newResponder);
+        this.createdResponders.add(newResponder);
+        return newResponder;
+    }
+
+    /**
+     * Handle an error creating a responder, if the problem is that there are no ports available the least loaded
+     * existing responder is returned
+     */
+    private LLZResponder onResponderCreationError(final List<LLZResponder> pool, final RespSocketSchema socketSchema, final LLZException e) throws LLZException
+    {
+        if (e.getExceptionCode() == LLZExceptionCode.NO_AVAILABLE_PORTS)
+        {
+            if (!pool.isEmpty())
+            {
+                return this.getLeastLoadedResponder(pool);
+            }
+            else
+            {
+                LOGGER.error("There is no available port in range [{}]-[{}] and there are no reusable sockets found", socketSchema.getMinPort(), socketSchema.getMaxPort());
+                throw new LLZException("No port available in range and no reusable sockets found", e);
+            }
         }
         else
         {
-            final LLZResponder result = pool.removeFirst();
-            pool.addLast(result);
-            return result;
+            LOGGER.error("Unexpected error creating responder", e);
+            throw e;
         }
     }
+
+    /** @return the responder of the pool with the lowest load on the last samples, null if the pool is empty */
+    private LLZResponder getLeastLoadedResponder(final List<LLZResponder> pool)
+    {
+        final long now = System.currentTimeMillis();
+
+        LLZResponder result = null;
+        for (final LLZResponder responder : pool)
+        {
+            responder.getLoad().sample(now);
+
+            if (result == null || responder.getLoad().isLowerThan(result.getLoad()))
+            {
+                result = responder;
+            }
+        }
+
+        return result;
+    }
 }
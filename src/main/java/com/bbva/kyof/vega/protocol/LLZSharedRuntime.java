@@ -0,0 +1,132 @@
+package com.bbva.kyof.vega.protocol;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.zeromq.ZMQ;
+
+import com.bbva.kyof.vega.autodiscovery.client.ILLZAutodisc;
+import com.bbva.kyof.vega.autodiscovery.client.shared.LLZSharedAutodisc;
+import com.bbva.kyof.vega.config.LLZInstanceConfigWrapper;
+import com.bbva.kyof.vega.exception.LLZException;
+import com.bbva.kyof.vega.util.threads.ILLZThreadFactory;
+
+/**
+ * Runtime shared by several manager instances of the same JVM, see {@link LLZManagerParams.Builder#sharedRuntime}.
+ *
+ * The instances using the same runtime share a single ZMQ context and a single auto-discovery client instead of
+ * creating their own. Both are created by the first instance that starts and closed when the last one is stopped, so
+ * the I/O threads and the auto-discovery traffic don't grow with the number of instances. Since the ZMQ context is
+ * shared, the instances can also communicate using the inproc transport.
+ *
+ * The auto-discovery is created with the configuration of the first instance that starts, all the instances should
+ * use the same auto-discovery configuration. The class is thread-safe
+ */
+public final class LLZSharedRuntime
+{
+    /** Logger of the class */
+    private static final Logger LOGGER = LoggerFactory.getLogger(LLZSharedRuntime.class);
+
+    /** Number of threads of the shared ZMQ context */
+    private final int numberOfThreads;
+
+    /** The shared ZMQ context, null if not created */
+    private ZMQ.Context zmqContext = null;
+
+    /** Number of instances using the shared ZMQ context */
+    private int zmqContextReferences = 0;
+
+    /** The shared auto-discovery, null if not created */
+    private LLZSharedAutodisc sharedAutodisc = null;
+
+    /** Lock for the internal state */
+    private final Object lock = new Object();
+
+    /**
+     * Create a new shared runtime, the ZMQ context and the auto-discovery are created on demand
+     *
+     * @param numberOfThreads number of thread that the shared ZMQ context will use to perform all the I/O operations
+     */
+    public LLZSharedRuntime(final int numberOfThreads)
+    {
+        this.numberOfThreads = numberOfThreads;
+    }
+
+    /**
+     * Get the shared ZMQ context, creating it if this is the first instance using it.
+     * It has to be released with {@link #releaseZmqContext()}.
+     *
+     * @return the shared ZMQ context
+     */
+    ZMQ.Context acquireZmqContext()
+    {
+        synchronized (this.lock)
+        {
+            if (this.zmqContextReferences == 0)
+            {
+                LOGGER.info("Creating the shared ZMQ context with [{}] I/O threads", this.numberOfThreads);
+                this.zmqContext = ZMQ.context(this.numberOfThreads);
+            }
+
+            this.zmqContextReferences++;
+            return this.zmqContext;
+        }
+    }
+
+    /**
+     * Release the shared ZMQ context, it is closed if this is the last instance using it
+     */
+    void releaseZmqContext()
+    {
+        synchronized (this.lock)
+        {
+            if (this.zmqContextReferences == 0)
+            {
+                return;
+            }
+
+            this.zmqContextReferences--;
+
+            if (this.zmqContextReferences == 0)
+            {
+                LOGGER.info("Last instance using the shared ZMQ context stopped, closing it");
+                this.zmqContext.close();
+                this.zmqContext = null;
+            }
+        }
+    }
+
+    /**
+     * Get a client of the shared auto-discovery, creating it with the given configuration if no instance is using it.
+     * The shared auto-discovery is released when the returned client is stopped.
+     *
+     * @param instanceConfig the configuration of the instance
+     * @param threadFactory factory for the threads of the auto-discovery
+     * @return the auto-discovery client of the instance
+     * @throws LLZException exception thrown if the auto-discovery cannot be created
+     */
+    ILLZAutodisc acquireAutodisc(final LLZInstanceConfigWrapper instanceConfig, final ILLZThreadFactory threadFactory) throws LLZException
+    {
+        synchronized (this.lock)
+        {
+            ILLZAutodisc client = this.sharedAutodisc == null ? null : this.sharedAutodisc.createClient();
+
+            // Not created yet or already stopped by the last instance that was using it
+            if (client == null)
+            {
+                LOGGER.info("Creating the shared auto-discovery of type [{}]", instanceConfig.getAutodiscoConfig().getAutodiscType());
+                this.sharedAutodisc = new LLZSharedAutodisc(LLZInstanceContext.createAutodiscovery(instanceConfig, threadFactory));
+                client = this.sharedAutodisc.createClient();
+            }
+
+            return client;
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return "LLZSharedRuntime{" +
+                "numberOfThreads=" + this.numberOfThreads +
+                '}';
+    }
+}
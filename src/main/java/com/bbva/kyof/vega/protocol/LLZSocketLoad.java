@@ -0,0 +1,166 @@
+package com.bbva.kyof.vega.protocol;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks the load of a socket of a publishers or responders pool, used to assign the new topics to the least loaded
+ * socket of the pool.
+ *
+ * The messages and bytes are recorded by the socket in the threads that send or receive them. The rates are calculated
+ * from the recorded values between two samples, the samples and the number of topics are always handled under the lock
+ * of the manager that owns the pool.
+ */
+public final class LLZSocketLoad
+{
+    /** Minimum time in milliseconds between two samples, a sample taken before keeps the previous rates */
+    public static final long MIN_SAMPLE_INTERVAL = 100;
+
+    /** Number of messages sent or received by the socket */
+    private final AtomicLong messages = new AtomicLong();
+
+    /** Number of bytes sent or received by the socket */
+    private final AtomicLong bytes = new AtomicLong();
+
+    /** Number of topics assigned to the socket */
+    private int numTopics = 0;
+
+    /** Time in milliseconds of the last sample */
+    private long lastSampleTime;
+
+    /** Number of messages on the last sample */
+    private long lastSampleMessages = 0;
+
+    /** Number of bytes on the last sample */
+    private long lastSampleBytes = 0;
+
+    /** Messages per second between the last two samples */
+    private double messageRate = 0;
+
+    /** Bytes per second between the last two samples */
+    private double byteRate = 0;
+
+    /**
+     * Create a new load without traffic
+     *
+     * @param now current time in milliseconds, the first sample calculates the rates from it
+     */
+    public LLZSocketLoad(final long now)
+    {
+        this.lastSampleTime = now;
+    }
+
+    /**
+     * Record a message sent or received by the socket
+     *
+     * @param size size of the message in bytes
+     */
+    public void recordMessage(final int size)
+    {
+        this.messages.incrementAndGet();
+        this.bytes.addAndGet(size);
+    }
+
+    /** Called when a topic is assigned to the socket */
+    public void addTopic()
+    {
+        this.numTopics++;
+    }
+
+    /** Called when a topic assigned to the socket is destroyed */
+    public void removeTopic()
+    {
+        if (this.numTopics > 0)
+        {
+            this.numTopics--;
+        }
+    }
+
+    /**
+     * Calculate the rates from the traffic recorded since the last sample
+     *
+     * @param now current time in milliseconds
+     */
+    public void sample(final long now)
+    {
+        final long elapsed = now - this.lastSampleTime;
+
+        if (elapsed < MIN_SAMPLE_INTERVAL)
+        {
+            return;
+        }
+
+        final long currentMessages = this.messages.get();
+        final long currentBytes = this.bytes.get();
+
+        this.messageRate = (currentMessages - this.lastSampleMessages) * 1000.0 / elapsed;
+        this.byteRate = (currentBytes - this.lastSampleBytes) * 1000.0 / elapsed;
+
+        this.lastSampleTime = now;
+        this.lastSampleMessages = currentMessages;
+        this.lastSampleBytes = currentBytes;
+    }
+
+    /**
+     * Compare the load with another one using the rates of the last samples, the byte rate goes first, then the
+     * message rate and then the number of topics
+     *
+     * @param other the other load
+     * @return true if this load is lower than the other one
+     */
+    public boolean isLowerThan(final LLZSocketLoad other)
+    {
+        if (this.byteRate != other.byteRate)
+        {
+            return this.byteRate < other.byteRate;
+        }
+
+        if (this.messageRate != other.messageRate)
+        {
+            return this.messageRate < other.messageRate;
+        }
+
+        return this.numTopics < other.numTopics;
+    }
+
+    /** @return number of messages sent or received by the socket */
+    public long getMessages()
+    {
+        return this.messages.get();
+    }
+
+    /** @return number of bytes sent or received by the socket */
+    public long getBytes()
+    {
+        return this.bytes.get();
+    }
+
+    /** @return number of topics assigned to the socket */
+    public int getNumTopics()
+    {
+        return this.numTopics;
+    }
+
+    /** @return messages per second between the last two samples */
+    public double getMessageRate()
+    {
+        return this.messageRate;
+    }
+
+    /** @return bytes per second between the last two samples */
+    public double getByteRate()
+    {
+        return this.byteRate;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "LLZSocketLoad{" +
+                "messages=" + this.messages +
+                ", bytes=" + this.bytes +
+                ", numTopics=" + this.numTopics +
+                ", messageRate=" + this.messageRate +
+                ", byteRate=" + this.byteRate +
+                '}';
+    }
+}
@@ -1,13 +1,14 @@
 package com.bbva.kyof.vega.protocol;
 
 import java.nio.ByteBuffer;
+import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.bbva.kyof.utils.serialization.model.LLUSerializationException;
+import com.bbva.kyof.vega.config.general.SocketOptions;
 import com.bbva.kyof.vega.config.general.SubSocketSchema;
 import com.bbva.kyof.vega.exception.LLZException;
 import com.bbva.kyof.vega.msg.LLZMsgHeader;
@@ -15,12 +16,14 @@ import com.bbva.kyof.vega.msg.LLZMsgType;
 import com.bbva.kyof.vega.serialization.LLZMsgHeaderSerializer;
 import com.bbva.kyof.vega.sockets.ILLZSubSocketRcvHandler;
 import com.bbva.kyof.vega.sockets.LLZSubSocket;
+import com.bbva.kyof.vega.topic.LLZTopicIdEntry;
 import com.bbva.kyof.vega.topic.LLZTopicSubscriber;
+import com.bbva.kyof.vega.util.LLZCopyOnWriteLongMap;
 
 /**
  * The subscriber handles the transport and internal ZMQ socket to receive messages
  */                                                                     
-public final class LLZSubscriber implements ILLZSubSocketRcvHandler
+public final class LLZSubscriber implements ILLZSubSocketRcvHandler, ILLZHeartbeatPeer
 {
     /** Logger of the class */
     private static final Logger LOGGER = LoggerFactory.getLogger(LLZSubscriber.class);
@@ -28,8 +31,8 @@ public final class LLZSubscriber implements ILLZSubSocketRcvHandler
     /** Subscriber configuration */
     private final SubSocketSchema subscriberConfig;
 
-    /** This Map stores an association between topics unique ids and topic subscribers for incoming messages */
-    private final Map<Long, LLZTopicSubscriber> topicSubscriberByTopicId = new ConcurrentHashMap<>();
+    /** Resolved reception information by topic unique id, a single lookup without boxing per incoming message */
+    private final LLZCopyOnWriteLongMap<LLZTopicIdEntry> topicIdEntries = new LLZCopyOnWriteLongMap<>();
     
     /** Context of the instance */
     private final LLZInstanceContext instanceContext;
@@ -40,6 +43,9 @@ public final class LLZSubscriber implements ILLZSubSocketRcvHandler
     /** Socket addr which identifies this manager */
     private final String subConnection;
 
+    /** Tracker of the heartbeats of the publisher socket, null if the heartbeats are disabled */
+    private final LLZHeartbeatTracker heartbeatTracker;
+
     
     /**
      * Constructor of the class
@@ -47,43 +53,66 @@ public final class LLZSubscriber implements ILLZSubSocketRcvHandler
      * @param instanceContext Context of the instance
      * @param subConnection subscriber where to connect
      * @param subscriberConfig Configuration of the subscriber
+     * @param publisherSocketId unique id of the publisher socket
+     * @param peerStateListener listener for the changes of state of the publisher socket detected by the heartbeats
      * @throws LLZException
      */
-    public LLZSubscriber(final LLZInstanceContext instanceContext,final String subConnection, final SubSocketSchema subscriberConfig) throws LLZException
+    public LLZSubscriber(final LLZInstanceContext instanceContext,
+                         final String subConnection,
+                         final SubSocketSchema subscriberConfig,
+                         final long publisherSocketId,
+                         final ILLZPeerStateListener peerStateListener) throws LLZException
     {
         this.subConnection = subConnection;
         this.instanceContext = instanceContext;
         this.subscriberConfig = subscriberConfig;
+        this.heartbeatTracker = instanceContext.createHeartbeatTracker(publisherSocketId, peerStateListener);
         
         LOGGER.debug("Creating subscriber manager");
 
         // Connect and start the subscriber socket
         this.subscriberSocket = new LLZSubSocket(
-                instanceContext.getZmqContext(),
+                instanceContext.getZmqContext(this.subscriberConfig.getZmqContext()),
                 this.subConnection,
                 this,
-                this.subscriberConfig.getSubRateLimit());
+                this.subscriberConfig.getSubRateLimit(),
+                this.subscriberConfig.getSocketOptions(),
+                instanceContext.getParameters().getThreadFactory());
+
+        if (this.heartbeatTracker != null)
+        {
+            this.instanceContext.addHeartbeatPeer(this);
+        }
     }
     
     /**
-     * Subscribes to a topic.
+     * Subscribes to a group of topics with a single update of the subscriptions, the topics already subscribed are
+     * ignored.
      *
-     * @param topicUniqueId The unique id of the topic+publisher to subscribe
-     * @param subEventListener subEventListener listener for topic messages
-     * @throws LLZException exception thrown if already subscribed or if there is a problem subscribing
+     * @param subEventListenersByTopicId listener for the messages of each topic by the unique id of the topic+publisher
      */
-    public void subscribeToTopicId(final long topicUniqueId, final LLZTopicSubscriber subEventListener) throws LLZException
+    public void subscribeToTopicIds(final Map<Long, LLZTopicSubscriber> subEventListenersByTopicId)
     {
-        synchronized (this.topicSubscriberByTopicId)
+        synchronized (this.topicIdEntries)
         {
-            // Look for the topic subscriber for that topic ID
-            LLZTopicSubscriber listener = this.topicSubscriberByTopicId.get(topicUniqueId);
+            final Map<Long, LLZTopicIdEntry> newEntries = new HashMap<>();
 
-            // If there is a topic subscriber already. No need to bind the topic, it should already be bonded. 
-            if (listener == null)
+            for (final Map.Entry<Long, LLZTopicSubscriber> subEventListener : subEventListenersByTopicId.entrySet())
             {
-                // If there is no list, we need to add the new member and tell the socket to bind to the topic.
-                this.topicSubscriberByTopicId.put(topicUniqueId, subEventListener);
+                final long topicUniqueId = subEventListener.getKey();
+
+                // If there is a topic subscriber already. No need to bind the topic, it should already be bonded.
+                if (this.topicIdEntries.get(topicUniqueId) == null)
+                {
+                    newEntries.put(topicUniqueId, new LLZTopicIdEntry(topicUniqueId, subEventListener.getValue().getTopicName(), subEventListener.getValue()));
+                }
+            }
+
+            this.topicIdEntries.putAll(newEntries);
+
+            for (final LLZTopicIdEntry newEntry : newEntries.values())
+            {
+                newEntry.getTopicSubscriber().addTopicIdEntry(newEntry);
             }
         }
     }
@@ -98,8 +127,13 @@ public final class LLZSubscriber implements ILLZSubSocketRcvHandler
      */
      public boolean unsubscribeFromTopicId(final long uniqueTopicId) throws LLZException
      {
-         this.topicSubscriberByTopicId.remove(uniqueTopicId);
-         return this.topicSubscriberByTopicId.isEmpty();
+         final LLZTopicIdEntry removedEntry = this.topicIdEntries.remove(uniqueTopicId);
+         if (removedEntry != null)
+         {
+             removedEntry.getTopicSubscriber().removeTopicIdEntry(removedEntry);
+         }
+
+         return this.topicIdEntries.isEmpty();
      }
 
 
@@ -128,12 +162,40 @@ public final class LLZSubscriber implements ILLZSubSocketRcvHandler
             case DATA:
                 this.processUserDataMessage(messageHeader, message);
                 break;
+            case HEARTBEAT:
+                if (this.heartbeatTracker != null)
+                {
+                    this.heartbeatTracker.onHeartbeatReceived();
+                }
+                break;
             default:
                 LOGGER.warn("Message received of wrong type [{}], expected [{}]", messageHeader.getMsgType(), LLZMsgType.DATA);
                 break;
         }
     }
 
+    /**
+     * Apply the current sub_rate_limit of the socket schema to the socket, unless the schema sets an explicit
+     * receive_hwm in its socket options that takes precedence
+     */
+    public void applyRateLimit()
+    {
+        final SocketOptions socketOptions = this.subscriberConfig.getSocketOptions();
+
+        if (socketOptions != null && socketOptions.getReceiveHwm() != null)
+        {
+            return;
+        }
+
+        this.subscriberSocket.setRateLimit(this.subscriberConfig.getSubRateLimit());
+    }
+
+    /** @return the name of the socket schema of the subscriber */
+    public String getSchemaName()
+    {
+        return this.subscriberConfig.getName();
+    }
+
     /**
      * Stop the manager
      */
@@ -141,6 +203,8 @@ public final class LLZSubscriber implements ILLZSubSocketRcvHandler
     {
         LOGGER.info("Stopping subscriber socket");
 
+        this.instanceContext.removeHeartbeatPeer(this);
+
         try
         {
             this.subscriberSocket.stop();
@@ -152,6 +216,12 @@ public final class LLZSubscriber implements ILLZSubSocketRcvHandler
         }
     }
 
+    @Override
+    public void onHeartbeatTick(final long now)
+    {
+        this.heartbeatTracker.check(now);
+    }
+
     /**
      * Process a received user data message
      *
@@ -161,15 +231,15 @@ public final class LLZSubscriber implements ILLZSubSocketRcvHandler
     private void processUserDataMessage(final LLZMsgHeader header, final ByteBuffer content)
     {
         // Get the topic listener for the message 
-        final LLZTopicSubscriber eventListener = this.topicSubscriberByTopicId.get(header.getTopicUniqueId());
+        final LLZTopicIdEntry topicIdEntry = this.topicIdEntries.get(header.getTopicUniqueId());
 
         // If there is no listener ignore the message, it has probably unsubscribed
-        if (eventListener != null)
+        if (topicIdEntry != null)
         {
             LOGGER.trace("Sending message received from socket [{}] to its listener", this.getSubConnection());
 
             // Everything is correct, send header and content to the listener
-            eventListener.onUserDataMessageReceived(header, content);
+            topicIdEntry.getTopicSubscriber().onUserDataMessageReceived(topicIdEntry, header, content);
         }
         else
         {
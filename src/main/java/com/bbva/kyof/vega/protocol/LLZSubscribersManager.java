@@ -1,7 +1,15 @@
 package com.bbva.kyof.vega.protocol;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -9,11 +17,19 @@ import org.slf4j.LoggerFactory;
 import com.bbva.kyof.vega.autodiscovery.client.ILLZAutodiscTopicEndPoint;
 import com.bbva.kyof.vega.autodiscovery.client.ILLZAutodiscTopicEndPointChangeListener;
 import com.bbva.kyof.vega.autodiscovery.client.LLZAutodiscEndPointType;
+import com.bbva.kyof.vega.config.LLZConfigReloadResult;
+import com.bbva.kyof.vega.config.LLZInstanceConfigReloader;
+import com.bbva.kyof.vega.config.LLZInstanceConfigWrapper;
 import com.bbva.kyof.vega.config.general.SubSocketSchema;
 import com.bbva.kyof.vega.config.general.SubTopicConfig;
 import com.bbva.kyof.vega.exception.LLZException;
+import com.bbva.kyof.vega.topic.ILLZConflationKeyExtractor;
+import com.bbva.kyof.vega.topic.ILLZRcvMsgDispatcher;
 import com.bbva.kyof.vega.topic.ILLZTopicSubListener;
 import com.bbva.kyof.vega.topic.ILLZTopicSubscriber;
+import com.bbva.kyof.vega.topic.LLZConflatingSubBuffer;
+import com.bbva.kyof.vega.topic.LLZDispatchParams;
+import com.bbva.kyof.vega.topic.LLZPartitionedDispatcher;
 import com.bbva.kyof.vega.topic.LLZTopicSubscriber;
 
 /**
@@ -21,7 +37,7 @@ import com.bbva.kyof.vega.topic.LLZTopicSubscriber;
  * <p/>
  * Created by XE48745 on 31/07/2015.
  */
-public final class LLZSubscribersManager implements ILLZAutodiscTopicEndPointChangeListener
+public final class LLZSubscribersManager implements ILLZAutodiscTopicEndPointChangeListener, ILLZPeerStateListener
 {
     /** LOGGER Instance   */
     private static final Logger LOGGER = LoggerFactory.getLogger(LLZSubscribersManager.class);
@@ -29,8 +45,20 @@ public final class LLZSubscribersManager implements ILLZAutodiscTopicEndPointCha
     /** Stores the topic subscribers by the topic name used to create them. The topic name always comes from the user  */
     private final Map<String, LLZTopicSubscriber> topicSubscriberByTopicName = new HashMap<>();
         
+    /** Subscriptions to topic patterns by the regular expression used to create them */
+    private final Map<String, PatternSubscription> patternSubscriptionByPattern = new HashMap<>();
+
     /** Stores all the subscribers given the publisher ID they are connected to  */
     private final Map<Long, LLZSubscriber> subscriberByPubId = new HashMap<>();
+
+    /** End points waiting to be added by the publisher ID of their socket, they are subscribed together in a single task */
+    private final Map<Long, List<ILLZAutodiscTopicEndPoint>> pendingAdditionsByPubId = new HashMap<>();
+
+    /** Pending close of the subscribers without subscriptions that are lingering, by the publisher ID they are connected to */
+    private final Map<Long, Runnable> lingeringCloseByPubId = new HashMap<>();
+
+    /** Worker pools of the dispatched subscriptions by their parameters, the subscriptions with equal parameters share them */
+    private final Map<LLZDispatchParams, LLZPartitionedDispatcher> dispatcherPoolByParams = new HashMap<>();
    
     /** Global lock for subscriptions, it will be shared between the hazelcast auto-discovery and the manager to prevent deadlocks */
     private final Object globalLock = new Object();
@@ -60,6 +88,61 @@ public final class LLZSubscribersManager implements ILLZAutodiscTopicEndPointCha
      */
 
     public ILLZTopicSubscriber subscribeToTopic(final String topicName, final ILLZTopicSubListener subListener) throws LLZException
+    {
+        return this.subscribeToTopic(topicName, subListener, false, null, null);
+    }
+
+    /**
+     * Subscribes a topicName delivering the messages through a conflating buffer.
+     *
+     * @param topicName An String with the topic name to subscribe to
+     * @param subListener  The Listener where the user wants to receive the messages.
+     * @param keyExtractor (Optional) extractor of the conflation key, if null the messages are conflated by topic Id
+     * @throws LLZException exception thrown if already subscribed or if there is a problem subscribing
+     */
+    public ILLZTopicSubscriber subscribeToTopicConflated(final String topicName,
+                                                         final ILLZTopicSubListener subListener,
+                                                         final ILLZConflationKeyExtractor keyExtractor) throws LLZException
+    {
+        return this.subscribeToTopic(topicName, subListener, true, keyExtractor, null);
+    }
+
+    /**
+     * Subscribes a topicName delivering the messages from a pool of workers partitioned by topic Id.
+     *
+     * @param topicName An String with the topic name to subscribe to
+     * @param subListener  The Listener where the user wants to receive the messages.
+     * @param dispatchParams parameters of the dispatch workers
+     * @throws LLZException exception thrown if already subscribed or if there is a problem subscribing
+     */
+    public ILLZTopicSubscriber subscribeToTopicDispatched(final String topicName,
+                                                          final ILLZTopicSubListener subListener,
+                                                          final LLZDispatchParams dispatchParams) throws LLZException
+    {
+        if (dispatchParams == null)
+        {
+            LOGGER.error("No dispatch parameters have been provided subscribing to topic [{}]", topicName);
+            throw new LLZException("The dispatch parameters should be provided");
+        }
+
+        return this.subscribeToTopic(topicName, subListener, false, null, dispatchParams);
+    }
+
+    /**
+     * Subscribes a topicName, common method for all the delivery modes
+     *
+     * @param topicName An String with the topic name to subscribe to
+     * @param subListener  The Listener where the user wants to receive the messages.
+     * @param conflate true to deliver the messages through a conflating buffer
+     * @param keyExtractor (Optional) extractor of the conflation key, if null the messages are conflated by topic Id
+     * @param dispatchParams (Optional) parameters to deliver the messages from a pool of workers
+     * @throws LLZException exception thrown if already subscribed or if there is a problem subscribing
+     */
+    private ILLZTopicSubscriber subscribeToTopic(final String topicName,
+                                                 final ILLZTopicSubListener subListener,
+                                                 final boolean conflate,
+                                                 final ILLZConflationKeyExtractor keyExtractor,
+                                                 final LLZDispatchParams dispatchParams) throws LLZException
     {
         // Check that there is at a listener
         if (subListener == null)
@@ -74,22 +157,29 @@ public final class LLZSubscribersManager implements ILLZAutodiscTopicEndPointCha
             // If already stopped launch an error
             this.checkStopped();
 
-            // Try to add it to the map, it will return null if it was added
-            if (this.topicSubscriberByTopicName.containsKey(topicName))
+            // Check the topic is not subscribed yet and is configured
+            this.checkCanSubscribe(topicName);
+
+            // Create and add the new topic subscriber
+            final ILLZRcvMsgDispatcher dispatcher;
+            if (conflate)
             {
-                LOGGER.error("Already subscribed to topic [{}]", topicName);
-                throw new LLZException("Already subscribed to topic " + topicName);
+                dispatcher = new LLZConflatingSubBuffer(
+                        topicName,
+                        subListener,
+                        keyExtractor,
+                        this.instanceContext.getParameters().getThreadFactory());
             }
-
-            // Check if the topic is configured
-            if (!this.instanceContext.getInstanceConfig().isSubTopicConfigured(topicName))
+            else if (dispatchParams != null)
             {
-                LOGGER.error("The subscriber topic [{}] don't correspond to any configured regular expression in the configuration file of the instance", topicName);
-                throw new LLZException("Subscriber topic not found in the instance configuration: " + topicName);
+                dispatcher = this.getDispatcherPool(dispatchParams).createDispatcher(subListener);
+            }
+            else
+            {
+                dispatcher = null;
             }
 
-            // Create and add the new topic subscriber
-            final LLZTopicSubscriber newTopicSubscriber = new LLZTopicSubscriber(topicName, subListener);
+            final LLZTopicSubscriber newTopicSubscriber = new LLZTopicSubscriber(topicName, subListener, dispatcher);
             this.topicSubscriberByTopicName.put(topicName, newTopicSubscriber);
 
             // Subscribe to auto-discovery in order to get the current status of topics and events of change
@@ -99,6 +189,197 @@ public final class LLZSubscribersManager implements ILLZAutodiscTopicEndPointCha
         }
     }
 
+    /**
+     * Return the worker pool for the given dispatch parameters, creating it the first time. Call with the global lock taken
+     *
+     * @param dispatchParams parameters of the dispatch workers
+     * @return the worker pool shared by the subscriptions with the same parameters
+     */
+    private LLZPartitionedDispatcher getDispatcherPool(final LLZDispatchParams dispatchParams)
+    {
+        LLZPartitionedDispatcher pool = this.dispatcherPoolByParams.get(dispatchParams);
+
+        if (pool == null)
+        {
+            LOGGER.info("Creating dispatch worker pool with parameters [{}]", dispatchParams);
+
+            pool = new LLZPartitionedDispatcher(
+                    String.valueOf(this.dispatcherPoolByParams.size()),
+                    dispatchParams,
+                    this.instanceContext.getParameters().getThreadFactory());
+            this.dispatcherPoolByParams.put(dispatchParams, pool);
+        }
+
+        return pool;
+    }
+
+    /**
+     * Subscribes to a group of topics delivering all the messages to the same listener.
+     *
+     * All the topics are validated before subscribing to any of them, then all the subscriptions are done under a
+     * single acquisition of the lock.
+     *
+     * @param topicNames the topic names to subscribe to
+     * @param subListener  The Listener where the user wants to receive the messages.
+     * @return the created topic subscribers by topic name, in the same order as the given topics
+     * @throws LLZException exception thrown if any topic is already subscribed, duplicated or not configured
+     */
+    public Map<String, ILLZTopicSubscriber> subscribeToTopics(final Collection<String> topicNames, final ILLZTopicSubListener subListener) throws LLZException
+    {
+        // Check that there is at a listener
+        if (subListener == null)
+        {
+            LOGGER.error("No listener has been provided subscribing to topics {}", topicNames);
+            throw new LLZException("At least a listener should be provided");
+        }
+
+        // Lock on the global lock
+        synchronized (this.globalLock)
+        {
+            // If already stopped launch an error
+            this.checkStopped();
+
+            // Validate all the topics before subscribing to any of them
+            final Set<String> batchTopics = new HashSet<>();
+            for (final String topicName : topicNames)
+            {
+                if (!batchTopics.add(topicName))
+                {
+                    LOGGER.error("Topic [{}] duplicated in the subscription request", topicName);
+                    throw new LLZException("Duplicated topic in the subscription request " + topicName);
+                }
+
+                this.checkCanSubscribe(topicName);
+            }
+
+            final Map<String, ILLZTopicSubscriber> result = new LinkedHashMap<>();
+            for (final String topicName : topicNames)
+            {
+                result.put(topicName, this.subscribeToTopic(topicName, subListener, false, null, null));
+            }
+
+            return result;
+        }
+    }
+
+    /**
+     * Check that the topic is not subscribed yet and that it is configured, call with the global lock taken
+     *
+     * @param topicName the topic name to check
+     * @throws LLZException exception thrown if already subscribed or not configured
+     */
+    private void checkCanSubscribe(final String topicName) throws LLZException
+    {
+        if (this.topicSubscriberByTopicName.containsKey(topicName))
+        {
+            LOGGER.error("Already subscribed to topic [{}]", topicName);
+            throw new LLZException("Already subscribed to topic " + topicName);
+        }
+
+        // Check if the topic is configured
+        if (!this.instanceContext.getInstanceConfig().isSubTopicConfigured(topicName))
+        {
+            LOGGER.error("The subscriber topic [{}] don't correspond to any configured regular expression in the configuration file of the instance", topicName);
+            throw new LLZException("Subscriber topic not found in the instance configuration: " + topicName);
+        }
+    }
+
+    /**
+     * Subscribes to all the topics whose name matches a regular expression, the topics are subscribed as they are
+     * discovered. Only the discovered topics that are configured in the instance are subscribed.
+     *
+     * @param topicRegexp regular expression to match against the topic names
+     * @param subListener  The Listener where the user wants to receive the messages.
+     * @throws LLZException exception thrown if already subscribed to the pattern or if there is a problem subscribing
+     */
+    public void subscribeToPattern(final String topicRegexp, final ILLZTopicSubListener subListener) throws LLZException
+    {
+        // Check that there is at a listener
+        if (subListener == null)
+        {
+            LOGGER.error("No listener has been provided subscribing to topic pattern [{}]", topicRegexp);
+            throw new LLZException("At least a listener should be provided");
+        }
+
+        // Lock on the global lock
+        synchronized (this.globalLock)
+        {
+            // If already stopped launch an error
+            this.checkStopped();
+
+            if (this.patternSubscriptionByPattern.containsKey(topicRegexp))
+            {
+                LOGGER.error("Already subscribed to topic pattern [{}]", topicRegexp);
+                throw new LLZException("Already subscribed to topic pattern " + topicRegexp);
+            }
+
+            final PatternSubscription patternSubscription = new PatternSubscription(topicRegexp, subListener);
+            this.patternSubscriptionByPattern.put(topicRegexp, patternSubscription);
+
+            try
+            {
+                // The auto-discovery matches the pattern against the known topic names, no scan per topic is done
+                this.instanceContext.getAutodiscovery().subscribeToTopicPattern(topicRegexp, LLZAutodiscEndPointType.PUBLISHER, patternSubscription);
+            }
+            catch (final LLZException e)
+            {
+                this.patternSubscriptionByPattern.remove(topicRegexp);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Unsubscribes from a topic pattern, all the topics subscribed through the pattern are unsubscribed
+     *
+     * @param topicRegexp the regular expression used in the subscription
+     * @throws LLZException exception thrown if not subscribed or if there is a problem unsubscribing
+     */
+    public void unsubscribeFromPattern(final String topicRegexp) throws LLZException
+    {
+        // Lock on the global lock
+        synchronized (this.globalLock)
+        {
+            // If already stopped launch an error
+            this.checkStopped();
+
+            final PatternSubscription patternSubscription = this.patternSubscriptionByPattern.get(topicRegexp);
+
+            if (patternSubscription == null)
+            {
+                LOGGER.error("Not subscribed to topic pattern [{}]", topicRegexp);
+                throw new LLZException("Not subscribed to topic pattern " + topicRegexp);
+            }
+
+            this.unsubscribeFromPattern(patternSubscription);
+
+            this.patternSubscriptionByPattern.remove(topicRegexp);
+        }
+    }
+
+    /**
+     * Unsubscribes a pattern subscription and the topics subscribed through it, call with the global lock taken
+     *
+     * @param patternSubscription the pattern subscription
+     * @throws LLZException exception thrown if there is a problem unsubscribing
+     */
+    private void unsubscribeFromPattern(final PatternSubscription patternSubscription) throws LLZException
+    {
+        this.instanceContext.getAutodiscovery().unsubscribeFromTopicPattern(patternSubscription.topicRegexp, LLZAutodiscEndPointType.PUBLISHER);
+
+        for (final String topicName : patternSubscription.topicNames)
+        {
+            final LLZTopicSubscriber topicSubscriber = this.topicSubscriberByTopicName.remove(topicName);
+
+            if (topicSubscriber != null)
+            {
+                this.releaseTopicSubscriber(topicSubscriber);
+            }
+        }
+
+        patternSubscription.topicNames.clear();
+    }
+
     /**
      * Unsubscribes from a topicName.
      *
@@ -122,6 +403,16 @@ public final class LLZSubscribersManager implements ILLZAutodiscTopicEndPointCha
                 throw new LLZException("Not subscribed to topic " + topicName);
             }
 
+            // The topics subscribed through a pattern are owned by the pattern subscription
+            for (final PatternSubscription patternSubscription : this.patternSubscriptionByPattern.values())
+            {
+                if (patternSubscription.topicNames.contains(topicName))
+                {
+                    LOGGER.error("Topic [{}] is subscribed through the topic pattern [{}]", topicName, patternSubscription.topicRegexp);
+                    throw new LLZException("Topic " + topicName + " is subscribed through the topic pattern " + patternSubscription.topicRegexp);
+                }
+            }
+
             this.unsubscribeFromTopic(topicSubscriber);
 
             this.topicSubscriberByTopicName.remove(topicName);
@@ -133,6 +424,17 @@ public final class LLZSubscribersManager implements ILLZAutodiscTopicEndPointCha
         // Notify Auto Discovery an unregister from events regarding the topicName
         this.instanceContext.getAutodiscovery().unsubscribeFromTopicEndPoints(topicSubscriber.getTopicName(), LLZAutodiscEndPointType.PUBLISHER);
 
+        this.releaseTopicSubscriber(topicSubscriber);
+    }
+
+    /**
+     * Remove the end points of a topic subscriber from the subscribers and stop it, call with the global lock taken
+     *
+     * @param topicSubscriber the topic subscriber
+     * @throws LLZException exception thrown if there is a problem removing the end points
+     */
+    private void releaseTopicSubscriber(final LLZTopicSubscriber topicSubscriber) throws LLZException
+    {
         // For each subscribed endpoint remove it from the subscribers
         for (final ILLZAutodiscTopicEndPoint endPointInfo : topicSubscriber.getEndPointsByTopicId().values())
         {
@@ -141,6 +443,37 @@ public final class LLZSubscribersManager implements ILLZAutodiscTopicEndPointCha
 
         // Clean the internal map just in case
         topicSubscriber.getEndPointsByTopicId().clear();
+
+        // Stop the delivery of any pending message
+        topicSubscriber.stop();
+    }
+
+    /**
+     * Apply the live changes of the subscriber socket schemas of a reloaded configuration, the subscribers of the
+     * schemas whose sub_rate_limit changed are updated
+     *
+     * @param reloaded the reloaded and validated configuration
+     * @param result the result of the reload to fill
+     */
+    protected void applyLiveChanges(final LLZInstanceConfigWrapper reloaded, final LLZConfigReloadResult result)
+    {
+        synchronized (this.globalLock)
+        {
+            final Set<String> rateLimitChanges = LLZInstanceConfigReloader.applySubSchemaChanges(this.instanceContext.getInstanceConfig(), reloaded, result);
+
+            if (this.stopped || rateLimitChanges.isEmpty())
+            {
+                return;
+            }
+
+            for (final LLZSubscriber subscriber : this.subscriberByPubId.values())
+            {
+                if (rateLimitChanges.contains(subscriber.getSchemaName()))
+                {
+                    subscriber.applyRateLimit();
+                }
+            }
+        }
     }
 
     /**
@@ -154,6 +487,14 @@ public final class LLZSubscribersManager implements ILLZAutodiscTopicEndPointCha
             // If already stopped launch an error
             this.checkStopped();
 
+            // Stop the pattern subscriptions, it removes the topic subscribers created through them
+            for (final PatternSubscription patternSubscription : this.patternSubscriptionByPattern.values())
+            {
+                this.unsubscribeFromPattern(patternSubscription);
+            }
+
+            this.patternSubscriptionByPattern.clear();
+
             // Stop and clear the topic subscribers
             for (final LLZTopicSubscriber topicSubscriber : this.topicSubscriberByTopicName.values())
             {
@@ -162,6 +503,23 @@ public final class LLZSubscribersManager implements ILLZAutodiscTopicEndPointCha
 
             this.topicSubscriberByTopicName.clear();
 
+            // Close the subscribers that are lingering
+            for (final LLZSubscriber subscriber : this.subscriberByPubId.values())
+            {
+                subscriber.stop();
+            }
+
+            this.subscriberByPubId.clear();
+            this.lingeringCloseByPubId.clear();
+
+            // Stop the dispatch worker pools once no subscriber socket can dispatch into them
+            for (final LLZPartitionedDispatcher pool : this.dispatcherPoolByParams.values())
+            {
+                pool.stop();
+            }
+
+            this.dispatcherPoolByParams.clear();
+
             // Set the instance as stopped
             this.stopped = true;
         }
@@ -170,53 +528,367 @@ public final class LLZSubscribersManager implements ILLZAutodiscTopicEndPointCha
     @Override
     public void onEndPointAdded(final ILLZAutodiscTopicEndPoint autodiscoveryInfo)
     {
-        // Lock on the global lock
-        synchronized (this.globalLock)
+        final long socketId = autodiscoveryInfo.getSocketId();
+        final List<ILLZAutodiscTopicEndPoint> pendingAdditions;
+
+        // Join the end points of the publisher socket still waiting to be added, so a burst of end points like the
+        // ones of a bulk subscription updates the subscriptions of the socket only once
+        synchronized (this.pendingAdditionsByPubId)
         {
-            if (this.stopped)
+            final List<ILLZAutodiscTopicEndPoint> existingAdditions = this.pendingAdditionsByPubId.get(socketId);
+            if (existingAdditions != null)
             {
+                existingAdditions.add(autodiscoveryInfo);
                 return;
             }
 
-            // Check if subscribed to the topic and get the topic subscriber
-            final LLZTopicSubscriber topicSubscriber = this.topicSubscriberByTopicName.get(autodiscoveryInfo.getTopicName());
-            if (topicSubscriber == null)
+            pendingAdditions = new ArrayList<>();
+            pendingAdditions.add(autodiscoveryInfo);
+            this.pendingAdditionsByPubId.put(socketId, pendingAdditions);
+        }
+
+        // Connect in the connection executor, the events of different publisher sockets are processed in parallel
+        this.instanceContext.getConnectionExecutor().execute(socketId, new Runnable()
+        {
+            @Override
+            public void run()
             {
-                LOGGER.info("New topic end-point notification received but the subscriber is not subscribed anymore. AutoDiscoveryInfo[{}]", autodiscoveryInfo);
-                return;
+                LLZSubscribersManager.this.addPendingEndPoints(socketId, pendingAdditions);
             }
+        });
+    }
+
+    @Override
+    public void onEndPointRemoved(final ILLZAutodiscTopicEndPoint autodiscoveryInfo)
+    {
+        // Queued after any pending addition for the same publisher socket
+        this.closePendingAdditions(autodiscoveryInfo.getSocketId());
+        this.instanceContext.getConnectionExecutor().execute(autodiscoveryInfo.getSocketId(), new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                LLZSubscribersManager.this.removeEndPoint(autodiscoveryInfo);
+            }
+        });
+    }
+
+    /**
+     * Add an end point discovered through a pattern subscription, the topic subscriber is created the first time an end
+     * point of a matching topic is discovered
+     *
+     * @param patternSubscription the pattern subscription
+     * @param autodiscoveryInfo the information of the new end point
+     */
+    private void addPatternEndPoint(final PatternSubscription patternSubscription, final ILLZAutodiscTopicEndPoint autodiscoveryInfo)
+    {
+        final String topicName = autodiscoveryInfo.getTopicName();
 
-            // Make sure the end-point is not already added, may happen if there are duplicated events from auto-discovery
-            if (topicSubscriber.getEndPointsByTopicId().containsKey(autodiscoveryInfo.getTopicId()))
+        synchronized (this.globalLock)
+        {
+            if (this.stopped || this.patternSubscriptionByPattern.get(patternSubscription.topicRegexp) != patternSubscription)
             {
-                LOGGER.info("New topic end-point notification received but the end-point is already registered. AutoDiscoveryInfo[{}]", autodiscoveryInfo);
                 return;
             }
 
-            try
+            if (!patternSubscription.topicNames.contains(topicName))
             {
-                // Get the subscriber for the publisher info if exists, create in other case
-                final LLZSubscriber subscriber = this.getOrCreateSubscriber(autodiscoveryInfo);
+                // Subscribed explicitly or through another pattern, the end point arrives through that subscription
+                if (this.topicSubscriberByTopicName.containsKey(topicName))
+                {
+                    return;
+                }
 
-                // Subscribe to the topic in the subscriber
-                subscriber.subscribeToTopicId(autodiscoveryInfo.getTopicId(), topicSubscriber);
+                if (!this.instanceContext.getInstanceConfig().isSubTopicConfigured(topicName))
+                {
+                    LOGGER.warn("Topic [{}] matches the topic pattern [{}] but is not configured in the instance, it won't be subscribed", topicName, patternSubscription.topicRegexp);
+                    return;
+                }
 
-                // If there were no errors add the new endpoint to the list of endpoints for the topic name
-                topicSubscriber.getEndPointsByTopicId().put(autodiscoveryInfo.getTopicId(), autodiscoveryInfo);
+                LOGGER.info("Subscribing to topic [{}] through the topic pattern [{}]", topicName, patternSubscription.topicRegexp);
+
+                this.topicSubscriberByTopicName.put(topicName, new LLZTopicSubscriber(topicName, patternSubscription.subListener, null));
+                patternSubscription.topicNames.add(topicName);
             }
-            catch (final LLZException e)
+        }
+
+        // Connect outside of the lock like any other end point
+        this.addEndPoints(autodiscoveryInfo.getSocketId(), Collections.singletonList(autodiscoveryInfo));
+    }
+
+    /**
+     * Remove an end point discovered through a pattern subscription
+     *
+     * @param patternSubscription the pattern subscription
+     * @param autodiscoveryInfo the information of the removed end point
+     */
+    private void removePatternEndPoint(final PatternSubscription patternSubscription, final ILLZAutodiscTopicEndPoint autodiscoveryInfo)
+    {
+        synchronized (this.globalLock)
+        {
+            if (patternSubscription.topicNames.contains(autodiscoveryInfo.getTopicName()))
             {
-                LOGGER.error(
-                        String.format("Unexpected error subscribing to TopicId [%d], TopicName [%s], PubAddress [%s]. Subscription won't be done",
-                        autodiscoveryInfo.getTopicId(),
-                        autodiscoveryInfo.getTopicName(),
-                        autodiscoveryInfo.getBindAddress()), e);
+                this.removeEndPoint(autodiscoveryInfo);
             }
         }
     }
 
     @Override
-    public void onEndPointRemoved(final ILLZAutodiscTopicEndPoint autodiscoveryInfo)
+    public void onPeerDown(final long socketId)
+    {
+        this.notifyPeerState(socketId, false);
+    }
+
+    @Override
+    public void onPeerUp(final long socketId)
+    {
+        this.notifyPeerState(socketId, true);
+    }
+
+    /**
+     * Notify the user listener of the end points of a publisher socket that has been marked as down or up by the heartbeats
+     *
+     * @param socketId the unique id of the publisher socket
+     * @param up true if the publisher socket is up again
+     */
+    private void notifyPeerState(final long socketId, final boolean up)
+    {
+        final ILLZAutodiscTopicEndPointChangeListener peerStateListener = this.instanceContext.getParameters().getPeerStateListener();
+        if (peerStateListener == null)
+        {
+            return;
+        }
+
+        final List<ILLZAutodiscTopicEndPoint> socketEndPoints = new ArrayList<>();
+
+        synchronized (this.globalLock)
+        {
+            for (final LLZTopicSubscriber topicSubscriber : this.topicSubscriberByTopicName.values())
+            {
+                for (final ILLZAutodiscTopicEndPoint endPoint : topicSubscriber.getEndPointsByTopicId().values())
+                {
+                    if (endPoint.getSocketId() == socketId)
+                    {
+                        socketEndPoints.add(endPoint);
+                    }
+                }
+            }
+        }
+
+        // Call the listener outside of the lock
+        for (final ILLZAutodiscTopicEndPoint endPoint : socketEndPoints)
+        {
+            if (up)
+            {
+                peerStateListener.onEndPointAdded(endPoint);
+            }
+            else
+            {
+                peerStateListener.onEndPointRemoved(endPoint);
+            }
+        }
+    }
+
+    /**
+     * Subscribe to the end points of a publisher socket that were waiting to be added, later end points of the socket
+     * go to a new task
+     *
+     * @param socketId the publisher socket id of the end points
+     * @param pendingAdditions the end points waiting to be added
+     */
+    private void addPendingEndPoints(final long socketId, final List<ILLZAutodiscTopicEndPoint> pendingAdditions)
+    {
+        synchronized (this.pendingAdditionsByPubId)
+        {
+            if (this.pendingAdditionsByPubId.get(socketId) == pendingAdditions)
+            {
+                this.pendingAdditionsByPubId.remove(socketId);
+            }
+        }
+
+        this.addEndPoints(socketId, pendingAdditions);
+    }
+
+    /**
+     * Stop joining new end points of a publisher socket to the end points waiting to be added, so the next ones are
+     * processed after any task queued now for the socket
+     *
+     * @param socketId the publisher socket id
+     */
+    private void closePendingAdditions(final long socketId)
+    {
+        synchronized (this.pendingAdditionsByPubId)
+        {
+            this.pendingAdditionsByPubId.remove(socketId);
+        }
+    }
+
+    /**
+     * Add new end points of a publisher socket, creating and connecting the subscriber socket if there is none for it.
+     * All the topics are subscribed in the subscriber with a single update.
+     *
+     * The socket is created and connected without holding the global lock. It is safe because the tasks of the same
+     * publisher socket id never run concurrently in the connection executor.
+     *
+     * @param socketId the publisher socket id of the end points
+     * @param endPoints the information of the new end points
+     */
+    private void addEndPoints(final long socketId, final List<ILLZAutodiscTopicEndPoint> endPoints)
+    {
+        final Map<ILLZAutodiscTopicEndPoint, LLZTopicSubscriber> newEndPoints;
+
+        // Lock on the global lock
+        synchronized (this.globalLock)
+        {
+            newEndPoints = this.getTopicSubscribersForNewEndPoints(endPoints);
+            if (newEndPoints.isEmpty())
+            {
+                return;
+            }
+
+            // If there is a subscriber already connected to the publisher socket just subscribe to the topics
+            final LLZSubscriber existingSubscriber = this.subscriberByPubId.get(socketId);
+            if (existingSubscriber != null)
+            {
+                this.lingeringCloseByPubId.remove(socketId);
+                this.subscribeEndPoints(existingSubscriber, newEndPoints);
+                return;
+            }
+        }
+
+        // Create and connect the new subscriber outside of the lock
+        final ILLZAutodiscTopicEndPoint firstEndPoint = newEndPoints.keySet().iterator().next();
+        final LLZSubscriber newSubscriber;
+        try
+        {
+            newSubscriber = this.createSubscriber(firstEndPoint);
+        }
+        catch (final LLZException e)
+        {
+            LOGGER.error(
+                    String.format("Unexpected error creating the subscriber for TopicId [%d], TopicName [%s], PubAddress [%s]. Subscription won't be done",
+                    firstEndPoint.getTopicId(),
+                    firstEndPoint.getTopicName(),
+                    firstEndPoint.getBindAddress()), e);
+            return;
+        }
+
+        synchronized (this.globalLock)
+        {
+            // Make sure nothing has changed while connecting
+            final Iterator<Map.Entry<ILLZAutodiscTopicEndPoint, LLZTopicSubscriber>> iterator = newEndPoints.entrySet().iterator();
+            while (iterator.hasNext())
+            {
+                final Map.Entry<ILLZAutodiscTopicEndPoint, LLZTopicSubscriber> newEndPoint = iterator.next();
+                if (this.getTopicSubscriberForNewEndPoint(newEndPoint.getKey()) != newEndPoint.getValue())
+                {
+                    iterator.remove();
+                }
+            }
+
+            if (!newEndPoints.isEmpty())
+            {
+                this.subscriberByPubId.put(socketId, newSubscriber);
+                this.subscribeEndPoints(newSubscriber, newEndPoints);
+                return;
+            }
+        }
+
+        // Not needed anymore, the topics have been unsubscribed or the manager stopped meanwhile
+        try
+        {
+            newSubscriber.stop();
+        }
+        catch (final LLZException e)
+        {
+            LOGGER.error("Unexpected error stopping a not needed subscriber. " + firstEndPoint, e);
+        }
+    }
+
+    /**
+     * Get the topic subscribers of new end points, call with the global lock taken
+     *
+     * @param endPoints the information of the new end points
+     * @return the topic subscriber by end point, without the end points that should not be added or are repeated
+     */
+    private Map<ILLZAutodiscTopicEndPoint, LLZTopicSubscriber> getTopicSubscribersForNewEndPoints(final List<ILLZAutodiscTopicEndPoint> endPoints)
+    {
+        final Map<ILLZAutodiscTopicEndPoint, LLZTopicSubscriber> result = new LinkedHashMap<>();
+        final Set<Long> topicIds = new HashSet<>();
+
+        for (final ILLZAutodiscTopicEndPoint endPoint : endPoints)
+        {
+            final LLZTopicSubscriber topicSubscriber = this.getTopicSubscriberForNewEndPoint(endPoint);
+            if (topicSubscriber != null && topicIds.add(endPoint.getTopicId()))
+            {
+                result.put(endPoint, topicSubscriber);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Get the topic subscriber a new end point belongs to, call with the global lock taken
+     *
+     * @param autodiscoveryInfo the information of the new end point
+     * @return the topic subscriber, null if stopped, not subscribed or if the end point is already registered
+     */
+    private LLZTopicSubscriber getTopicSubscriberForNewEndPoint(final ILLZAutodiscTopicEndPoint autodiscoveryInfo)
+    {
+        if (this.stopped)
+        {
+            return null;
+        }
+
+        // Check if subscribed to the topic and get the topic subscriber
+        final LLZTopicSubscriber topicSubscriber = this.topicSubscriberByTopicName.get(autodiscoveryInfo.getTopicName());
+        if (topicSubscriber == null)
+        {
+            LOGGER.info("New topic end-point notification received but the subscriber is not subscribed anymore. AutoDiscoveryInfo[{}]", autodiscoveryInfo);
+            return null;
+        }
+
+        // Make sure the end-point is not already added, may happen if there are duplicated events from auto-discovery
+        if (topicSubscriber.getEndPointsByTopicId().containsKey(autodiscoveryInfo.getTopicId()))
+        {
+            LOGGER.info("New topic end-point notification received but the end-point is already registered. AutoDiscoveryInfo[{}]", autodiscoveryInfo);
+            return null;
+        }
+
+        return topicSubscriber;
+    }
+
+    /**
+     * Subscribe to the topics of the end points in the subscriber, call with the global lock taken
+     *
+     * @param subscriber the subscriber connected to the publisher socket of the end points
+     * @param newEndPoints the information of the end points with the topic subscriber of their topic
+     */
+    private void subscribeEndPoints(final LLZSubscriber subscriber, final Map<ILLZAutodiscTopicEndPoint, LLZTopicSubscriber> newEndPoints)
+    {
+        final Map<Long, LLZTopicSubscriber> topicSubscribersByTopicId = new HashMap<>();
+        for (final Map.Entry<ILLZAutodiscTopicEndPoint, LLZTopicSubscriber> newEndPoint : newEndPoints.entrySet())
+        {
+            topicSubscribersByTopicId.put(newEndPoint.getKey().getTopicId(), newEndPoint.getValue());
+        }
+
+        // Subscribe to all the topics in the subscriber with a single update
+        subscriber.subscribeToTopicIds(topicSubscribersByTopicId);
+
+        // Add the new endpoints to the list of endpoints for the topic names
+        for (final Map.Entry<ILLZAutodiscTopicEndPoint, LLZTopicSubscriber> newEndPoint : newEndPoints.entrySet())
+        {
+            newEndPoint.getValue().getEndPointsByTopicId().put(newEndPoint.getKey().getTopicId(), newEndPoint.getKey());
+        }
+    }
+
+    /**
+     * Remove an end point, stopping the subscriber socket if there are no more topics on it
+     *
+     * @param autodiscoveryInfo the information of the removed end point
+     */
+    private void removeEndPoint(final ILLZAutodiscTopicEndPoint autodiscoveryInfo)
     {
         // Lock on the global lock
         synchronized (this.globalLock)
@@ -269,32 +941,84 @@ public final class LLZSubscribersManager implements ILLZAutodiscTopicEndPointCha
         // Unsubscribe from topic in the subscriber and check if there are no more subscriptions for that subscriber
         boolean subscriberIsEmpty = subscriber.unsubscribeFromTopicId(autodiscoveryInfo.getTopicId());
 
-        // If empty remove the subscriber and stop it
+        // If empty remove the subscriber and stop it, or let it linger to be reused
         if (subscriberIsEmpty)
         {
-            this.subscriberByPubId.remove(autodiscoveryInfo.getSocketId());
-            subscriber.stop();
+            this.closeOrLingerSubscriber(autodiscoveryInfo.getSocketId(), subscriber);
         }
     }
 
     /**
-     * Gets or creates a subscriber
-     * 
-     * @param autodiscoveryInfo
-     * @return the subscriber
-     * @throws LLZException
+     * Close a subscriber without subscriptions, if a linger time is configured it stays open for that time so a quick
+     * re-add of an end point of the publisher socket reuses it. Call with the global lock taken.
+     *
+     * @param socketId the publisher socket id the subscriber is connected to
+     * @param subscriber the subscriber without subscriptions
+     * @throws LLZException exception thrown if there is a problem stopping the subscriber
      */
-    private LLZSubscriber getOrCreateSubscriber(final ILLZAutodiscTopicEndPoint autodiscoveryInfo) throws LLZException
+    private void closeOrLingerSubscriber(final long socketId, final LLZSubscriber subscriber) throws LLZException
     {
-        // Check if there is already a subscriber(socket) for the event publisher id(socket)
-        final LLZSubscriber existingSubscriber = this.subscriberByPubId.get(autodiscoveryInfo.getSocketId());
+        final long linger = this.instanceContext.getParameters().getEndPointSocketLinger();
 
-        // If it already exists, return it if not we need to create it
-        if (existingSubscriber != null)
+        if (linger <= 0)
         {
-            return existingSubscriber;
+            this.subscriberByPubId.remove(socketId);
+            subscriber.stop();
+            return;
+        }
+
+        final Runnable lingeringClose = new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                LLZSubscribersManager.this.closeLingeringSubscriber(socketId, subscriber, this);
+            }
+        };
+
+        this.lingeringCloseByPubId.put(socketId, lingeringClose);
+        this.instanceContext.getConnectionExecutor().executeDelayed(socketId, linger, lingeringClose);
+    }
+
+    /**
+     * Close a lingering subscriber if it has not been reused meanwhile, a reuse cancels the pending close
+     *
+     * @param socketId the publisher socket id the subscriber is connected to
+     * @param subscriber the lingering subscriber
+     * @param lingeringClose the pending close that is running
+     */
+    private void closeLingeringSubscriber(final long socketId, final LLZSubscriber subscriber, final Runnable lingeringClose)
+    {
+        synchronized (this.globalLock)
+        {
+            if (this.lingeringCloseByPubId.get(socketId) != lingeringClose)
+            {
+                return;
+            }
+
+            this.lingeringCloseByPubId.remove(socketId);
+            this.subscriberByPubId.remove(socketId);
+
+            try
+            {
+                subscriber.stop();
+            }
+            catch (final LLZException e)
+            {
+                LOGGER.error("Unexpected error stopping a lingering subscriber for publisher socket [" + socketId + "]", e);
+            }
         }
+    }
 
+    /**
+     * Creates and connects a new subscriber for the publisher socket of the end point
+     * 
+     * @param autodiscoveryInfo the information of the end point
+     * @return the new subscriber
+     * @throws LLZException
+     */
+    private LLZSubscriber createSubscriber(final ILLZAutodiscTopicEndPoint autodiscoveryInfo) throws LLZException
+    {
         // Check topic name against config.
         final SubTopicConfig subTopicCfg = this.instanceContext.getInstanceConfig().getSubTopicCfg(autodiscoveryInfo.getTopicName());
 
@@ -302,12 +1026,7 @@ public final class LLZSubscribersManager implements ILLZAutodiscTopicEndPointCha
         final SubSocketSchema subSocketSchema = this.instanceContext.getInstanceConfig().getSubSocketSchema(subTopicCfg.getSocketSchema());
 
         // Create the new subscriber
-        final LLZSubscriber newSubscriber = new LLZSubscriber(this.instanceContext, autodiscoveryInfo.getBindAddress(), subSocketSchema);
-
-        // Add to the collection of subscribers
-        this.subscriberByPubId.put(autodiscoveryInfo.getSocketId(), newSubscriber);
-
-        return newSubscriber;
+        return new LLZSubscriber(this.instanceContext, autodiscoveryInfo.getBindAddress(), subSocketSchema, autodiscoveryInfo.getSocketId(), this);
     }
 
     /**
@@ -326,4 +1045,58 @@ public final class LLZSubscribersManager implements ILLZAutodiscTopicEndPointCha
             throw new LLZException("Cannot perform an operation on an stopped receiver manager");
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Subscription to the topics that match a pattern, receives the auto-discovery events of all the matching topics
+     */
+    private final class PatternSubscription implements ILLZAutodiscTopicEndPointChangeListener
+    {
+        /** Regular expression of the subscription */
+        private final String topicRegexp;
+
+        /** Listener of the user for the messages of all the matching topics */
+        private final ILLZTopicSubListener subListener;
+
+        /** Names of the topics subscribed through the pattern, only accessed with the global lock taken */
+        private final Set<String> topicNames = new HashSet<>();
+
+        /**
+         * Create a new pattern subscription
+         *
+         * @param topicRegexp regular expression of the subscription
+         * @param subListener listener of the user for the messages of all the matching topics
+         */
+        private PatternSubscription(final String topicRegexp, final ILLZTopicSubListener subListener)
+        {
+            this.topicRegexp = topicRegexp;
+            this.subListener = subListener;
+        }
+
+        @Override
+        public void onEndPointAdded(final ILLZAutodiscTopicEndPoint autodiscoveryInfo)
+        {
+            LLZSubscribersManager.this.instanceContext.getConnectionExecutor().execute(autodiscoveryInfo.getSocketId(), new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    LLZSubscribersManager.this.addPatternEndPoint(PatternSubscription.this, autodiscoveryInfo);
+                }
+            });
+        }
+
+        @Override
+        public void onEndPointRemoved(final ILLZAutodiscTopicEndPoint autodiscoveryInfo)
+        {
+            LLZSubscribersManager.this.closePendingAdditions(autodiscoveryInfo.getSocketId());
+            LLZSubscribersManager.this.instanceContext.getConnectionExecutor().execute(autodiscoveryInfo.getSocketId(), new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    LLZSubscribersManager.this.removePatternEndPoint(PatternSubscription.this, autodiscoveryInfo);
+                }
+            });
+        }
+    }
+}
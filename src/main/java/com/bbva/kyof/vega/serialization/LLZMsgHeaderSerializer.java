@@ -5,6 +5,7 @@ import java.nio.ByteBuffer;
 import com.bbva.kyof.utils.serialization.bytebuffer.LLUSerializerLong;
 import com.bbva.kyof.utils.serialization.bytebuffer.LLUSerializerUtils;
 import com.bbva.kyof.utils.serialization.model.LLUSerializationException;
+import com.bbva.kyof.vega.Version;
 import com.bbva.kyof.vega.exception.LLZException;
 import com.bbva.kyof.vega.msg.LLZMsgHeader;
 import com.bbva.kyof.vega.msg.LLZMsgType;
@@ -12,9 +13,19 @@ import com.bbva.kyof.vega.util.ThreadLocalBuffer;
 
 /**
  * Helper class to serialize and deserialize the message header from and to binary.
+ *
+ * The sequence number is only part of the header from framework version 3.1.0, it is placed after the version so the
+ * deserializer can decide if it has to read it. Messages of older versions are read with sequence number 0, but older
+ * versions can't read the messages that contain it.
  */
 public final class LLZMsgHeaderSerializer
 {
+    /** Major version from which the header contains the sequence number */
+    private static final int SEQUENCE_NUMBER_MAJOR_VERSION = 3;
+
+    /** Minor version from which the header contains the sequence number */
+    private static final int SEQUENCE_NUMBER_MINOR_VERSION = 1;
+
     /** Internal thread local buffer to ensure buffer reuse */
     private static final ThreadLocalBuffer THREAD_LOCAL_BUFFER = new ThreadLocalBuffer();
 
@@ -117,7 +128,13 @@ public final class LLZMsgHeaderSerializer
         LLUSerializerUtils.LONG.writeFix(header.getTopicUniqueId(), target); // topicUniqueId
         LLUSerializerUtils.LONG.writeFix(header.getInstanceId(), target); // instanceId
         LLUSerializerUtils.STRING.write(header.getVersion(), target); // Framework version
-        
+
+        // The sequence number depends on the version of the header
+        if (hasSequenceNumber(header.getVersion()))
+        {
+            LLUSerializerUtils.LONG.writeFix(header.getSequenceNumber(), target); // sequenceNumber
+        }
+
         // Serialize the optional request id
         if (header.getRequestId() != null)
         {
@@ -145,6 +162,12 @@ public final class LLZMsgHeaderSerializer
                      LLUSerializerUtils.STRING.serializedSize(header.getVersion()) +  // Framework version
                      1; // Boolean so see if there is request id
 
+        // Get the sequence number size if the version contains it
+        if (hasSequenceNumber(header.getVersion()))
+        {
+            result += LLUSerializerLong.FIX_SIZE;
+        }
+
         // Get the request ID size if settled
         if (header.getRequestId() != null)
         {
@@ -174,6 +197,16 @@ public final class LLZMsgHeaderSerializer
         result.setInstanceId(LLUSerializerUtils.LONG.readFix(buffer));
         result.setVersion(LLUSerializerUtils.STRING.read(buffer));
 
+        // Messages of older versions don't have sequence number, they are not sequenced
+        if (hasSequenceNumber(result.getVersion()))
+        {
+            result.setSequenceNumber(LLUSerializerUtils.LONG.readFix(buffer));
+        }
+        else
+        {
+            result.setSequenceNumber(0);
+        }
+
         final boolean hasRequestId = LLUSerializerUtils.BOOL.read(buffer);
 
         // Serialize the optional request id
@@ -189,4 +222,39 @@ public final class LLZMsgHeaderSerializer
 
         return result;
     }
+
+    /**
+     * Check if the header of the given framework version contains the sequence number
+     *
+     * @param version framework version of the header in "major.minor[.patch]" format
+     * @return true if the version is 3.1 or later, false if older or not valid
+     */
+    private static boolean hasSequenceNumber(final String version)
+    {
+        // Fast path, the messages usually come from instances with the same version
+        if (Version.getFrameworkVersionNumber().equals(version))
+        {
+            return true;
+        }
+
+        if (version == null)
+        {
+            return false;
+        }
+
+        final String[] numbers = version.split("\\.");
+
+        try
+        {
+            final int major = Integer.parseInt(numbers[0]);
+            final int minor = numbers.length > 1 ? Integer.parseInt(numbers[1]) : 0;
+
+            return major > SEQUENCE_NUMBER_MAJOR_VERSION ||
+                    (major == SEQUENCE_NUMBER_MAJOR_VERSION && minor >= SEQUENCE_NUMBER_MINOR_VERSION);
+        }
+        catch (final NumberFormatException e)
+        {
+            return false;
+        }
+    }
 }
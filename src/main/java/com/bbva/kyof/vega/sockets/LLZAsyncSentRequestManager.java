@@ -5,6 +5,8 @@ import com.bbva.kyof.vega.msg.ILLZTopicRespListener;
 import com.bbva.kyof.vega.msg.LLZMsgHeader;
 import com.bbva.kyof.vega.msg.LLZRcvResponse;
 import com.bbva.kyof.vega.msg.LLZSentRequest;
+import com.bbva.kyof.vega.util.threads.ILLZThreadFactory;
+import com.bbva.kyof.vega.util.threads.LLZThreadRole;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -44,11 +46,13 @@ public class LLZAsyncSentRequestManager implements Runnable
 
     /**
      * Create and start the daemon
+     *
+     * @param threadFactory factory for the timeout thread
      */
-    public LLZAsyncSentRequestManager()
+    public LLZAsyncSentRequestManager(final ILLZThreadFactory threadFactory)
     {
         // Create a new thread for the timeout daemon
-        final Thread timeoutThread = new Thread(this, "LLZ ASYNC SENT REQ");
+        final Thread timeoutThread = threadFactory.newThread(LLZThreadRole.ASYNC_SENT_REQ, "LLZ ASYNC SENT REQ", this);
         timeoutThread.start();
     }
 
@@ -8,6 +8,7 @@ import org.slf4j.LoggerFactory;
 import org.zeromq.ZMQ;
 import org.zeromq.ZMQException;
 
+import com.bbva.kyof.vega.config.general.SocketOptions;
 import com.bbva.kyof.vega.exception.LLZException;
 
 /**
@@ -55,6 +56,7 @@ public final class LLZPubSocket
      * @param publisherName the name of the publisher
      * @param strInterface the interface of the socket in ZMQ interface string format
      * @param rateLimit receive rate limit for the socket, null to use default values
+     * @param socketOptions ZMQ options of the socket, null to use default values
      *
      * @throws LLZException exception thrown if there is any problem
      */
@@ -63,7 +65,8 @@ public final class LLZPubSocket
                         final String strInterface,
                         final Long rateLimit,
                         final int minPort, 
-                        final int maxPort) throws LLZException
+                        final int maxPort,
+                        final SocketOptions socketOptions) throws LLZException
     {
         LOGGER.debug("Creating ZMQ PUB socket for LLZ Publisher [{}] and interface [{}]", publisherName, strInterface);
 
@@ -87,6 +90,9 @@ public final class LLZPubSocket
             this.nativeZMQSocket.setSndHWM(rateLimit);
         }   
 
+        // Apply the options of the schema
+        LLZSocketOptions.apply(this.nativeZMQSocket, socketOptions);
+
         this.tryBinding();  
     }
 
@@ -240,6 +246,24 @@ public final class LLZPubSocket
         }
     }
 
+    /**
+     * Change the send rate limit of the socket, it applies to the subscribers connected after the change
+     *
+     * @param rateLimit send rate limit for the socket, null to use default values
+     */
+    public void setRateLimit(final Long rateLimit)
+    {
+        synchronized (this.lock)
+        {
+            if (this.stopped)
+            {
+                return;
+            }
+
+            this.nativeZMQSocket.setSndHWM(rateLimit == null ? LLZSocketConstants.DEFAULT_RATE_LIMIT : rateLimit);
+        }
+    }
+
     /** @return current port in use */
     public int getCurrentPort()
     {
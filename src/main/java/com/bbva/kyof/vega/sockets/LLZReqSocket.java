@@ -8,8 +8,11 @@ import org.slf4j.LoggerFactory;
 import org.zeromq.ZMQ;
 import org.zeromq.ZMQException;
 
+import com.bbva.kyof.vega.config.general.SocketOptions;
 import com.bbva.kyof.vega.exception.LLZException;
 import com.bbva.kyof.vega.serialization.UUIDSerializer;
+import com.bbva.kyof.vega.util.threads.ILLZThreadFactory;
+import com.bbva.kyof.vega.util.threads.LLZThreadRole;
 
 /**
  * Wrapper to handle a request socket in ZMQ. Requester sockets can send request and listen to responses
@@ -49,12 +52,14 @@ public final class LLZReqSocket implements Runnable
      * @param reqTransport the transport for the socket
      * @param requesterName the name of the publisher the socket belongs to
      * @param responseListener the listener for responses
+     * @param socketOptions ZMQ options of the socket, null to use default values
      * @throws LLZException exception thrown if there is any issue during the socket creation
      */
     private LLZReqSocket(final ZMQ.Context context,
                         final String reqTransport,
                         final String requesterName,
-                        final ILLZReqSocketRespHandler responseListener) throws LLZException
+                        final ILLZReqSocketRespHandler responseListener,
+                        final SocketOptions socketOptions) throws LLZException
     {
         this.requesterName = requesterName;
         this.responseListener = responseListener;
@@ -68,6 +73,9 @@ public final class LLZReqSocket implements Runnable
             // Create a random identity
             this.clientSocket.setIdentity(this.createRandomIdentity());
 
+            // Apply the options of the schema
+            LLZSocketOptions.apply(this.clientSocket, socketOptions);
+
             // Perform the connection
             this.clientSocket.connect(reqTransport);
         }
@@ -85,21 +93,25 @@ public final class LLZReqSocket implements Runnable
      * @param reqTransport the transport for the socket
      * @param publisherName the name of the publisher the socket belongs to
      * @param responseListener the listener for responses
+     * @param socketOptions ZMQ options of the socket, null to use default values
+     * @param threadFactory factory for the response receiver thread
      * @return the created sockect
      * @throws LLZException exception thrown if there is any issue during the socket creation
      */
     public static LLZReqSocket createNewSocket(final ZMQ.Context context,
                                                final String reqTransport,
                                                final String publisherName,
-                                               final ILLZReqSocketRespHandler responseListener) throws LLZException
+                                               final ILLZReqSocketRespHandler responseListener,
+                                               final SocketOptions socketOptions,
+                                               final ILLZThreadFactory threadFactory) throws LLZException
     {
         LOGGER.debug("Creating ZMQ REQ socket for LLZ Publisher [{}] and interface [{}]", publisherName, reqTransport);
 
         // Create the result socket
-        final LLZReqSocket result = new LLZReqSocket(context, reqTransport, publisherName, responseListener);
+        final LLZReqSocket result = new LLZReqSocket(context, reqTransport, publisherName, responseListener, socketOptions);
 
         // Start the pooling for responses
-        final Thread responseReceiverThread = new Thread(result, "LLZ REQ SOCKET " + publisherName);
+        final Thread responseReceiverThread = threadFactory.newThread(LLZThreadRole.REQ_SOCKET, "LLZ REQ SOCKET " + publisherName, result);
         responseReceiverThread.start();
 
         return result;
@@ -180,6 +192,30 @@ public final class LLZReqSocket implements Runnable
      * @param buffer buffer containing the request to send
      */
     public void sendRequest(final ByteBuffer buffer) throws LLZException
+    {
+        this.send(buffer, 0);
+    }
+
+    /**
+     * Send the given request contained in the buffer without blocking. The request is not sent if the socket has no
+     * connected pipe or the pipe has reached the high water mark.
+     *
+     * @param buffer buffer containing the request to send
+     * @return false if the request would block and has not been sent
+     */
+    public boolean trySendRequest(final ByteBuffer buffer) throws LLZException
+    {
+        return this.send(buffer, ZMQ.DONTWAIT);
+    }
+
+    /**
+     * Send the given request contained in the buffer with the given ZMQ flags
+     *
+     * @param buffer buffer containing the request to send
+     * @param flags ZMQ send flags
+     * @return false if the request has not been sent because the send would block
+     */
+    private boolean send(final ByteBuffer buffer, final int flags) throws LLZException
     {
         if (LOGGER.isTraceEnabled())
         {
@@ -196,7 +232,7 @@ public final class LLZReqSocket implements Runnable
                     throw new LLZException("Trying to send a message on a closed socket");
                 }
 
-                this.clientSocket.send(buffer.array(), buffer.position(), buffer.limit(), 0);
+                return this.clientSocket.send(buffer.array(), buffer.position(), buffer.limit(), flags);
             }
             catch (final ZMQException e)
             {
@@ -1,6 +1,9 @@
 package com.bbva.kyof.vega.sockets;
 
+import com.bbva.kyof.vega.config.general.SocketOptions;
 import com.bbva.kyof.vega.exception.LLZException;
+import com.bbva.kyof.vega.util.threads.ILLZThreadFactory;
+import com.bbva.kyof.vega.util.threads.LLZThreadRole;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.zeromq.ZFrame;
@@ -15,12 +18,18 @@ import java.util.UUID;
  *
  * It will create a ROUTER Front and DEALER backend, proxy both of them and then connect the dealer with
  * a worker socket that will handle the responses asynchronously. This is a classic ZMQ pattern.
+ *
+ * The proxy is a poll loop instead of a blocking ZMQ proxy so the sockets are closed by {@link #stop()} without
+ * terminating the ZMQ context, that may be shared with other instances.
  */
 public final class LLZRespSocket implements Runnable
 {
     /** Logger of the class */
     private static final Logger LOGGER = LoggerFactory.getLogger(LLZRespSocket.class);
 
+    /** Maximum time in milliseconds the proxy waits for a message before checking if it should stop */
+    static final long STOP_CHECK_TIMEOUT = 100;
+
     /** Name of the responder the socket belongs to */
     private final String responderName;
 
@@ -42,6 +51,12 @@ public final class LLZRespSocket implements Runnable
     /** Range of available ports */
     private final int numPortsInRange;
 
+    /** True if the proxy should be stopped */
+    private volatile boolean shouldStop = false;
+
+    /** True if the proxy has been stopped and the front and back end sockets closed */
+    private volatile boolean stopped = false;
+
     /** Minimum port of range of available ports */
     private final int minPort;
 
@@ -55,6 +70,7 @@ public final class LLZRespSocket implements Runnable
      * @param responderName The name of the publisher this socket belongs to
      * @param socketInterface address the router should be connected to to listen for responses, without the port
      * @param receivedRequestHandler handler that will receive incoming requests from this socket
+     * @param socketOptions ZMQ options of the frontend socket, null to use default values
      *
      * @throws LLZException exception thrown if there is a problem creating the socket
      */
@@ -63,7 +79,8 @@ public final class LLZRespSocket implements Runnable
                          final String socketInterface,
                          final ILLZRespSocketReqHandler receivedRequestHandler,
                          final int minPort,
-                         final int maxPort) throws LLZException
+                         final int maxPort,
+                         final SocketOptions socketOptions) throws LLZException
     {
         this.responderName = responderName;
         this.socketInterface = socketInterface;
@@ -76,6 +93,7 @@ public final class LLZRespSocket implements Runnable
 
         // Create the router socket and bind it
         this.frontendSocket = context.socket(ZMQ.ROUTER);
+        LLZSocketOptions.apply(this.frontendSocket, socketOptions);
         this.tryBindingFrontEndSocket();
 
         try
@@ -103,6 +121,8 @@ public final class LLZRespSocket implements Runnable
      * @param publisherName The name of the publisher this socket belongs to
      * @param strAddress address the router should be connected to to listen for responses
      * @param receivedRequestHandler handler that will receive incoming requests from this socket
+     * @param socketOptions ZMQ options of the frontend socket, null to use default values
+     * @param threadFactory factory for the worker and proxy threads
      *
      * @throws LLZException exception thrown if there is a problem creating the socket
      */
@@ -111,34 +131,43 @@ public final class LLZRespSocket implements Runnable
                                                 final String strAddress,
                                                 final ILLZRespSocketReqHandler receivedRequestHandler,
                                                 final int minReqPort,
-                                                final int maxReqPort) throws LLZException
+                                                final int maxReqPort,
+                                                final SocketOptions socketOptions,
+                                                final ILLZThreadFactory threadFactory) throws LLZException
     {
         LOGGER.debug("Creating ZMQ RESP socket for LLZ Publisher [{}] and interface [{}]", publisherName, strAddress);
 
         // Create the result socket
-        final LLZRespSocket result = new LLZRespSocket(context, publisherName, strAddress, receivedRequestHandler, minReqPort, maxReqPort);
+        final LLZRespSocket result = new LLZRespSocket(context, publisherName, strAddress, receivedRequestHandler, minReqPort, maxReqPort, socketOptions);
 
         // Launch the worker socket thread
-        final Thread workerSocketThread = new Thread(result.workerSocket, "LLZ RESP WORKER SOCKET " + publisherName);
+        final Thread workerSocketThread = threadFactory.newThread(LLZThreadRole.RESP_WORKER_SOCKET, "LLZ RESP WORKER SOCKET " + publisherName, result.workerSocket);
         workerSocketThread.start();
 
         // Launch the proxy thread to bind the sockets
-        final Thread proxyThread = new Thread(result, "LLZ RESP PROXY SOCKET " + publisherName);
+        final Thread proxyThread = threadFactory.newThread(LLZThreadRole.RESP_PROXY_SOCKET, "LLZ RESP PROXY SOCKET " + publisherName, result);
         proxyThread.start();
 
         return result;
     }
 
     /**
-     * The stop prepares the socket to be closed when the polling thread finish by changing the linger value
+     * Stop the proxy and worker threads and wait until both have closed their sockets, releasing the front end port
      */
-    public void prepareToStop()
+    public void stop() throws InterruptedException
     {
-        LOGGER.debug("Prepare ZMQ RESP socket for LLZ Publisher [{}] for closing", this.responderName);
+        LOGGER.debug("Closing ZMQ RESP socket for LLZ Publisher [{}]", this.responderName);
+
+        final LLZRespWorkerSocket worker = this.workerSocket;
 
-        this.frontendSocket.setLinger(0);
-        this.backendSocket.setLinger(0);
-        this.workerSocket.prepareToStop();
+        this.shouldStop = true;
+
+        while (!this.stopped)
+        {
+            Thread.sleep(1);
+        }
+
+        worker.stop();
     }
 
     /**
@@ -160,12 +189,44 @@ public final class LLZRespSocket implements Runnable
 
         try
         {
-            // Finally proxy the frontend and backends, it will block until the context is closed
-            ZMQ.proxy(this.frontendSocket, this.backendSocket, null);
+            final ZMQ.Poller poller = new ZMQ.Poller(2);
+            poller.register(this.frontendSocket);
+            poller.register(this.backendSocket);
+
+            // Proxy the frontend and backends until stopped
+            while (!this.shouldStop)
+            {
+                if (poller.poll(STOP_CHECK_TIMEOUT) == -1)
+                {
+                    LOGGER.error("Proxy thread of the RESP Socket for LLZ Publisher [{}] interrupted", this.responderName);
+                    break;
+                }
+
+                if (poller.pollin(0))
+                {
+                    this.forwardMessage(this.frontendSocket, this.backendSocket);
+                }
+
+                if (poller.pollin(1))
+                {
+                    this.forwardMessage(this.backendSocket, this.frontendSocket);
+                }
+            }
         }
         catch(final ZMQException e)
         {
-            LOGGER.error("Internal ZMQ exception binding the proxy thread of the RESP Socket for LLZ Publisher " + this.responderName, e);
+            if (e.getErrorCode() == LLZSocketConstants.ZSOCKET_TERM)
+            {
+                LOGGER.debug("Receive TERM signal by the ZMQ native on the proxy thread of the RESP Socket for LLZ Publisher [{}].", this.responderName);
+            }
+            else
+            {
+                LOGGER.error("Internal ZMQ exception on the proxy thread of the RESP Socket for LLZ Publisher " + this.responderName, e);
+            }
+        }
+        catch (final Exception e)
+        {
+            LOGGER.error("Unexpected exception on the proxy thread of the RESP Socket for LLZ Publisher " + this.responderName, e);
         }
 
         // The proxy thread has been freed, close the socket
@@ -175,7 +236,26 @@ public final class LLZRespSocket implements Runnable
     }
 
     /**
-     * Close the internal socket, this method is called on the internal thread that proxies router and dealer when the ZMQ Context is closed
+     * Forward all the parts of the next message of a socket into the other one
+     *
+     * @param source socket with a message ready to be read
+     * @param destination socket the message is sent to
+     */
+    private void forwardMessage(final ZMQ.Socket source, final ZMQ.Socket destination)
+    {
+        boolean hasMoreParts = true;
+
+        while (hasMoreParts)
+        {
+            final byte[] part = source.recv(ZMQ.DONTWAIT);
+            hasMoreParts = source.hasReceiveMore();
+            destination.send(part, hasMoreParts ? ZMQ.SNDMORE : 0);
+        }
+    }
+
+    /**
+     * Close the internal sockets, this method is called on the internal thread that proxies router and dealer when it is stopped
+     * or the ZMQ Context is closed
      */
     private void internalCloseSockets()
     {
@@ -185,23 +265,25 @@ public final class LLZRespSocket implements Runnable
         {
             if (this.frontendSocket != null)
             {
+                this.frontendSocket.setLinger(0);
                 this.frontendSocket.close();
                 this.frontendSocket = null;
             }
 
             if (this.backendSocket != null)
             {
+                this.backendSocket.setLinger(0);
                 this.backendSocket.close();
                 this.backendSocket = null;
             }
-
-            this.workerSocket = null;
         }
         catch (final ZMQException e)
         {
             LOGGER.error("Unexpected ZMQ Exception closing ZMQ RESP socket for LLZ Publisher " + this.responderName, e);
         }
 
+        this.stopped = true;
+
         LOGGER.debug("ZMQ RESP socket for LLZ Publisher [{}] and interface [{}] closed", this.responderName, this.socketInterface);
     }
 
@@ -33,8 +33,11 @@ public final class LLZRespWorkerSocket implements Runnable
     /** Name of the publisher the socket belongs to */
     private final String publisherName;
 
+    /** True if the socket should be stopped */
+    private volatile boolean shouldStop = false;
+
     /** True if the socket has already been stopped */
-    private boolean stopped = false;
+    private volatile boolean stopped = false;
 
     /**
      * Create a new response worker given the context and the ID for inter protocol communication with the ZMQ dealer and ZMQ router
@@ -68,11 +71,18 @@ public final class LLZRespWorkerSocket implements Runnable
     }
 
     /**
-     * The close prepares the socket to be closed when the polling thread finish
+     * Stop the thread that process requests and wait until it has closed the socket
      */
-    public void prepareToStop()
+    public void stop() throws InterruptedException
     {
-        this.workerSocket.setLinger(0);
+        LOGGER.debug("Closing ZMQ RESP WORKER socket for LLZ Publisher [{}]", this.publisherName);
+
+        this.shouldStop = true;
+
+        while (!this.stopped)
+        {
+            Thread.sleep(1);
+        }
     }
 
     @Override
@@ -82,9 +92,21 @@ public final class LLZRespWorkerSocket implements Runnable
 
         try
         {
-            while (!Thread.currentThread().isInterrupted())
+            final ZMQ.Poller poller = new ZMQ.Poller(1);
+            poller.register(this.workerSocket);
+
+            while (!this.shouldStop && !Thread.currentThread().isInterrupted())
             {
-                this.readRequest();
+                if (poller.poll(LLZRespSocket.STOP_CHECK_TIMEOUT) == -1)
+                {
+                    LOGGER.error("ZMQ RESP WORKER socket Thread for LLZ Publisher [{}] interrupted", this.publisherName);
+                    break;
+                }
+
+                if (poller.pollin(0))
+                {
+                    this.readRequest();
+                }
             }
         }
         catch (final ZMQException e)
@@ -134,7 +156,7 @@ public final class LLZRespWorkerSocket implements Runnable
     }
 
     /**
-     * Close the socket, this method is called when the thread that process requests is stopped when the ZMQ context is closed
+     * Close the socket, this method is called when the thread that process requests is stopped or the ZMQ context is closed
      */
     private void closeInternalSocket()
     {
@@ -144,6 +166,7 @@ public final class LLZRespWorkerSocket implements Runnable
         {
             try
             {
+                this.workerSocket.setLinger(0);
                 this.workerSocket.close();
             }
             catch (final ZMQException e)
@@ -0,0 +1,84 @@
+package com.bbva.kyof.vega.sockets;
+
+import org.zeromq.ZMQ;
+
+import com.bbva.kyof.vega.config.general.SocketOptions;
+
+/**
+ * Applies the ZMQ options configured in a socket schema to the native sockets
+ */
+public final class LLZSocketOptions
+{
+    /**
+     * Private constructor to avoid instantiation
+     */
+    private LLZSocketOptions()
+    {
+        // Nothing to do
+    }
+
+    /**
+     * Apply the configured options to the socket, the options not configured are not modified. It has to be called
+     * before binding or connecting the socket.
+     *
+     * @param socket the native socket
+     * @param options the configured options, null if none
+     */
+    public static void apply(final ZMQ.Socket socket, final SocketOptions options)
+    {
+        if (options == null)
+        {
+            return;
+        }
+
+        if (options.getSendHwm() != null)
+        {
+            socket.setSndHWM(options.getSendHwm());
+        }
+
+        if (options.getReceiveHwm() != null)
+        {
+            socket.setRcvHWM(options.getReceiveHwm());
+        }
+
+        if (options.getSendBuffer() != null)
+        {
+            socket.setSendBufferSize(options.getSendBuffer());
+        }
+
+        if (options.getReceiveBuffer() != null)
+        {
+            socket.setReceiveBufferSize(options.getReceiveBuffer());
+        }
+
+        if (options.isTcpKeepalive() != null)
+        {
+            socket.setTCPKeepAlive(options.isTcpKeepalive() ? 1 : 0);
+        }
+
+        if (options.isImmediate() != null)
+        {
+            socket.setDelayAttachOnConnect(options.isImmediate());
+        }
+
+        if (options.getLinger() != null)
+        {
+            socket.setLinger(options.getLinger());
+        }
+
+        if (options.getReconnectInterval() != null)
+        {
+            socket.setReconnectIVL(options.getReconnectInterval());
+        }
+
+        if (options.getReconnectIntervalMax() != null)
+        {
+            socket.setReconnectIVLMax(options.getReconnectIntervalMax());
+        }
+
+        if (options.getAffinity() != null)
+        {
+            socket.setAffinity(options.getAffinity());
+        }
+    }
+}
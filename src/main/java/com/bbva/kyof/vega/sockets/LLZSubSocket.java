@@ -8,7 +8,10 @@ import org.slf4j.LoggerFactory;
 import org.zeromq.ZMQ;
 import org.zeromq.ZMQException;
 
+import com.bbva.kyof.vega.config.general.SocketOptions;
 import com.bbva.kyof.vega.exception.LLZException;
+import com.bbva.kyof.vega.util.threads.ILLZThreadFactory;
+import com.bbva.kyof.vega.util.threads.LLZThreadRole;
 
 /**
  * Wrapper for a subscriber ZMQ socket
@@ -48,11 +51,15 @@ public final class LLZSubSocket implements Runnable
      * @param subTransport transport connection string for the socket
      * @param receiveHandler handler to send the received messages
      * @param rateLimit receive rate limit for the socket, null to use default values
+     * @param socketOptions ZMQ options of the socket, null to use default values
+     * @param threadFactory factory for the polling thread
      */
     public LLZSubSocket(final ZMQ.Context context,
                         final String subTransport,
                         final ILLZSubSocketRcvHandler receiveHandler,
-                        final Long rateLimit) throws LLZException
+                        final Long rateLimit,
+                        final SocketOptions socketOptions,
+                        final ILLZThreadFactory threadFactory) throws LLZException
     {
         LOGGER.debug("Creating ZMQ SUB socket for LLZ Subscriber and transport [{}]",  subTransport);
 
@@ -74,6 +81,9 @@ public final class LLZSubSocket implements Runnable
                 this.nativeZMQSocket.setRcvHWM(rateLimit);
             }
 
+            // Apply the options of the schema
+            LLZSocketOptions.apply(this.nativeZMQSocket, socketOptions);
+
             // Perform the connections
             this.nativeZMQSocket.connect(subTransport);
 
@@ -87,7 +97,7 @@ public final class LLZSubSocket implements Runnable
         }
 
         // Start the pooling thread if there have been no errors
-        final Thread pollingThread = new Thread(this, "LLZ SUB SOCKET");
+        final Thread pollingThread = threadFactory.newThread(LLZThreadRole.SUB_SOCKET, "LLZ SUB SOCKET", this);
         pollingThread.start();
     }
 
@@ -128,6 +138,24 @@ public final class LLZSubSocket implements Runnable
         }
     }
 
+    /**
+     * Change the reception rate limit of the socket, it applies to the connections established after the change
+     *
+     * @param rateLimit receive rate limit for the socket, null to use default values
+     */
+    public void setRateLimit(final Long rateLimit)
+    {
+        synchronized (this.lock)
+        {
+            if (this.shouldStop)
+            {
+                return;
+            }
+
+            this.nativeZMQSocket.setRcvHWM(rateLimit == null ? LLZSocketConstants.DEFAULT_RATE_LIMIT : rateLimit);
+        }
+    }
+
     /**
      * Stop the requester socket
      */
@@ -183,6 +211,9 @@ public final class LLZSubSocket implements Runnable
 
         synchronized (this.lock)
         {
+            // No more accesses to the socket after closing it, also when the thread finished with an error
+            this.shouldStop = true;
+
             try
             {
                 this.nativeZMQSocket.setLinger(0);
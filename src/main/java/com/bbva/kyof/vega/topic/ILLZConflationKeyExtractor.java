@@ -0,0 +1,20 @@
+package com.bbva.kyof.vega.topic;
+
+import com.bbva.kyof.vega.msg.ILLZRcvMessage;
+
+/**
+ * Implement in order to conflate the received messages of a subscription by a user defined key
+ */
+public interface ILLZConflationKeyExtractor
+{
+    /**
+     * Method called from the reception thread to get the conflation key of a received message. Only the most recent
+     * message for each key is delivered to the listener.
+     *
+     * The key should implement equals and hashCode, the message contents should not be modified.
+     *
+     * @param receivedMessage the received message
+     * @return the conflation key of the message
+     */
+    Object extractKey(final ILLZRcvMessage receivedMessage);
+}
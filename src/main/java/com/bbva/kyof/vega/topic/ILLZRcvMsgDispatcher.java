@@ -0,0 +1,23 @@
+package com.bbva.kyof.vega.topic;
+
+import com.bbva.kyof.vega.msg.LLZRcvMessage;
+
+/**
+ * Interface for the classes that deliver the received messages of a topic subscriber to the user listener from a thread
+ * different than the reception thread
+ */
+public interface ILLZRcvMsgDispatcher
+{
+    /**
+     * Dispatch a received message, called from the reception thread. The message contents may be reused by the
+     * reception thread after the call, the implementation should copy them if the message is kept.
+     *
+     * @param message the received message
+     */
+    void dispatch(final LLZRcvMessage message);
+
+    /**
+     * Stop dispatching and wait for the deliveries in progress to finish, pending messages are discarded
+     */
+    void stop();
+}
@@ -14,8 +14,9 @@ public interface ILLZTopicMsgPublisher
      *
      * @param topic the topic the message belong to
      * @param topicPublisherUniqueId unique Id of the topic publisher that is calling the method
+     * @param sequenceNumber sequence number of the message in the topic publisher
      * @param message the message to send
      * @throws LLZException exception thrown if there is a problem sending the message
      */
-    void sendMessage(final String topic, final long topicPublisherUniqueId, final ByteBuffer message) throws LLZException;
+    void sendMessage(final String topic, final long topicPublisherUniqueId, final long sequenceNumber, final ByteBuffer message) throws LLZException;
 }
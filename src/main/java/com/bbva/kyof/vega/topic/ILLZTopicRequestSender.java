@@ -16,7 +16,8 @@ public interface ILLZTopicRequestSender
      * @param topicId the topicId for the request to send
      * @param reqId the unique identifier for the request
      * @param messageContents the contents of the message to send
+     * @return false if the request has not been sent because the responder is down
      * @throws LLZException exception thrown if there is any problem sending the request
      */
-    void sendTopicRequest(final long topicId, final UUID reqId, final ByteBuffer messageContents) throws LLZException;
+    boolean sendTopicRequest(final long topicId, final UUID reqId, final ByteBuffer messageContents) throws LLZException;
 }
@@ -0,0 +1,20 @@
+package com.bbva.kyof.vega.topic;
+
+/**
+ * Implement in the {@link ILLZTopicSubListener} given on the subscription in order to be notified of lost messages
+ *
+ * The messages are lost when the ZMQ high water marks of the publisher or subscriber sockets are reached, the
+ * gaps are detected using the sequence number of each topic publisher.
+ */
+public interface ILLZTopicSubGapListener
+{
+    /**
+     * Method called from the reception thread when a gap in the sequence numbers of a topic publisher is detected
+     *
+     * @param topicName the topic name of the subscription
+     * @param topicUniqueId the unique Id of the topic publisher that sent the messages
+     * @param expectedSequence the sequence number that was expected
+     * @param receivedSequence the sequence number that has been received
+     */
+    void onMessageGap(final String topicName, final long topicUniqueId, final long expectedSequence, final long receivedSequence);
+}
@@ -8,4 +8,13 @@ public interface ILLZTopicSubscriber
 {
     /** @return the topic associated to this subscriber */
     String getTopicName();
+
+    /** @return the number of user messages received on the topic */
+    long getReceivedMsgsCount();
+
+    /** @return the number of gaps detected in the sequence numbers of the topic publishers */
+    long getGapsCount();
+
+    /** @return the number of messages lost in the detected gaps, usually because of the socket high water marks */
+    long getLostMsgsCount();
 }
@@ -0,0 +1,266 @@
+package com.bbva.kyof.vega.topic;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.bbva.kyof.vega.msg.LLZRcvMessage;
+import com.bbva.kyof.vega.util.threads.ILLZThreadFactory;
+import com.bbva.kyof.vega.util.threads.LLZThreadRole;
+
+/**
+ * Conflating buffer between the reception thread of the subscriber sockets and the user listener of a topic subscriber.
+ *
+ * The received messages are stored by conflation key and a consumer thread delivers only the most recent message
+ * for each key. The reception thread never blocks on a slow listener and the memory is bounded by the number of keys.
+ *
+ * The class is thread-safe
+ */
+public final class LLZConflatingSubBuffer implements ILLZRcvMsgDispatcher, Runnable
+{
+    /** Logger of the class */
+    private static final Logger LOGGER = LoggerFactory.getLogger(LLZConflatingSubBuffer.class);
+
+    /** Time to sleep between checks while waiting for the consumer thread to stop */
+    private static final long STOP_WAIT_TIME = 1;
+
+    /** Listener of the user for the delivered messages */
+    private final ILLZTopicSubListener subListener;
+
+    /** (Optional) Extractor of the conflation key, if null the messages are conflated by topic Id */
+    private final ILLZConflationKeyExtractor keyExtractor;
+
+    /** Slots with the latest message by conflation key */
+    private final Map<Object, KeySlot> slotsByKey = new HashMap<>();
+
+    /** Slots with a message pending to be delivered, each slot is only added once */
+    private final Queue<KeySlot> pendingSlots = new ArrayDeque<>();
+
+    /** Lock for access to the slots */
+    private final Object lock = new Object();
+
+    /** Thread that delivers the messages to the listener */
+    private final Thread consumerThread;
+
+    /** True if the consumer thread should stop */
+    private volatile boolean shouldStop = false;
+
+    /** True if the consumer thread is stopped */
+    private volatile boolean stopped = false;
+
+    /**
+     * Create a new buffer and start the consumer thread
+     *
+     * @param topicName topic name of the subscription, used to name the consumer thread
+     * @param subListener listener of the user for the delivered messages
+     * @param keyExtractor (Optional) extractor of the conflation key, if null the messages are conflated by topic Id
+     * @param threadFactory factory for the consumer thread
+     */
+    public LLZConflatingSubBuffer(final String topicName,
+                                  final ILLZTopicSubListener subListener,
+                                  final ILLZConflationKeyExtractor keyExtractor,
+                                  final ILLZThreadFactory threadFactory)
+    {
+        this.subListener = subListener;
+        this.keyExtractor = keyExtractor;
+
+        this.consumerThread = threadFactory.newThread(LLZThreadRole.CONFLATE_CONSUMER, "LLZ CONFLATE CONSUMER " + topicName, this);
+        this.consumerThread.start();
+    }
+
+    @Override
+    public void dispatch(final LLZRcvMessage message)
+    {
+        final Object key;
+
+        if (this.keyExtractor == null)
+        {
+            key = message.getTopicId();
+        }
+        else
+        {
+            try
+            {
+                key = this.keyExtractor.extractKey(message);
+            }
+            catch (final Exception e)
+            {
+                LOGGER.error("Uncaught exception from user while extracting the conflation key of a received message", e);
+                return;
+            }
+        }
+
+        this.onMessageReceived(key, message);
+    }
+
+    /**
+     * Store a received message replacing the previous message with the same key if it has not been delivered yet.
+     *
+     * The message contents are copied, the message can be reused by the caller after the call.
+     *
+     * @param key the conflation key of the message
+     * @param message the received message
+     */
+    public void onMessageReceived(final Object key, final LLZRcvMessage message)
+    {
+        synchronized (this.lock)
+        {
+            if (this.shouldStop)
+            {
+                return;
+            }
+
+            KeySlot slot = this.slotsByKey.get(key);
+
+            if (slot == null)
+            {
+                slot = new KeySlot();
+                this.slotsByKey.put(key, slot);
+            }
+
+            // Reuse the buffer of the replaced message or the one returned by the consumer if possible
+            ByteBuffer buffer = slot.message != null ? slot.message.getMessageContent() : slot.freeBuffer;
+            final int msgSize = message.getMessageContent().remaining();
+
+            if (buffer == null || buffer.capacity() < msgSize)
+            {
+                buffer = ByteBuffer.allocate(msgSize);
+            }
+
+            buffer.clear();
+            message.promote(buffer);
+            slot.freeBuffer = null;
+
+            if (slot.message == null)
+            {
+                this.pendingSlots.add(slot);
+                this.lock.notifyAll();
+            }
+
+            slot.message = message;
+        }
+    }
+
+    @Override
+    public void stop()
+    {
+        LOGGER.debug("Stopping conflating buffer consumer thread...");
+
+        synchronized (this.lock)
+        {
+            this.shouldStop = true;
+            this.lock.notifyAll();
+        }
+
+        // Make sure we wait for the thread to stop, unless the listener is the one stopping it
+        while (!this.stopped && Thread.currentThread() != this.consumerThread)
+        {
+            try
+            {
+                Thread.sleep(STOP_WAIT_TIME);
+            }
+            catch (final InterruptedException e)
+            {
+                LOGGER.error("Unexpected interruption while waiting for the conflating consumer thread to finish", e);
+            }
+        }
+
+        synchronized (this.lock)
+        {
+            this.pendingSlots.clear();
+            this.slotsByKey.clear();
+        }
+    }
+
+    @Override
+    public void run()
+    {
+        LOGGER.debug("Conflating buffer consumer thread started");
+
+        try
+        {
+            while (!this.shouldStop)
+            {
+                this.deliverNextPendingSlot();
+            }
+        }
+        catch (final InterruptedException e)
+        {
+            LOGGER.error("Unexpected interruption in the conflating consumer thread", e);
+        }
+        finally
+        {
+            this.stopped = true;
+        }
+
+        LOGGER.debug("Conflating buffer consumer thread stopped");
+    }
+
+    /**
+     * Wait for a pending slot and deliver its latest message. The thread waits without timeout, it is notified when a
+     * message is stored in a slot without pending message or when the buffer is stopped.
+     *
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    private void deliverNextPendingSlot() throws InterruptedException
+    {
+        final KeySlot slot;
+        final LLZRcvMessage message;
+        final ByteBuffer deliveredBuffer;
+
+        synchronized (this.lock)
+        {
+            slot = this.pendingSlots.poll();
+
+            if (slot == null)
+            {
+                // The stop flag is set under the lock, check it before waiting to not miss the notification
+                if (!this.shouldStop)
+                {
+                    this.lock.wait();
+                }
+
+                return;
+            }
+
+            message = slot.message;
+            deliveredBuffer = message.getMessageContent();
+            slot.message = null;
+        }
+
+        try
+        {
+            this.subListener.onMessageReceived(message);
+        }
+        catch (final Exception e)
+        {
+            LOGGER.error("Uncaught exception from user while processing received message", e);
+        }
+
+        // Give the buffer back to the slot, the message should have been promoted again if the user kept it
+        synchronized (this.lock)
+        {
+            if (slot.message == null)
+            {
+                slot.freeBuffer = deliveredBuffer;
+            }
+        }
+    }
+
+    /**
+     * Latest message of a conflation key
+     */
+    private static final class KeySlot
+    {
+        /** Latest message pending to be delivered, null if there is no pending message */
+        private LLZRcvMessage message;
+
+        /** Buffer of the last delivered message that can be reused */
+        private ByteBuffer freeBuffer;
+    }
+}
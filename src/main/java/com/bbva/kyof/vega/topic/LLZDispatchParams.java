@@ -0,0 +1,162 @@
+package com.bbva.kyof.vega.topic;
+
+/**
+ * Parameters for the partitioned dispatch of the received messages of a subscription. The subscriptions of an instance
+ * created with equal parameters share the same pool of worker threads.
+ */
+public final class LLZDispatchParams
+{
+    /** Number of worker threads that deliver the messages to the listener */
+    private final int numWorkers;
+
+    /** Capacity of each worker queue per reception thread */
+    private final int queueCapacity;
+
+    /** Policy to apply when a queue is full */
+    private final LLZOverflowPolicy overflowPolicy;
+
+    /**
+     * Parameters builder, it follows the builder pattern to create unmodificable instances of the parameters
+     */
+    public static class Builder
+    {
+        /** Number of worker threads that deliver the messages to the listener */
+        private int numWorkers = 1;
+
+        /** Capacity of each worker queue per reception thread */
+        private int queueCapacity = 1024;
+
+        /** Policy to apply when a queue is full */
+        private LLZOverflowPolicy overflowPolicy = LLZOverflowPolicy.BLOCK;
+
+        /**
+         * Creates the LLZDispatchParams instance.
+         *
+         * @return An instance of {@link LLZDispatchParams}
+         */
+        public LLZDispatchParams build()
+        {
+            if (this.numWorkers < 1)
+            {
+                throw new IllegalArgumentException("At least one dispatch worker is required");
+            }
+
+            if (this.queueCapacity < 1)
+            {
+                throw new IllegalArgumentException("The dispatch queue capacity should be positive");
+            }
+
+            if (this.overflowPolicy == null)
+            {
+                throw new IllegalArgumentException("The dispatch overflow policy is required");
+            }
+
+            return new LLZDispatchParams(this);
+        }
+
+        /**
+         * Set the number of worker threads, the messages are partitioned by topic Id to keep the order of each topic
+         *
+         * @param numWorkers the number of worker threads
+         * @return the Builder object
+         */
+        public Builder numWorkers(final int numWorkers)
+        {
+            this.numWorkers = numWorkers;
+            return this;
+        }
+
+        /**
+         * Set the capacity of the queues, it will be rounded up to the next power of 2
+         *
+         * @param queueCapacity capacity of each worker queue per reception thread
+         * @return the Builder object
+         */
+        public Builder queueCapacity(final int queueCapacity)
+        {
+            this.queueCapacity = queueCapacity;
+            return this;
+        }
+
+        /**
+         * Set the policy to apply when a queue is full
+         *
+         * @param overflowPolicy the overflow policy
+         * @return the Builder object
+         */
+        public Builder overflowPolicy(final LLZOverflowPolicy overflowPolicy)
+        {
+            this.overflowPolicy = overflowPolicy;
+            return this;
+        }
+    }
+
+    /**
+     * Constructor of the class
+     *
+     * @param builder object
+     */
+    private LLZDispatchParams(final Builder builder)
+    {
+        this.numWorkers = builder.numWorkers;
+        this.queueCapacity = builder.queueCapacity;
+        this.overflowPolicy = builder.overflowPolicy;
+    }
+
+    /** @return the number of worker threads */
+    public int getNumWorkers()
+    {
+        return this.numWorkers;
+    }
+
+    /** @return the capacity of each worker queue per reception thread */
+    public int getQueueCapacity()
+    {
+        return this.queueCapacity;
+    }
+
+    /** @return the policy to apply when a queue is full */
+    public LLZOverflowPolicy getOverflowPolicy()
+    {
+        return this.overflowPolicy;
+    }
+
+    @Override
+    public boolean equals(final Object obj)
+    {
+        if (this == obj)
+        {
+            return true;
+        }
+
+        if (obj == null || this.getClass() != obj.getClass())
+        {
+            return false;
+        }
+
+        final LLZDispatchParams other = (LLZDispatchParams) obj;
+
+        return this.numWorkers == other.numWorkers &&
+                this.queueCapacity == other.queueCapacity &&
+                this.overflowPolicy == other.overflowPolicy;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        int result = this.numWorkers;
+        result = 31 * result + this.queueCapacity;
+        result = 31 * result + this.overflowPolicy.hashCode();
+        return result;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "LLZDispatchParams{" +
+                "numWorkers=" + this.numWorkers +
+                ", queueCapacity=" + this.queueCapacity +
+                ", overflowPolicy=" + this.overflowPolicy +
+                '}';
+    }
+}
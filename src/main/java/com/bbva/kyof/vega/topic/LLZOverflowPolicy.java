@@ -0,0 +1,14 @@
+package com.bbva.kyof.vega.topic;
+
+/**
+ * Policy to apply when the dispatch queue of a subscription is full
+ */
+public enum LLZOverflowPolicy
+{
+    /** The reception thread waits until there is space in the queue, nothing is lost but other topics on the socket are delayed */
+    BLOCK,
+    /** The oldest message in the queue is discarded */
+    DROP_OLDEST,
+    /** Only the most recent message of each topic Id is kept until the queue is drained */
+    CONFLATE
+}
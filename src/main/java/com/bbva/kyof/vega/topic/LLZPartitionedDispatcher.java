@@ -0,0 +1,563 @@
+package com.bbva.kyof.vega.topic;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.bbva.kyof.vega.msg.LLZRcvMessage;
+import com.bbva.kyof.vega.util.LLZSpscRingQueue;
+import com.bbva.kyof.vega.util.threads.ILLZThreadFactory;
+import com.bbva.kyof.vega.util.threads.LLZThreadRole;
+
+/**
+ * Pool of worker threads that delivers the received messages of the subscriptions created with the same
+ * {@link LLZDispatchParams}. Each subscription gets its own dispatcher from {@link #createDispatcher}, all of them share
+ * the workers and the queues of the pool.
+ *
+ * The messages are partitioned by topic Id across all the subscriptions to keep the order of each topic. Each reception
+ * thread gets its own queue per worker, so every queue has a single producer and a single consumer and no locks are
+ * required in the normal path.
+ *
+ * When a queue is full the configured {@link LLZOverflowPolicy} is applied.
+ *
+ * Idle workers and reception threads blocked on a full queue are parked until the other side unparks them, there is no
+ * polling. The queues of a reception thread that has finished are removed by the workers the next time they wake up, a
+ * new reception thread always wakes them up, so the sockets that are closed and recreated don't accumulate queues.
+ *
+ * The class is thread-safe
+ */
+public final class LLZPartitionedDispatcher
+{
+    /** Logger of the class */
+    private static final Logger LOGGER = LoggerFactory.getLogger(LLZPartitionedDispatcher.class);
+
+    /** Time to park the thread that stops the dispatcher while waiting for the workers to finish */
+    private static final long STOP_PARK_NANOS = 50000;
+
+    /** Parameters of the dispatcher */
+    private final LLZDispatchParams params;
+
+    /** Worker threads runnables */
+    private final Worker[] workers;
+
+    /** Queues of the current reception thread, one per worker */
+    private final ThreadLocal<PartitionQueue[]> producerQueues = new ThreadLocal<>();
+
+    /** Number of messages discarded because of full queues */
+    private final AtomicLong droppedMsgsCount = new AtomicLong();
+
+    /** True if the dispatcher should stop */
+    private volatile boolean shouldStop = false;
+
+    /**
+     * Create a new dispatcher pool and start the worker threads
+     *
+     * @param name name of the pool, used to name the worker threads
+     * @param params parameters of the dispatcher
+     * @param threadFactory factory for the worker threads
+     */
+    public LLZPartitionedDispatcher(final String name, final LLZDispatchParams params, final ILLZThreadFactory threadFactory)
+    {
+        this.params = params;
+        this.workers = new Worker[params.getNumWorkers()];
+
+        for (int i = 0; i < this.workers.length; i++)
+        {
+            this.workers[i] = new Worker();
+            this.workers[i].thread = threadFactory.newThread(LLZThreadRole.DISPATCH_WORKER, "LLZ DISPATCH WORKER " + i + " " + name, this.workers[i]);
+            this.workers[i].thread.start();
+        }
+    }
+
+    /**
+     * Create the dispatcher of a subscription, its messages are delivered by the workers of the pool
+     *
+     * @param subListener listener of the user for the delivered messages
+     * @return the dispatcher of the subscription, stopping it doesn't stop the pool
+     */
+    public ILLZRcvMsgDispatcher createDispatcher(final ILLZTopicSubListener subListener)
+    {
+        return new Subscription(subListener);
+    }
+
+    /**
+     * Queue a message of a subscription in the partition of its topic Id
+     *
+     * @param subscription the subscription the message belongs to
+     * @param message the received message
+     */
+    private void dispatch(final Subscription subscription, final LLZRcvMessage message)
+    {
+        if (this.shouldStop || subscription.stopped)
+        {
+            return;
+        }
+
+        final int partition = this.partition(message.getTopicId());
+        final PartitionQueue queue = this.getProducerQueues()[partition];
+
+        // The reception buffer will be reused, the worker needs its own copy
+        message.promote();
+        final Delivery delivery = new Delivery(subscription, message);
+
+        switch (this.params.getOverflowPolicy())
+        {
+            case BLOCK:
+                this.offerBlocking(queue, delivery);
+                break;
+            case DROP_OLDEST:
+                if (queue.ring.offerDroppingOldest(delivery) != null)
+                {
+                    this.droppedMsgsCount.incrementAndGet();
+                }
+                break;
+            case CONFLATE:
+                this.offerConflating(queue, delivery);
+                break;
+            default:
+                break;
+        }
+
+        this.workers[partition].wakeUp();
+    }
+
+    /**
+     * Stop delivering the messages of a subscription and wait for the deliveries in progress, unless the listener is the
+     * one stopping it. The pending messages of the subscription are discarded by the workers.
+     *
+     * @param subscription the subscription to stop
+     */
+    private void stop(final Subscription subscription)
+    {
+        subscription.stopped = true;
+
+        for (final Worker worker : this.workers)
+        {
+            while (worker.delivering == subscription && Thread.currentThread() != worker.thread)
+            {
+                LockSupport.parkNanos(STOP_PARK_NANOS);
+            }
+        }
+    }
+
+    /**
+     * Stop the worker threads and wait for them to finish, the pending messages of all the subscriptions are discarded
+     */
+    public void stop()
+    {
+        LOGGER.debug("Stopping dispatcher worker threads...");
+
+        this.shouldStop = true;
+
+        // Wake up the parked workers and the reception threads blocked on full queues
+        for (final Worker worker : this.workers)
+        {
+            LockSupport.unpark(worker.thread);
+
+            for (final PartitionQueue queue : worker.queues)
+            {
+                LockSupport.unpark(queue.producer);
+            }
+        }
+
+        // Make sure we wait for the threads to stop, unless the listener is the one stopping it
+        for (final Worker worker : this.workers)
+        {
+            while (!worker.stopped && Thread.currentThread() != worker.thread)
+            {
+                LockSupport.parkNanos(STOP_PARK_NANOS);
+            }
+        }
+    }
+
+    /** @return the number of messages discarded or conflated because of full queues */
+    public long getDroppedMsgsCount()
+    {
+        return this.droppedMsgsCount.get();
+    }
+
+    /**
+     * Offer the message waiting while the queue is full, the reception thread is parked until the worker takes a message
+     *
+     * @param queue the queue of the partition
+     * @param delivery the message to offer
+     */
+    private void offerBlocking(final PartitionQueue queue, final Delivery delivery)
+    {
+        while (!queue.ring.offer(delivery))
+        {
+            // Flag before checking again, the worker unparks the producer after taking a message if it finds the flag
+            queue.producerBlocked.set(true);
+
+            if (queue.ring.offer(delivery))
+            {
+                queue.producerBlocked.set(false);
+                return;
+            }
+
+            if (this.shouldStop || delivery.subscription.stopped)
+            {
+                return;
+            }
+
+            LockSupport.park(this);
+        }
+    }
+
+    /**
+     * Offer the message keeping only the latest message per topic Id while the queue is full
+     *
+     * Once a message has been conflated all the following messages are conflated as well until the worker drains the
+     * queue, otherwise the newer messages could be delivered before the conflated ones.
+     *
+     * @param queue the queue of the partition
+     * @param delivery the message to offer
+     */
+    private void offerConflating(final PartitionQueue queue, final Delivery delivery)
+    {
+        if (!queue.conflating && queue.ring.offer(delivery))
+        {
+            return;
+        }
+
+        synchronized (queue.conflatedByTopicId)
+        {
+            if (queue.conflatedByTopicId.put(delivery.message.getTopicId(), delivery) != null)
+            {
+                this.droppedMsgsCount.incrementAndGet();
+            }
+
+            queue.conflating = true;
+        }
+    }
+
+    /**
+     * Calculate the partition of a topic Id
+     *
+     * @param topicId the topic Id
+     * @return the index of the worker for the topic Id
+     */
+    private int partition(final long topicId)
+    {
+        final int hash = (int) (topicId ^ (topicId >>> 32));
+        return (hash & Integer.MAX_VALUE) % this.workers.length;
+    }
+
+    /**
+     * Return the queues of the current reception thread, they are created and registered in the workers the first time. The
+     * registration wakes up the workers so they remove the queues of the reception threads that have finished.
+     *
+     * @return the queues of the current reception thread
+     */
+    private PartitionQueue[] getProducerQueues()
+    {
+        PartitionQueue[] result = this.producerQueues.get();
+
+        if (result == null)
+        {
+            result = new PartitionQueue[this.workers.length];
+
+            for (int i = 0; i < result.length; i++)
+            {
+                result[i] = new PartitionQueue(Thread.currentThread(), this.params.getQueueCapacity());
+                this.workers[i].queues.add(result[i]);
+                this.workers[i].wakeUp();
+            }
+
+            this.producerQueues.set(result);
+        }
+
+        return result;
+    }
+
+    /**
+     * Dispatcher of a single subscription, it queues the messages in the workers of the pool
+     */
+    private final class Subscription implements ILLZRcvMsgDispatcher
+    {
+        /** Listener of the user for the delivered messages */
+        private final ILLZTopicSubListener subListener;
+
+        /** True if the subscription has been stopped, its pending messages are discarded */
+        private volatile boolean stopped = false;
+
+        /**
+         * Create a new subscription dispatcher
+         *
+         * @param subListener listener of the user for the delivered messages
+         */
+        private Subscription(final ILLZTopicSubListener subListener)
+        {
+            this.subListener = subListener;
+        }
+
+        @Override
+        public void dispatch(final LLZRcvMessage message)
+        {
+            LLZPartitionedDispatcher.this.dispatch(this, message);
+        }
+
+        @Override
+        public void stop()
+        {
+            LLZPartitionedDispatcher.this.stop(this);
+        }
+    }
+
+    /**
+     * Message queued for a worker with the subscription it belongs to
+     */
+    private static final class Delivery
+    {
+        /** Subscription of the message */
+        private final Subscription subscription;
+
+        /** The promoted message */
+        private final LLZRcvMessage message;
+
+        /**
+         * Create a new delivery
+         *
+         * @param subscription subscription of the message
+         * @param message the promoted message
+         */
+        private Delivery(final Subscription subscription, final LLZRcvMessage message)
+        {
+            this.subscription = subscription;
+            this.message = message;
+        }
+    }
+
+    /**
+     * Queue between a reception thread and a worker
+     */
+    private static final class PartitionQueue
+    {
+        /** Reception thread that produces the messages of the queue */
+        private final Thread producer;
+
+        /** Ring with the messages pending to be delivered */
+        private final LLZSpscRingQueue<Delivery> ring;
+
+        /** True if the producer is parked waiting for space in the ring, only used by the block policy */
+        private final AtomicBoolean producerBlocked = new AtomicBoolean(false);
+
+        /** Latest message by topic Id that didn't fit in the ring, only used by the conflate policy */
+        private final Map<Long, Delivery> conflatedByTopicId = new HashMap<>();
+
+        /** True if there are conflated messages pending */
+        private volatile boolean conflating = false;
+
+        /**
+         * Create a new queue
+         *
+         * @param producer reception thread that produces the messages of the queue
+         * @param capacity capacity of the ring
+         */
+        private PartitionQueue(final Thread producer, final int capacity)
+        {
+            this.producer = producer;
+            this.ring = new LLZSpscRingQueue<>(capacity);
+        }
+
+        /** @return true if the producer has finished and there is nothing left to deliver, the queue can be removed */
+        private boolean isAbandoned()
+        {
+            // Check the producer first, once it has finished nothing else can be added
+            return !this.producer.isAlive() && this.ring.isEmpty() && !this.conflating;
+        }
+
+        /** Unpark the producer if it is blocked waiting for space in the ring */
+        private void unblockProducer()
+        {
+            if (this.producerBlocked.get() && this.producerBlocked.compareAndSet(true, false))
+            {
+                LockSupport.unpark(this.producer);
+            }
+        }
+    }
+
+    /**
+     * Worker that drains its queues delivering the messages
+     */
+    private final class Worker implements Runnable
+    {
+        /** Queues of the worker, one per reception thread */
+        private final List<PartitionQueue> queues = new CopyOnWriteArrayList<>();
+
+        /** Messages taken from the conflated map, reused to deliver outside the lock */
+        private final List<Delivery> conflatedMessages = new ArrayList<>();
+
+        /** Thread running the worker */
+        private volatile Thread thread;
+
+        /** Subscription whose listener is being called by the worker, null if none */
+        private volatile Subscription delivering = null;
+
+        /** True if the worker is about to park or parked, the producers unpark it when they add a message */
+        private final AtomicBoolean parked = new AtomicBoolean(false);
+
+        /** True if the worker is stopped */
+        private volatile boolean stopped = false;
+
+        @Override
+        public void run()
+        {
+            try
+            {
+                while (!LLZPartitionedDispatcher.this.shouldStop)
+                {
+                    if (!this.drainQueues())
+                    {
+                        this.park();
+                    }
+                }
+            }
+            finally
+            {
+                this.stopped = true;
+            }
+        }
+
+        /** Unpark the worker if it is parked or about to park. Called by the producers after adding a message. */
+        private void wakeUp()
+        {
+            // The swap is a full barrier, the message added before is visible to the worker when it checks again
+            if (this.parked.getAndSet(false))
+            {
+                LockSupport.unpark(this.thread);
+            }
+        }
+
+        /** Park the worker until a producer adds a message or the dispatcher stops */
+        private void park()
+        {
+            this.parked.set(true);
+
+            // Check again after flagging, a message added before the flag was set would not unpark the worker
+            if (!this.hasPendingMessages() && !LLZPartitionedDispatcher.this.shouldStop)
+            {
+                LockSupport.park(LLZPartitionedDispatcher.this);
+            }
+
+            this.parked.set(false);
+        }
+
+        /** @return true if any of the queues has messages pending to be delivered */
+        private boolean hasPendingMessages()
+        {
+            for (final PartitionQueue queue : this.queues)
+            {
+                if (!queue.ring.isEmpty() || queue.conflating)
+                {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        /**
+         * Deliver the pending messages of all the queues
+         *
+         * @return true if any message has been delivered
+         */
+        private boolean drainQueues()
+        {
+            boolean delivered = false;
+
+            for (final PartitionQueue queue : this.queues)
+            {
+                Delivery delivery = queue.ring.poll();
+
+                while (delivery != null)
+                {
+                    queue.unblockProducer();
+                    this.deliver(delivery);
+                    delivered = true;
+                    delivery = queue.ring.poll();
+                }
+
+                // The conflated messages are always newer than the ones in the ring
+                if (queue.conflating)
+                {
+                    this.takeConflated(queue);
+
+                    for (final Delivery conflatedMessage : this.conflatedMessages)
+                    {
+                        this.deliver(conflatedMessage);
+                    }
+
+                    delivered = true;
+                    this.conflatedMessages.clear();
+                }
+
+                // The queues of the reception threads that have finished are no longer needed
+                if (queue.isAbandoned())
+                {
+                    this.queues.remove(queue);
+                }
+            }
+
+            return delivered;
+        }
+
+        /**
+         * Move the conflated messages of a queue into the reusable list
+         *
+         * @param queue the queue to take the messages from
+         */
+        private void takeConflated(final PartitionQueue queue)
+        {
+            synchronized (queue.conflatedByTopicId)
+            {
+                // The producer may have added more messages to the ring before switching to conflate
+                Delivery delivery = queue.ring.poll();
+                while (delivery != null)
+                {
+                    this.conflatedMessages.add(delivery);
+                    delivery = queue.ring.poll();
+                }
+
+                this.conflatedMessages.addAll(queue.conflatedByTopicId.values());
+                queue.conflatedByTopicId.clear();
+                queue.conflating = false;
+            }
+        }
+
+        /**
+         * Deliver a message to the listener of its subscription unless the subscription has been stopped
+         *
+         * @param delivery the message to deliver
+         */
+        private void deliver(final Delivery delivery)
+        {
+            // Flag before checking the subscription, stopping it waits until the flag is cleared
+            this.delivering = delivery.subscription;
+
+            try
+            {
+                if (!delivery.subscription.stopped)
+                {
+                    delivery.subscription.subListener.onMessageReceived(delivery.message);
+                }
+            }
+            catch (final Exception e)
+            {
+                LOGGER.error("Uncaught exception from user while processing received message", e);
+            }
+            finally
+            {
+                this.delivering = null;
+            }
+        }
+    }
+}
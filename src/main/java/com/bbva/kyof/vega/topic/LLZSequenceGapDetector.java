@@ -0,0 +1,45 @@
+package com.bbva.kyof.vega.topic;
+
+/**
+ * Tracks the expected sequence number of the messages sent by a single topic publisher (topic unique ID)
+ *
+ * The first received sequence is always accepted, the subscriber may have joined when the publisher was already sending.
+ * A sequence lower than the expected one means the publisher has been restarted and tracking starts again from it.
+ *
+ * This class is not thread safe, it should only be accessed by the reception thread of the topic unique ID
+ */
+public final class LLZSequenceGapDetector
+{
+    /** Next sequence number expected, 0 if no message has been received yet */
+    private long expectedSequence = 0;
+
+    /**
+     * Process the sequence number of a received message
+     *
+     * @param sequenceNumber the sequence number of the received message
+     * @return the number of messages lost before the received one, 0 if there is no gap
+     */
+    public long onSequenceReceived(final long sequenceNumber)
+    {
+        final long lostMessages;
+
+        if (this.expectedSequence == 0 || sequenceNumber < this.expectedSequence)
+        {
+            lostMessages = 0;
+        }
+        else
+        {
+            lostMessages = sequenceNumber - this.expectedSequence;
+        }
+
+        this.expectedSequence = sequenceNumber + 1;
+
+        return lostMessages;
+    }
+
+    /** @return the next sequence number expected, 0 if no message has been received yet */
+    public long getExpectedSequence()
+    {
+        return this.expectedSequence;
+    }
+}
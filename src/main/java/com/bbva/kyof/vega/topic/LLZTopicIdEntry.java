@@ -0,0 +1,78 @@
+package com.bbva.kyof.vega.topic;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Resolved reception information of a topic unique ID in a subscriber socket. It contains everything required to
+ * process a received message without further lookups.
+ *
+ * It should only be accessed by the reception thread of the subscriber socket, except the number of received messages
+ * that can be read from any thread
+ */
+public final class LLZTopicIdEntry
+{
+    /** Topic unique ID of the publisher */
+    private final long topicUniqueId;
+
+    /** Topic name of the topic unique ID */
+    private final String topicName;
+
+    /** Topic subscriber that will process the messages */
+    private final LLZTopicSubscriber topicSubscriber;
+
+    /** Sequence gap detector of the topic unique ID */
+    private final LLZSequenceGapDetector gapDetector = new LLZSequenceGapDetector();
+
+    /** Number of user messages received, only written by the reception thread so it doesn't need an atomic increment */
+    private final AtomicLong receivedMsgsCount = new AtomicLong();
+
+    /**
+     * Create a new entry
+     *
+     * @param topicUniqueId topic unique ID of the publisher
+     * @param topicName topic name of the topic unique ID
+     * @param topicSubscriber topic subscriber that will process the messages
+     */
+    public LLZTopicIdEntry(final long topicUniqueId, final String topicName, final LLZTopicSubscriber topicSubscriber)
+    {
+        this.topicUniqueId = topicUniqueId;
+        this.topicName = topicName;
+        this.topicSubscriber = topicSubscriber;
+    }
+
+    /** @return the topic unique ID of the publisher */
+    public long getTopicUniqueId()
+    {
+        return this.topicUniqueId;
+    }
+
+    /** @return the topic name of the topic unique ID */
+    public String getTopicName()
+    {
+        return this.topicName;
+    }
+
+    /** @return the topic subscriber that will process the messages */
+    public LLZTopicSubscriber getTopicSubscriber()
+    {
+        return this.topicSubscriber;
+    }
+
+    /** @return the sequence gap detector of the topic unique ID */
+    public LLZSequenceGapDetector getGapDetector()
+    {
+        return this.gapDetector;
+    }
+
+    /** Count a received user message, only called from the reception thread */
+    void onUserDataMessageReceived()
+    {
+        this.receivedMsgsCount.lazySet(this.receivedMsgsCount.get() + 1);
+    }
+
+    /** @return the number of user messages received */
+    long getReceivedMsgsCount()
+    {
+        return this.receivedMsgsCount.get();
+    }
+}
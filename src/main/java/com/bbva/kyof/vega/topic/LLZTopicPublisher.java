@@ -34,6 +34,9 @@ public final class LLZTopicPublisher implements ILLZTopicPublisher
     /** True if the publisher has been stopped */
     private boolean stopped = false;
 
+    /** Sequence number of the last published message, the first message is sent with sequence number 1 */
+    private long lastSequenceNumber = 0;
+
     
     /**
      * Constructor of the class
@@ -66,7 +69,9 @@ public final class LLZTopicPublisher implements ILLZTopicPublisher
                 throw new LLZException("Trying to publish a message on a closed publisher on topicName " + this.topicName);
             }
 
-            this.topicMsgPublisher.sendMessage(this.topicName, this.topicUniqueId, message);
+            // The sequence is only consumed if the message is sent, otherwise subscribers would report a false gap
+            this.topicMsgPublisher.sendMessage(this.topicName, this.topicUniqueId, this.lastSequenceNumber + 1, message);
+            this.lastSequenceNumber++;
         }
     }
 
@@ -113,9 +113,25 @@ public final class LLZTopicRequester implements ILLZTopicRequester
             final LLZSentRequest sentRequest = this.requestManager.addNewRequest(this.topicName, timeout, responseListener, timeoutListener);
 
             // Send a request for all the request sender which may have any topicName which matches current regexp
+            boolean anySenderDown = false;
+            boolean anyRequestSent = false;
             for (final RequestSender requestSender : this.requestSendersByTopicId.values())
             {
-                requestSender.sendRequest(sentRequest, message);
+                if (requestSender.sendRequest(sentRequest, message))
+                {
+                    anyRequestSent = true;
+                }
+                else
+                {
+                    anySenderDown = true;
+                }
+            }
+
+            // If all the responders are down no response will come, time out the request now instead of waiting
+            if (anySenderDown && !anyRequestSent)
+            {
+                LOGGER.debug("All the responders of topic [{}] are down, request [{}] timed out", this.topicName, sentRequest.getRequestId());
+                sentRequest.onRequestTimeout();
             }
 
             // Return the sent request object
@@ -166,9 +182,9 @@ public final class LLZTopicRequester implements ILLZTopicRequester
             this.sender = sender;
         }
 
-        public void sendRequest(final LLZSentRequest requestToSend, final ByteBuffer message) throws LLZException
+        public boolean sendRequest(final LLZSentRequest requestToSend, final ByteBuffer message) throws LLZException
         {
-            this.sender.sendTopicRequest(this.topicId, requestToSend.getRequestId(), message);
+            return this.sender.sendTopicRequest(this.topicId, requestToSend.getRequestId(), message);
         }
 
         public long getResponderSocketId()
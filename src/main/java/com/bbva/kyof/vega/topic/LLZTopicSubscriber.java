@@ -9,8 +9,11 @@ import org.slf4j.LoggerFactory;
 import com.bbva.kyof.vega.msg.LLZRcvMessage;
 
 import java.nio.ByteBuffer;
+import java.util.Collections;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * The LLZTopicSubscriber is the class that conglomerates all the functionality to subscribe to a topicRegexp.
@@ -32,6 +35,24 @@ public final class LLZTopicSubscriber implements ILLZTopicSubscriber
 
     /** Map of all the endpoints by topic Id that belongs to the topic name represented by this topic subscriber */
     private final Map<Long, ILLZAutodiscTopicEndPoint> endPointsByTopicId = new ConcurrentHashMap<>();
+
+    /** (Optional) Listener for gaps in the received messages, null if the user listener don't implement it */
+    private final ILLZTopicSubGapListener gapListener;
+
+    /** Reception entries of the topic in the subscriber sockets, each one counts the messages of its reception thread */
+    private final Set<LLZTopicIdEntry> topicIdEntries = Collections.newSetFromMap(new ConcurrentHashMap<LLZTopicIdEntry, Boolean>());
+
+    /** Number of user messages received by the reception entries already removed */
+    private final AtomicLong removedEntriesMsgsCount = new AtomicLong();
+
+    /** Number of sequence gaps detected */
+    private final AtomicLong gapsCount = new AtomicLong();
+
+    /** Number of messages lost in the detected gaps */
+    private final AtomicLong lostMsgsCount = new AtomicLong();
+
+    /** (Optional) Dispatcher that delivers the messages from its own threads, null to deliver on the reception thread */
+    private final ILLZRcvMsgDispatcher dispatcher;
     
     /**
      * Constructs a new topic subscriber
@@ -40,12 +61,37 @@ public final class LLZTopicSubscriber implements ILLZTopicSubscriber
      * @param subListener listener for incoming messages on the topicRegexp
      */
     public LLZTopicSubscriber(final String topicName, final ILLZTopicSubListener subListener)
+    {
+        this(topicName, subListener, null);
+    }
+
+    /**
+     * Constructs a new topic subscriber
+     *
+     * @param topicName Topic name the subscriber is associated to
+     * @param subListener listener for incoming messages on the topicRegexp
+     * @param dispatcher (Optional) dispatcher that delivers the messages to the listener, null to deliver on the reception thread
+     */
+    public LLZTopicSubscriber(final String topicName,
+                              final ILLZTopicSubListener subListener,
+                              final ILLZRcvMsgDispatcher dispatcher)
     {
         this.subListener = subListener;
         this.topicName = topicName;
+        this.dispatcher = dispatcher;
+
+        if (subListener instanceof ILLZTopicSubGapListener)
+        {
+            this.gapListener = (ILLZTopicSubGapListener) subListener;
+        }
+        else
+        {
+            this.gapListener = null;
+        }
     }
 
      /** @return topic name which created this subscriber */
+    @Override
     public String getTopicName()
     {
         return this.topicName;
@@ -54,22 +100,29 @@ public final class LLZTopicSubscriber implements ILLZTopicSubscriber
     /** 
      * Creates and process the received user data message
      *
-     * @param header
+     * @param topicIdEntry resolved reception information of the topic Id of the message
+     * @param header header of the received message
      * @param content content of the received message
      */
-    public void onUserDataMessageReceived(LLZMsgHeader header, final ByteBuffer content)
+    public void onUserDataMessageReceived(final LLZTopicIdEntry topicIdEntry, final LLZMsgHeader header, final ByteBuffer content)
     {
-        // First find the topic name
-        final ILLZAutodiscTopicEndPoint endPoint = this.endPointsByTopicId.get(header.getTopicUniqueId());
+        topicIdEntry.onUserDataMessageReceived();
 
-        // This may happen if it has been un-subscribed or the endpoint has been removed from auto-discovery, ignore the message
-        if (endPoint == null)
+        // Check the sequence number of the message to find lost messages
+        if (header.getSequenceNumber() != 0)
         {
-            return;
+            this.checkSequenceGap(topicIdEntry.getGapDetector(), header);
         }
         
         // Create the messge
-        LLZRcvMessage message = new LLZRcvMessage(header, content, endPoint.getTopicName());
+        LLZRcvMessage message = new LLZRcvMessage(header, content, topicIdEntry.getTopicName());
+
+        // If there is a dispatcher it will deliver the message from its own threads
+        if (this.dispatcher != null)
+        {
+            this.dispatcher.dispatch(message);
+            return;
+        }
 
         try
         {
@@ -82,6 +135,105 @@ public final class LLZTopicSubscriber implements ILLZTopicSubscriber
         }
     }
 
+    /**
+     * Add a reception entry of the topic in a subscriber socket
+     *
+     * @param topicIdEntry the reception entry
+     */
+    public void addTopicIdEntry(final LLZTopicIdEntry topicIdEntry)
+    {
+        this.topicIdEntries.add(topicIdEntry);
+    }
+
+    /**
+     * Remove a reception entry of the topic in a subscriber socket, its received messages are still counted
+     *
+     * @param topicIdEntry the reception entry
+     */
+    public void removeTopicIdEntry(final LLZTopicIdEntry topicIdEntry)
+    {
+        if (this.topicIdEntries.remove(topicIdEntry))
+        {
+            this.removedEntriesMsgsCount.addAndGet(topicIdEntry.getReceivedMsgsCount());
+        }
+    }
+
+    /**
+     * Stops the topic subscriber, if there is a dispatcher it stops its threads discarding the pending messages
+     */
+    public void stop()
+    {
+        if (this.dispatcher != null)
+        {
+            this.dispatcher.stop();
+        }
+    }
+
+    /**
+     * Check the sequence of the message against the expected one for the topic Id and report the gap if any
+     *
+     * @param gapDetector the sequence gap detector of the topic Id
+     * @param header the header of the received message
+     */
+    private void checkSequenceGap(final LLZSequenceGapDetector gapDetector, final LLZMsgHeader header)
+    {
+        final long expectedSequence = gapDetector.getExpectedSequence();
+        final long lostMessages = gapDetector.onSequenceReceived(header.getSequenceNumber());
+
+        if (lostMessages == 0)
+        {
+            return;
+        }
+
+        this.gapsCount.incrementAndGet();
+        this.lostMsgsCount.addAndGet(lostMessages);
+
+        if (LOGGER.isDebugEnabled())
+        {
+            LOGGER.debug("Gap detected on topic [{}], topic Id [{}], expected sequence [{}], received [{}]",
+                    this.topicName, header.getTopicUniqueId(), expectedSequence, header.getSequenceNumber());
+        }
+
+        if (this.gapListener == null)
+        {
+            return;
+        }
+
+        try
+        {
+            this.gapListener.onMessageGap(this.topicName, header.getTopicUniqueId(), expectedSequence, header.getSequenceNumber());
+        }
+        catch (final Exception e)
+        {
+            LOGGER.error("Uncaught exception from user while processing a message gap", e);
+        }
+    }
+
+    @Override
+    public long getReceivedMsgsCount()
+    {
+        long receivedMsgsCount = this.removedEntriesMsgsCount.get();
+
+        for (final LLZTopicIdEntry topicIdEntry : this.topicIdEntries)
+        {
+            receivedMsgsCount += topicIdEntry.getReceivedMsgsCount();
+        }
+
+        return receivedMsgsCount;
+    }
+
+    @Override
+    public long getGapsCount()
+    {
+        return this.gapsCount.get();
+    }
+
+    @Override
+    public long getLostMsgsCount()
+    {
+        return this.lostMsgsCount.get();
+    }
+
     /**
      * Return the map of endpoints by topic Id that belongs to the topic name represented by this topic subscriber
      */
@@ -0,0 +1,272 @@
+package com.bbva.kyof.vega.util;
+
+import java.util.Map;
+
+/**
+ * Map with primitive long keys designed for very frequent reads and rare modifications.
+ *
+ * The contents are stored in an open addressing table with linear probing. Every modification creates a new table
+ * that is published atomically, the reads don't lock and don't box the keys. Use {@link #putAll(Map)} to add many values
+ * with a single copy of the table.
+ *
+ * The reads are thread-safe and wait-free, the modifications are synchronized between them.
+ *
+ * @param <V> type of the values, null values are not allowed
+ */
+public final class LLZCopyOnWriteLongMap<V>
+{
+    /** Minimum capacity of the table */
+    private static final int MIN_CAPACITY = 8;
+
+    /** Current table, it is never modified once published */
+    private volatile Table table = new Table(MIN_CAPACITY);
+
+    /** Lock for the modifications */
+    private final Object lock = new Object();
+
+    /**
+     * Get the value for the given key
+     *
+     * @param key the key to look for
+     * @return the value, null if not found
+     */
+    @SuppressWarnings("unchecked")
+    public V get(final long key)
+    {
+        final Table currentTable = this.table;
+        final long[] keys = currentTable.keys;
+        final Object[] values = currentTable.values;
+        final int mask = keys.length - 1;
+
+        int index = hash(key) & mask;
+
+        while (values[index] != null)
+        {
+            if (keys[index] == key)
+            {
+                return (V) values[index];
+            }
+
+            index = (index + 1) & mask;
+        }
+
+        return null;
+    }
+
+    /**
+     * Add or replace the value for the given key
+     *
+     * @param key the key
+     * @param value the value, it cannot be null
+     * @return the previous value, null if there was no previous value
+     */
+    public V put(final long key, final V value)
+    {
+        if (value == null)
+        {
+            throw new IllegalArgumentException("Null values are not allowed");
+        }
+
+        synchronized (this.lock)
+        {
+            final V previous = this.get(key);
+            final int newSize = previous == null ? this.table.size + 1 : this.table.size;
+
+            final Table newTable = new Table(capacityFor(newSize));
+            this.copyInto(newTable, key);
+            newTable.insert(key, value);
+
+            this.table = newTable;
+            return previous;
+        }
+    }
+
+    /**
+     * Add or replace the values of all the given keys creating a single new table
+     *
+     * @param entries the values by key, none of them can be null
+     */
+    public void putAll(final Map<Long, ? extends V> entries)
+    {
+        for (final Object value : entries.values())
+        {
+            if (value == null)
+            {
+                throw new IllegalArgumentException("Null values are not allowed");
+            }
+        }
+
+        synchronized (this.lock)
+        {
+            final Table currentTable = this.table;
+
+            int newSize = currentTable.size;
+            for (final Long key : entries.keySet())
+            {
+                if (this.get(key) == null)
+                {
+                    newSize++;
+                }
+            }
+
+            final Table newTable = new Table(capacityFor(newSize));
+
+            for (int i = 0; i < currentTable.values.length; i++)
+            {
+                if (currentTable.values[i] != null && !entries.containsKey(currentTable.keys[i]))
+                {
+                    newTable.insert(currentTable.keys[i], currentTable.values[i]);
+                }
+            }
+
+            for (final Map.Entry<Long, ? extends V> entry : entries.entrySet())
+            {
+                newTable.insert(entry.getKey(), entry.getValue());
+            }
+
+            this.table = newTable;
+        }
+    }
+
+    /**
+     * Remove the value for the given key
+     *
+     * @param key the key
+     * @return the removed value, null if not found
+     */
+    public V remove(final long key)
+    {
+        synchronized (this.lock)
+        {
+            final V previous = this.get(key);
+
+            if (previous == null)
+            {
+                return null;
+            }
+
+            final Table newTable = new Table(capacityFor(this.table.size - 1));
+            this.copyInto(newTable, key);
+
+            this.table = newTable;
+            return previous;
+        }
+    }
+
+    /** Remove all the values */
+    public void clear()
+    {
+        synchronized (this.lock)
+        {
+            this.table = new Table(MIN_CAPACITY);
+        }
+    }
+
+    /** @return the number of values in the map */
+    public int size()
+    {
+        return this.table.size;
+    }
+
+    /** @return true if the map is empty */
+    public boolean isEmpty()
+    {
+        return this.table.size == 0;
+    }
+
+    /**
+     * Copy the contents of the current table into a new one, skipping the given key
+     *
+     * @param newTable the table to copy into
+     * @param skippedKey key that won't be copied
+     */
+    private void copyInto(final Table newTable, final long skippedKey)
+    {
+        final Table currentTable = this.table;
+
+        for (int i = 0; i < currentTable.values.length; i++)
+        {
+            if (currentTable.values[i] != null && currentTable.keys[i] != skippedKey)
+            {
+                newTable.insert(currentTable.keys[i], currentTable.values[i]);
+            }
+        }
+    }
+
+    /**
+     * Calculate the table capacity for the given number of elements, keeping the load factor under 0.5
+     *
+     * @param size number of elements
+     * @return the capacity, always a power of 2
+     */
+    private static int capacityFor(final int size)
+    {
+        int capacity = MIN_CAPACITY;
+
+        while (capacity < size * 2)
+        {
+            capacity <<= 1;
+        }
+
+        return capacity;
+    }
+
+    /**
+     * Spread the bits of the key to reduce collisions of consecutive keys
+     *
+     * @param key the key
+     * @return the hash
+     */
+    private static int hash(final long key)
+    {
+        final long mixed = key * 0x9E3779B97F4A7C15L;
+        return (int) (mixed ^ (mixed >>> 32));
+    }
+
+    /**
+     * Internal table with the keys and values
+     */
+    private static final class Table
+    {
+        /** Keys of the table */
+        private final long[] keys;
+
+        /** Values of the table, a null value represents an empty slot */
+        private final Object[] values;
+
+        /** Number of values in the table */
+        private int size = 0;
+
+        /**
+         * Create a new empty table
+         *
+         * @param capacity capacity of the table, it should be a power of 2
+         */
+        private Table(final int capacity)
+        {
+            this.keys = new long[capacity];
+            this.values = new Object[capacity];
+        }
+
+        /**
+         * Insert a key that is not in the table, only used before the table is published
+         *
+         * @param key the key
+         * @param value the value
+         */
+        private void insert(final long key, final Object value)
+        {
+            final int mask = this.keys.length - 1;
+            int index = hash(key) & mask;
+
+            while (this.values[index] != null)
+            {
+                index = (index + 1) & mask;
+            }
+
+            this.keys[index] = key;
+            this.values[index] = value;
+            this.size++;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.bbva.kyof.vega.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free ring queue for a single producer thread and a single consumer thread.
+ *
+ * Apart from the normal offer, the producer can insert dropping the oldest element when the queue is full. In that case
+ * producer and consumer compete with a compare and set on the head, the one that wins owns the element.
+ *
+ * The consumer clears the slots it takes so the queue does not keep references to consumed elements. The clear only
+ * happens if the producer has not reused the slot yet, for that reason the same instance should not be added again
+ * while it is still in the queue.
+ *
+ * @param <E> type of the elements in the queue
+ */
+public final class LLZSpscRingQueue<E>
+{
+    /** Slots of the ring */
+    private final AtomicReferenceArray<E> buffer;
+
+    /** Capacity of the ring, always a power of 2 */
+    private final int capacity;
+
+    /** Mask to convert a sequence into a slot index */
+    private final int mask;
+
+    /** Sequence of the next element to read */
+    private final AtomicLong head = new AtomicLong();
+
+    /** Sequence of the next element to write, only modified by the producer */
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * Create a new queue
+     *
+     * @param requestedCapacity the minimum capacity of the queue, it will be rounded up to the next power of 2
+     */
+    public LLZSpscRingQueue(final int requestedCapacity)
+    {
+        if (requestedCapacity < 1 || requestedCapacity > (1 << 30))
+        {
+            throw new IllegalArgumentException("Invalid queue capacity " + requestedCapacity);
+        }
+
+        this.capacity = nextPowerOfTwo(requestedCapacity);
+        this.mask = this.capacity - 1;
+        this.buffer = new AtomicReferenceArray<>(this.capacity);
+    }
+
+    /**
+     * Add an element to the queue. Only call from the producer thread.
+     *
+     * @param element the element to add
+     * @return true if added, false if the queue is full
+     */
+    public boolean offer(final E element)
+    {
+        final long currentTail = this.tail.get();
+
+        if (currentTail - this.head.get() >= this.capacity)
+        {
+            return false;
+        }
+
+        this.buffer.lazySet((int) currentTail & this.mask, element);
+        this.tail.lazySet(currentTail + 1);
+        return true;
+    }
+
+    /**
+     * Add an element to the queue, if the queue is full the oldest element is removed. Only call from the producer thread.
+     *
+     * @param element the element to add
+     * @return the dropped element, null if the queue was not full
+     */
+    public E offerDroppingOldest(final E element)
+    {
+        final long currentTail = this.tail.get();
+        E dropped = null;
+
+        // If full try to take the oldest element, if the consumer takes it first there will be space
+        while (currentTail - this.head.get() >= this.capacity)
+        {
+            final long currentHead = this.head.get();
+            final E oldest = this.buffer.get((int) currentHead & this.mask);
+
+            if (this.head.compareAndSet(currentHead, currentHead + 1))
+            {
+                dropped = oldest;
+            }
+        }
+
+        this.buffer.lazySet((int) currentTail & this.mask, element);
+        this.tail.lazySet(currentTail + 1);
+        return dropped;
+    }
+
+    /**
+     * Remove the oldest element of the queue. Only call from the consumer thread.
+     *
+     * @return the removed element, null if the queue is empty
+     */
+    public E poll()
+    {
+        long currentHead = this.head.get();
+
+        while (currentHead < this.tail.get())
+        {
+            // Read before taking it, if the producer drops the element meanwhile the compare and set will fail
+            final int index = (int) currentHead & this.mask;
+            final E element = this.buffer.get(index);
+
+            if (this.head.compareAndSet(currentHead, currentHead + 1))
+            {
+                // Release the reference unless the producer has already written a new element in the slot
+                this.buffer.compareAndSet(index, element, null);
+                return element;
+            }
+
+            currentHead = this.head.get();
+        }
+
+        return null;
+    }
+
+    /** @return the number of elements in the queue */
+    public int size()
+    {
+        return (int) (this.tail.get() - this.head.get());
+    }
+
+    /** @return true if the queue is empty */
+    public boolean isEmpty()
+    {
+        return this.tail.get() == this.head.get();
+    }
+
+    /** @return the capacity of the queue */
+    public int getCapacity()
+    {
+        return this.capacity;
+    }
+
+    /**
+     * Calculate the next power of 2 greater or equal than the given value
+     *
+     * @param value the value, it should be positive
+     * @return the next power of 2
+     */
+    private static int nextPowerOfTwo(final int value)
+    {
+        return value == 1 ? 1 : Integer.highestOneBit(value - 1) << 1;
+    }
+}
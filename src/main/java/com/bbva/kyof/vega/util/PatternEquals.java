@@ -12,12 +12,102 @@ public class PatternEquals
      */
     private final Pattern origPattern;
 
+    /**
+     * Literal text any input matching the pattern starts with, empty if unknown
+     */
+    private final String literalPrefix;
+
     /**
      * Constructor
      */
     public PatternEquals(Pattern origPattern)
     {
         this.origPattern = origPattern;
+        this.literalPrefix = findLiteralPrefix(origPattern.pattern());
+    }
+
+    /**
+     * Returns the literal text any input matching the pattern starts with, used to discard inputs without running
+     * the regular expression
+     *
+     * @return the literal prefix, empty if the pattern doesn't start with literal text
+     */
+    public String getLiteralPrefix()
+    {
+        return literalPrefix;
+    }
+
+    /**
+     * Returns true if the input may match the pattern, a cheap check before {@link #matches(CharSequence)}
+     *
+     * @param input The input sequence
+     * @return false if the input cannot match the pattern
+     */
+    public boolean mayMatch(String input)
+    {
+        return input.startsWith(literalPrefix);
+    }
+
+    /**
+     * Find the literal text at the beginning of a regular expression. It stops at the first construct that is not a
+     * literal character and discards the last character if it is optional.
+     *
+     * @param regex the regular expression
+     * @return the literal prefix, empty if not found
+     */
+    static String findLiteralPrefix(final String regex)
+    {
+        // An alternative may not start with the prefix of the first one
+        if (regex.indexOf('|') >= 0)
+        {
+            return "";
+        }
+
+        final StringBuilder prefix = new StringBuilder();
+        int i = 0;
+
+        while (i < regex.length())
+        {
+            char literal = regex.charAt(i);
+
+            if (literal == '\\')
+            {
+                // Only escaped symbols are literals, escaped letters and digits are classes or references
+                if (i + 1 >= regex.length() || Character.isLetterOrDigit(regex.charAt(i + 1)))
+                {
+                    break;
+                }
+
+                literal = regex.charAt(i + 1);
+                i += 2;
+            }
+            else if (".[]{}()*+?^$".indexOf(literal) >= 0)
+            {
+                break;
+            }
+            else
+            {
+                i++;
+            }
+
+            final char next = i < regex.length() ? regex.charAt(i) : 0;
+
+            // The character may not appear
+            if (next == '?' || next == '*' || next == '{')
+            {
+                break;
+            }
+
+            prefix.append(literal);
+
+            // The character appears at least once but the following ones are unknown
+            if (next == '+')
+            {
+                break;
+            }
+        }
+
+        return prefix.toString();
     }
 
     /**
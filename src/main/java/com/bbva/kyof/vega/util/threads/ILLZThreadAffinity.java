@@ -0,0 +1,15 @@
+package com.bbva.kyof.vega.util.threads;
+
+/**
+ * Sets the CPU affinity of the framework threads
+ */
+public interface ILLZThreadAffinity
+{
+    /**
+     * Restrict the thread that calls the method to the given CPU cores
+     *
+     * @param cores the CPU cores the thread can run on
+     * @return true if the affinity has been set, false if it is not supported or it failed
+     */
+    boolean pinCurrentThread(int[] cores);
+}
@@ -0,0 +1,20 @@
+package com.bbva.kyof.vega.util.threads;
+
+/**
+ * Factory for the framework threads, it lets the user control the affinity, priority, daemon status and name of the
+ * threads of each role.
+ *
+ * The created threads are not started, the framework starts them.
+ */
+public interface ILLZThreadFactory
+{
+    /**
+     * Create a new thread for the given role
+     *
+     * @param role the role of the thread
+     * @param name the name the framework gives to the thread
+     * @param runnable the task of the thread
+     * @return the created thread, not started
+     */
+    Thread newThread(LLZThreadRole role, String name, Runnable runnable);
+}
@@ -0,0 +1,167 @@
+package com.bbva.kyof.vega.util.threads;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Thread affinity for Linux, it calls sched_setaffinity through the taskset tool of util-linux for the kernel id of
+ * the calling thread.
+ *
+ * The kernel id is taken from /proc/thread-self, on kernels older than 3.17 that don't have it the thread gets a
+ * temporary unique name and its id is the task of /proc/self/task with that name, the JVM sets the name of the
+ * calling thread in the kernel.
+ *
+ * It doesn't need any native library in the class path, but every pinned thread forks a taskset process from the JVM,
+ * a few milliseconds and a copy of the process page tables. The affinity is set once when the thread starts so it
+ * should only be used for long lived threads.
+ */
+public final class LLZLinuxThreadAffinity implements ILLZThreadAffinity
+{
+    /** Logger of the class */
+    private static final Logger LOGGER = LoggerFactory.getLogger(LLZLinuxThreadAffinity.class);
+
+    /** Link to the task directory of the calling thread, its last element is the kernel thread id */
+    private static final Path THREAD_SELF = Paths.get("/proc/thread-self");
+
+    /** Directory with a task directory per thread of the process, named with the kernel thread id */
+    private static final Path SELF_TASKS = Paths.get("/proc/self/task");
+
+    /** File of a task directory with the name of the thread */
+    private static final String COMM_FILE = "comm";
+
+    /** Prefix of the temporary thread names, the kernel keeps the first 15 characters of the name */
+    private static final String TEMP_NAME_PREFIX = "llzpin-";
+
+    /** Counter to make the temporary thread names unique */
+    private static final AtomicInteger TEMP_NAME_COUNTER = new AtomicInteger();
+
+    /** Tool used to set the affinity */
+    private static final String TASKSET = "taskset";
+
+    /** File the output of the tool is sent to */
+    private static final File NULL_FILE = new File("/dev/null");
+
+    @Override
+    public boolean pinCurrentThread(final int[] cores)
+    {
+        try
+        {
+            final String threadId = getCurrentThreadId();
+
+            if (threadId == null)
+            {
+                LOGGER.warn("Cannot set the affinity of thread [{}], kernel thread id not found", Thread.currentThread().getName());
+                return false;
+            }
+
+            final Process process = new ProcessBuilder(TASKSET, "-p", "-c", toCpuList(cores), threadId)
+                    .redirectErrorStream(true)
+                    .redirectOutput(NULL_FILE)
+                    .start();
+
+            if (process.waitFor() == 0)
+            {
+                return true;
+            }
+
+            LOGGER.warn("Cannot set the affinity of thread [{}] to cores [{}], taskset failed", Thread.currentThread().getName(), toCpuList(cores));
+        }
+        catch (final IOException | UnsupportedOperationException e)
+        {
+            LOGGER.warn("Cannot set the affinity of thread [{}], taskset or /proc not available", Thread.currentThread().getName(), e);
+        }
+        catch (final InterruptedException e)
+        {
+            LOGGER.warn("Interrupted while setting the affinity of thread [{}]", Thread.currentThread().getName());
+            Thread.currentThread().interrupt();
+        }
+
+        return false;
+    }
+
+    /**
+     * Find the kernel id of the calling thread, the equivalent of gettid
+     *
+     * @return the kernel thread id, null if not found
+     * @throws IOException if /proc cannot be read
+     */
+    static String getCurrentThreadId() throws IOException
+    {
+        if (Files.exists(THREAD_SELF))
+        {
+            return Files.readSymbolicLink(THREAD_SELF).getFileName().toString();
+        }
+
+        final Thread currentThread = Thread.currentThread();
+        final String originalName = currentThread.getName();
+        final String tempName = TEMP_NAME_PREFIX + (TEMP_NAME_COUNTER.incrementAndGet() & 0xFFFFFF);
+
+        currentThread.setName(tempName);
+
+        try (final DirectoryStream<Path> tasks = Files.newDirectoryStream(SELF_TASKS))
+        {
+            for (final Path task : tasks)
+            {
+                if (tempName.equals(readThreadName(task)))
+                {
+                    return task.getFileName().toString();
+                }
+            }
+
+            return null;
+        }
+        finally
+        {
+            currentThread.setName(originalName);
+        }
+    }
+
+    /**
+     * Read the name of the thread of a task directory
+     *
+     * @param task the task directory
+     * @return the thread name, null if the thread has finished
+     */
+    private static String readThreadName(final Path task)
+    {
+        try
+        {
+            return new String(Files.readAllBytes(task.resolve(COMM_FILE)), StandardCharsets.UTF_8).trim();
+        }
+        catch (final IOException e)
+        {
+            return null;
+        }
+    }
+
+    /**
+     * Convert the cores into the CPU list format of taskset
+     *
+     * @param cores the CPU cores
+     * @return the comma separated list of cores
+     */
+    static String toCpuList(final int[] cores)
+    {
+        final StringBuilder cpuList = new StringBuilder();
+
+        for (final int core : cores)
+        {
+            if (cpuList.length() > 0)
+            {
+                cpuList.append(',');
+            }
+            cpuList.append(core);
+        }
+
+        return cpuList.toString();
+    }
+}
@@ -0,0 +1,13 @@
+package com.bbva.kyof.vega.util.threads;
+
+/**
+ * Thread affinity for the platforms where it is not supported, the threads are not pinned
+ */
+public final class LLZNoOpThreadAffinity implements ILLZThreadAffinity
+{
+    @Override
+    public boolean pinCurrentThread(final int[] cores)
+    {
+        return false;
+    }
+}
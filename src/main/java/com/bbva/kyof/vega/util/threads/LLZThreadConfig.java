@@ -0,0 +1,145 @@
+package com.bbva.kyof.vega.util.threads;
+
+import java.util.Arrays;
+
+/**
+ * Configuration of the threads of a role, see {@link LLZThreadFactory}
+ */
+public final class LLZThreadConfig
+{
+    /** CPU cores the threads can run on, null to not pin them */
+    private final int[] cores;
+
+    /** True if the threads are daemon threads */
+    private final boolean daemon;
+
+    /** Priority of the threads */
+    private final int priority;
+
+    /** Prefix added to the name the framework gives to the threads, null for none */
+    private final String namePrefix;
+
+    /**
+     * Configuration builder, it follows the builder pattern to create unmodificable instances of the configuration
+     */
+    public static class Builder
+    {
+        /** (Optional) CPU cores the threads can run on, null to not pin them */
+        private int[] cores = null;
+
+        /** (Optional) true if the threads are daemon threads */
+        private boolean daemon = false;
+
+        /** (Optional) priority of the threads */
+        private int priority = Thread.NORM_PRIORITY;
+
+        /** (Optional) prefix added to the name the framework gives to the threads, null for none */
+        private String namePrefix = null;
+
+        /**
+         * Crates the LLZThreadConfig instance.
+         *
+         * @return An instance of {@link LLZThreadConfig}
+         */
+        public LLZThreadConfig build()
+        {
+            return new LLZThreadConfig(this);
+        }
+
+        /**
+         * Set the CPU cores the threads can run on, the threads are pinned when they start
+         *
+         * @param cores the CPU cores
+         * @return An instance of {@link LLZThreadConfig.Builder}
+         */
+        public Builder cores(final int... cores)
+        {
+            this.cores = cores.clone();
+            return this;
+        }
+
+        /**
+         * Set if the threads are daemon threads
+         *
+         * @param daemon true for daemon threads
+         * @return An instance of {@link LLZThreadConfig.Builder}
+         */
+        public Builder daemon(final boolean daemon)
+        {
+            this.daemon = daemon;
+            return this;
+        }
+
+        /**
+         * Set the priority of the threads
+         *
+         * @param priority the priority, between {@link Thread#MIN_PRIORITY} and {@link Thread#MAX_PRIORITY}
+         * @return An instance of {@link LLZThreadConfig.Builder}
+         */
+        public Builder priority(final int priority)
+        {
+            this.priority = priority;
+            return this;
+        }
+
+        /**
+         * Set a prefix for the name the framework gives to the threads
+         *
+         * @param namePrefix the prefix
+         * @return An instance of {@link LLZThreadConfig.Builder}
+         */
+        public Builder namePrefix(final String namePrefix)
+        {
+            this.namePrefix = namePrefix;
+            return this;
+        }
+    }
+
+    /**
+     * Constructor of the LLZThreadConfig class.
+     *
+     * @param builder object
+     */
+    private LLZThreadConfig(final Builder builder)
+    {
+        this.cores = builder.cores;
+        this.daemon = builder.daemon;
+        this.priority = builder.priority;
+        this.namePrefix = builder.namePrefix;
+    }
+
+    /** @return the CPU cores the threads can run on, null if they are not pinned */
+    public int[] getCores()
+    {
+        return this.cores == null ? null : this.cores.clone();
+    }
+
+    /** @return true if the threads are daemon threads */
+    public boolean isDaemon()
+    {
+        return this.daemon;
+    }
+
+    /** @return the priority of the threads */
+    public int getPriority()
+    {
+        return this.priority;
+    }
+
+    /** @return the prefix added to the name of the threads, null for none */
+    public String getNamePrefix()
+    {
+        return this.namePrefix;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "LLZThreadConfig{" +
+                "cores=" + Arrays.toString(this.cores) +
+                ", daemon=" + this.daemon +
+                ", priority=" + this.priority +
+                ", namePrefix='" + this.namePrefix + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,138 @@
+package com.bbva.kyof.vega.util.threads;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import com.bbva.kyof.vega.util.OSManager;
+import com.bbva.kyof.vega.util.OSType;
+
+/**
+ * Default thread factory of the framework, it applies the configuration of the role of each thread.
+ *
+ * The threads of the roles without configuration are created as plain threads with the framework name. The threads
+ * with cores are pinned by the affinity of the factory when they start, before running their task. By default the
+ * affinity is set with {@link LLZLinuxThreadAffinity} on Linux and ignored on any other platform.
+ */
+public final class LLZThreadFactory implements ILLZThreadFactory
+{
+    /** The configuration of each role */
+    private final Map<LLZThreadRole, LLZThreadConfig> roleConfigs;
+
+    /** Affinity used to pin the threads */
+    private final ILLZThreadAffinity affinity;
+
+    /**
+     * Factory builder, it follows the builder pattern to create unmodificable instances of the factory
+     */
+    public static class Builder
+    {
+        /** (Optional) the configuration of each role */
+        private final Map<LLZThreadRole, LLZThreadConfig> roleConfigs = new EnumMap<>(LLZThreadRole.class);
+
+        /** (Optional) affinity used to pin the threads, null for the one of the platform */
+        private ILLZThreadAffinity affinity = null;
+
+        /**
+         * Crates the LLZThreadFactory instance.
+         *
+         * @return An instance of {@link LLZThreadFactory}
+         */
+        public LLZThreadFactory build()
+        {
+            return new LLZThreadFactory(this);
+        }
+
+        /**
+         * Set the configuration of the threads of a role
+         *
+         * @param role the role
+         * @param config the configuration of its threads
+         * @return An instance of {@link LLZThreadFactory.Builder}
+         */
+        public Builder role(final LLZThreadRole role, final LLZThreadConfig config)
+        {
+            this.roleConfigs.put(role, config);
+            return this;
+        }
+
+        /**
+         * Set the affinity used to pin the threads instead of the one of the platform
+         *
+         * @param affinity the affinity
+         * @return An instance of {@link LLZThreadFactory.Builder}
+         */
+        public Builder affinity(final ILLZThreadAffinity affinity)
+        {
+            this.affinity = affinity;
+            return this;
+        }
+    }
+
+    /**
+     * Constructor of the LLZThreadFactory class.
+     *
+     * @param builder object
+     */
+    private LLZThreadFactory(final Builder builder)
+    {
+        this.roleConfigs = new EnumMap<>(builder.roleConfigs);
+        this.affinity = builder.affinity == null ? createPlatformAffinity() : builder.affinity;
+    }
+
+    /** @return the affinity of the current platform */
+    private static ILLZThreadAffinity createPlatformAffinity()
+    {
+        if (OSManager.getInstance().getOperatingSystemType() == OSType.LINUX)
+        {
+            return new LLZLinuxThreadAffinity();
+        }
+
+        return new LLZNoOpThreadAffinity();
+    }
+
+    @Override
+    public Thread newThread(final LLZThreadRole role, final String name, final Runnable runnable)
+    {
+        final LLZThreadConfig config = this.roleConfigs.get(role);
+
+        if (config == null)
+        {
+            return new Thread(runnable, name);
+        }
+
+        final String threadName = config.getNamePrefix() == null ? name : config.getNamePrefix() + name;
+        final int[] cores = config.getCores();
+
+        final Thread thread;
+        if (cores == null)
+        {
+            thread = new Thread(runnable, threadName);
+        }
+        else
+        {
+            thread = new Thread(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    LLZThreadFactory.this.affinity.pinCurrentThread(cores);
+                    runnable.run();
+                }
+            }, threadName);
+        }
+
+        thread.setDaemon(config.isDaemon());
+        thread.setPriority(config.getPriority());
+
+        return thread;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "LLZThreadFactory{" +
+                "roleConfigs=" + this.roleConfigs +
+                ", affinity=" + this.affinity.getClass().getSimpleName() +
+                '}';
+    }
+}
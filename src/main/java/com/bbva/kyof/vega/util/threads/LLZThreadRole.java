@@ -0,0 +1,32 @@
+package com.bbva.kyof.vega.util.threads;
+
+/**
+ * Roles of the framework threads that can be configured with a {@link LLZThreadConfig}
+ */
+public enum LLZThreadRole
+{
+    /** Thread that polls a subscriber socket and delivers the received messages */
+    SUB_SOCKET,
+    /** Thread that receives the responses of a requester socket */
+    REQ_SOCKET,
+    /** Thread that receives the requests of a responder socket and delivers them */
+    RESP_WORKER_SOCKET,
+    /** Thread that proxies the requests and responses of a responder socket */
+    RESP_PROXY_SOCKET,
+    /** Thread that checks the timeouts of the asynchronous sent requests */
+    ASYNC_SENT_REQ,
+    /** Thread that refreshes the end points of the instance in the auto-discovery */
+    AUTODISC_KEEPALIVE,
+    /** Background threads of the auto-discovery: beacon adverts, shared registry poller, snapshot reconcile, coalescing and id prefetch */
+    AUTODISC_BACKGROUND,
+    /** Thread of the worker pool that delivers the messages of the dispatched subscriptions */
+    DISPATCH_WORKER,
+    /** Thread that sends the latest values of the conflated topics of a publisher */
+    CONFLATE_SENDER,
+    /** Thread that delivers the messages of a conflated subscription */
+    CONFLATE_CONSUMER,
+    /** Thread that sends and checks the data-path heartbeats */
+    HEARTBEAT,
+    /** Threads that create and connect the sockets of the discovered end points and run their delayed tasks */
+    CONNECTION
+}
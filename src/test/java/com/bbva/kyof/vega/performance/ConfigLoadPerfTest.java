@@ -0,0 +1,89 @@
+package com.bbva.kyof.vega.performance;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.bbva.kyof.vega.config.LLZInstanceConfigBuilder;
+import com.bbva.kyof.vega.config.LLZInstanceLocalConfigReader;
+import com.bbva.kyof.vega.config.general.AutoDiscoveryType;
+import com.bbva.kyof.vega.exception.LLZException;
+
+/**
+ * Startup time of the configuration load, from the XML file with the cached JAXB context and schema and with the
+ * programmatic builder
+ */
+public class ConfigLoadPerfTest
+{
+    private static final int NUM_TESTS = 200;
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConfigLoadPerfTest.class);
+    private static final String CONFIG_FILE = ConfigLoadPerfTest.class.getClassLoader().getResource("config/validConfiguration.xml").getPath();
+
+    @Test
+    public void xmlConfigLoadTimeTest() throws Exception
+    {
+        // The first load creates the cached JAXB context and schema
+        final long startTime = System.nanoTime();
+        this.loadXmlConfig();
+        LOGGER.info("First XML configuration load time: [{}] microseconds", (System.nanoTime() - startTime) / 1000);
+
+        testXmlConfigLoadTime(true);
+        testXmlConfigLoadTime(false);
+    }
+
+    @Test
+    public void builderConfigLoadTimeTest() throws Exception
+    {
+        testBuilderConfigLoadTime(true);
+        testBuilderConfigLoadTime(false);
+    }
+
+    public void testXmlConfigLoadTime(final boolean warmUp) throws LLZException
+    {
+        final long startTime = System.nanoTime();
+
+        for (int i = 0; i < NUM_TESTS; i++)
+        {
+            this.loadXmlConfig();
+        }
+
+        final long endTime = System.nanoTime();
+
+        if (!warmUp)
+        {
+            LOGGER.info("XML configuration Avg Load Time: [{}] microseconds", (endTime - startTime) / NUM_TESTS / 1000);
+        }
+    }
+
+    public void testBuilderConfigLoadTime(final boolean warmUp) throws LLZException
+    {
+        final long startTime = System.nanoTime();
+
+        for (int i = 0; i < NUM_TESTS; i++)
+        {
+            new LLZInstanceConfigBuilder("SampleConfig")
+                    .autoDiscoveryType(AutoDiscoveryType.IN_PROCESS)
+                    .pubSchema("default", 35000, 35010)
+                    .subSchema("default")
+                    .reqSchema("default")
+                    .respSchema("default", 36000, 36010)
+                    .pubTopic(".*", "default")
+                    .subTopic(".*", "default")
+                    .reqTopic(".*", "default")
+                    .respTopic(".*", "default")
+                    .build();
+        }
+
+        final long endTime = System.nanoTime();
+
+        if (!warmUp)
+        {
+            LOGGER.info("Builder configuration Avg Load Time: [{}] microseconds", (endTime - startTime) / NUM_TESTS / 1000);
+        }
+    }
+
+    private void loadXmlConfig() throws LLZException
+    {
+        new LLZInstanceLocalConfigReader("SampleConfig", CONFIG_FILE).loadAndValidateConfig();
+    }
+}
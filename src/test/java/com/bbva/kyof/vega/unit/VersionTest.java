@@ -16,7 +16,7 @@ public class VersionTest
 {
     
     /** Current version of the framework */
-    private static final String FRAMEWORK_VERSION_NUMBER = "3.0.0";
+    private static final String FRAMEWORK_VERSION_NUMBER = "3.1.0";
     
     /** Current version of the ZMQ library */
     private static final String ZMQ_VERSION_NUMBER = "4.0.4";
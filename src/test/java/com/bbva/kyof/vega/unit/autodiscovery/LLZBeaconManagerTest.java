@@ -0,0 +1,165 @@
+package com.bbva.kyof.vega.unit.autodiscovery;
+
+import java.net.DatagramSocket;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import com.bbva.kyof.vega.autodiscovery.client.ILLZAutodiscTopicEndPoint;
+import com.bbva.kyof.vega.autodiscovery.client.ILLZAutodiscTopicEndPointChangeListener;
+import com.bbva.kyof.vega.autodiscovery.client.LLZAutoDiscTopicEndPoint;
+import com.bbva.kyof.vega.autodiscovery.client.LLZAutodiscEndPointTable;
+import com.bbva.kyof.vega.autodiscovery.client.LLZAutodiscEndPointType;
+import com.bbva.kyof.vega.autodiscovery.client.beacon.LLZBeaconManager;
+import com.bbva.kyof.vega.config.LLZInstanceConfigWrapper;
+import com.bbva.kyof.vega.config.general.AutoDiscoveryConfig;
+import com.bbva.kyof.vega.config.general.AutoDiscoveryType;
+import com.bbva.kyof.vega.config.general.InstanceConfig;
+import com.bbva.kyof.vega.config.general.NodeType;
+import com.bbva.kyof.vega.config.general.TransportMediaType;
+import com.bbva.kyof.vega.util.threads.LLZThreadFactory;
+
+/**
+ * Test the {@link LLZBeaconManager} class using unicast adverts on loopback
+ */
+public class LLZBeaconManagerTest
+{
+    private static final LLZAutodiscEndPointType END_POINT_TYPE = LLZAutodiscEndPointType.PUBLISHER;
+
+    @Test
+    public void testDiscoveryOnLoopback() throws Exception
+    {
+        final int port1 = findFreePort();
+        final int port2 = findFreePort();
+
+        final LLZBeaconManager autodisc1 = new LLZBeaconManager(createConfig(port1, "127.0.0.1:" + port2), new LLZThreadFactory.Builder().build());
+        final LLZBeaconManager autodisc2 = new LLZBeaconManager(createConfig(port2, "127.0.0.1:" + port1), new LLZThreadFactory.Builder().build());
+
+        final TestListener listener = new TestListener();
+        autodisc2.subscribeToTopicEndPoints("TOPIC1", END_POINT_TYPE, listener);
+
+        // Register in the first instance, the second one should discover it
+        final long topicId = autodisc1.createUniqueId();
+        autodisc1.registerTopicEndPoint(END_POINT_TYPE, new LLZAutoDiscTopicEndPoint(END_POINT_TYPE, "TOPIC1", 1L, topicId, 2L, "tcp://127.0.0.1:40000"));
+
+        Assert.assertTrue(listener.added.await(2, TimeUnit.SECONDS));
+        Assert.assertEquals(topicId, listener.lastEndPoint.getTopicId().longValue());
+        Assert.assertEquals("tcp://127.0.0.1:40000", listener.lastEndPoint.getBindAddress());
+
+        // Unregister, the removal is announced right away
+        autodisc1.unregisterTopicEndPoint(END_POINT_TYPE, topicId);
+        Assert.assertTrue(listener.removed.await(2, TimeUnit.SECONDS));
+
+        autodisc2.unsubscribeFromTopicEndPoints("TOPIC1", END_POINT_TYPE);
+        autodisc1.stop();
+        autodisc2.stop();
+    }
+
+    @Test
+    public void testSamePortInstances() throws Exception
+    {
+        final int port = findFreePort();
+
+        // A second instance of the host with the same beacon port should start
+        final LLZBeaconManager autodisc1 = new LLZBeaconManager(createConfig(port, "127.0.0.1:" + port), new LLZThreadFactory.Builder().build());
+        final LLZBeaconManager autodisc2 = new LLZBeaconManager(createConfig(port, "127.0.0.1:" + port), new LLZThreadFactory.Builder().build());
+
+        // The unique ids of different instances use different prefixes
+        Assert.assertTrue(autodisc1.createUniqueId() >>> 32 != autodisc2.createUniqueId() >>> 32);
+
+        autodisc1.stop();
+        autodisc2.stop();
+    }
+
+    @Test
+    public void testLocalEndPointsAndUniqueIds() throws Exception
+    {
+        final int port = findFreePort();
+        final LLZBeaconManager autodisc = new LLZBeaconManager(createConfig(port, "127.0.0.1:" + port), new LLZThreadFactory.Builder().build());
+
+        final long id1 = autodisc.createUniqueId();
+        final long id2 = autodisc.createUniqueId();
+        Assert.assertTrue(id1 != id2);
+
+        // A subscription after the registration receives the existing end point before returning
+        autodisc.registerTopicEndPoint(END_POINT_TYPE, new LLZAutoDiscTopicEndPoint(END_POINT_TYPE, "TOPIC1", 1L, id1, 2L, "tcp://127.0.0.1:40000"));
+
+        final TestListener listener = new TestListener();
+        autodisc.subscribeToTopicEndPoints("TOPIC1", END_POINT_TYPE, listener);
+        Assert.assertEquals(0, listener.added.getCount());
+
+        autodisc.stop();
+    }
+
+    @Test
+    public void testExpiration() throws Exception
+    {
+        final LLZAutodiscEndPointTable table = new LLZAutodiscEndPointTable();
+        final TestListener listener = new TestListener();
+        table.subscribe("TOPIC1", END_POINT_TYPE, listener);
+
+        table.onEndPointAlive(new LLZAutoDiscTopicEndPoint(END_POINT_TYPE, "TOPIC1", 1L, 10L, 2L, "tcp://127.0.0.1:40000"), 1000);
+        Assert.assertEquals(0, listener.added.getCount());
+
+        // Refreshing extends the expiration
+        table.onEndPointAlive(new LLZAutoDiscTopicEndPoint(END_POINT_TYPE, "TOPIC1", 1L, 10L, 2L, "tcp://127.0.0.1:40000"), 3000);
+        table.expireEndPoints(2000);
+        Assert.assertEquals(1, listener.removed.getCount());
+
+        table.expireEndPoints(4000);
+        Assert.assertEquals(0, listener.removed.getCount());
+    }
+
+    private static LLZInstanceConfigWrapper createConfig(final int beaconPort, final String addresses)
+    {
+        final AutoDiscoveryConfig autodiscoConfig = new AutoDiscoveryConfig();
+        autodiscoConfig.setTimeToLive(1);
+        autodiscoConfig.setRefreshInterval(50L);
+        autodiscoConfig.setNodeType(NodeType.CLIENT);
+        autodiscoConfig.setTransportMedia(TransportMediaType.TCP_IP);
+        autodiscoConfig.setAddresses(addresses);
+        autodiscoConfig.setAutodiscType(AutoDiscoveryType.BEACON);
+        autodiscoConfig.setBeaconPort(beaconPort);
+
+        final InstanceConfig instanceConfig = new InstanceConfig();
+        instanceConfig.setName("TestInstance");
+        instanceConfig.setAutoDiscovery(autodiscoConfig);
+
+        return new LLZInstanceConfigWrapper(instanceConfig);
+    }
+
+    private static int findFreePort() throws Exception
+    {
+        try (final DatagramSocket socket = new DatagramSocket(0))
+        {
+            return socket.getLocalPort();
+        }
+    }
+
+    /**
+     * Listener that stores the last end point and counts down on each event type
+     */
+    private static class TestListener implements ILLZAutodiscTopicEndPointChangeListener
+    {
+        private final CountDownLatch added = new CountDownLatch(1);
+        private final CountDownLatch removed = new CountDownLatch(1);
+        private volatile ILLZAutodiscTopicEndPoint lastEndPoint;
+
+        @Override
+        public void onEndPointAdded(final ILLZAutodiscTopicEndPoint autodiscoveryInfo)
+        {
+            this.lastEndPoint = autodiscoveryInfo;
+            this.added.countDown();
+        }
+
+        @Override
+        public void onEndPointRemoved(final ILLZAutodiscTopicEndPoint autodiscoveryInfo)
+        {
+            this.lastEndPoint = autodiscoveryInfo;
+            this.removed.countDown();
+        }
+    }
+}
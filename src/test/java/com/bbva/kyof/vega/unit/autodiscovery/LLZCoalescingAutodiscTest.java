@@ -0,0 +1,135 @@
+package com.bbva.kyof.vega.unit.autodiscovery;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import com.bbva.kyof.vega.autodiscovery.client.ILLZAutodisc;
+import com.bbva.kyof.vega.autodiscovery.client.ILLZAutodiscTopicEndPoint;
+import com.bbva.kyof.vega.autodiscovery.client.ILLZAutodiscTopicEndPointChangeListener;
+import com.bbva.kyof.vega.autodiscovery.client.LLZAutoDiscTopicEndPoint;
+import com.bbva.kyof.vega.autodiscovery.client.LLZAutodiscEndPointType;
+import com.bbva.kyof.vega.autodiscovery.client.coalescing.LLZCoalescingAutodisc;
+import com.bbva.kyof.vega.util.threads.LLZThreadFactory;
+
+/**
+ * Test the {@link LLZCoalescingAutodisc} class with a fake auto-discovery that lets the test send the live events
+ */
+public class LLZCoalescingAutodiscTest
+{
+    private static final ILLZAutodiscTopicEndPoint END_POINT_1 = new LLZAutoDiscTopicEndPoint(LLZAutodiscEndPointType.PUBLISHER, "TOPIC", 1L, 10L, 100L, "tcp://127.0.0.1:40000");
+    private static final ILLZAutodiscTopicEndPoint END_POINT_1_MOVED = new LLZAutoDiscTopicEndPoint(LLZAutodiscEndPointType.PUBLISHER, "TOPIC", 1L, 10L, 100L, "tcp://127.0.0.1:40002");
+    private static final ILLZAutodiscTopicEndPoint END_POINT_2 = new LLZAutoDiscTopicEndPoint(LLZAutodiscEndPointType.PUBLISHER, "TOPIC", 2L, 20L, 100L, "tcp://127.0.0.1:40001");
+
+    @Test
+    public void testNetChanges() throws Exception
+    {
+        final FakeAutodisc delegate = new FakeAutodisc();
+        final LLZCoalescingAutodisc autodisc = new LLZCoalescingAutodisc(delegate.createProxy(), 50, new LLZThreadFactory.Builder().build());
+        final RecordingListener listener = new RecordingListener();
+        autodisc.subscribeToTopicEndPoints("TOPIC", LLZAutodiscEndPointType.PUBLISHER, listener);
+
+        // The changes are not notified until the window expires
+        delegate.listener.onEndPointAdded(END_POINT_1);
+        delegate.listener.onEndPointAdded(END_POINT_2);
+        delegate.listener.onEndPointRemoved(END_POINT_2);
+        Assert.assertTrue(listener.events.isEmpty());
+
+        // Only the net addition is notified, the end point added and removed in the window is never seen
+        waitForEvents(listener, 1);
+        Thread.sleep(100);
+        Assert.assertEquals(Collections.singletonList("ADD 10 tcp://127.0.0.1:40000"), listener.events);
+
+        // A remove/add sequence of the same end point is not notified
+        delegate.listener.onEndPointRemoved(END_POINT_1);
+        delegate.listener.onEndPointAdded(END_POINT_1);
+        Thread.sleep(150);
+        Assert.assertEquals(1, listener.events.size());
+
+        // A change of bind address is notified as a removal and an addition
+        delegate.listener.onEndPointRemoved(END_POINT_1);
+        delegate.listener.onEndPointAdded(END_POINT_1_MOVED);
+        waitForEvents(listener, 3);
+        Assert.assertEquals("REMOVE 10 tcp://127.0.0.1:40000", listener.events.get(1));
+        Assert.assertEquals("ADD 10 tcp://127.0.0.1:40002", listener.events.get(2));
+
+        // A removal is notified once the window expires
+        delegate.listener.onEndPointRemoved(END_POINT_1_MOVED);
+        waitForEvents(listener, 4);
+        Assert.assertEquals("REMOVE 10 tcp://127.0.0.1:40002", listener.events.get(3));
+
+        // Pending changes are discarded once unsubscribed
+        delegate.listener.onEndPointAdded(END_POINT_2);
+        autodisc.unsubscribeFromTopicEndPoints("TOPIC", LLZAutodiscEndPointType.PUBLISHER);
+        Thread.sleep(150);
+        Assert.assertEquals(4, listener.events.size());
+
+        autodisc.stop();
+    }
+
+    private static void waitForEvents(final RecordingListener listener, final int expectedEvents) throws InterruptedException
+    {
+        for (int i = 0; i < 200 && listener.events.size() < expectedEvents; i++)
+        {
+            Thread.sleep(10);
+        }
+
+        Assert.assertEquals(expectedEvents, listener.events.size());
+    }
+
+    /**
+     * Listener that records the received events
+     */
+    private static class RecordingListener implements ILLZAutodiscTopicEndPointChangeListener
+    {
+        private final List<String> events = Collections.synchronizedList(new ArrayList<String>());
+
+        @Override
+        public void onEndPointAdded(final ILLZAutodiscTopicEndPoint autodiscoveryInfo)
+        {
+            this.events.add("ADD " + autodiscoveryInfo.getTopicId() + " " + autodiscoveryInfo.getBindAddress());
+        }
+
+        @Override
+        public void onEndPointRemoved(final ILLZAutodiscTopicEndPoint autodiscoveryInfo)
+        {
+            this.events.add("REMOVE " + autodiscoveryInfo.getTopicId() + " " + autodiscoveryInfo.getBindAddress());
+        }
+    }
+
+    /**
+     * Fake auto-discovery that keeps the listener of the last subscription
+     */
+    private static class FakeAutodisc implements InvocationHandler
+    {
+        private ILLZAutodiscTopicEndPointChangeListener listener;
+
+        private ILLZAutodisc createProxy()
+        {
+            return (ILLZAutodisc) Proxy.newProxyInstance(ILLZAutodisc.class.getClassLoader(), new Class<?>[]{ILLZAutodisc.class}, this);
+        }
+
+        @Override
+        public Object invoke(final Object proxy, final Method method, final Object[] args)
+        {
+            switch (method.getName())
+            {
+                case "subscribeToTopicEndPoints":
+                    this.listener = (ILLZAutodiscTopicEndPointChangeListener) args[2];
+                    return null;
+                case "unsubscribeFromTopicEndPoints":
+                case "stop":
+                    return null;
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.bbva.kyof.vega.unit.autodiscovery;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import com.bbva.kyof.vega.autodiscovery.client.ILLZAutodiscTopicEndPoint;
+import com.bbva.kyof.vega.autodiscovery.client.LLZAutoDiscTopicEndPoint;
+import com.bbva.kyof.vega.autodiscovery.client.LLZAutodiscEndPointType;
+import com.bbva.kyof.vega.autodiscovery.client.hazelcast.LLZHazelcastEndPointPub;
+import com.bbva.kyof.vega.autodiscovery.client.hazelcast.processors.TouchEndPointProcessor;
+import com.hazelcast.core.IMap;
+
+/**
+ * Test the {@link LLZHazelcastEndPointPub} class with a fake Hazelcast map that counts the cluster calls
+ */
+public class LLZHazelcastEndPointPubTest
+{
+    @Test
+    public void testBatchedRefresh() throws Exception
+    {
+        final FakeMap fakeMap = new FakeMap();
+        final LLZHazelcastEndPointPub endPointPub = new LLZHazelcastEndPointPub(fakeMap.createProxy());
+
+        // Register more end points than fit in a refresh batch
+        final int numEndPoints = LLZHazelcastEndPointPub.REFRESH_BATCH_SIZE + 10;
+        final List<LLZAutoDiscTopicEndPoint> endPoints = new ArrayList<>();
+        for (long i = 0; i < numEndPoints; i++)
+        {
+            endPoints.add(new LLZAutoDiscTopicEndPoint(LLZAutodiscEndPointType.PUBLISHER, "TOPIC", 1L, i, 2L, "tcp://127.0.0.1:40000"));
+        }
+
+        endPointPub.registerTopicEndPoints(endPoints);
+        endPointPub.unregisterTopicEndPoint(0L);
+
+        // All the end points are refreshed with one call per batch
+        endPointPub.refreshActiveEndpoints();
+        Assert.assertEquals(2, fakeMap.refreshCalls);
+        Assert.assertEquals(numEndPoints - 1, fakeMap.refreshedKeys.size());
+        Assert.assertFalse(fakeMap.refreshedKeys.contains(0L));
+
+        // Nothing is refreshed once stopped
+        endPointPub.stop();
+        endPointPub.refreshActiveEndpoints();
+        Assert.assertEquals(2, fakeMap.refreshCalls);
+    }
+
+    /**
+     * Fake map that only supports the calls done by the end point publisher
+     */
+    private static class FakeMap implements InvocationHandler
+    {
+        private final Set<Object> refreshedKeys = new HashSet<>();
+        private int refreshCalls = 0;
+
+        @SuppressWarnings("unchecked")
+        private IMap<Long, ILLZAutodiscTopicEndPoint> createProxy()
+        {
+            return (IMap<Long, ILLZAutodiscTopicEndPoint>) Proxy.newProxyInstance(IMap.class.getClassLoader(), new Class<?>[]{IMap.class}, this);
+        }
+
+        @Override
+        public Object invoke(final Object proxy, final Method method, final Object[] args)
+        {
+            switch (method.getName())
+            {
+                case "executeOnKeys":
+                    this.refreshCalls++;
+                    this.refreshedKeys.addAll((Collection<?>) args[0]);
+                    Assert.assertTrue(args[1] instanceof TouchEndPointProcessor);
+                    return new HashMap<>();
+                case "putAll":
+                    return null;
+                case "remove":
+                    return null;
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.bbva.kyof.vega.unit.autodiscovery;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import com.bbva.kyof.vega.autodiscovery.client.ILLZAutodiscTopicEndPoint;
+import com.bbva.kyof.vega.autodiscovery.client.ILLZAutodiscTopicEndPointChangeListener;
+import com.bbva.kyof.vega.autodiscovery.client.LLZAutoDiscTopicEndPoint;
+import com.bbva.kyof.vega.autodiscovery.client.LLZAutodiscEndPointType;
+import com.bbva.kyof.vega.autodiscovery.client.hazelcast.LLZHazelcastEndPointSub;
+import com.hazelcast.core.EntryEvent;
+import com.hazelcast.core.EntryEventType;
+import com.hazelcast.core.IMap;
+
+/**
+ * Test the {@link LLZHazelcastEndPointSub} class with a fake Hazelcast map that counts the cluster calls
+ */
+public class LLZHazelcastEndPointSubTest
+{
+    @Test
+    public void testSingleListenerAndBulkLoad() throws Exception
+    {
+        final FakeMap fakeMap = new FakeMap();
+        fakeMap.values.add(createEndPoint("TOPIC1", 1L));
+        fakeMap.values.add(createEndPoint("TOPIC2", 2L));
+        fakeMap.values.add(createEndPoint("TOPIC1", 3L));
+
+        final LLZHazelcastEndPointSub endPointSub = new LLZHazelcastEndPointSub(fakeMap.createProxy());
+
+        final TestListener listener1 = new TestListener();
+        final TestListener listener2 = new TestListener();
+        endPointSub.subscribeToTopic("TOPIC1", listener1);
+        endPointSub.subscribeToTopic("TOPIC2", listener2);
+
+        // Only one listener and one query for all the subscriptions
+        Assert.assertEquals(1, fakeMap.addListenerCalls);
+        Assert.assertEquals(1, fakeMap.valuesCalls);
+        Assert.assertEquals(2, listener1.added.size());
+        Assert.assertEquals(1, listener2.added.size());
+
+        // Events are dispatched to the topic of the end point only
+        endPointSub.entryAdded(createEvent(EntryEventType.ADDED, createEndPoint("TOPIC2", 4L)));
+        Assert.assertEquals(2, listener1.added.size());
+        Assert.assertEquals(2, listener2.added.size());
+
+        // Duplicated events of end points already loaded are ignored
+        endPointSub.entryAdded(createEvent(EntryEventType.ADDED, createEndPoint("TOPIC1", 1L)));
+        Assert.assertEquals(2, listener1.added.size());
+
+        // Removed and evicted end points are notified as removed
+        endPointSub.entryRemoved(createEvent(EntryEventType.REMOVED, createEndPoint("TOPIC1", 1L)));
+        endPointSub.entryEvicted(createEvent(EntryEventType.EVICTED, createEndPoint("TOPIC2", 4L)));
+        Assert.assertEquals(1, listener1.removed.size());
+        Assert.assertEquals(1, listener2.removed.size());
+
+        // A new subscription after the changes gets the current state from the local copy
+        endPointSub.unsubscribeFromTopic("TOPIC1");
+        final TestListener listener3 = new TestListener();
+        endPointSub.subscribeToTopic("TOPIC1", listener3);
+        Assert.assertEquals(1, listener3.added.size());
+        Assert.assertEquals(3L, listener3.added.get(0).getTopicId().longValue());
+        Assert.assertEquals(1, fakeMap.valuesCalls);
+    }
+
+    @Test
+    public void testFailedLoadAndStop() throws Exception
+    {
+        final FakeMap fakeMap = new FakeMap();
+        fakeMap.values.add(createEndPoint("TOPIC1", 1L));
+        fakeMap.failValues = true;
+
+        final LLZHazelcastEndPointSub endPointSub = new LLZHazelcastEndPointSub(fakeMap.createProxy());
+        final TestListener listener = new TestListener();
+
+        // The error is propagated and the listener removed
+        try
+        {
+            endPointSub.subscribeToTopic("TOPIC1", listener);
+            Assert.fail();
+        }
+        catch (final IllegalStateException e)
+        {
+            Assert.assertEquals(1, fakeMap.removeListenerCalls);
+        }
+
+        // The events don't wait for a load that failed
+        endPointSub.entryAdded(createEvent(EntryEventType.ADDED, createEndPoint("TOPIC1", 2L)));
+        Assert.assertTrue(listener.added.isEmpty());
+
+        // The next subscription registers the listener and loads again
+        fakeMap.failValues = false;
+        endPointSub.subscribeToTopic("TOPIC1", listener);
+        Assert.assertEquals(2, fakeMap.addListenerCalls);
+        Assert.assertEquals(1, listener.added.size());
+
+        // Stopping removes the listener and the later events are discarded
+        endPointSub.stop();
+        Assert.assertEquals(2, fakeMap.removeListenerCalls);
+        endPointSub.entryAdded(createEvent(EntryEventType.ADDED, createEndPoint("TOPIC1", 3L)));
+        Assert.assertEquals(1, listener.added.size());
+    }
+
+    private static ILLZAutodiscTopicEndPoint createEndPoint(final String topicName, final long topicId)
+    {
+        return new LLZAutoDiscTopicEndPoint(LLZAutodiscEndPointType.PUBLISHER, topicName, 1L, topicId, 2L, "tcp://127.0.0.1:40000");
+    }
+
+    private static EntryEvent<Long, ILLZAutodiscTopicEndPoint> createEvent(final EntryEventType type, final ILLZAutodiscTopicEndPoint endPoint)
+    {
+        if (type == EntryEventType.ADDED)
+        {
+            return new EntryEvent<>("test", null, type.getType(), endPoint.getTopicId(), endPoint);
+        }
+
+        return new EntryEvent<>("test", null, type.getType(), endPoint.getTopicId(), endPoint, null);
+    }
+
+    /**
+     * Fake map that only supports the listener registration and the values query
+     */
+    private static class FakeMap implements InvocationHandler
+    {
+        private final List<ILLZAutodiscTopicEndPoint> values = new ArrayList<>();
+        private int addListenerCalls = 0;
+        private int valuesCalls = 0;
+        private int removeListenerCalls = 0;
+        private boolean failValues = false;
+
+        @SuppressWarnings("unchecked")
+        private IMap<Long, ILLZAutodiscTopicEndPoint> createProxy()
+        {
+            return (IMap<Long, ILLZAutodiscTopicEndPoint>) Proxy.newProxyInstance(IMap.class.getClassLoader(), new Class<?>[]{IMap.class}, this);
+        }
+
+        @Override
+        public Object invoke(final Object proxy, final Method method, final Object[] args)
+        {
+            if (method.getName().equals("addEntryListener"))
+            {
+                this.addListenerCalls++;
+                return "listenerId";
+            }
+            else if (method.getName().equals("values") && method.getParameterTypes().length == 0)
+            {
+                this.valuesCalls++;
+                if (this.failValues)
+                {
+                    throw new IllegalStateException("Cluster not available");
+                }
+                return new ArrayList<>(this.values);
+            }
+            else if (method.getName().equals("removeEntryListener"))
+            {
+                this.removeListenerCalls++;
+                return true;
+            }
+
+            throw new UnsupportedOperationException(method.getName());
+        }
+    }
+
+    /**
+     * Listener that stores the received end points
+     */
+    private static class TestListener implements ILLZAutodiscTopicEndPointChangeListener
+    {
+        private final List<ILLZAutodiscTopicEndPoint> added = new ArrayList<>();
+        private final List<ILLZAutodiscTopicEndPoint> removed = new ArrayList<>();
+
+        @Override
+        public void onEndPointAdded(final ILLZAutodiscTopicEndPoint autodiscoveryInfo)
+        {
+            this.added.add(autodiscoveryInfo);
+        }
+
+        @Override
+        public void onEndPointRemoved(final ILLZAutodiscTopicEndPoint autodiscoveryInfo)
+        {
+            this.removed.add(autodiscoveryInfo);
+        }
+    }
+}
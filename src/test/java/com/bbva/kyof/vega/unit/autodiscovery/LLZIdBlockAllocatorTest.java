@@ -0,0 +1,108 @@
+package com.bbva.kyof.vega.unit.autodiscovery;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import com.bbva.kyof.vega.autodiscovery.client.hazelcast.LLZIdBlockAllocator;
+import com.bbva.kyof.vega.util.threads.LLZThreadFactory;
+import com.hazelcast.core.IdGenerator;
+
+/**
+ * Test the {@link LLZIdBlockAllocator} class with a fake id generator that counts the cluster calls
+ */
+public class LLZIdBlockAllocatorTest
+{
+    @Test
+    public void testIdsFromLocalBlocks() throws Exception
+    {
+        final FakeIdGenerator fakeGenerator = new FakeIdGenerator();
+        final LLZIdBlockAllocator allocator = new LLZIdBlockAllocator(fakeGenerator.createProxy(), 4, new LLZThreadFactory.Builder().build());
+
+        // The first block is fetched on creation
+        Assert.assertEquals(1, fakeGenerator.calls.get());
+
+        // Ids of the first block don't go to the cluster until the low water mark
+        final Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < 11; i++)
+        {
+            Assert.assertTrue(ids.add(allocator.newId()));
+        }
+
+        Assert.assertEquals(1, fakeGenerator.calls.get());
+
+        // Reaching the low water mark prefetches the next block in background
+        Assert.assertTrue(ids.add(allocator.newId()));
+        waitForCalls(fakeGenerator, 2);
+
+        // The rest of the ids are unique and the block change uses the prefetched block
+        for (final long id : allocator.newIds(20))
+        {
+            Assert.assertTrue(ids.add(id));
+        }
+
+        Assert.assertEquals(32, ids.size());
+        Assert.assertTrue(fakeGenerator.calls.get() <= 3);
+
+        allocator.stop();
+    }
+
+    @Test
+    public void testFetchIfPrefetchNotReady() throws Exception
+    {
+        final FakeIdGenerator fakeGenerator = new FakeIdGenerator();
+        final LLZIdBlockAllocator allocator = new LLZIdBlockAllocator(fakeGenerator.createProxy(), 1, new LLZThreadFactory.Builder().build());
+        allocator.stop();
+
+        // With the prefetch thread stopped the blocks are fetched in the calling thread
+        final long[] ids = allocator.newIds(6);
+        final Set<Long> uniqueIds = new HashSet<>();
+        for (final long id : ids)
+        {
+            Assert.assertTrue(uniqueIds.add(id));
+        }
+
+        Assert.assertEquals(3, fakeGenerator.calls.get());
+    }
+
+    private static void waitForCalls(final FakeIdGenerator fakeGenerator, final int expectedCalls) throws InterruptedException
+    {
+        for (int i = 0; i < 200 && fakeGenerator.calls.get() < expectedCalls; i++)
+        {
+            Thread.sleep(10);
+        }
+
+        Assert.assertEquals(expectedCalls, fakeGenerator.calls.get());
+    }
+
+    /**
+     * Fake id generator that only supports the creation of ids
+     */
+    private static class FakeIdGenerator implements InvocationHandler
+    {
+        private final AtomicLong calls = new AtomicLong();
+
+        private IdGenerator createProxy()
+        {
+            return (IdGenerator) Proxy.newProxyInstance(IdGenerator.class.getClassLoader(), new Class<?>[]{IdGenerator.class}, this);
+        }
+
+        @Override
+        public Object invoke(final Object proxy, final Method method, final Object[] args)
+        {
+            if (method.getName().equals("newId"))
+            {
+                return this.calls.getAndIncrement();
+            }
+
+            throw new UnsupportedOperationException(method.getName());
+        }
+    }
+}
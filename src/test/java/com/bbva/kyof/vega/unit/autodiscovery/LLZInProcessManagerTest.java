@@ -0,0 +1,298 @@
+package com.bbva.kyof.vega.unit.autodiscovery;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import com.bbva.kyof.vega.autodiscovery.client.ILLZAutodiscTopicEndPoint;
+import com.bbva.kyof.vega.autodiscovery.client.ILLZAutodiscTopicEndPointChangeListener;
+import com.bbva.kyof.vega.autodiscovery.client.LLZAutoDiscTopicEndPoint;
+import com.bbva.kyof.vega.autodiscovery.client.LLZAutodiscEndPointType;
+import com.bbva.kyof.vega.autodiscovery.client.beacon.ILLZBeaconAdvertHandler;
+import com.bbva.kyof.vega.autodiscovery.client.local.LLZInProcessManager;
+import com.bbva.kyof.vega.autodiscovery.client.local.LLZSharedFileRegistry;
+import com.bbva.kyof.vega.config.LLZInstanceConfigWrapper;
+import com.bbva.kyof.vega.config.general.AutoDiscoveryConfig;
+import com.bbva.kyof.vega.config.general.AutoDiscoveryType;
+import com.bbva.kyof.vega.config.general.InstanceConfig;
+import com.bbva.kyof.vega.exception.LLZException;
+import com.bbva.kyof.vega.util.threads.LLZThreadFactory;
+
+/**
+ * Test the {@link LLZInProcessManager} and {@link LLZSharedFileRegistry} classes
+ */
+public class LLZInProcessManagerTest
+{
+    private static final LLZAutodiscEndPointType END_POINT_TYPE = LLZAutodiscEndPointType.PUBLISHER;
+
+    @Test
+    public void testInProcessEvents() throws Exception
+    {
+        final LLZInProcessManager autodisc1 = new LLZInProcessManager(createConfig(null), new LLZThreadFactory.Builder().build());
+        final LLZInProcessManager autodisc2 = new LLZInProcessManager(createConfig(null), new LLZThreadFactory.Builder().build());
+
+        final TestListener listener = new TestListener();
+        autodisc2.subscribeToTopicEndPoints("TOPIC1", END_POINT_TYPE, listener);
+
+        // The events are delivered from the registering thread
+        final long topicId = autodisc1.createUniqueId();
+        autodisc1.registerTopicEndPoint(END_POINT_TYPE, createEndPoint("TOPIC1", topicId));
+        Assert.assertEquals(1, listener.added.size());
+        Assert.assertEquals(topicId, listener.added.get(0).getTopicId().longValue());
+
+        autodisc1.unregisterTopicEndPoint(END_POINT_TYPE, topicId);
+        Assert.assertEquals(1, listener.removed.size());
+
+        // End points of other topics are not notified
+        autodisc1.registerTopicEndPoint(END_POINT_TYPE, createEndPoint("TOPIC2", autodisc1.createUniqueId()));
+        Assert.assertEquals(1, listener.added.size());
+
+        // Stopping removes the end points of the instance
+        autodisc1.registerTopicEndPoint(END_POINT_TYPE, createEndPoint("TOPIC1", autodisc1.createUniqueId()));
+        Assert.assertEquals(2, listener.added.size());
+        autodisc1.stop();
+        Assert.assertEquals(2, listener.removed.size());
+
+        autodisc2.unsubscribeFromTopicEndPoints("TOPIC1", END_POINT_TYPE);
+        autodisc2.stop();
+    }
+
+    @Test
+    public void testBulkRegistration() throws Exception
+    {
+        final LLZInProcessManager autodisc1 = new LLZInProcessManager(createConfig(null), new LLZThreadFactory.Builder().build());
+        final LLZInProcessManager autodisc2 = new LLZInProcessManager(createConfig(null), new LLZThreadFactory.Builder().build());
+
+        final TestListener listener = new TestListener();
+        autodisc2.subscribeToTopicEndPoints("TOPIC1", END_POINT_TYPE, listener);
+
+        // The ids of the block are all different
+        final long[] topicIds = autodisc1.createUniqueIds(3);
+        Assert.assertEquals(3, topicIds.length);
+        Assert.assertTrue(topicIds[0] != topicIds[1] && topicIds[1] != topicIds[2] && topicIds[0] != topicIds[2]);
+
+        final List<LLZAutoDiscTopicEndPoint> endPoints = new ArrayList<>();
+        endPoints.add(createEndPoint("TOPIC1", topicIds[0]));
+        endPoints.add(createEndPoint("TOPIC2", topicIds[1]));
+        endPoints.add(createEndPoint("TOPIC1", topicIds[2]));
+        autodisc1.registerTopicEndPoints(END_POINT_TYPE, endPoints);
+
+        Assert.assertEquals(2, listener.added.size());
+
+        autodisc1.stop();
+        Assert.assertEquals(2, listener.removed.size());
+
+        autodisc2.stop();
+    }
+
+    @Test
+    public void testPatternSubscription() throws Exception
+    {
+        final LLZInProcessManager autodisc1 = new LLZInProcessManager(createConfig(null), new LLZThreadFactory.Builder().build());
+        final LLZInProcessManager autodisc2 = new LLZInProcessManager(createConfig(null), new LLZThreadFactory.Builder().build());
+
+        // Existing end points of the matching topics are notified on subscription
+        autodisc1.registerTopicEndPoint(END_POINT_TYPE, createEndPoint("PRICES.EUR", autodisc1.createUniqueId()));
+        autodisc1.registerTopicEndPoint(END_POINT_TYPE, createEndPoint("ORDERS.EUR", autodisc1.createUniqueId()));
+
+        final TestListener listener = new TestListener();
+        autodisc2.subscribeToTopicPattern("PRICES\\..*", END_POINT_TYPE, listener);
+        Assert.assertEquals(1, listener.added.size());
+        Assert.assertEquals("PRICES.EUR", listener.added.get(0).getTopicName());
+
+        // New matching topics are notified, the others are not
+        final long topicId = autodisc1.createUniqueId();
+        autodisc1.registerTopicEndPoint(END_POINT_TYPE, createEndPoint("PRICES.USD", topicId));
+        autodisc1.registerTopicEndPoint(END_POINT_TYPE, createEndPoint("ORDERS.USD", autodisc1.createUniqueId()));
+        Assert.assertEquals(2, listener.added.size());
+
+        autodisc1.unregisterTopicEndPoint(END_POINT_TYPE, topicId);
+        Assert.assertEquals(1, listener.removed.size());
+
+        // Nothing is notified once unsubscribed
+        autodisc2.unsubscribeFromTopicPattern("PRICES\\..*", END_POINT_TYPE);
+        autodisc1.registerTopicEndPoint(END_POINT_TYPE, createEndPoint("PRICES.GBP", autodisc1.createUniqueId()));
+        Assert.assertEquals(2, listener.added.size());
+
+        autodisc1.stop();
+        autodisc2.stop();
+    }
+
+    @Test
+    public void testSharedFileRegistry() throws Exception
+    {
+        final File registryFile = File.createTempFile("llzRegistry", ".dat");
+        Assert.assertTrue(registryFile.delete());
+        registryFile.deleteOnExit();
+
+        // Two registries with different owners simulate two processes
+        final LLZSharedFileRegistry registry1 = new LLZSharedFileRegistry(registryFile.getPath(), 1L, 16);
+        final LLZSharedFileRegistry registry2 = new LLZSharedFileRegistry(registryFile.getPath(), 2L, 16);
+
+        registry1.publish(createEndPoint("TOPIC1", 10L), 1000);
+        registry1.publish(createEndPoint("TOPIC2", 11L), 1000);
+
+        // The owner doesn't read its own end points
+        final TestHandler handler = new TestHandler();
+        registry1.refreshAndRead(1000, 5000, handler);
+        Assert.assertTrue(handler.alive.isEmpty());
+
+        registry2.refreshAndRead(1000, 5000, handler);
+        Assert.assertEquals(2, handler.alive.size());
+        Assert.assertEquals("TOPIC1", handler.alive.get(0).getTopicName());
+
+        // Removed end points disappear
+        registry1.remove(10L);
+        handler.alive.clear();
+        registry2.refreshAndRead(2000, 5000, handler);
+        Assert.assertEquals(1, handler.alive.size());
+        Assert.assertEquals(11L, handler.alive.get(0).getTopicId().longValue());
+
+        // Not refreshed end points expire and the slot is released
+        handler.alive.clear();
+        registry2.refreshAndRead(10000, 5000, handler);
+        Assert.assertTrue(handler.alive.isEmpty());
+
+        registry1.close();
+        registry2.close();
+    }
+
+    @Test
+    public void testListenerFailsOnExistingEndPoints() throws Exception
+    {
+        final LLZInProcessManager autodisc1 = new LLZInProcessManager(createConfig(null), new LLZThreadFactory.Builder().build());
+        final LLZInProcessManager autodisc2 = new LLZInProcessManager(createConfig(null), new LLZThreadFactory.Builder().build());
+
+        autodisc1.registerTopicEndPoint(END_POINT_TYPE, createEndPoint("TOPIC1", autodisc1.createUniqueId()));
+
+        // The listener fails on the first end point, the following events should still be delivered
+        final TestListener listener = new TestListener()
+        {
+            private boolean failed = false;
+
+            @Override
+            public void onEndPointAdded(final ILLZAutodiscTopicEndPoint autodiscoveryInfo)
+            {
+                if (!this.failed)
+                {
+                    this.failed = true;
+                    throw new IllegalStateException("Listener failure");
+                }
+
+                super.onEndPointAdded(autodiscoveryInfo);
+            }
+        };
+
+        autodisc2.subscribeToTopicEndPoints("TOPIC1", END_POINT_TYPE, listener);
+        Assert.assertTrue(listener.added.isEmpty());
+
+        final long topicId = autodisc1.createUniqueId();
+        autodisc1.registerTopicEndPoint(END_POINT_TYPE, createEndPoint("TOPIC1", topicId));
+        autodisc1.unregisterTopicEndPoint(END_POINT_TYPE, topicId);
+        Assert.assertEquals(1, listener.added.size());
+        Assert.assertEquals(1, listener.removed.size());
+
+        autodisc1.stop();
+        autodisc2.stop();
+    }
+
+    @Test
+    public void testSharedFileRegistryFull() throws Exception
+    {
+        final File registryFile = File.createTempFile("llzRegistry", ".dat");
+        Assert.assertTrue(registryFile.delete());
+        registryFile.deleteOnExit();
+
+        final LLZSharedFileRegistry registry1 = new LLZSharedFileRegistry(registryFile.getPath(), 1L, 2);
+
+        // The existing file keeps the number of slots it was created with
+        final LLZSharedFileRegistry registry2 = new LLZSharedFileRegistry(registryFile.getPath(), 2L, 100);
+        Assert.assertEquals(2, registry2.getSlotCount());
+
+        registry1.publish(createEndPoint("TOPIC1", 10L), 1000);
+        registry2.publish(createEndPoint("TOPIC2", 11L), 1000);
+
+        try
+        {
+            registry1.publish(createEndPoint("TOPIC3", 12L), 1000);
+            Assert.fail("The file should be full");
+        }
+        catch (final LLZException e)
+        {
+            // Expected
+        }
+
+        // A removed end point frees its slot
+        registry2.remove(11L);
+        registry1.publish(createEndPoint("TOPIC3", 12L), 1000);
+
+        registry1.close();
+        registry2.close();
+    }
+
+    private static LLZAutoDiscTopicEndPoint createEndPoint(final String topicName, final long topicId)
+    {
+        return new LLZAutoDiscTopicEndPoint(END_POINT_TYPE, topicName, 1L, topicId, 2L, "tcp://127.0.0.1:40000");
+    }
+
+    private static LLZInstanceConfigWrapper createConfig(final String registryFile)
+    {
+        final AutoDiscoveryConfig autodiscoConfig = new AutoDiscoveryConfig();
+        autodiscoConfig.setTimeToLive(1);
+        autodiscoConfig.setRefreshInterval(50L);
+        autodiscoConfig.setAutodiscType(AutoDiscoveryType.IN_PROCESS);
+        autodiscoConfig.setRegistryFile(registryFile);
+        autodiscoConfig.setRegistrySlots(16);
+
+        final InstanceConfig instanceConfig = new InstanceConfig();
+        instanceConfig.setName("TestInstance");
+        instanceConfig.setAutoDiscovery(autodiscoConfig);
+
+        return new LLZInstanceConfigWrapper(instanceConfig);
+    }
+
+    /**
+     * Listener that stores the received end points
+     */
+    private static class TestListener implements ILLZAutodiscTopicEndPointChangeListener
+    {
+        private final List<ILLZAutodiscTopicEndPoint> added = new ArrayList<>();
+        private final List<ILLZAutodiscTopicEndPoint> removed = new ArrayList<>();
+
+        @Override
+        public void onEndPointAdded(final ILLZAutodiscTopicEndPoint autodiscoveryInfo)
+        {
+            this.added.add(autodiscoveryInfo);
+        }
+
+        @Override
+        public void onEndPointRemoved(final ILLZAutodiscTopicEndPoint autodiscoveryInfo)
+        {
+            this.removed.add(autodiscoveryInfo);
+        }
+    }
+
+    /**
+     * Handler that stores the alive end points read from the file
+     */
+    private static class TestHandler implements ILLZBeaconAdvertHandler
+    {
+        private final List<ILLZAutodiscTopicEndPoint> alive = new ArrayList<>();
+
+        @Override
+        public void onEndPointAlive(final ILLZAutodiscTopicEndPoint endPoint)
+        {
+            this.alive.add(endPoint);
+        }
+
+        @Override
+        public void onEndPointRemoved(final LLZAutodiscEndPointType endPointType, final long topicId)
+        {
+            // Not used by the file registry
+        }
+    }
+}
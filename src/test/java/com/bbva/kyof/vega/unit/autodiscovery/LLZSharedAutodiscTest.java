@@ -0,0 +1,126 @@
+package com.bbva.kyof.vega.unit.autodiscovery;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import com.bbva.kyof.vega.autodiscovery.client.ILLZAutodisc;
+import com.bbva.kyof.vega.autodiscovery.client.ILLZAutodiscTopicEndPoint;
+import com.bbva.kyof.vega.autodiscovery.client.ILLZAutodiscTopicEndPointChangeListener;
+import com.bbva.kyof.vega.autodiscovery.client.LLZAutoDiscTopicEndPoint;
+import com.bbva.kyof.vega.autodiscovery.client.LLZAutodiscEndPointType;
+import com.bbva.kyof.vega.autodiscovery.client.shared.LLZSharedAutodisc;
+
+/**
+ * Test the {@link LLZSharedAutodisc} class with a fake auto-discovery that records the calls and lets the test send
+ * the live events
+ */
+public class LLZSharedAutodiscTest
+{
+    private static final ILLZAutodiscTopicEndPoint END_POINT_1 = new LLZAutoDiscTopicEndPoint(LLZAutodiscEndPointType.PUBLISHER, "TOPIC", 1L, 10L, 100L, "tcp://127.0.0.1:40000");
+    private static final ILLZAutodiscTopicEndPoint END_POINT_2 = new LLZAutoDiscTopicEndPoint(LLZAutodiscEndPointType.PUBLISHER, "TOPIC", 2L, 20L, 100L, "tcp://127.0.0.1:40001");
+
+    @Test
+    public void testSharedSubscriptions() throws Exception
+    {
+        final FakeAutodisc delegate = new FakeAutodisc();
+        final LLZSharedAutodisc sharedAutodisc = new LLZSharedAutodisc(delegate.createProxy());
+        final ILLZAutodisc firstClient = sharedAutodisc.createClient();
+        final ILLZAutodisc secondClient = sharedAutodisc.createClient();
+
+        // The first subscription to the topic subscribes the shared auto-discovery
+        final RecordingListener firstListener = new RecordingListener();
+        firstClient.subscribeToTopicEndPoints("TOPIC", LLZAutodiscEndPointType.PUBLISHER, firstListener);
+        delegate.listener.onEndPointAdded(END_POINT_1);
+        Assert.assertEquals(1, firstListener.events.size());
+
+        // The second one gets the known end points and shares the subscription
+        final RecordingListener secondListener = new RecordingListener();
+        secondClient.subscribeToTopicEndPoints("TOPIC", LLZAutodiscEndPointType.PUBLISHER, secondListener);
+        Assert.assertEquals(1, delegate.subscribeCalls);
+        Assert.assertEquals("ADD 10", secondListener.events.get(0));
+
+        delegate.listener.onEndPointAdded(END_POINT_2);
+        delegate.listener.onEndPointRemoved(END_POINT_1);
+        Assert.assertEquals(3, firstListener.events.size());
+        Assert.assertEquals(3, secondListener.events.size());
+        Assert.assertEquals("REMOVE 10", secondListener.events.get(2));
+
+        // Stopping a client only removes its listeners
+        firstClient.stop();
+        Assert.assertEquals(0, delegate.unsubscribeCalls);
+        Assert.assertEquals(0, delegate.stopCalls);
+
+        delegate.listener.onEndPointRemoved(END_POINT_2);
+        Assert.assertEquals(3, firstListener.events.size());
+        Assert.assertEquals(4, secondListener.events.size());
+
+        // The last client unsubscribes and stops the shared auto-discovery
+        secondClient.stop();
+        Assert.assertEquals(1, delegate.unsubscribeCalls);
+        Assert.assertEquals(1, delegate.stopCalls);
+        Assert.assertNull(sharedAutodisc.createClient());
+    }
+
+    /**
+     * Listener that records the received events
+     */
+    private static class RecordingListener implements ILLZAutodiscTopicEndPointChangeListener
+    {
+        private final List<String> events = new ArrayList<>();
+
+        @Override
+        public void onEndPointAdded(final ILLZAutodiscTopicEndPoint autodiscoveryInfo)
+        {
+            this.events.add("ADD " + autodiscoveryInfo.getTopicId());
+        }
+
+        @Override
+        public void onEndPointRemoved(final ILLZAutodiscTopicEndPoint autodiscoveryInfo)
+        {
+            this.events.add("REMOVE " + autodiscoveryInfo.getTopicId());
+        }
+    }
+
+    /**
+     * Fake auto-discovery that counts the calls and keeps the listener of the last subscription
+     */
+    private static class FakeAutodisc implements InvocationHandler
+    {
+        private ILLZAutodiscTopicEndPointChangeListener listener;
+        private int subscribeCalls = 0;
+        private int unsubscribeCalls = 0;
+        private int stopCalls = 0;
+
+        private ILLZAutodisc createProxy()
+        {
+            return (ILLZAutodisc) Proxy.newProxyInstance(ILLZAutodisc.class.getClassLoader(), new Class<?>[]{ILLZAutodisc.class}, this);
+        }
+
+        @Override
+        public Object invoke(final Object proxy, final Method method, final Object[] args)
+        {
+            switch (method.getName())
+            {
+                case "subscribeToTopicEndPoints":
+                    this.subscribeCalls++;
+                    this.listener = (ILLZAutodiscTopicEndPointChangeListener) args[2];
+                    return null;
+                case "unsubscribeFromTopicEndPoints":
+                    this.unsubscribeCalls++;
+                    return null;
+                case "stop":
+                    this.stopCalls++;
+                    return null;
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        }
+    }
+}
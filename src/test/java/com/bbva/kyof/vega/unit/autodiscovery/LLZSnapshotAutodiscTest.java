@@ -0,0 +1,173 @@
+package com.bbva.kyof.vega.unit.autodiscovery;
+
+import java.io.File;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import com.bbva.kyof.vega.autodiscovery.client.ILLZAutodisc;
+import com.bbva.kyof.vega.autodiscovery.client.ILLZAutodiscTopicEndPoint;
+import com.bbva.kyof.vega.autodiscovery.client.ILLZAutodiscTopicEndPointChangeListener;
+import com.bbva.kyof.vega.autodiscovery.client.LLZAutoDiscTopicEndPoint;
+import com.bbva.kyof.vega.autodiscovery.client.LLZAutodiscEndPointType;
+import com.bbva.kyof.vega.autodiscovery.client.beacon.ILLZBeaconAdvertHandler;
+import com.bbva.kyof.vega.autodiscovery.client.snapshot.LLZEndPointSnapshotFile;
+import com.bbva.kyof.vega.autodiscovery.client.snapshot.LLZSnapshotAutodisc;
+import com.bbva.kyof.vega.util.threads.LLZThreadFactory;
+
+/**
+ * Test the {@link LLZSnapshotAutodisc} class with a fake auto-discovery that lets the test send the live events
+ */
+public class LLZSnapshotAutodiscTest
+{
+    private static final ILLZAutodiscTopicEndPoint END_POINT_1 = new LLZAutoDiscTopicEndPoint(LLZAutodiscEndPointType.PUBLISHER, "TOPIC", 1L, 10L, 100L, "tcp://127.0.0.1:40000");
+    private static final ILLZAutodiscTopicEndPoint END_POINT_2 = new LLZAutoDiscTopicEndPoint(LLZAutodiscEndPointType.PUBLISHER, "TOPIC", 2L, 20L, 100L, "tcp://127.0.0.1:40001");
+
+    @Test
+    public void testWarmRestart() throws Exception
+    {
+        final File file = File.createTempFile("llzSnapshot", ".dat");
+        file.deleteOnExit();
+
+        // First run, the live end points are stored in the snapshot
+        final FakeAutodisc firstDelegate = new FakeAutodisc();
+        final LLZSnapshotAutodisc firstRun = new LLZSnapshotAutodisc(firstDelegate.createProxy(), new LLZEndPointSnapshotFile(file.getPath(), 16), 0, new LLZThreadFactory.Builder().build());
+        final RecordingListener firstListener = new RecordingListener();
+        firstRun.subscribeToTopicEndPoints("TOPIC", LLZAutodiscEndPointType.PUBLISHER, firstListener);
+        firstDelegate.listener.onEndPointAdded(END_POINT_1);
+        firstDelegate.listener.onEndPointAdded(END_POINT_2);
+        Assert.assertEquals(2, firstListener.added.size());
+        firstRun.stop();
+
+        // Second run, the stored end points are delivered before the live discovery answers
+        final FakeAutodisc secondDelegate = new FakeAutodisc();
+        final LLZSnapshotAutodisc secondRun = new LLZSnapshotAutodisc(secondDelegate.createProxy(), new LLZEndPointSnapshotFile(file.getPath(), 16), 200, new LLZThreadFactory.Builder().build());
+        final RecordingListener secondListener = new RecordingListener();
+        secondRun.subscribeToTopicEndPoints("TOPIC", LLZAutodiscEndPointType.PUBLISHER, secondListener);
+        Assert.assertEquals(2, secondListener.added.size());
+
+        // Other topics don't get the stored end points
+        final RecordingListener otherListener = new RecordingListener();
+        secondRun.subscribeToTopicEndPoints("OTHER", LLZAutodiscEndPointType.PUBLISHER, otherListener);
+        Assert.assertTrue(otherListener.added.isEmpty());
+
+        // The confirmed end point is not delivered again, the other one is removed once reconciled
+        secondDelegate.listener.onEndPointAdded(END_POINT_1);
+        Assert.assertEquals(2, secondListener.added.size());
+
+        for (int i = 0; i < 200 && secondListener.removed.isEmpty(); i++)
+        {
+            Thread.sleep(10);
+        }
+
+        Assert.assertEquals(1, secondListener.removed.size());
+        Assert.assertEquals(END_POINT_2.getTopicId(), secondListener.removed.get(0).getTopicId());
+        secondRun.stop();
+
+        // Third run, only the confirmed end point remains in the snapshot
+        final FakeAutodisc thirdDelegate = new FakeAutodisc();
+        final LLZSnapshotAutodisc thirdRun = new LLZSnapshotAutodisc(thirdDelegate.createProxy(), new LLZEndPointSnapshotFile(file.getPath(), 16), 200, new LLZThreadFactory.Builder().build());
+        final RecordingListener thirdListener = new RecordingListener();
+        thirdRun.subscribeToTopicEndPoints("TOPIC", LLZAutodiscEndPointType.PUBLISHER, thirdListener);
+        Assert.assertEquals(1, thirdListener.added.size());
+        Assert.assertEquals(END_POINT_1.getTopicId(), thirdListener.added.get(0).getTopicId());
+        Assert.assertEquals(END_POINT_1.getBindAddress(), thirdListener.added.get(0).getBindAddress());
+        thirdRun.stop();
+    }
+
+    /**
+     * Listener that records the received events
+     */
+    @Test
+    public void testSnapshotFileGrows() throws Exception
+    {
+        final File file = File.createTempFile("llzSnapshot", ".dat");
+        Assert.assertTrue(file.delete());
+        file.deleteOnExit();
+
+        // More end points than initial slots
+        final LLZEndPointSnapshotFile snapshotFile = new LLZEndPointSnapshotFile(file.getPath(), 2);
+        for (long topicId = 1; topicId <= 5; topicId++)
+        {
+            snapshotFile.store(new LLZAutoDiscTopicEndPoint(LLZAutodiscEndPointType.PUBLISHER, "TOPIC", 1L, topicId, 100L, "tcp://127.0.0.1:40000"));
+        }
+        snapshotFile.close();
+
+        // All of them are kept, the existing file keeps its grown size
+        final List<ILLZAutodiscTopicEndPoint> stored = new ArrayList<>();
+        final LLZEndPointSnapshotFile reopenedFile = new LLZEndPointSnapshotFile(file.getPath(), 2);
+        reopenedFile.readAll(new ILLZBeaconAdvertHandler()
+        {
+            @Override
+            public void onEndPointAlive(final ILLZAutodiscTopicEndPoint endPoint)
+            {
+                stored.add(endPoint);
+            }
+
+            @Override
+            public void onEndPointRemoved(final LLZAutodiscEndPointType endPointType, final long topicId)
+            {
+                // Never stored in the snapshot
+            }
+        });
+        reopenedFile.close();
+
+        Assert.assertEquals(5, stored.size());
+    }
+
+    private static class RecordingListener implements ILLZAutodiscTopicEndPointChangeListener
+    {
+        private final List<ILLZAutodiscTopicEndPoint> added = Collections.synchronizedList(new ArrayList<ILLZAutodiscTopicEndPoint>());
+        private final List<ILLZAutodiscTopicEndPoint> removed = Collections.synchronizedList(new ArrayList<ILLZAutodiscTopicEndPoint>());
+
+        @Override
+        public void onEndPointAdded(final ILLZAutodiscTopicEndPoint autodiscoveryInfo)
+        {
+            this.added.add(autodiscoveryInfo);
+        }
+
+        @Override
+        public void onEndPointRemoved(final ILLZAutodiscTopicEndPoint autodiscoveryInfo)
+        {
+            this.removed.add(autodiscoveryInfo);
+        }
+    }
+
+    /**
+     * Fake auto-discovery that keeps the listener of the last subscription to the topic "TOPIC"
+     */
+    private static class FakeAutodisc implements InvocationHandler
+    {
+        private ILLZAutodiscTopicEndPointChangeListener listener;
+
+        private ILLZAutodisc createProxy()
+        {
+            return (ILLZAutodisc) Proxy.newProxyInstance(ILLZAutodisc.class.getClassLoader(), new Class<?>[]{ILLZAutodisc.class}, this);
+        }
+
+        @Override
+        public Object invoke(final Object proxy, final Method method, final Object[] args)
+        {
+            switch (method.getName())
+            {
+                case "subscribeToTopicEndPoints":
+                    if ("TOPIC".equals(args[0]))
+                    {
+                        this.listener = (ILLZAutodiscTopicEndPointChangeListener) args[2];
+                    }
+                    return null;
+                case "stop":
+                    return null;
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.bbva.kyof.vega.unit.autodiscovery;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import com.bbva.kyof.vega.autodiscovery.client.LLZAutodiscEndPointType;
+import com.bbva.kyof.vega.autodiscovery.client.hazelcast.LLZHazelcastFactory;
+import com.bbva.kyof.vega.autodiscovery.client.hazelcast.LLZTopicEndPointDAO;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.nio.serialization.Data;
+
+/**
+ * Test the compact serialization of the {@link LLZTopicEndPointDAO} class
+ */
+public class LLZTopicEndPointDAOTest
+{
+    private final SerializationService serializationService = new DefaultSerializationServiceBuilder()
+            .addDataSerializableFactory(LLZHazelcastFactory.FACTORY_ID, new LLZHazelcastFactory())
+            .build();
+
+    @Test
+    public void testTcpAddressRoundTrip() throws Exception
+    {
+        final LLZTopicEndPointDAO endPoint1 = new LLZTopicEndPointDAO(LLZAutodiscEndPointType.PUBLISHER, "TOPIC1", 1L, 10L, 100L, "tcp://192.168.1.20:40000");
+        final LLZTopicEndPointDAO endPoint2 = new LLZTopicEndPointDAO(LLZAutodiscEndPointType.PUBLISHER, "TOPIC2", 1L, 11L, 100L, "tcp://192.168.1.20:40000");
+
+        final LLZTopicEndPointDAO result1 = this.roundTrip(endPoint1);
+        final LLZTopicEndPointDAO result2 = this.roundTrip(endPoint2);
+
+        Assert.assertEquals(LLZAutodiscEndPointType.PUBLISHER, result1.getType());
+        Assert.assertEquals("TOPIC1", result1.getTopicName());
+        Assert.assertEquals(1L, result1.getSocketId().longValue());
+        Assert.assertEquals(10L, result1.getTopicId().longValue());
+        Assert.assertEquals(100L, result1.getInstanceId().longValue());
+        Assert.assertEquals("tcp://192.168.1.20:40000", result1.getBindAddress());
+
+        // The end points of the same socket share the bind address instance
+        Assert.assertSame(result1.getBindAddress(), result2.getBindAddress());
+
+        // The address is not serialized as a string
+        final Data data = this.serializationService.toData(endPoint1);
+        Assert.assertEquals(-1, new String(data.toByteArray(), "ISO-8859-1").indexOf("192.168"));
+    }
+
+    @Test
+    public void testOtherAddressesRoundTrip() throws Exception
+    {
+        final String[] addresses = {"ipc://llz-socket", "tcp://myhost:40000", "tcp://010.1.1.1:40000", "tcp://1.2.3.4:70000", "inproc://test"};
+        long socketId = 50L;
+
+        for (final String address : addresses)
+        {
+            final LLZTopicEndPointDAO endPoint = new LLZTopicEndPointDAO(LLZAutodiscEndPointType.RESPONDER, "TOPIC", socketId++, 20L, 100L, address);
+            Assert.assertEquals(address, this.roundTrip(endPoint).getBindAddress());
+            Assert.assertEquals(LLZAutodiscEndPointType.RESPONDER, this.roundTrip(endPoint).getType());
+        }
+    }
+
+    private LLZTopicEndPointDAO roundTrip(final LLZTopicEndPointDAO endPoint)
+    {
+        return this.serializationService.toObject(this.serializationService.toData(endPoint));
+    }
+}
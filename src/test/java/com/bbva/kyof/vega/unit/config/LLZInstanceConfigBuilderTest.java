@@ -0,0 +1,90 @@
+package com.bbva.kyof.vega.unit.config;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import com.bbva.kyof.vega.config.LLZInstanceConfigBuilder;
+import com.bbva.kyof.vega.config.LLZInstanceConfigWrapper;
+import com.bbva.kyof.vega.config.general.AutoDiscoveryType;
+import com.bbva.kyof.vega.exception.LLZException;
+import com.bbva.kyof.vega.protocol.LLZManagerParams;
+
+/**
+ * Test the {@link LLZInstanceConfigBuilder} class
+ */
+public class LLZInstanceConfigBuilderTest
+{
+    @Test
+    public void testBuild() throws Exception
+    {
+        final LLZInstanceConfigWrapper config = new LLZInstanceConfigBuilder("INSTANCE")
+                .autoDiscoveryType(AutoDiscoveryType.IN_PROCESS)
+                .pubSchema("PUB", 35000, 35010)
+                .subSchema("SUB")
+                .reqSchema("REQ")
+                .respSchema("RESP", 36000, 36010)
+                .pubTopic("MD\\..*", "PUB")
+                .subTopic("MD\\..*", "SUB")
+                .reqTopic("RFQ\\..*", "REQ")
+                .respTopic("RFQ\\..*", "RESP")
+                .build();
+
+        Assert.assertEquals("INSTANCE", config.getName());
+        Assert.assertEquals(AutoDiscoveryType.IN_PROCESS, config.getAutodiscoConfig().getAutodiscType());
+
+        // The missing auto-discovery values take the default ones
+        Assert.assertEquals(Long.valueOf(5000), config.getAutodiscoConfig().getRefreshInterval());
+
+        // The schemas and topics are registered
+        Assert.assertEquals(Integer.valueOf(1), config.getPubSocketSchema("PUB").getMaxNumPorts());
+        Assert.assertEquals("tcp", config.getRespSocketSchema("RESP").getTransportMedia());
+        Assert.assertEquals("PUB", config.getPubTopicCfg("MD.EUR").getSocketSchema());
+        Assert.assertTrue(config.isSubTopicConfigured("MD.EUR"));
+        Assert.assertTrue(config.isReqTopicConfigured("RFQ.EUR"));
+
+        // It can be used to create the manager parameters
+        final LLZManagerParams params = new LLZManagerParams.Builder(config).build();
+        Assert.assertEquals("INSTANCE", params.getInstanceName());
+        Assert.assertSame(config, params.getInstanceConfig());
+        Assert.assertNull(params.getConfigurationFile());
+    }
+
+    @Test(expected = LLZException.class)
+    public void testUnknownSchema() throws Exception
+    {
+        new LLZInstanceConfigBuilder("INSTANCE")
+                .pubSchema("PUB", 35000, 35010)
+                .pubTopic("MD\\..*", "OTHER")
+                .build();
+    }
+
+    @Test(expected = LLZException.class)
+    public void testNoTopics() throws Exception
+    {
+        new LLZInstanceConfigBuilder("INSTANCE")
+                .pubSchema("PUB", 35000, 35010)
+                .build();
+    }
+
+    @Test
+    public void testPoolSocket() throws Exception
+    {
+        final LLZInstanceConfigWrapper config = new LLZInstanceConfigBuilder("INSTANCE")
+                .pubSchema("PUB", 35000, 35010)
+                .pubTopic("MD\\..*", "PUB", 0)
+                .build();
+
+        Assert.assertEquals(Integer.valueOf(0), config.getPubTopicCfg("MD.EURUSD").getPoolSocket());
+    }
+
+    @Test(expected = LLZException.class)
+    public void testPoolSocketOutOfPool() throws Exception
+    {
+        // The schema pool has a single socket
+        new LLZInstanceConfigBuilder("INSTANCE")
+                .pubSchema("PUB", 35000, 35010)
+                .pubTopic("MD\\..*", "PUB", 1)
+                .build();
+    }
+}
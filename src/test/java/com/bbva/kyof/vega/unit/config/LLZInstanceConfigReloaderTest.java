@@ -0,0 +1,112 @@
+package com.bbva.kyof.vega.unit.config;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import com.bbva.kyof.vega.config.LLZConfigReloadResult;
+import com.bbva.kyof.vega.config.LLZInstanceConfigReloader;
+import com.bbva.kyof.vega.config.LLZInstanceConfigWrapper;
+import com.bbva.kyof.vega.config.general.InstanceConfig;
+import com.bbva.kyof.vega.config.general.PubSocketSchema;
+import com.bbva.kyof.vega.config.general.SubSocketSchema;
+
+/**
+ * Test the {@link LLZInstanceConfigReloader} class
+ */
+public class LLZInstanceConfigReloaderTest
+{
+    @Test
+    public void testLiveChanges() throws Exception
+    {
+        final LLZInstanceConfigWrapper current = createConfig(createPubSchema("PUB", 100L, 1), createSubSchema("SUB", null));
+        final PubSocketSchema currentPubSchema = current.getPubSocketSchema("PUB");
+
+        // Nothing changed
+        LLZConfigReloadResult result = LLZInstanceConfigReloader.applyLiveChanges(current, createConfig(createPubSchema("PUB", 100L, 1), createSubSchema("SUB", null)));
+        Assert.assertTrue(result.getAppliedChanges().isEmpty());
+        Assert.assertFalse(result.isRestartRequired());
+
+        // The limits are applied on the running schemas
+        result = LLZInstanceConfigReloader.applyLiveChanges(current, createConfig(createPubSchema("PUB", 200L, 3), createSubSchema("SUB", 50L)));
+        Assert.assertEquals(3, result.getAppliedChanges().size());
+        Assert.assertFalse(result.isRestartRequired());
+        Assert.assertSame(currentPubSchema, current.getPubSocketSchema("PUB"));
+        Assert.assertEquals(Long.valueOf(200), currentPubSchema.getPubRateLimit());
+        Assert.assertEquals(Integer.valueOf(3), currentPubSchema.getMaxNumPorts());
+        Assert.assertEquals(Long.valueOf(50), current.getSubSocketSchema("SUB").getSubRateLimit());
+    }
+
+    @Test
+    public void testRateLimitChangedSchemas() throws Exception
+    {
+        final LLZInstanceConfigWrapper current = createConfig(createPubSchema("PUB", 100L, 1), createSubSchema("SUB", null));
+
+        // Only the schemas whose rate limit changed are reported to update their sockets
+        LLZConfigReloadResult result = new LLZConfigReloadResult();
+        Assert.assertTrue(LLZInstanceConfigReloader.applyPubSchemaChanges(current, createConfig(createPubSchema("PUB", 100L, 2), createSubSchema("SUB", null)), result).isEmpty());
+        Assert.assertTrue(LLZInstanceConfigReloader.applySubSchemaChanges(current, createConfig(createPubSchema("PUB", 100L, 2), createSubSchema("SUB", null)), result).isEmpty());
+        Assert.assertEquals(1, result.getAppliedChanges().size());
+
+        result = new LLZConfigReloadResult();
+        Assert.assertTrue(LLZInstanceConfigReloader.applyPubSchemaChanges(current, createConfig(createPubSchema("PUB", 150L, 2), createSubSchema("SUB", null)), result).contains("PUB"));
+        Assert.assertTrue(LLZInstanceConfigReloader.applySubSchemaChanges(current, createConfig(createPubSchema("PUB", 150L, 2), createSubSchema("SUB", 10L)), result).contains("SUB"));
+    }
+
+    @Test
+    public void testRestartRequiredChanges() throws Exception
+    {
+        final LLZInstanceConfigWrapper current = createConfig(createPubSchema("PUB", 100L, 1), createSubSchema("SUB", null));
+
+        // Port range changed, subscriber schema renamed
+        final PubSocketSchema movedPubSchema = createPubSchema("PUB", 300L, 1);
+        movedPubSchema.setMinPort(40000);
+        LLZConfigReloadResult result = LLZInstanceConfigReloader.applyLiveChanges(current, createConfig(movedPubSchema, createSubSchema("SUB2", null)));
+
+        Assert.assertTrue(result.isRestartRequired());
+        Assert.assertEquals(3, result.getRestartRequiredChanges().size());
+
+        // The live changes of a schema that needs a restart are not applied
+        Assert.assertTrue(result.getAppliedChanges().isEmpty());
+        Assert.assertEquals(Long.valueOf(100), current.getPubSocketSchema("PUB").getPubRateLimit());
+        Assert.assertEquals(35000, current.getPubSocketSchema("PUB").getMinPort());
+
+        // The live changes of the other schemas of the same reload are still applied
+        result = LLZInstanceConfigReloader.applyLiveChanges(current, createConfig(movedPubSchema, createSubSchema("SUB", 20L)));
+        Assert.assertEquals(1, result.getRestartRequiredChanges().size());
+        Assert.assertEquals(1, result.getAppliedChanges().size());
+        Assert.assertEquals(Long.valueOf(20), current.getSubSocketSchema("SUB").getSubRateLimit());
+        Assert.assertEquals(Integer.valueOf(1), current.getPubSocketSchema("PUB").getMaxNumPorts());
+    }
+
+    private static LLZInstanceConfigWrapper createConfig(final PubSocketSchema pubSchema, final SubSocketSchema subSchema) throws Exception
+    {
+        final InstanceConfig instanceConfig = new InstanceConfig();
+        instanceConfig.getPubSocketSchema().add(pubSchema);
+        instanceConfig.getSubSocketSchema().add(subSchema);
+
+        final LLZInstanceConfigWrapper config = new LLZInstanceConfigWrapper(instanceConfig);
+        config.addPubSchema(pubSchema);
+        config.addSubSchema(subSchema);
+        return config;
+    }
+
+    private static PubSocketSchema createPubSchema(final String name, final Long rateLimit, final int maxNumPorts)
+    {
+        final PubSocketSchema schema = new PubSocketSchema();
+        schema.setName(name);
+        schema.setMinPort(35000);
+        schema.setMaxPort(35010);
+        schema.setMaxNumPorts(maxNumPorts);
+        schema.setPubRateLimit(rateLimit);
+        return schema;
+    }
+
+    private static SubSocketSchema createSubSchema(final String name, final Long rateLimit)
+    {
+        final SubSocketSchema schema = new SubSocketSchema();
+        schema.setName(name);
+        schema.setSubRateLimit(rateLimit);
+        return schema;
+    }
+}
@@ -0,0 +1,96 @@
+package com.bbva.kyof.vega.unit.config;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import com.bbva.kyof.vega.config.LLZInstanceConfigWrapper;
+import com.bbva.kyof.vega.config.general.InstanceConfig;
+import com.bbva.kyof.vega.config.general.SubTopicConfig;
+import com.bbva.kyof.vega.config.general.ZmqContextConfig;
+import com.bbva.kyof.vega.exception.LLZException;
+
+/**
+ * Test the topic configuration resolution and the ZMQ contexts of the {@link LLZInstanceConfigWrapper} class
+ */
+public class LLZInstanceConfigWrapperTest
+{
+    @Test
+    public void testSubTopicResolution() throws Exception
+    {
+        final LLZInstanceConfigWrapper config = new LLZInstanceConfigWrapper(new InstanceConfig());
+        final SubTopicConfig eurConfig = createSubTopicConfig("MD\\.EUR\\..*");
+        final SubTopicConfig mdConfig = createSubTopicConfig("MD\\..*");
+        config.addSubTopicCfg(eurConfig);
+        config.addSubTopicCfg(mdConfig);
+
+        // The first pattern that matches wins, also when resolved again from the cache
+        for (int i = 0; i < 2; i++)
+        {
+            Assert.assertSame(eurConfig, config.getSubTopicCfg("MD.EUR.USD"));
+            Assert.assertSame(mdConfig, config.getSubTopicCfg("MD.GBP.USD"));
+            Assert.assertNull(config.getSubTopicCfg("FX.EUR.USD"));
+            Assert.assertFalse(config.isSubTopicConfigured("FX.EUR.USD"));
+        }
+
+        // Adding a pattern invalidates the names resolved before
+        final SubTopicConfig fxConfig = createSubTopicConfig("FX\\..*");
+        config.addSubTopicCfg(fxConfig);
+        Assert.assertSame(fxConfig, config.getSubTopicCfg("FX.EUR.USD"));
+        Assert.assertTrue(config.isSubTopicConfigured("FX.EUR.USD"));
+    }
+
+    @Test
+    public void testZmqContexts() throws Exception
+    {
+        final InstanceConfig instanceConfig = new InstanceConfig();
+        instanceConfig.getZmqContext().add(createZmqContextConfig("MARKET_DATA", 4));
+        final LLZInstanceConfigWrapper config = new LLZInstanceConfigWrapper(instanceConfig);
+
+        // The contexts are copied but only registered when added
+        Assert.assertEquals(1, config.getZmqContext().size());
+        Assert.assertNull(config.getZmqContextCfg("MARKET_DATA"));
+
+        config.addZmqContextCfg(config.getZmqContext().get(0));
+        Assert.assertEquals(4, config.getZmqContextCfg("MARKET_DATA").getIoThreads());
+
+        // The default number of I/O threads is 1
+        Assert.assertEquals(1, new ZmqContextConfig().getIoThreads());
+
+        // Duplicated names and invalid thread numbers are rejected
+        try
+        {
+            config.addZmqContextCfg(createZmqContextConfig("MARKET_DATA", 1));
+            Assert.fail();
+        }
+        catch (final LLZException e)
+        {
+            // Expected
+        }
+
+        try
+        {
+            config.addZmqContextCfg(createZmqContextConfig("ORDERS", 0));
+            Assert.fail();
+        }
+        catch (final LLZException e)
+        {
+            // Expected
+        }
+    }
+
+    private static ZmqContextConfig createZmqContextConfig(final String name, final int ioThreads)
+    {
+        final ZmqContextConfig zmqContextConfig = new ZmqContextConfig();
+        zmqContextConfig.setName(name);
+        zmqContextConfig.setIoThreads(ioThreads);
+        return zmqContextConfig;
+    }
+
+    private static SubTopicConfig createSubTopicConfig(final String pattern)
+    {
+        final SubTopicConfig subTopicConfig = new SubTopicConfig();
+        subTopicConfig.setPattern(pattern);
+        return subTopicConfig;
+    }
+}
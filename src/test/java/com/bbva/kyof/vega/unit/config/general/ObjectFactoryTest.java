@@ -17,6 +17,8 @@ public class ObjectFactoryTest
         factory.createInstanceConfig();
         factory.createPubSocketSchema();
         factory.createSubSocketSchema();
+        factory.createSocketOptions();
+        factory.createZmqContextConfig();
         factory.createPubTopicConfig();
         factory.createSubTopicConfig();
         factory.createZmqConfig(new GlobalConfiguration());
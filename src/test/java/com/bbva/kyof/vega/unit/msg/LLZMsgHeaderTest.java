@@ -31,7 +31,7 @@ public class LLZMsgHeaderTest
         header.setInstanceId(APP_ID);
 
         Assert.assertEquals(header.getVersion(), FRAMEWORK_VERSION);
-        Assert.assertEquals(header.getTopicUniqueId().longValue(), TOPIC_ID);
+        Assert.assertEquals(header.getTopicUniqueId(), TOPIC_ID);
         Assert.assertEquals(header.getMsgType(), LLZMsgType.DATA);
         Assert.assertEquals(header.getInstanceId(), APP_ID);
         Assert.assertEquals(header.getRequestId(), null);
@@ -50,7 +50,7 @@ public class LLZMsgHeaderTest
 
 
         Assert.assertEquals(header.getVersion(), FRAMEWORK_VERSION);
-        Assert.assertEquals(header.getTopicUniqueId().longValue(),TOPIC_ID);
+        Assert.assertEquals(header.getTopicUniqueId(),TOPIC_ID);
         Assert.assertEquals(header.getMsgType(), LLZMsgType.DATA);
         Assert.assertEquals(header.getInstanceId(), APP_ID);
         Assert.assertEquals(header.getRequestId(), null);
@@ -59,4 +59,18 @@ public class LLZMsgHeaderTest
         header.setRequestId(uuidTest);
         Assert.assertEquals(header.getRequestId(), uuidTest);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testSequenceNumber()
+    {
+        LLZMsgHeader header = new LLZMsgHeader(LLZMsgType.DATA, TOPIC_ID, APP_ID, FRAMEWORK_VERSION);
+        Assert.assertEquals(header.getSequenceNumber(), 0L);
+
+        header = new LLZMsgHeader(LLZMsgType.DATA, TOPIC_ID, APP_ID, FRAMEWORK_VERSION, 25L);
+        Assert.assertEquals(header.getSequenceNumber(), 25L);
+        Assert.assertEquals(header.getInstanceId(), APP_ID);
+
+        header.setSequenceNumber(26L);
+        Assert.assertEquals(header.getSequenceNumber(), 26L);
+    }
+}
@@ -15,6 +15,7 @@ public class LLZMsgTypeTest
         Assert.assertEquals(LLZMsgType.DATA.getByteValue(), (byte)0);
         Assert.assertEquals(LLZMsgType.DATA_REQ.getByteValue(), (byte)1);
         Assert.assertEquals(LLZMsgType.DATA_RESP.getByteValue(), (byte)2);
+        Assert.assertEquals(LLZMsgType.HEARTBEAT.getByteValue(), (byte)3);
         Assert.assertEquals(LLZMsgType.UNKNOWN.getByteValue(), (byte)127);
     }
 
@@ -24,6 +25,7 @@ public class LLZMsgTypeTest
         Assert.assertEquals(LLZMsgType.DATA, LLZMsgType.fromByte((byte) 0));
         Assert.assertEquals(LLZMsgType.DATA_REQ, LLZMsgType.fromByte((byte) 1));
         Assert.assertEquals(LLZMsgType.DATA_RESP, LLZMsgType.fromByte((byte) 2));
+        Assert.assertEquals(LLZMsgType.HEARTBEAT, LLZMsgType.fromByte((byte) 3));
         Assert.assertEquals(LLZMsgType.UNKNOWN, LLZMsgType.fromByte((byte) 8));
     }
 }
\ No newline at end of file
@@ -0,0 +1,131 @@
+package com.bbva.kyof.vega.unit.protocol;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import com.bbva.kyof.vega.exception.LLZException;
+import com.bbva.kyof.vega.protocol.LLZConflatingPublisher;
+import com.bbva.kyof.vega.topic.ILLZTopicMsgPublisher;
+import com.bbva.kyof.vega.util.threads.LLZThreadFactory;
+
+/**
+ * Test the {@link LLZConflatingPublisher} class
+ */
+public class LLZConflatingPublisherTest
+{
+    @Test
+    public void testConflation() throws Exception
+    {
+        final BlockingMsgPublisher msgPublisher = new BlockingMsgPublisher();
+        final LLZConflatingPublisher conflatingPublisher = new LLZConflatingPublisher(msgPublisher, "test", new LLZThreadFactory.Builder().build());
+
+        // The first message blocks the sender thread
+        conflatingPublisher.sendMessage("TOPIC_1", 1L, 1L, this.createMessage(1));
+        Assert.assertTrue(msgPublisher.firstSendStarted.await(1, TimeUnit.SECONDS));
+
+        // Publish a burst on two topics while the sender is blocked, only the last values should be sent
+        for (int i = 2; i <= 100; i++)
+        {
+            conflatingPublisher.sendMessage("TOPIC_1", 1L, i, this.createMessage(i));
+            conflatingPublisher.sendMessage("TOPIC_2", 2L, i, this.createMessage(i * 1000));
+        }
+
+        msgPublisher.releaseSender.countDown();
+        Thread.sleep(500);
+        conflatingPublisher.stop();
+
+        final List<String> sent = msgPublisher.getSentMessages();
+        Assert.assertEquals(3, sent.size());
+        Assert.assertEquals("1:1:1", sent.get(0));
+        Assert.assertEquals("1:2:100", sent.get(1));
+        Assert.assertEquals("2:1:100000", sent.get(2));
+    }
+
+    @Test
+    public void testRemoveTopic() throws Exception
+    {
+        final BlockingMsgPublisher msgPublisher = new BlockingMsgPublisher();
+        final LLZConflatingPublisher conflatingPublisher = new LLZConflatingPublisher(msgPublisher, "test", new LLZThreadFactory.Builder().build());
+
+        conflatingPublisher.sendMessage("TOPIC_1", 1L, 1L, this.createMessage(1));
+        Assert.assertTrue(msgPublisher.firstSendStarted.await(1, TimeUnit.SECONDS));
+
+        // The pending message of a removed topic should be discarded
+        conflatingPublisher.addTopic("TOPIC_2", 2L);
+        conflatingPublisher.sendMessage("TOPIC_1", 1L, 2L, this.createMessage(2));
+        Assert.assertFalse(conflatingPublisher.removeTopic(1L));
+
+        // Empty once the last topic is removed
+        Assert.assertTrue(conflatingPublisher.removeTopic(2L));
+
+        msgPublisher.releaseSender.countDown();
+        Thread.sleep(500);
+        conflatingPublisher.stop();
+
+        Assert.assertEquals(1, msgPublisher.getSentMessages().size());
+    }
+
+    @Test(expected = LLZException.class)
+    public void testSendAfterStop() throws Exception
+    {
+        final BlockingMsgPublisher msgPublisher = new BlockingMsgPublisher();
+        msgPublisher.releaseSender.countDown();
+
+        final LLZConflatingPublisher conflatingPublisher = new LLZConflatingPublisher(msgPublisher, "test", new LLZThreadFactory.Builder().build());
+        conflatingPublisher.stop();
+        conflatingPublisher.sendMessage("TOPIC_1", 1L, 1L, this.createMessage(1));
+    }
+
+    private ByteBuffer createMessage(final int value)
+    {
+        final ByteBuffer message = ByteBuffer.allocate(4);
+        message.putInt(value);
+        message.flip();
+        return message;
+    }
+
+    /**
+     * Message publisher that blocks on the first message until released and stores the sent messages
+     */
+    private static class BlockingMsgPublisher implements ILLZTopicMsgPublisher
+    {
+        private final CountDownLatch firstSendStarted = new CountDownLatch(1);
+        private final CountDownLatch releaseSender = new CountDownLatch(1);
+        private final List<String> sentMessages = new ArrayList<>();
+
+        @Override
+        public void sendMessage(final String topic, final long topicPublisherUniqueId, final long sequenceNumber, final ByteBuffer message)
+        {
+            synchronized (this.sentMessages)
+            {
+                this.sentMessages.add(topicPublisherUniqueId + ":" + sequenceNumber + ":" + message.getInt(message.position()));
+            }
+
+            this.firstSendStarted.countDown();
+
+            try
+            {
+                this.releaseSender.await();
+            }
+            catch (final InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private List<String> getSentMessages()
+        {
+            synchronized (this.sentMessages)
+            {
+                return new ArrayList<>(this.sentMessages);
+            }
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.bbva.kyof.vega.unit.protocol;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import com.bbva.kyof.vega.protocol.LLZConnectionExecutor;
+import com.bbva.kyof.vega.util.threads.LLZThreadConfig;
+import com.bbva.kyof.vega.util.threads.LLZThreadFactory;
+import com.bbva.kyof.vega.util.threads.LLZThreadRole;
+
+/**
+ * Test the {@link LLZConnectionExecutor} class
+ */
+public class LLZConnectionExecutorTest
+{
+    @Test
+    public void testOrderBySocketId() throws Exception
+    {
+        final LLZConnectionExecutor executor = new LLZConnectionExecutor(4, new LLZThreadFactory.Builder().build());
+        final List<Integer> executed = Collections.synchronizedList(new ArrayList<Integer>());
+
+        // All the tasks of the same socket id run in submission order
+        Future<?> lastFuture = null;
+        for (int i = 0; i < 100; i++)
+        {
+            final int taskNumber = i;
+            lastFuture = executor.execute(1L, new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    executed.add(taskNumber);
+                }
+            });
+        }
+
+        lastFuture.get(2, TimeUnit.SECONDS);
+
+        for (int i = 0; i < 100; i++)
+        {
+            Assert.assertEquals(i, executed.get(i).intValue());
+        }
+
+        executor.stop();
+    }
+
+    @Test
+    public void testParallelSocketIds() throws Exception
+    {
+        final LLZConnectionExecutor executor = new LLZConnectionExecutor(2, new LLZThreadFactory.Builder().build());
+        final CountDownLatch blockedTaskLatch = new CountDownLatch(1);
+
+        // A blocked socket id doesn't stop the tasks of other socket ids
+        executor.execute(1L, new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    blockedTaskLatch.await();
+                }
+                catch (final InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+
+        final Future<?> blockedSocketFuture = executor.execute(1L, new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                // Nothing to do
+            }
+        });
+
+        final Future<?> otherSocketFuture = executor.execute(2L, new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                // Nothing to do
+            }
+        });
+
+        otherSocketFuture.get(2, TimeUnit.SECONDS);
+        Assert.assertFalse(blockedSocketFuture.isDone());
+
+        blockedTaskLatch.countDown();
+        blockedSocketFuture.get(2, TimeUnit.SECONDS);
+
+        // Tasks submitted once stopped are discarded
+        executor.stop();
+        Assert.assertTrue(executor.execute(3L, failingTask()).isCancelled());
+    }
+
+    @Test
+    public void testDelayedTask() throws Exception
+    {
+        final LLZConnectionExecutor executor = new LLZConnectionExecutor(2, new LLZThreadFactory.Builder().build());
+        final CountDownLatch delayedTaskLatch = new CountDownLatch(1);
+        final long scheduleTime = System.currentTimeMillis();
+
+        executor.executeDelayed(1L, 50, new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                delayedTaskLatch.countDown();
+            }
+        });
+
+        Assert.assertTrue(delayedTaskLatch.await(2, TimeUnit.SECONDS));
+        Assert.assertTrue(System.currentTimeMillis() - scheduleTime >= 50);
+
+        // Delayed tasks pending on stop never run
+        final CountDownLatch discardedTaskLatch = new CountDownLatch(1);
+        executor.executeDelayed(1L, 50, new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                discardedTaskLatch.countDown();
+            }
+        });
+
+        executor.stop();
+        Assert.assertFalse(discardedTaskLatch.await(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testFailingTask() throws Exception
+    {
+        final LLZConnectionExecutor executor = new LLZConnectionExecutor(1, new LLZThreadFactory.Builder().build());
+
+        final Future<?> failedFuture = executor.execute(1L, new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                throw new IllegalStateException("Connection error");
+            }
+        });
+
+        // The next tasks of the socket id still run
+        final CountDownLatch nextTaskLatch = new CountDownLatch(1);
+        executor.execute(1L, new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                nextTaskLatch.countDown();
+            }
+        });
+
+        Assert.assertTrue(nextTaskLatch.await(2, TimeUnit.SECONDS));
+
+        try
+        {
+            failedFuture.get();
+            Assert.fail();
+        }
+        catch (final ExecutionException e)
+        {
+            Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+
+        executor.stop();
+    }
+
+    @Test
+    public void testThreadFactory() throws Exception
+    {
+        final LLZThreadFactory threadFactory = new LLZThreadFactory.Builder()
+                .role(LLZThreadRole.CONNECTION, new LLZThreadConfig.Builder().daemon(true).namePrefix("CONN ").build())
+                .build();
+
+        final LLZConnectionExecutor executor = new LLZConnectionExecutor(1, threadFactory);
+        final AtomicReference<Thread> taskThread = new AtomicReference<>();
+
+        // The pool threads are created with the configuration of the connection role
+        executor.execute(1L, new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                taskThread.set(Thread.currentThread());
+            }
+        }).get(2, TimeUnit.SECONDS);
+
+        Assert.assertEquals("CONN LLZ CONNECTION SETUP 1", taskThread.get().getName());
+        Assert.assertTrue(taskThread.get().isDaemon());
+
+        executor.stop();
+    }
+
+    private static Runnable failingTask()
+    {
+        return new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                Assert.fail("The task should not run");
+            }
+        };
+    }
+}
@@ -0,0 +1,102 @@
+package com.bbva.kyof.vega.unit.protocol;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import com.bbva.kyof.vega.protocol.ILLZHeartbeatPeer;
+import com.bbva.kyof.vega.protocol.ILLZPeerStateListener;
+import com.bbva.kyof.vega.protocol.LLZHeartbeatManager;
+import com.bbva.kyof.vega.protocol.LLZHeartbeatTracker;
+import com.bbva.kyof.vega.util.threads.LLZThreadFactory;
+
+/**
+ * Test the {@link LLZHeartbeatTracker} and {@link LLZHeartbeatManager} classes
+ */
+public class LLZHeartbeatTrackerTest
+{
+    @Test
+    public void testPeerDownAndUp() throws Exception
+    {
+        final StateListener listener = new StateListener();
+        final LLZHeartbeatTracker tracker = new LLZHeartbeatTracker(7L, 100, listener);
+
+        // Peers that never sent a heartbeat are never marked as down
+        tracker.check(System.currentTimeMillis() + 1000);
+        Assert.assertFalse(tracker.isDown());
+        Assert.assertTrue(listener.events.isEmpty());
+
+        // Within the timeout the peer stays up
+        tracker.onHeartbeatReceived();
+        tracker.check(System.currentTimeMillis());
+        Assert.assertFalse(tracker.isDown());
+
+        // Missing the heartbeats marks it as down only once
+        tracker.check(System.currentTimeMillis() + 200);
+        tracker.check(System.currentTimeMillis() + 300);
+        Assert.assertTrue(tracker.isDown());
+        Assert.assertEquals(Collections.singletonList("DOWN 7"), listener.events);
+
+        // A new heartbeat brings it up again
+        tracker.onHeartbeatReceived();
+        tracker.check(System.currentTimeMillis());
+        Assert.assertFalse(tracker.isDown());
+        Assert.assertEquals(2, listener.events.size());
+        Assert.assertEquals("UP 7", listener.events.get(1));
+    }
+
+    @Test
+    public void testManagerTicks() throws Exception
+    {
+        final LLZHeartbeatManager manager = new LLZHeartbeatManager(10, 3, new LLZThreadFactory.Builder().build());
+        Assert.assertEquals(30, manager.getPeerTimeout());
+
+        final AtomicInteger ticks = new AtomicInteger();
+        manager.addPeer(new ILLZHeartbeatPeer()
+        {
+            @Override
+            public void onHeartbeatTick(final long now)
+            {
+                ticks.incrementAndGet();
+            }
+        });
+
+        for (int i = 0; i < 200 && ticks.get() < 3; i++)
+        {
+            Thread.sleep(10);
+        }
+
+        Assert.assertTrue(ticks.get() >= 3);
+
+        // No more ticks once stopped
+        manager.stop();
+        final int ticksOnStop = ticks.get();
+        Thread.sleep(50);
+        Assert.assertEquals(ticksOnStop, ticks.get());
+    }
+
+    /**
+     * Listener that records the changes of state
+     */
+    private static class StateListener implements ILLZPeerStateListener
+    {
+        private final List<String> events = new ArrayList<>();
+
+        @Override
+        public void onPeerDown(final long socketId)
+        {
+            this.events.add("DOWN " + socketId);
+        }
+
+        @Override
+        public void onPeerUp(final long socketId)
+        {
+            this.events.add("UP " + socketId);
+        }
+    }
+}
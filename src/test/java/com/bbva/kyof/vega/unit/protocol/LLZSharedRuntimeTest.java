@@ -0,0 +1,98 @@
+package com.bbva.kyof.vega.unit.protocol;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import com.bbva.kyof.vega.msg.ILLZRcvRequest;
+import com.bbva.kyof.vega.protocol.ILLZManager;
+import com.bbva.kyof.vega.protocol.LLZManager;
+import com.bbva.kyof.vega.protocol.LLZManagerParams;
+import com.bbva.kyof.vega.protocol.LLZSharedRuntime;
+import com.bbva.kyof.vega.topic.ILLZTopicReqListener;
+
+/**
+ * Test the instances that use a {@link LLZSharedRuntime}
+ */
+public class LLZSharedRuntimeTest
+{
+    private static final String CONFIG_FILE = "sharedRuntimeTestConfig.xml";
+    private static final int INSTANCE_1_RESP_PORT = 54101;
+    private static final int INSTANCE_2_RESP_PORT = 54102;
+
+    @Test
+    public void testStopReleasesResponderPort() throws Exception
+    {
+        final String configFile = LLZSharedRuntimeTest.class.getClassLoader().getResource(CONFIG_FILE).getPath();
+        final LLZSharedRuntime sharedRuntime = new LLZSharedRuntime(1);
+
+        final ILLZManager manager1 = LLZManager.createInstance(new LLZManagerParams.Builder("sharedRuntimeInstance1", configFile).sharedRuntime(sharedRuntime).build());
+        final ILLZManager manager2 = LLZManager.createInstance(new LLZManagerParams.Builder("sharedRuntimeInstance2", configFile).sharedRuntime(sharedRuntime).build());
+
+        try
+        {
+            manager1.createResponder("TOPIC_1", new TestReqListener());
+            manager2.createResponder("TOPIC_2", new TestReqListener());
+
+            Assert.assertFalse(this.isPortFree(INSTANCE_1_RESP_PORT));
+            Assert.assertFalse(this.isPortFree(INSTANCE_2_RESP_PORT));
+
+            // The shared ZMQ context is still in use by the second instance, the port has to be released anyway
+            manager1.stop();
+
+            Assert.assertTrue(this.waitForPortFree(INSTANCE_1_RESP_PORT));
+            Assert.assertFalse(this.isPortFree(INSTANCE_2_RESP_PORT));
+        }
+        finally
+        {
+            if (manager1.isRunning())
+            {
+                manager1.stop();
+            }
+
+            manager2.stop();
+        }
+    }
+
+    /** The ZMQ sockets are closed asynchronously by the context, give it some time to release the port */
+    private boolean waitForPortFree(final int port) throws InterruptedException
+    {
+        for (int i = 0; i < 50; i++)
+        {
+            if (this.isPortFree(port))
+            {
+                return true;
+            }
+
+            Thread.sleep(100);
+        }
+
+        return false;
+    }
+
+    private boolean isPortFree(final int port)
+    {
+        try (final ServerSocket serverSocket = new ServerSocket())
+        {
+            serverSocket.bind(new InetSocketAddress(port));
+            return true;
+        }
+        catch (final IOException e)
+        {
+            return false;
+        }
+    }
+
+    private static class TestReqListener implements ILLZTopicReqListener
+    {
+        @Override
+        public void onRequestReceived(final ILLZRcvRequest request)
+        {
+            // Nothing to do
+        }
+    }
+}
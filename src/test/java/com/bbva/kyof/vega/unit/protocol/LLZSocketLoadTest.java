@@ -0,0 +1,81 @@
+package com.bbva.kyof.vega.unit.protocol;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import com.bbva.kyof.vega.protocol.LLZSocketLoad;
+
+/**
+ * Test the {@link LLZSocketLoad} class
+ */
+public class LLZSocketLoadTest
+{
+    @Test
+    public void testRates() throws Exception
+    {
+        final LLZSocketLoad load = new LLZSocketLoad(1000);
+
+        load.recordMessage(100);
+        load.recordMessage(300);
+        Assert.assertEquals(2, load.getMessages());
+        Assert.assertEquals(400, load.getBytes());
+
+        // A sample before the minimum interval keeps the previous rates
+        load.sample(1000 + LLZSocketLoad.MIN_SAMPLE_INTERVAL - 1);
+        Assert.assertEquals(0.0, load.getByteRate());
+
+        // Half a second later
+        load.sample(1500);
+        Assert.assertEquals(4.0, load.getMessageRate());
+        Assert.assertEquals(800.0, load.getByteRate());
+
+        // Only the traffic since the last sample counts
+        load.recordMessage(50);
+        load.sample(2500);
+        Assert.assertEquals(1.0, load.getMessageRate());
+        Assert.assertEquals(50.0, load.getByteRate());
+
+        load.sample(3500);
+        Assert.assertEquals(0.0, load.getMessageRate());
+        Assert.assertEquals(0.0, load.getByteRate());
+    }
+
+    @Test
+    public void testComparison() throws Exception
+    {
+        final LLZSocketLoad first = new LLZSocketLoad(0);
+        final LLZSocketLoad second = new LLZSocketLoad(0);
+
+        // Without traffic the number of topics decides
+        first.addTopic();
+        Assert.assertTrue(second.isLowerThan(first));
+        Assert.assertFalse(first.isLowerThan(second));
+
+        second.addTopic();
+        Assert.assertFalse(second.isLowerThan(first));
+        Assert.assertFalse(first.isLowerThan(second));
+
+        // The byte rate goes before the message rate and the topics
+        first.removeTopic();
+        first.recordMessage(1000);
+        second.recordMessage(10);
+        second.recordMessage(10);
+        first.sample(1000);
+        second.sample(1000);
+        Assert.assertTrue(second.isLowerThan(first));
+
+        // Same byte rate, the message rate decides
+        second.recordMessage(980);
+        second.sample(2000);
+        first.recordMessage(490);
+        first.recordMessage(490);
+        first.sample(2000);
+        Assert.assertTrue(second.isLowerThan(first));
+
+        // The topics never go below zero
+        first.removeTopic();
+        first.removeTopic();
+        Assert.assertEquals(0, first.getNumTopics());
+    }
+}
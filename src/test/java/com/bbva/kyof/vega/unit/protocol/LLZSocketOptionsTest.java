@@ -0,0 +1,48 @@
+package com.bbva.kyof.vega.unit.protocol;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+import org.zeromq.ZMQ;
+
+import com.bbva.kyof.vega.config.general.SocketOptions;
+import com.bbva.kyof.vega.sockets.LLZSocketOptions;
+
+/**
+ * Test the {@link LLZSocketOptions} class
+ */
+public class LLZSocketOptionsTest
+{
+    @Test
+    public void testApply() throws Exception
+    {
+        final ZMQ.Context context = ZMQ.context(1);
+        final ZMQ.Socket socket = context.socket(ZMQ.PUB);
+
+        final SocketOptions options = new SocketOptions();
+        options.setSendHwm(5000L);
+        options.setReceiveHwm(6000L);
+        options.setSendBuffer(262144L);
+        options.setLinger(25L);
+        options.setReconnectInterval(50L);
+        options.setReconnectIntervalMax(2000L);
+        options.setAffinity(1L);
+
+        LLZSocketOptions.apply(socket, options);
+
+        Assert.assertEquals(5000L, socket.getSndHWM());
+        Assert.assertEquals(6000L, socket.getRcvHWM());
+        Assert.assertEquals(262144L, socket.getSendBufferSize());
+        Assert.assertEquals(25L, socket.getLinger());
+        Assert.assertEquals(50L, socket.getReconnectIVL());
+        Assert.assertEquals(2000L, socket.getReconnectIVLMax());
+        Assert.assertEquals(1L, socket.getAffinity());
+
+        // Null options keep the socket untouched
+        LLZSocketOptions.apply(socket, null);
+        Assert.assertEquals(5000L, socket.getSndHWM());
+
+        socket.close();
+        context.term();
+    }
+}
@@ -1,6 +1,7 @@
 package com.bbva.kyof.vega.unit.serialization;
 
 import com.bbva.kyof.utils.serialization.bytebuffer.LLUSerializerUtils;
+import com.bbva.kyof.vega.Version;
 import com.bbva.kyof.vega.msg.LLZMsgHeader;
 import com.bbva.kyof.vega.msg.LLZMsgType;
 import com.bbva.kyof.vega.serialization.LLZMsgHeaderSerializer;
@@ -37,7 +38,7 @@ public class LLZMsgHeaderSerializerTest
         final int userMsgSize = userMessage.limit();
 
         // Create the header
-        final LLZMsgHeader header = new LLZMsgHeader(LLZMsgType.DATA, -2L, 123L, "2.0");
+        final LLZMsgHeader header = new LLZMsgHeader(LLZMsgType.DATA, -2L, 123L, Version.getFrameworkVersionNumber(), 77L);
 
         // Now write the trailer
         ByteBuffer msgAndHeader1 = LLZMsgHeaderSerializer.serializeHeaderAndMsgIntoReusableBuffer(header, userMessage);
@@ -57,9 +58,10 @@ public class LLZMsgHeaderSerializerTest
 
         // Check the read info
         Assert.assertEquals(readedHeader.getMsgType(), LLZMsgType.DATA);
-        Assert.assertEquals(readedHeader.getTopicUniqueId().longValue(), -2L);
+        Assert.assertEquals(readedHeader.getTopicUniqueId(), -2L);
         Assert.assertEquals(readedHeader.getInstanceId(), 123L);
-        Assert.assertEquals(readedHeader.getVersion(), "2.0");
+        Assert.assertEquals(readedHeader.getVersion(), Version.getFrameworkVersionNumber());
+        Assert.assertEquals(readedHeader.getSequenceNumber(), 77L);
 
         // Read the message and check that is correct
         final String decodedStringMsg = LLUSerializerUtils.STRING.read(msgAndHeader2);
@@ -69,6 +71,31 @@ public class LLZMsgHeaderSerializerTest
         Assert.assertEquals(msgAndHeader2.limit(), msgAndHeader2.position());
     }
 
+    @Test
+    public void testVersionsWithoutSequenceNumber() throws Exception
+    {
+        // Headers of versions older than 3.1 don't contain the sequence number
+        for (final String version : new String[] {"2.0", "3.0.0", "invalid"})
+        {
+            final LLZMsgHeader header = new LLZMsgHeader(LLZMsgType.DATA, 5L, 123L, version, 77L);
+            final byte[] binaryHeader = LLZMsgHeaderSerializer.serializeHeader(header);
+            Assert.assertEquals(LLZMsgHeaderSerializer.calculateHeaderSerializedSize(header), binaryHeader.length);
+
+            final LLZMsgHeader readedHeader = LLZMsgHeaderSerializer.deserializeHeader(ByteBuffer.wrap(binaryHeader));
+            Assert.assertEquals(5L, readedHeader.getTopicUniqueId());
+            Assert.assertEquals(version, readedHeader.getVersion());
+            Assert.assertEquals(0L, readedHeader.getSequenceNumber());
+        }
+
+        // Newer versions contain it
+        for (final String version : new String[] {"3.1", "3.2.0", "4.0.0"})
+        {
+            final LLZMsgHeader header = new LLZMsgHeader(LLZMsgType.DATA, 5L, 123L, version, 77L);
+            final LLZMsgHeader readedHeader = LLZMsgHeaderSerializer.deserializeHeader(ByteBuffer.wrap(LLZMsgHeaderSerializer.serializeHeader(header)));
+            Assert.assertEquals(77L, readedHeader.getSequenceNumber());
+        }
+    }
+
     @Test
     public void testSerializeDeserializeBigMessage() throws Exception
     {
@@ -113,7 +140,7 @@ public class LLZMsgHeaderSerializerTest
 
         // Check the read info
         Assert.assertEquals(readedHeader.getMsgType(), LLZMsgType.DATA);
-        Assert.assertEquals(readedHeader.getTopicUniqueId().longValue(), -2L);
+        Assert.assertEquals(readedHeader.getTopicUniqueId(), -2L);
         Assert.assertEquals(readedHeader.getInstanceId(), 123L);
         Assert.assertEquals(readedHeader.getVersion(), "2.0");
         Assert.assertEquals(readedHeader.getRequestId(), requestID);
@@ -133,7 +160,7 @@ public class LLZMsgHeaderSerializerTest
 
         // Check the read info
         Assert.assertEquals(deserializedHeader.getMsgType(), LLZMsgType.DATA);
-        Assert.assertEquals(deserializedHeader.getTopicUniqueId().longValue(), -2L);
+        Assert.assertEquals(deserializedHeader.getTopicUniqueId(), -2L);
         Assert.assertEquals(deserializedHeader.getInstanceId(), 123L);
         Assert.assertEquals(deserializedHeader.getVersion(), "2.0");
     }
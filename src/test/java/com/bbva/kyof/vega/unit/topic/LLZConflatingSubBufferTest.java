@@ -0,0 +1,116 @@
+package com.bbva.kyof.vega.unit.topic;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import com.bbva.kyof.vega.msg.ILLZRcvMessage;
+import com.bbva.kyof.vega.msg.LLZMsgHeader;
+import com.bbva.kyof.vega.msg.LLZMsgType;
+import com.bbva.kyof.vega.msg.LLZRcvMessage;
+import com.bbva.kyof.vega.topic.ILLZTopicSubListener;
+import com.bbva.kyof.vega.topic.LLZConflatingSubBuffer;
+import com.bbva.kyof.vega.util.threads.LLZThreadFactory;
+
+/**
+ * Test the {@link LLZConflatingSubBuffer} class
+ */
+public class LLZConflatingSubBufferTest
+{
+    @Test
+    public void testConflationByKey() throws Exception
+    {
+        final BlockingSubListener listener = new BlockingSubListener();
+        final LLZConflatingSubBuffer buffer = new LLZConflatingSubBuffer("TOPIC", listener, null, new LLZThreadFactory.Builder().build());
+
+        // The first message blocks the consumer thread
+        final ByteBuffer reusableBuffer = ByteBuffer.allocate(4);
+        buffer.onMessageReceived("KEY_1", this.createMessage(reusableBuffer, 1));
+        Assert.assertTrue(listener.firstMsgReceived.await(1, TimeUnit.SECONDS));
+
+        // Burst on two keys reusing the reception buffer, only the last value of each key should be delivered
+        for (int i = 2; i <= 100; i++)
+        {
+            buffer.onMessageReceived("KEY_1", this.createMessage(reusableBuffer, i));
+            buffer.onMessageReceived("KEY_2", this.createMessage(reusableBuffer, i * 1000));
+        }
+
+        listener.releaseConsumer.countDown();
+        Thread.sleep(500);
+        buffer.stop();
+
+        final List<Integer> received = listener.getReceivedValues();
+        Assert.assertEquals(3, received.size());
+        Assert.assertEquals(1, received.get(0).intValue());
+        Assert.assertEquals(100, received.get(1).intValue());
+        Assert.assertEquals(100000, received.get(2).intValue());
+    }
+
+    @Test
+    public void testMessagesAfterStop() throws Exception
+    {
+        final BlockingSubListener listener = new BlockingSubListener();
+        listener.releaseConsumer.countDown();
+
+        final LLZConflatingSubBuffer buffer = new LLZConflatingSubBuffer("TOPIC", listener, null, new LLZThreadFactory.Builder().build());
+        buffer.stop();
+
+        // Messages after stop are ignored
+        buffer.onMessageReceived("KEY_1", this.createMessage(ByteBuffer.allocate(4), 1));
+        Thread.sleep(100);
+        Assert.assertTrue(listener.getReceivedValues().isEmpty());
+    }
+
+    private LLZRcvMessage createMessage(final ByteBuffer reusableBuffer, final int value)
+    {
+        reusableBuffer.clear();
+        reusableBuffer.putInt(value);
+        reusableBuffer.flip();
+
+        return new LLZRcvMessage(new LLZMsgHeader(LLZMsgType.DATA, 1L, 2L, "2.0"), reusableBuffer, "TOPIC");
+    }
+
+    /**
+     * Listener that blocks on the first message until released and stores the received values
+     */
+    private static class BlockingSubListener implements ILLZTopicSubListener
+    {
+        private final CountDownLatch firstMsgReceived = new CountDownLatch(1);
+        private final CountDownLatch releaseConsumer = new CountDownLatch(1);
+        private final List<Integer> receivedValues = new ArrayList<>();
+
+        @Override
+        public void onMessageReceived(final ILLZRcvMessage receivedMessage)
+        {
+            synchronized (this.receivedValues)
+            {
+                this.receivedValues.add(receivedMessage.getMessageContent().getInt());
+            }
+
+            this.firstMsgReceived.countDown();
+
+            try
+            {
+                this.releaseConsumer.await();
+            }
+            catch (final InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private List<Integer> getReceivedValues()
+        {
+            synchronized (this.receivedValues)
+            {
+                return new ArrayList<>(this.receivedValues);
+            }
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package com.bbva.kyof.vega.unit.topic;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import com.bbva.kyof.vega.msg.ILLZRcvMessage;
+import com.bbva.kyof.vega.msg.LLZMsgHeader;
+import com.bbva.kyof.vega.msg.LLZMsgType;
+import com.bbva.kyof.vega.msg.LLZRcvMessage;
+import com.bbva.kyof.vega.topic.ILLZRcvMsgDispatcher;
+import com.bbva.kyof.vega.topic.ILLZTopicSubListener;
+import com.bbva.kyof.vega.topic.LLZDispatchParams;
+import com.bbva.kyof.vega.topic.LLZOverflowPolicy;
+import com.bbva.kyof.vega.topic.LLZPartitionedDispatcher;
+import com.bbva.kyof.vega.util.threads.LLZThreadFactory;
+
+/**
+ * Test the {@link LLZPartitionedDispatcher} class
+ */
+public class LLZPartitionedDispatcherTest
+{
+    private static final int NUM_TOPICS = 8;
+    private static final int NUM_MSGS_PER_TOPIC = 1000;
+
+    @Test
+    public void testOrderPerTopic() throws Exception
+    {
+        final LLZDispatchParams params = new LLZDispatchParams.Builder().numWorkers(3).queueCapacity(16).build();
+        final RecordingSubListener listener = new RecordingSubListener(null);
+        final LLZPartitionedDispatcher pool = new LLZPartitionedDispatcher("TEST", params, new LLZThreadFactory.Builder().build());
+        final ILLZRcvMsgDispatcher dispatcher = pool.createDispatcher(listener);
+
+        final ByteBuffer reusableBuffer = ByteBuffer.allocate(4);
+        for (int i = 0; i < NUM_MSGS_PER_TOPIC; i++)
+        {
+            for (long topicId = 0; topicId < NUM_TOPICS; topicId++)
+            {
+                dispatcher.dispatch(this.createMessage(reusableBuffer, topicId, i));
+            }
+        }
+
+        Thread.sleep(500);
+        pool.stop();
+
+        // With the blocking policy all the messages should arrive in order for each topic
+        for (long topicId = 0; topicId < NUM_TOPICS; topicId++)
+        {
+            final List<Integer> values = listener.getValues(topicId);
+            Assert.assertEquals(NUM_MSGS_PER_TOPIC, values.size());
+
+            for (int i = 0; i < NUM_MSGS_PER_TOPIC; i++)
+            {
+                Assert.assertEquals(i, values.get(i).intValue());
+            }
+        }
+
+        Assert.assertEquals(0, pool.getDroppedMsgsCount());
+    }
+
+    @Test
+    public void testDropOldest() throws Exception
+    {
+        final LLZDispatchParams params = new LLZDispatchParams.Builder().
+                queueCapacity(4).
+                overflowPolicy(LLZOverflowPolicy.DROP_OLDEST).build();
+
+        final CountDownLatch release = new CountDownLatch(1);
+        final RecordingSubListener listener = new RecordingSubListener(release);
+        final LLZPartitionedDispatcher pool = new LLZPartitionedDispatcher("TEST", params, new LLZThreadFactory.Builder().build());
+        final ILLZRcvMsgDispatcher dispatcher = pool.createDispatcher(listener);
+
+        // First message blocks the worker
+        final ByteBuffer reusableBuffer = ByteBuffer.allocate(4);
+        dispatcher.dispatch(this.createMessage(reusableBuffer, 1L, 0));
+        Assert.assertTrue(listener.firstMsgReceived.await(1, TimeUnit.SECONDS));
+
+        for (int i = 1; i <= 10; i++)
+        {
+            dispatcher.dispatch(this.createMessage(reusableBuffer, 1L, i));
+        }
+
+        release.countDown();
+        Thread.sleep(500);
+        pool.stop();
+
+        // Only the newest 4 should be delivered after the first one
+        final List<Integer> values = listener.getValues(1L);
+        Assert.assertEquals(5, values.size());
+        Assert.assertEquals(0, values.get(0).intValue());
+        Assert.assertEquals(7, values.get(1).intValue());
+        Assert.assertEquals(10, values.get(4).intValue());
+        Assert.assertEquals(6, pool.getDroppedMsgsCount());
+    }
+
+    @Test
+    public void testConflate() throws Exception
+    {
+        final LLZDispatchParams params = new LLZDispatchParams.Builder().
+                queueCapacity(2).
+                overflowPolicy(LLZOverflowPolicy.CONFLATE).build();
+
+        final CountDownLatch release = new CountDownLatch(1);
+        final RecordingSubListener listener = new RecordingSubListener(release);
+        final LLZPartitionedDispatcher pool = new LLZPartitionedDispatcher("TEST", params, new LLZThreadFactory.Builder().build());
+        final ILLZRcvMsgDispatcher dispatcher = pool.createDispatcher(listener);
+
+        // First message blocks the worker
+        final ByteBuffer reusableBuffer = ByteBuffer.allocate(4);
+        dispatcher.dispatch(this.createMessage(reusableBuffer, 1L, 0));
+        Assert.assertTrue(listener.firstMsgReceived.await(1, TimeUnit.SECONDS));
+
+        // Two fit in the ring, the rest are conflated per topic
+        for (int i = 1; i <= 10; i++)
+        {
+            dispatcher.dispatch(this.createMessage(reusableBuffer, 1L, i));
+            dispatcher.dispatch(this.createMessage(reusableBuffer, 2L, i));
+        }
+
+        release.countDown();
+        Thread.sleep(500);
+        pool.stop();
+
+        final List<Integer> topic1Values = listener.getValues(1L);
+        Assert.assertEquals(3, topic1Values.size());
+        Assert.assertEquals(0, topic1Values.get(0).intValue());
+        Assert.assertEquals(1, topic1Values.get(1).intValue());
+        Assert.assertEquals(10, topic1Values.get(2).intValue());
+
+        final List<Integer> topic2Values = listener.getValues(2L);
+        Assert.assertEquals(2, topic2Values.size());
+        Assert.assertEquals(1, topic2Values.get(0).intValue());
+        Assert.assertEquals(10, topic2Values.get(1).intValue());
+    }
+
+    @Test
+    public void testShortLivedReceptionThreads() throws Exception
+    {
+        final LLZDispatchParams params = new LLZDispatchParams.Builder().numWorkers(2).queueCapacity(4).build();
+        final RecordingSubListener listener = new RecordingSubListener(null);
+        final LLZPartitionedDispatcher pool = new LLZPartitionedDispatcher("TEST", params, new LLZThreadFactory.Builder().build());
+        final ILLZRcvMsgDispatcher dispatcher = pool.createDispatcher(listener);
+
+        // Each thread is a reception thread that finishes, like a socket that is closed and created again
+        for (int threadNum = 0; threadNum < 10; threadNum++)
+        {
+            final int firstValue = threadNum * 100;
+            final Thread receptionThread = new Thread(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    final ByteBuffer reusableBuffer = ByteBuffer.allocate(4);
+                    for (int i = firstValue; i < firstValue + 100; i++)
+                    {
+                        dispatcher.dispatch(LLZPartitionedDispatcherTest.this.createMessage(reusableBuffer, 1L, i));
+                    }
+                }
+            });
+
+            receptionThread.start();
+            receptionThread.join();
+        }
+
+        Thread.sleep(500);
+        pool.stop();
+
+        // The queues are full most of the time, the blocked threads should be unparked by the workers
+        final List<Integer> values = listener.getValues(1L);
+        Assert.assertEquals(1000, values.size());
+        for (int i = 0; i < 1000; i++)
+        {
+            Assert.assertEquals(i, values.get(i).intValue());
+        }
+    }
+
+    @Test
+    public void testSharedPool() throws Exception
+    {
+        final LLZDispatchParams params = new LLZDispatchParams.Builder().numWorkers(2).queueCapacity(16).build();
+        final LLZPartitionedDispatcher pool = new LLZPartitionedDispatcher("TEST", params, new LLZThreadFactory.Builder().build());
+        final RecordingSubListener listener1 = new RecordingSubListener(null);
+        final RecordingSubListener listener2 = new RecordingSubListener(null);
+        final ILLZRcvMsgDispatcher dispatcher1 = pool.createDispatcher(listener1);
+        final ILLZRcvMsgDispatcher dispatcher2 = pool.createDispatcher(listener2);
+
+        // The topics of both subscriptions are partitioned across the same workers
+        final ByteBuffer reusableBuffer = ByteBuffer.allocate(4);
+        for (int i = 0; i < 100; i++)
+        {
+            dispatcher1.dispatch(this.createMessage(reusableBuffer, 1L, i));
+            dispatcher2.dispatch(this.createMessage(reusableBuffer, 2L, i));
+            dispatcher2.dispatch(this.createMessage(reusableBuffer, 3L, i));
+        }
+
+        Thread.sleep(500);
+
+        // Each listener gets only the messages of its subscription, in order
+        Assert.assertEquals(100, listener1.getValues(1L).size());
+        Assert.assertTrue(listener1.getValues(2L).isEmpty());
+        Assert.assertEquals(100, listener2.getValues(2L).size());
+        Assert.assertEquals(100, listener2.getValues(3L).size());
+        Assert.assertEquals(99, listener2.getValues(3L).get(99).intValue());
+
+        // Stopping a subscription doesn't stop the pool for the other one
+        dispatcher1.stop();
+        dispatcher1.dispatch(this.createMessage(reusableBuffer, 1L, 100));
+        dispatcher2.dispatch(this.createMessage(reusableBuffer, 2L, 100));
+
+        Thread.sleep(500);
+        pool.stop();
+
+        Assert.assertEquals(100, listener1.getValues(1L).size());
+        Assert.assertEquals(101, listener2.getValues(2L).size());
+    }
+
+    private LLZRcvMessage createMessage(final ByteBuffer reusableBuffer, final long topicId, final int value)
+    {
+        reusableBuffer.clear();
+        reusableBuffer.putInt(value);
+        reusableBuffer.flip();
+
+        return new LLZRcvMessage(new LLZMsgHeader(LLZMsgType.DATA, topicId, 2L, "2.0"), reusableBuffer, "TOPIC");
+    }
+
+    /**
+     * Listener that stores the received values by topic Id, it can block on the first message until released
+     */
+    private static class RecordingSubListener implements ILLZTopicSubListener
+    {
+        private final CountDownLatch firstMsgReceived = new CountDownLatch(1);
+        private final CountDownLatch release;
+        private final Map<Long, List<Integer>> valuesByTopicId = new HashMap<>();
+
+        private RecordingSubListener(final CountDownLatch release)
+        {
+            this.release = release;
+        }
+
+        @Override
+        public void onMessageReceived(final ILLZRcvMessage receivedMessage)
+        {
+            final long topicId = ((LLZRcvMessage) receivedMessage).getTopicId();
+
+            synchronized (this.valuesByTopicId)
+            {
+                List<Integer> values = this.valuesByTopicId.get(topicId);
+                if (values == null)
+                {
+                    values = new ArrayList<>();
+                    this.valuesByTopicId.put(topicId, values);
+                }
+
+                values.add(receivedMessage.getMessageContent().getInt());
+            }
+
+            this.firstMsgReceived.countDown();
+
+            if (this.release != null)
+            {
+                try
+                {
+                    this.release.await();
+                }
+                catch (final InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        private List<Integer> getValues(final long topicId)
+        {
+            synchronized (this.valuesByTopicId)
+            {
+                final List<Integer> values = this.valuesByTopicId.get(topicId);
+                return values == null ? new ArrayList<Integer>() : new ArrayList<>(values);
+            }
+        }
+    }
+}
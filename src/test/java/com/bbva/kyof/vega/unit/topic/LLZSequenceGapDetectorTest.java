@@ -0,0 +1,56 @@
+package com.bbva.kyof.vega.unit.topic;
+
+import com.bbva.kyof.vega.topic.LLZSequenceGapDetector;
+import junit.framework.Assert;
+import org.junit.Test;
+
+/**
+ * Test the {@link LLZSequenceGapDetector} class
+ */
+public class LLZSequenceGapDetectorTest
+{
+    @Test
+    public void testNoGaps()
+    {
+        final LLZSequenceGapDetector detector = new LLZSequenceGapDetector();
+        Assert.assertEquals(detector.getExpectedSequence(), 0L);
+
+        for (long i = 1; i < 10; i++)
+        {
+            Assert.assertEquals(detector.onSequenceReceived(i), 0L);
+        }
+
+        Assert.assertEquals(detector.getExpectedSequence(), 10L);
+    }
+
+    @Test
+    public void testFirstSequenceAccepted()
+    {
+        // A late joiner should not report the messages sent before it joined
+        final LLZSequenceGapDetector detector = new LLZSequenceGapDetector();
+        Assert.assertEquals(detector.onSequenceReceived(100L), 0L);
+        Assert.assertEquals(detector.onSequenceReceived(101L), 0L);
+    }
+
+    @Test
+    public void testGaps()
+    {
+        final LLZSequenceGapDetector detector = new LLZSequenceGapDetector();
+        Assert.assertEquals(detector.onSequenceReceived(1L), 0L);
+        Assert.assertEquals(detector.onSequenceReceived(5L), 3L);
+        Assert.assertEquals(detector.onSequenceReceived(6L), 0L);
+        Assert.assertEquals(detector.onSequenceReceived(8L), 1L);
+        Assert.assertEquals(detector.getExpectedSequence(), 9L);
+    }
+
+    @Test
+    public void testPublisherRestart()
+    {
+        final LLZSequenceGapDetector detector = new LLZSequenceGapDetector();
+        Assert.assertEquals(detector.onSequenceReceived(10L), 0L);
+
+        // Lower sequence, tracking starts again
+        Assert.assertEquals(detector.onSequenceReceived(1L), 0L);
+        Assert.assertEquals(detector.onSequenceReceived(3L), 1L);
+    }
+}
@@ -0,0 +1,96 @@
+package com.bbva.kyof.vega.unit.topic;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import com.bbva.kyof.vega.msg.ILLZRcvResponse;
+import com.bbva.kyof.vega.msg.ILLZReqTimeoutListener;
+import com.bbva.kyof.vega.msg.ILLZSentRequest;
+import com.bbva.kyof.vega.msg.ILLZTopicRespListener;
+import com.bbva.kyof.vega.sockets.LLZAsyncSentRequestManager;
+import com.bbva.kyof.vega.topic.ILLZTopicRequestSender;
+import com.bbva.kyof.vega.topic.LLZTopicRequester;
+import com.bbva.kyof.vega.util.threads.LLZThreadFactory;
+
+/**
+ * Test the {@link LLZTopicRequester} class with fake request senders
+ */
+public class LLZTopicRequesterTest
+{
+    @Test
+    public void testRequestToDownResponders() throws Exception
+    {
+        final LLZAsyncSentRequestManager requestManager = new LLZAsyncSentRequestManager(new LLZThreadFactory.Builder().build());
+        final LLZTopicRequester topicRequester = new LLZTopicRequester("TOPIC", requestManager);
+        final AtomicInteger timeouts = new AtomicInteger();
+        final ILLZReqTimeoutListener timeoutListener = new ILLZReqTimeoutListener()
+        {
+            @Override
+            public void onRequestTimeout(final ILLZSentRequest originalSentRequest)
+            {
+                timeouts.incrementAndGet();
+            }
+        };
+
+        try
+        {
+            // All the responders down, the request times out without waiting
+            final FakeSender downSender = new FakeSender(false);
+            topicRequester.addRequester(1L, 10L, downSender);
+            final ILLZSentRequest firstRequest = topicRequester.sendRequest(ByteBuffer.allocate(8), 60000, new EmptyRespListener(), timeoutListener);
+            Assert.assertTrue(firstRequest.isClosed());
+            Assert.assertEquals(1, timeouts.get());
+            Assert.assertEquals(1, downSender.requests);
+
+            // A single responder up is enough to wait for the responses
+            final FakeSender upSender = new FakeSender(true);
+            topicRequester.addRequester(2L, 20L, upSender);
+            final ILLZSentRequest secondRequest = topicRequester.sendRequest(ByteBuffer.allocate(8), 60000, new EmptyRespListener(), timeoutListener);
+            Assert.assertFalse(secondRequest.isClosed());
+            Assert.assertEquals(1, timeouts.get());
+            Assert.assertEquals(1, upSender.requests);
+        }
+        finally
+        {
+            requestManager.stopAndWaitToFinish();
+        }
+    }
+
+    /**
+     * Request sender that counts the requests and reports if its responder is up
+     */
+    private static class FakeSender implements ILLZTopicRequestSender
+    {
+        private final boolean up;
+        private int requests = 0;
+
+        private FakeSender(final boolean up)
+        {
+            this.up = up;
+        }
+
+        @Override
+        public boolean sendTopicRequest(final long topicId, final UUID reqId, final ByteBuffer messageContents)
+        {
+            this.requests++;
+            return this.up;
+        }
+    }
+
+    /**
+     * Response listener that ignores the responses
+     */
+    private static class EmptyRespListener implements ILLZTopicRespListener
+    {
+        @Override
+        public void onResponseReceived(final ILLZSentRequest originalSentRequest, final ILLZRcvResponse response)
+        {
+            // Nothing to do
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.bbva.kyof.vega.unit.topic;
+
+import java.nio.ByteBuffer;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import com.bbva.kyof.vega.msg.ILLZRcvMessage;
+import com.bbva.kyof.vega.msg.LLZMsgHeader;
+import com.bbva.kyof.vega.msg.LLZMsgType;
+import com.bbva.kyof.vega.topic.ILLZTopicSubListener;
+import com.bbva.kyof.vega.topic.LLZTopicIdEntry;
+import com.bbva.kyof.vega.topic.LLZTopicSubscriber;
+
+/**
+ * Test the {@link LLZTopicSubscriber} class
+ */
+public class LLZTopicSubscriberTest
+{
+    @Test
+    public void testReceivedMsgsCount() throws Exception
+    {
+        final LLZTopicSubscriber topicSubscriber = new LLZTopicSubscriber("TOPIC", new ILLZTopicSubListener()
+        {
+            @Override
+            public void onMessageReceived(final ILLZRcvMessage receivedMessage)
+            {
+                // Nothing to do
+            }
+        });
+
+        // Two publishers of the topic received on different subscriber sockets
+        final LLZTopicIdEntry firstEntry = new LLZTopicIdEntry(1L, "TOPIC", topicSubscriber);
+        final LLZTopicIdEntry secondEntry = new LLZTopicIdEntry(2L, "TOPIC", topicSubscriber);
+        topicSubscriber.addTopicIdEntry(firstEntry);
+        topicSubscriber.addTopicIdEntry(secondEntry);
+
+        this.receive(topicSubscriber, firstEntry, 3);
+        this.receive(topicSubscriber, secondEntry, 2);
+        Assert.assertEquals(5, topicSubscriber.getReceivedMsgsCount());
+
+        // The messages of a removed entry are still counted
+        topicSubscriber.removeTopicIdEntry(firstEntry);
+        topicSubscriber.removeTopicIdEntry(firstEntry);
+        Assert.assertEquals(5, topicSubscriber.getReceivedMsgsCount());
+
+        this.receive(topicSubscriber, secondEntry, 1);
+        Assert.assertEquals(6, topicSubscriber.getReceivedMsgsCount());
+    }
+
+    private void receive(final LLZTopicSubscriber topicSubscriber, final LLZTopicIdEntry topicIdEntry, final int numMessages)
+    {
+        for (int i = 0; i < numMessages; i++)
+        {
+            final LLZMsgHeader header = new LLZMsgHeader(LLZMsgType.DATA, topicIdEntry.getTopicUniqueId(), 2L, "2.0");
+            topicSubscriber.onUserDataMessageReceived(topicIdEntry, header, ByteBuffer.allocate(8));
+        }
+    }
+}
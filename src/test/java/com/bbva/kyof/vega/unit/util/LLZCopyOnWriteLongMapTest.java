@@ -0,0 +1,122 @@
+package com.bbva.kyof.vega.unit.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.bbva.kyof.vega.util.LLZCopyOnWriteLongMap;
+import junit.framework.Assert;
+import org.junit.Test;
+
+/**
+ * Test the {@link LLZCopyOnWriteLongMap} class
+ */
+public class LLZCopyOnWriteLongMapTest
+{
+    @Test
+    public void testPutGetRemove()
+    {
+        final LLZCopyOnWriteLongMap<String> map = new LLZCopyOnWriteLongMap<>();
+        Assert.assertTrue(map.isEmpty());
+        Assert.assertNull(map.get(0L));
+
+        Assert.assertNull(map.put(0L, "zero"));
+        Assert.assertNull(map.put(-5L, "minusFive"));
+        Assert.assertNull(map.put(Long.MAX_VALUE, "max"));
+        Assert.assertEquals(3, map.size());
+
+        Assert.assertEquals("zero", map.get(0L));
+        Assert.assertEquals("minusFive", map.get(-5L));
+        Assert.assertEquals("max", map.get(Long.MAX_VALUE));
+        Assert.assertNull(map.get(1L));
+
+        // Replace
+        Assert.assertEquals("zero", map.put(0L, "newZero"));
+        Assert.assertEquals("newZero", map.get(0L));
+        Assert.assertEquals(3, map.size());
+
+        // Remove
+        Assert.assertEquals("minusFive", map.remove(-5L));
+        Assert.assertNull(map.remove(-5L));
+        Assert.assertNull(map.get(-5L));
+        Assert.assertEquals(2, map.size());
+
+        map.clear();
+        Assert.assertTrue(map.isEmpty());
+        Assert.assertNull(map.get(0L));
+    }
+
+    @Test
+    public void testManyKeys()
+    {
+        final LLZCopyOnWriteLongMap<Long> map = new LLZCopyOnWriteLongMap<>();
+
+        for (long i = 0; i < 1000; i++)
+        {
+            map.put(i * 31, i);
+        }
+
+        Assert.assertEquals(1000, map.size());
+
+        // Remove the even ones, the collisions chains should still be found
+        for (long i = 0; i < 1000; i += 2)
+        {
+            Assert.assertEquals(Long.valueOf(i), map.remove(i * 31));
+        }
+
+        for (long i = 0; i < 1000; i++)
+        {
+            if (i % 2 == 0)
+            {
+                Assert.assertNull(map.get(i * 31));
+            }
+            else
+            {
+                Assert.assertEquals(Long.valueOf(i), map.get(i * 31));
+            }
+        }
+    }
+
+    @Test
+    public void testPutAll()
+    {
+        final LLZCopyOnWriteLongMap<Long> map = new LLZCopyOnWriteLongMap<>();
+        map.put(0L, -1L);
+        map.put(1L, -1L);
+
+        // Replaces the existing keys and adds the new ones
+        final Map<Long, Long> entries = new HashMap<>();
+        for (long i = 1; i < 1000; i++)
+        {
+            entries.put(i * 31, i);
+        }
+        entries.put(1L, 1L);
+
+        map.putAll(entries);
+        Assert.assertEquals(1001, map.size());
+        Assert.assertEquals(Long.valueOf(-1L), map.get(0L));
+        Assert.assertEquals(Long.valueOf(1L), map.get(1L));
+
+        for (long i = 1; i < 1000; i++)
+        {
+            Assert.assertEquals(Long.valueOf(i), map.get(i * 31));
+        }
+
+        // Nothing is added if a value is null
+        entries.put(5000L, null);
+        try
+        {
+            map.putAll(entries);
+            Assert.fail();
+        }
+        catch (final IllegalArgumentException e)
+        {
+            Assert.assertEquals(1001, map.size());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullValue()
+    {
+        new LLZCopyOnWriteLongMap<String>().put(1L, null);
+    }
+}
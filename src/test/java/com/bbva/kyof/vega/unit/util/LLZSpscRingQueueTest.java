@@ -0,0 +1,101 @@
+package com.bbva.kyof.vega.unit.util;
+
+import com.bbva.kyof.vega.util.LLZSpscRingQueue;
+import junit.framework.Assert;
+import org.junit.Test;
+
+/**
+ * Test the {@link LLZSpscRingQueue} class
+ */
+public class LLZSpscRingQueueTest
+{
+    @Test
+    public void testCapacity()
+    {
+        Assert.assertEquals(1, new LLZSpscRingQueue<Integer>(1).getCapacity());
+        Assert.assertEquals(8, new LLZSpscRingQueue<Integer>(5).getCapacity());
+        Assert.assertEquals(16, new LLZSpscRingQueue<Integer>(16).getCapacity());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidCapacity()
+    {
+        new LLZSpscRingQueue<Integer>(0);
+    }
+
+    @Test
+    public void testOfferPoll()
+    {
+        final LLZSpscRingQueue<Integer> queue = new LLZSpscRingQueue<>(4);
+        Assert.assertTrue(queue.isEmpty());
+        Assert.assertNull(queue.poll());
+
+        for (int i = 0; i < 4; i++)
+        {
+            Assert.assertTrue(queue.offer(i));
+        }
+
+        // Full
+        Assert.assertFalse(queue.offer(4));
+        Assert.assertEquals(4, queue.size());
+
+        for (int i = 0; i < 4; i++)
+        {
+            Assert.assertEquals(i, queue.poll().intValue());
+        }
+
+        Assert.assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void testOfferDroppingOldest()
+    {
+        final LLZSpscRingQueue<Integer> queue = new LLZSpscRingQueue<>(2);
+        Assert.assertNull(queue.offerDroppingOldest(1));
+        Assert.assertNull(queue.offerDroppingOldest(2));
+        Assert.assertEquals(1, queue.offerDroppingOldest(3).intValue());
+        Assert.assertEquals(2, queue.offerDroppingOldest(4).intValue());
+
+        Assert.assertEquals(3, queue.poll().intValue());
+        Assert.assertEquals(4, queue.poll().intValue());
+        Assert.assertNull(queue.poll());
+    }
+
+    @Test
+    public void testConcurrentProducerConsumer() throws Exception
+    {
+        final int numElements = 1000000;
+        final LLZSpscRingQueue<Integer> queue = new LLZSpscRingQueue<>(64);
+
+        final Thread producer = new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                for (int i = 0; i < numElements; i++)
+                {
+                    while (!queue.offer(i))
+                    {
+                        Thread.yield();
+                    }
+                }
+            }
+        });
+        producer.start();
+
+        // Elements should be received in order and without losses
+        int expected = 0;
+        while (expected < numElements)
+        {
+            final Integer element = queue.poll();
+            if (element != null)
+            {
+                Assert.assertEquals(expected, element.intValue());
+                expected++;
+            }
+        }
+
+        producer.join();
+        Assert.assertTrue(queue.isEmpty());
+    }
+}
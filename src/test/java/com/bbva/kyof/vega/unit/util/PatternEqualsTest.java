@@ -0,0 +1,44 @@
+package com.bbva.kyof.vega.unit.util;
+
+import java.util.regex.Pattern;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import com.bbva.kyof.vega.util.PatternEquals;
+
+/**
+ * Test the {@link PatternEquals} class
+ */
+public class PatternEqualsTest
+{
+    @Test
+    public void testLiteralPrefix()
+    {
+        Assert.assertEquals("TOPIC", literalPrefix("TOPIC"));
+        Assert.assertEquals("MD.EUR", literalPrefix("MD\\.EUR.*"));
+        Assert.assertEquals("MD_", literalPrefix("MD_[A-Z]+"));
+        Assert.assertEquals("MD", literalPrefix("MD_?EUR"));
+        Assert.assertEquals("MD_", literalPrefix("MD_+EUR"));
+        Assert.assertEquals("", literalPrefix(".*"));
+        Assert.assertEquals("", literalPrefix("\\d+"));
+        Assert.assertEquals("", literalPrefix("(?i)topic"));
+        Assert.assertEquals("", literalPrefix("MD_EUR|MD_USD"));
+    }
+
+    @Test
+    public void testMayMatch()
+    {
+        final PatternEquals pattern = new PatternEquals(Pattern.compile("MD\\.EUR.*"));
+
+        Assert.assertTrue(pattern.mayMatch("MD.EUR.USD"));
+        Assert.assertTrue(pattern.matches("MD.EUR.USD"));
+        Assert.assertFalse(pattern.mayMatch("FX.EUR.USD"));
+    }
+
+    private static String literalPrefix(final String regex)
+    {
+        return new PatternEquals(Pattern.compile(regex)).getLiteralPrefix();
+    }
+}
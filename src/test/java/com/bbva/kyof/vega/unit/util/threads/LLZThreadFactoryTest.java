@@ -0,0 +1,90 @@
+package com.bbva.kyof.vega.unit.util.threads;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import com.bbva.kyof.vega.util.threads.ILLZThreadAffinity;
+import com.bbva.kyof.vega.util.threads.LLZThreadConfig;
+import com.bbva.kyof.vega.util.threads.LLZThreadFactory;
+import com.bbva.kyof.vega.util.threads.LLZThreadRole;
+
+/**
+ * Test the {@link LLZThreadFactory} class with an affinity that records the pinned cores
+ */
+public class LLZThreadFactoryTest
+{
+    private static final Runnable EMPTY_TASK = new Runnable()
+    {
+        @Override
+        public void run()
+        {
+            // Nothing to do
+        }
+    };
+
+    @Test
+    public void testRoleWithoutConfig() throws Exception
+    {
+        final LLZThreadFactory threadFactory = new LLZThreadFactory.Builder().build();
+
+        final Thread thread = threadFactory.newThread(LLZThreadRole.SUB_SOCKET, "LLZ SUB SOCKET", EMPTY_TASK);
+        Assert.assertEquals("LLZ SUB SOCKET", thread.getName());
+        Assert.assertEquals(Thread.currentThread().isDaemon(), thread.isDaemon());
+        Assert.assertFalse(thread.isAlive());
+    }
+
+    @Test
+    public void testRoleWithConfig() throws Exception
+    {
+        final RecordingAffinity affinity = new RecordingAffinity();
+        final LLZThreadFactory threadFactory = new LLZThreadFactory.Builder()
+                .affinity(affinity)
+                .role(LLZThreadRole.SUB_SOCKET, new LLZThreadConfig.Builder().cores(2, 3).daemon(true).priority(Thread.MAX_PRIORITY).namePrefix("HOT ").build())
+                .role(LLZThreadRole.ASYNC_SENT_REQ, new LLZThreadConfig.Builder().priority(Thread.MIN_PRIORITY).build())
+                .build();
+
+        // Pinned when the thread starts
+        final Thread subThread = threadFactory.newThread(LLZThreadRole.SUB_SOCKET, "LLZ SUB SOCKET", EMPTY_TASK);
+        Assert.assertEquals("HOT LLZ SUB SOCKET", subThread.getName());
+        Assert.assertTrue(subThread.isDaemon());
+        Assert.assertEquals(Thread.MAX_PRIORITY, subThread.getPriority());
+        Assert.assertNull(affinity.pinnedThread.get());
+
+        subThread.start();
+        subThread.join();
+        Assert.assertEquals("HOT LLZ SUB SOCKET", affinity.pinnedThread.get());
+        Assert.assertEquals(2, affinity.pinnedCores.get()[0]);
+        Assert.assertEquals(3, affinity.pinnedCores.get()[1]);
+
+        // Not pinned without cores
+        affinity.pinnedThread.set(null);
+        final Thread timeoutThread = threadFactory.newThread(LLZThreadRole.ASYNC_SENT_REQ, "LLZ ASYNC SENT REQ", EMPTY_TASK);
+        Assert.assertEquals("LLZ ASYNC SENT REQ", timeoutThread.getName());
+        Assert.assertFalse(timeoutThread.isDaemon());
+        Assert.assertEquals(Thread.MIN_PRIORITY, timeoutThread.getPriority());
+
+        timeoutThread.start();
+        timeoutThread.join();
+        Assert.assertNull(affinity.pinnedThread.get());
+    }
+
+    /**
+     * Affinity that records the last pinned thread and cores
+     */
+    private static class RecordingAffinity implements ILLZThreadAffinity
+    {
+        private final AtomicReference<String> pinnedThread = new AtomicReference<>();
+        private final AtomicReference<int[]> pinnedCores = new AtomicReference<>();
+
+        @Override
+        public boolean pinCurrentThread(final int[] cores)
+        {
+            this.pinnedCores.set(cores);
+            this.pinnedThread.set(Thread.currentThread().getName());
+            return true;
+        }
+    }
+}